@@ -37,6 +37,7 @@ import org.apache.solr.client.solrj.request.CoreAdminRequest.WaitForState;
 import org.apache.solr.client.solrj.request.UpdateRequest;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrException.ErrorCode;
+import org.apache.solr.common.cloud.ClusterState;
 import org.apache.solr.common.cloud.DocCollection;
 import org.apache.solr.common.cloud.Replica;
 import org.apache.solr.common.cloud.Slice;
@@ -104,6 +105,7 @@ public class RecoveryStrategy implements Runnable, Closeable {
       Integer.getInteger("solr.cloud.wait-for-updates-with-stale-state-pause", 2500);
   private int maxRetries = 500;
   private int startingRecoveryDelayMilliSeconds = 2000;
+  private boolean replicateFromPeers = false;
 
   public static interface RecoveryListener {
     public void recovered();
@@ -165,6 +167,18 @@ public class RecoveryStrategy implements Runnable, Closeable {
     this.startingRecoveryDelayMilliSeconds = startingRecoveryDelayMilliSeconds;
   }
 
+  public final boolean getReplicateFromPeers() {
+    return replicateFromPeers;
+  }
+
+  /**
+   * If true, index files that other active replicas of the shard have identical copies of are
+   * downloaded from them as well as from the leader, instead of only from the leader.
+   */
+  public final void setReplicateFromPeers(boolean replicateFromPeers) {
+    this.replicateFromPeers = replicateFromPeers;
+  }
+
   public final boolean getRecoveringAfterStartup() {
     return recoveringAfterStartup;
   }
@@ -215,6 +229,29 @@ public class RecoveryStrategy implements Runnable, Closeable {
     return new ZkCoreNodeProps(leaderprops).getCoreUrl();
   }
 
+  /** Returns the core urls of the other active replicas of this shard, except the leader's. */
+  private List<String> getReplicatePeerUrls(String leaderUrl) {
+    CloudDescriptor cloudDesc = coreDescriptor.getCloudDescriptor();
+    ClusterState clusterState = zkStateReader.getClusterState();
+    DocCollection collection = clusterState.getCollectionOrNull(cloudDesc.getCollectionName());
+    Slice slice = collection == null ? null : collection.getSlice(cloudDesc.getShardId());
+    List<String> peerUrls = new ArrayList<>();
+    if (slice != null) {
+      for (Replica replica : slice.getReplicas()) {
+        if (replica.getName().equals(coreZkNodeName)
+            || replica.getState() != Replica.State.ACTIVE
+            || !clusterState.liveNodesContain(replica.getNodeName())) {
+          continue;
+        }
+        String coreUrl = replica.getCoreUrl();
+        if (!coreUrl.equals(leaderUrl)) {
+          peerUrls.add(coreUrl);
+        }
+      }
+    }
+    return peerUrls;
+  }
+
   private final void replicate(String nodeName, SolrCore core, ZkNodeProps leaderprops)
       throws SolrServerException, IOException {
 
@@ -239,6 +276,12 @@ public class RecoveryStrategy implements Runnable, Closeable {
     solrParams.set(ReplicationHandler.LEADER_URL, leaderUrl);
     solrParams.set(
         ReplicationHandler.SKIP_COMMIT_ON_LEADER_VERSION_ZERO, replicaType == Replica.Type.TLOG);
+    if (replicateFromPeers) {
+      List<String> peerUrls = getReplicatePeerUrls(leaderUrl);
+      if (!peerUrls.isEmpty()) {
+        solrParams.set(ReplicationHandler.PEER_URLS, String.join(",", peerUrls));
+      }
+    }
 
     if (isClosed()) return; // we check closed on return
     boolean success = replicationHandler.doFetch(solrParams, false).getSuccessful();
@@ -26,7 +26,9 @@ import java.nio.file.Path;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
+import org.apache.lucene.util.Version;
 import org.apache.solr.cloud.ZkConfigSetService;
 import org.apache.solr.cloud.ZkController;
 import org.apache.solr.cloud.ZkSolrResourceLoader;
@@ -318,18 +320,12 @@ public abstract class ConfigSetService {
       String guessSchemaName = indexSchemaFactory.getSchemaResourceName(cdSchemaName);
       Long modVersion = getCurrentSchemaModificationVersion(configSet, solrConfig, guessSchemaName);
       if (modVersion != null) {
-        // note: luceneMatchVersion influences the schema
-        String cacheKey =
-            configSet
-                + "/"
-                + guessSchemaName
-                + "/"
-                + modVersion
-                + "/"
-                + solrConfig.luceneMatchVersion;
-        return schemaCache.get(
-            cacheKey,
-            (key) -> indexSchemaFactory.create(cdSchemaName, solrConfig, ConfigSetService.this));
+        return getSharedIndexSchema(
+            configSet,
+            guessSchemaName,
+            modVersion,
+            solrConfig.luceneMatchVersion,
+            () -> indexSchemaFactory.create(cdSchemaName, solrConfig, ConfigSetService.this));
       } else {
         log.warn(
             "Unable to get schema modification version, configSet={} schema={}",
@@ -342,6 +338,32 @@ public abstract class ConfigSetService {
     return indexSchemaFactory.create(cdSchemaName, solrConfig, this);
   }
 
+  /**
+   * Looks up the shared schema for a given configSet schema version, creating it with the supplied
+   * function if it isn't cached. When schema sharing is disabled, the schema is always created.
+   *
+   * @param configSet the configSet name
+   * @param schemaResourceName the name of the schema resource within the configSet
+   * @param modVersion the modification version of the schema resource
+   * @param luceneMatchVersion the luceneMatchVersion of the core, since it influences the schema
+   * @param creator creates the schema on a cache miss
+   * @return an IndexSchema, possibly shared with other cores
+   */
+  public IndexSchema getSharedIndexSchema(
+      String configSet,
+      String schemaResourceName,
+      long modVersion,
+      Version luceneMatchVersion,
+      Supplier<? extends IndexSchema> creator) {
+    if (schemaCache == null || configSet == null) {
+      return creator.get();
+    }
+    // note: luceneMatchVersion influences the schema
+    String cacheKey =
+        configSet + "/" + schemaResourceName + "/" + modVersion + "/" + luceneMatchVersion;
+    return schemaCache.get(cacheKey, (key) -> creator.get());
+  }
+
   /**
    * Returns a modification version for the schema file. Null may be returned if not known, and if
    * so it defeats schema caching.
@@ -47,6 +47,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Supplier;
 import org.apache.commons.lang3.StringUtils;
@@ -204,6 +206,8 @@ public class CoreContainer {
 
   private final OrderedExecutor replayUpdatesExecutor;
 
+  private final ExecutorService searchExecutor;
+
   protected volatile LogWatcher<?> logging = null;
 
   private volatile CloserThread backgroundCloser = null;
@@ -382,6 +386,15 @@ public class CoreContainer {
             ExecutorUtil.newMDCAwareCachedThreadPool(
                 cfg.getReplayUpdatesThreads(),
                 new SolrNamedThreadFactory("replayUpdatesExecutor")));
+    // the queue is bounded: the requests run the tasks that don't fit on their own threads
+    this.searchExecutor =
+        new ExecutorUtil.MDCAwareThreadPoolExecutor(
+            cfg.getIndexSearcherExecutorThreads(),
+            cfg.getIndexSearcherExecutorThreads(),
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(cfg.getIndexSearcherExecutorThreads()),
+            new SolrNamedThreadFactory("searchExecutor"));
 
     SolrPaths.AllowPathBuilder allowPathBuilder = new SolrPaths.AllowPathBuilder();
     allowPathBuilder.addPath(cfg.getSolrHome());
@@ -618,6 +631,7 @@ public class CoreContainer {
     cfg = null;
     containerProperties = null;
     replayUpdatesExecutor = null;
+    searchExecutor = null;
     distributedCollectionCommandRunner = Optional.empty();
     allowPaths = null;
     allowListUrlChecker = null;
@@ -671,6 +685,17 @@ public class CoreContainer {
     return replayUpdatesExecutor;
   }
 
+  /**
+   * A pool shared by all cores of the node, on which a request runs parts of its own work
+   * concurrently: the segments of a collapse or graph query, the segments of a knn search, or
+   * batches of highlighting or tagging. Its queue is bounded, so tasks should be run with {@link
+   * org.apache.solr.util.ConcurrentTasks}, which runs the rejected ones on the requesting thread.
+   * May be null for containers created with the test constructor.
+   */
+  public ExecutorService getSearchExecutor() {
+    return searchExecutor;
+  }
+
   public PackageLoader getPackageLoader() {
     return packageLoader;
   }
@@ -1173,6 +1198,10 @@ public class CoreContainer {
           () -> {
             replayUpdatesExecutor.shutdownAndAwaitTermination();
           });
+      customThreadPool.submit(
+          () -> {
+            ExecutorUtil.shutdownAndAwaitTermination(searchExecutor);
+          });
 
       if (metricManager != null) {
         metricManager.closeReporters(SolrMetricManager.getRegistryName(SolrInfoBean.Group.node));
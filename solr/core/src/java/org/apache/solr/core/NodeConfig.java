@@ -89,6 +89,8 @@ public class NodeConfig {
 
   private final int replayUpdatesThreads;
 
+  private final int indexSearcherExecutorThreads;
+
   @Deprecated
   // This should be part of the transientCacheConfig, remove in 7.0
   private final int transientCacheSize;
@@ -129,6 +131,7 @@ public class NodeConfig {
       CloudConfig cloudConfig,
       Integer coreLoadThreads,
       int replayUpdatesThreads,
+      int indexSearcherExecutorThreads,
       int transientCacheSize,
       boolean useSchemaCache,
       String managementPath,
@@ -163,6 +166,7 @@ public class NodeConfig {
     this.cloudConfig = cloudConfig;
     this.coreLoadThreads = coreLoadThreads;
     this.replayUpdatesThreads = replayUpdatesThreads;
+    this.indexSearcherExecutorThreads = indexSearcherExecutorThreads;
     this.transientCacheSize = transientCacheSize;
     this.useSchemaCache = useSchemaCache;
     this.managementPath = managementPath;
@@ -288,6 +292,14 @@ public class NodeConfig {
     return replayUpdatesThreads;
   }
 
+  /**
+   * The number of threads of the pool on which the requests of all cores run parts of their work
+   * concurrently, see {@link CoreContainer#getSearchExecutor()}.
+   */
+  public int getIndexSearcherExecutorThreads() {
+    return indexSearcherExecutorThreads;
+  }
+
   /**
    * Returns a directory, optionally a comma separated list of directories that will be added to
    * Solr's class path for searching for classes and plugins. The path is either absolute or
@@ -525,6 +537,7 @@ public class NodeConfig {
     private CloudConfig cloudConfig;
     private int coreLoadThreads = DEFAULT_CORE_LOAD_THREADS;
     private int replayUpdatesThreads = Runtime.getRuntime().availableProcessors();
+    private int indexSearcherExecutorThreads = Runtime.getRuntime().availableProcessors();
 
     @Deprecated
     // Remove in 7.0 and put it all in the transientCache element in solrconfig.xml
@@ -668,6 +681,11 @@ public class NodeConfig {
       return this;
     }
 
+    public NodeConfigBuilder setIndexSearcherExecutorThreads(int indexSearcherExecutorThreads) {
+      this.indexSearcherExecutorThreads = indexSearcherExecutorThreads;
+      return this;
+    }
+
     // Remove in Solr 7.0
     @Deprecated
     public NodeConfigBuilder setTransientCacheSize(int transientCacheSize) {
@@ -770,6 +788,7 @@ public class NodeConfig {
           cloudConfig,
           coreLoadThreads,
           replayUpdatesThreads,
+          indexSearcherExecutorThreads,
           transientCacheSize,
           useSchemaCache,
           managementPath,
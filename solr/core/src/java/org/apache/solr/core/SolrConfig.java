@@ -83,6 +83,7 @@ import org.apache.solr.search.CaffeineCache;
 import org.apache.solr.search.QParserPlugin;
 import org.apache.solr.search.SolrCache;
 import org.apache.solr.search.ValueSourceParser;
+import org.apache.solr.search.facet.UnInvertedField;
 import org.apache.solr.search.stats.StatsCache;
 import org.apache.solr.servlet.SolrRequestParsers;
 import org.apache.solr.spelling.QueryConverter;
@@ -339,6 +340,9 @@ public class SolrConfig implements MapSerializable {
         conf = new CacheConfig(CaffeineCache.class, args, null);
       }
       fieldValueCacheConfig = conf;
+      fieldValueCachePerSegment =
+          Boolean.parseBoolean(
+              String.valueOf(conf.toMap(new HashMap<>()).get(UnInvertedField.PER_SEGMENT)));
       useColdSearcher = get("query").get("useColdSearcher").boolVal(false);
       dataDir = get("dataDir").txt();
       if (dataDir != null && dataDir.length() == 0) dataDir = null;
@@ -712,6 +716,8 @@ public class SolrConfig implements MapSerializable {
   public final CacheConfig queryResultCacheConfig;
   public final CacheConfig documentCacheConfig;
   public final CacheConfig fieldValueCacheConfig;
+  // whether facet.method=uif un-inverts per segment, see UnInvertedField.PER_SEGMENT
+  public final boolean fieldValueCachePerSegment;
   public final Map<String, CacheConfig> userCacheConfigs;
   // SolrIndexSearcher - more...
   public final boolean useFilterForSortedQuery;
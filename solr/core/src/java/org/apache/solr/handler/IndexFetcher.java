@@ -45,6 +45,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -66,6 +67,7 @@ import java.util.zip.Checksum;
 import java.util.zip.InflaterInputStream;
 import org.apache.http.client.HttpClient;
 import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.IndexCommit;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.SegmentInfos;
@@ -75,6 +77,7 @@ import org.apache.lucene.store.FilterDirectory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RateLimiter;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.HttpClientUtil;
 import org.apache.solr.client.solrj.impl.HttpSolrClient;
@@ -93,6 +96,7 @@ import org.apache.solr.common.util.FastInputStream;
 import org.apache.solr.common.util.IOUtils;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.common.util.SolrNamedThreadFactory;
+import org.apache.solr.common.util.StrUtils;
 import org.apache.solr.common.util.SuppressForbidden;
 import org.apache.solr.core.DirectoryFactory;
 import org.apache.solr.core.DirectoryFactory.DirContext;
@@ -169,6 +173,23 @@ public class IndexFetcher {
 
   private boolean clearLocalIndexFirst = false;
 
+  private final int fetchConcurrency;
+
+  /** Other replicas that index files identical to the leader's may be downloaded from */
+  private final List<String> peerUrls;
+
+  /** Node-wide download throttle shared by all fetchers, or null if unthrottled */
+  private final RateLimiter fetchRateLimiter;
+
+  /** Default for {@link ReplicationHandler#FETCH_CONCURRENCY} when not given in the init args */
+  public static final String FETCH_CONCURRENCY_PROP = "solr.indexfetcher.fetchConcurrency";
+
+  /**
+   * Caps the combined download rate of all index fetches on this node, in MB/sec. Unset or
+   * non-positive means no throttling.
+   */
+  public static final String MAX_FETCH_MB_PER_SEC_PROP = "solr.indexfetcher.maxFetchMBPerSec";
+
   private static final String INTERRUPT_RESPONSE_MESSAGE =
       "Interrupted while waiting for modify lock";
 
@@ -288,6 +309,26 @@ public class IndexFetcher {
       soTimeout = getParameter(initArgs, HttpClientUtil.PROP_SO_TIMEOUT, 120000, null);
     }
 
+    Object concurrency = initArgs.get(FETCH_CONCURRENCY);
+    fetchConcurrency =
+        concurrency != null
+            ? Integer.parseInt(concurrency.toString())
+            : Integer.getInteger(FETCH_CONCURRENCY_PROP, 1);
+    if (fetchConcurrency < 1) {
+      throw new SolrException(
+          SolrException.ErrorCode.SERVER_ERROR,
+          "'" + FETCH_CONCURRENCY + "' must be at least 1 but was " + fetchConcurrency);
+    }
+    fetchRateLimiter = getNodeFetchRateLimiter(solrCore);
+    Object peerUrlsArg = initArgs.get(PEER_URLS);
+    peerUrls =
+        peerUrlsArg == null
+            ? Collections.emptyList()
+            : StrUtils.splitSmart(peerUrlsArg.toString(), ",", true);
+    for (String peerUrl : peerUrls) {
+      checkAllowList(PEER_URLS, peerUrl);
+    }
+
     String httpBasicAuthUser = (String) initArgs.get(HttpClientUtil.PROP_BASIC_AUTH_USER);
     String httpBasicAuthPassword = (String) initArgs.get(HttpClientUtil.PROP_BASIC_AUTH_PASS);
     myHttpClient =
@@ -295,36 +336,58 @@ public class IndexFetcher {
             solrCore, httpBasicAuthUser, httpBasicAuthPassword, useExternalCompression);
   }
 
+  /**
+   * Returns the rate limiter shared by every IndexFetcher of the node, so that concurrent
+   * replications (and concurrent file downloads within one) together stay under {@link
+   * #MAX_FETCH_MB_PER_SEC_PROP}.
+   */
+  private static RateLimiter getNodeFetchRateLimiter(SolrCore core) {
+    String maxMBPerSec = System.getProperty(MAX_FETCH_MB_PER_SEC_PROP);
+    if (maxMBPerSec == null || Double.parseDouble(maxMBPerSec) <= 0) {
+      return null;
+    }
+    return core.getCoreContainer()
+        .getObjectCache()
+        .computeIfAbsent(
+            MAX_FETCH_MB_PER_SEC_PROP,
+            RateLimiter.class,
+            k -> new RateLimiter.SimpleRateLimiter(Double.parseDouble(maxMBPerSec)));
+  }
+
   private void setLeaderUrl(String leaderUrl) {
     if (leaderUrl != null) {
-      ClusterState clusterState =
-          solrCore.getCoreContainer().getZkController() == null
-              ? null
-              : solrCore.getCoreContainer().getZkController().getClusterState();
-      try {
-        solrCore
-            .getCoreContainer()
-            .getAllowListUrlChecker()
-            .checkAllowList(Collections.singletonList(leaderUrl), clusterState);
-      } catch (MalformedURLException e) {
-        throw new SolrException(
-            SolrException.ErrorCode.SERVER_ERROR, "Malformed 'leaderUrl' " + leaderUrl, e);
-      } catch (SolrException e) {
-        throw new SolrException(
-            SolrException.ErrorCode.FORBIDDEN,
-            "The '"
-                + LEADER_URL
-                + "' parameter value '"
-                + leaderUrl
-                + "' is not allowed: "
-                + e.getMessage()
-                + ". "
-                + AllowListUrlChecker.SET_SOLR_DISABLE_URL_ALLOW_LIST_CLUE);
-      }
+      checkAllowList(LEADER_URL, leaderUrl);
     }
     this.leaderUrl = leaderUrl;
   }
 
+  private void checkAllowList(String paramName, String url) {
+    ClusterState clusterState =
+        solrCore.getCoreContainer().getZkController() == null
+            ? null
+            : solrCore.getCoreContainer().getZkController().getClusterState();
+    try {
+      solrCore
+          .getCoreContainer()
+          .getAllowListUrlChecker()
+          .checkAllowList(Collections.singletonList(url), clusterState);
+    } catch (MalformedURLException e) {
+      throw new SolrException(
+          SolrException.ErrorCode.SERVER_ERROR, "Malformed '" + paramName + "' " + url, e);
+    } catch (SolrException e) {
+      throw new SolrException(
+          SolrException.ErrorCode.FORBIDDEN,
+          "The '"
+              + paramName
+              + "' parameter value '"
+              + url
+              + "' is not allowed: "
+              + e.getMessage()
+              + ". "
+              + AllowListUrlChecker.SET_SOLR_DISABLE_URL_ALLOW_LIST_CLUE);
+    }
+  }
+
   protected <T> T getParameter(
       NamedList<?> initArgs, String configKey, T defaultValue, StringBuilder sb) {
     T toReturn = defaultValue;
@@ -340,6 +403,10 @@ public class IndexFetcher {
 
   /** Gets the latest commit version and generation from the leader */
   public NamedList<Object> getLatestVersion() throws IOException {
+    return getLatestVersion(leaderUrl);
+  }
+
+  private NamedList<Object> getLatestVersion(String sourceUrl) throws IOException {
     ModifiableSolrParams params = new ModifiableSolrParams();
     params.set(COMMAND, CMD_INDEX_VERSION);
     params.set(CommonParams.WT, JAVABIN);
@@ -348,7 +415,7 @@ public class IndexFetcher {
 
     // TODO modify to use shardhandler
     try (HttpSolrClient client =
-        new Builder(leaderUrl)
+        new Builder(sourceUrl)
             .withHttpClient(myHttpClient)
             .withConnectionTimeout(connTimeout)
             .withSocketTimeout(soTimeout)
@@ -1141,6 +1208,9 @@ public class IndexFetcher {
       deleteFilesInAdvance(indexDir, indexDirPath, totalSpaceRequired, usableSpace);
     }
 
+    Map<String, PeerSource> peerSources =
+        peerUrls.isEmpty() ? Collections.emptyMap() : pickPeerSources();
+    List<Map<String, Object>> filesToFetch = new ArrayList<>();
     for (Map<String, Object> file : filesToDownload) {
       String filename = (String) file.get(NAME);
       long size = (Long) file.get(SIZE);
@@ -1172,13 +1242,12 @@ public class IndexFetcher {
           // efficient as compared to a file copy. TODO: Maybe we could do a move safely here?
           Files.createLink(Path.of(tmpIndexDirPath, filename), localFile.toPath());
           bytesSkippedCopying += localFile.length();
+        } else if (fetchConcurrency > 1) {
+          // downloaded below, together with the other files that need fetching
+          filesToFetch.add(file);
+          continue;
         } else {
-          dirFileFetcher =
-              new DirectoryFileFetcher(
-                  tmpIndexDir, file, (String) file.get(NAME), FILE, latestGeneration);
-          currentFile = file;
-          dirFileFetcher.fetchFile();
-          bytesDownloaded += dirFileFetcher.getBytesDownloaded();
+          bytesDownloaded += fetchIndexFile(tmpIndexDir, file, latestGeneration, peerSources);
         }
         filesDownloaded.add(new HashMap<>(file));
       } else {
@@ -1187,6 +1256,10 @@ public class IndexFetcher {
         }
       }
     }
+    if (!filesToFetch.isEmpty()) {
+      bytesDownloaded +=
+          fetchFilesConcurrently(tmpIndexDir, filesToFetch, latestGeneration, peerSources);
+    }
     log.info(
         "Bytes downloaded: {}, Bytes skipped downloading: {}",
         bytesDownloaded,
@@ -1194,6 +1267,225 @@ public class IndexFetcher {
     return bytesDownloaded;
   }
 
+  /** Where an index file is downloaded from, if not from the leader */
+  private static class PeerSource {
+    final String url;
+    final long generation;
+
+    PeerSource(String url, long generation) {
+      this.url = url;
+      this.generation = generation;
+    }
+  }
+
+  /**
+   * Spreads the download of index files over the leader and the configured {@link #peerUrls}. A
+   * peer is only used for a file that is in its latest commit with the same name, length and
+   * Lucene checksum as the leader's, so every byte still matches the leader's commit point; the
+   * downloaded file is verified against that checksum as well.
+   *
+   * @return the peer to use for each index file name; files not in the map come from the leader
+   */
+  @SuppressWarnings({"unchecked"})
+  private Map<String, PeerSource> pickPeerSources() {
+    Map<String, List<PeerSource>> candidates = new HashMap<>();
+    for (String peerUrl : peerUrls) {
+      try {
+        NamedList<Object> version = getLatestVersion(peerUrl);
+        Long generation = (Long) version.get(GENERATION);
+        if (generation == null || generation == 0) {
+          continue;
+        }
+        ModifiableSolrParams params = new ModifiableSolrParams();
+        params.set(COMMAND, CMD_GET_FILE_LIST);
+        params.set(GENERATION, String.valueOf(generation));
+        params.set(CommonParams.WT, JAVABIN);
+        params.set(CommonParams.QT, ReplicationHandler.PATH);
+        List<Map<String, Object>> peerFiles;
+        try (HttpSolrClient client =
+            new HttpSolrClient.Builder(peerUrl)
+                .withHttpClient(myHttpClient)
+                .withConnectionTimeout(connTimeout)
+                .withSocketTimeout(soTimeout)
+                .build()) {
+          peerFiles =
+              (List<Map<String, Object>>)
+                  client.request(new QueryRequest(params)).get(CMD_GET_FILE_LIST);
+        }
+        if (peerFiles == null) {
+          continue;
+        }
+        Map<String, Map<String, Object>> peerFilesByName = new HashMap<>();
+        for (Map<String, Object> peerFile : peerFiles) {
+          peerFilesByName.put((String) peerFile.get(NAME), peerFile);
+        }
+        PeerSource source = new PeerSource(peerUrl, generation);
+        for (Map<String, Object> file : filesToDownload) {
+          Map<String, Object> peerFile = peerFilesByName.get((String) file.get(NAME));
+          if (peerFile != null
+              && file.get(CHECKSUM) != null
+              && file.get(CHECKSUM).equals(peerFile.get(CHECKSUM))
+              && file.get(SIZE).equals(peerFile.get(SIZE))) {
+            candidates.computeIfAbsent((String) file.get(NAME), k -> new ArrayList<>()).add(source);
+          }
+        }
+      } catch (Exception e) {
+        log.warn("Not fetching any index files from peer {}", peerUrl, e);
+      }
+    }
+
+    // round-robin over the leader and the peers having each file
+    Map<String, PeerSource> sources = new HashMap<>();
+    int i = 0;
+    for (Map<String, Object> file : filesToDownload) {
+      List<PeerSource> peers = candidates.get((String) file.get(NAME));
+      if (peers != null) {
+        int pick = i++ % (peers.size() + 1);
+        if (pick > 0) {
+          sources.put((String) file.get(NAME), peers.get(pick - 1));
+        }
+      }
+    }
+    if (log.isInfoEnabled()) {
+      log.info(
+          "Fetching {} of {} index files from peers {}",
+          sources.size(),
+          filesToDownload.size(),
+          peerUrls);
+    }
+    return sources;
+  }
+
+  /**
+   * Downloads one index file, from its peer if one was picked for it and from the leader
+   * otherwise, or if that peer fails.
+   *
+   * @return number of bytes downloaded
+   */
+  private long fetchIndexFile(
+      Directory tmpIndexDir,
+      Map<String, Object> file,
+      long latestGeneration,
+      Map<String, PeerSource> peerSources)
+      throws Exception {
+    String fileName = (String) file.get(NAME);
+    PeerSource peer = peerSources.get(fileName);
+    if (peer != null) {
+      try {
+        return fetchIndexFileFrom(tmpIndexDir, file, peer.generation, peer.url);
+      } catch (ReplicationHandlerException e) {
+        throw e;
+      } catch (Exception e) {
+        log.warn(
+            "Could not fetch {} from peer {}, fetching it from the leader instead",
+            fileName,
+            peer.url,
+            e);
+      }
+    }
+    return fetchIndexFileFrom(tmpIndexDir, file, latestGeneration, leaderUrl);
+  }
+
+  /**
+   * Downloads one index file from the given source. When the file's Lucene checksum is known, the
+   * packets are first sent without checksums, which lets the source stream the file without
+   * reading it into a buffer, and the whole file is verified afterwards. If it does not match, the
+   * file is downloaded again with per-packet checksums, so that a corrupt packet is retried on its
+   * own instead of failing the fetch.
+   *
+   * @return number of bytes downloaded
+   */
+  private long fetchIndexFileFrom(
+      Directory tmpIndexDir, Map<String, Object> file, long generation, String sourceUrl)
+      throws Exception {
+    String fileName = (String) file.get(NAME);
+    boolean includeChecksum = file.get(CHECKSUM) == null;
+    long bytesDownloaded = 0;
+    while (true) {
+      DirectoryFileFetcher fetcher =
+          new DirectoryFileFetcher(
+              tmpIndexDir, file, fileName, FILE, generation, sourceUrl, includeChecksum);
+      // the details command only reports the most recently started file
+      dirFileFetcher = fetcher;
+      currentFile = file;
+      fetcher.fetchFile();
+      bytesDownloaded += fetcher.getBytesDownloaded();
+      if (!fetcher.isCorrupt()) {
+        return bytesDownloaded;
+      }
+      if (includeChecksum) {
+        throw new SolrException(
+            SolrException.ErrorCode.SERVER_ERROR,
+            "Downloaded file "
+                + fileName
+                + " does not match the checksum "
+                + file.get(CHECKSUM)
+                + " of "
+                + sourceUrl);
+      }
+      log.warn(
+          "Downloaded file {} does not match its checksum, fetching it again from {} with"
+              + " per-packet checksums",
+          fileName,
+          sourceUrl);
+      includeChecksum = true;
+    }
+  }
+
+  /**
+   * Downloads the given index files using up to {@link #fetchConcurrency} threads.
+   *
+   * @return number of bytes downloaded
+   */
+  private long fetchFilesConcurrently(
+      Directory tmpIndexDir,
+      List<Map<String, Object>> files,
+      long latestGeneration,
+      Map<String, PeerSource> peerSources)
+      throws Exception {
+    // biggest files first, so that a large segment file doesn't end up downloading on its own
+    files.sort(
+        Comparator.comparingLong((Map<String, Object> file) -> (Long) file.get(SIZE)).reversed());
+    ExecutorService executor =
+        ExecutorUtil.newMDCAwareFixedThreadPool(
+            Math.min(fetchConcurrency, files.size()), new SolrNamedThreadFactory("indexFetcher"));
+    long bytesDownloaded = 0;
+    Exception failure = null;
+    try {
+      List<Future<Long>> futures = new ArrayList<>(files.size());
+      for (Map<String, Object> file : files) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  long bytes = fetchIndexFile(tmpIndexDir, file, latestGeneration, peerSources);
+                  filesDownloaded.add(new HashMap<>(file));
+                  return bytes;
+                }));
+      }
+      for (Future<Long> future : futures) {
+        try {
+          bytesDownloaded += future.get();
+        } catch (ExecutionException e) {
+          // prefer the root failure over the aborts it causes in the other fetchers
+          if (failure == null || failure instanceof ReplicationHandlerException) {
+            failure =
+                e.getCause() instanceof Exception
+                    ? (Exception) e.getCause()
+                    : new SolrException(ErrorCode.SERVER_ERROR, e.getCause());
+          }
+          // make the remaining fetchers give up after their current packet
+          stop = true;
+        }
+      }
+    } finally {
+      ExecutorUtil.shutdownAndAwaitTermination(executor);
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    return bytesDownloaded;
+  }
+
   // only for testing purposes. do not use this anywhere else
   // -----------START----------------------
   static BooleanSupplier testWait = () -> true;
@@ -1714,11 +2006,12 @@ public class IndexFetcher {
    */
   private class FileFetcher {
     private final FileInterface file;
-    private boolean includeChecksum = true;
+    private final boolean includeChecksum;
     private final String fileName;
     private final String saveAs;
     private final String solrParamOutput;
     private final Long indexGen;
+    private final String sourceUrl;
 
     private final long size;
     private long bytesDownloaded = 0;
@@ -1726,15 +2019,21 @@ public class IndexFetcher {
     private final Checksum checksum;
     private int errorCount = 0;
     private boolean aborted = false;
+    private long bytesSincePause = 0;
+    private boolean corrupt = false;
 
     FileFetcher(
         FileInterface file,
         Map<String, Object> fileDetails,
         String saveAs,
         String solrParamOutput,
-        long latestGen)
+        long latestGen,
+        String sourceUrl,
+        boolean includeChecksum)
         throws IOException {
       this.file = file;
+      this.sourceUrl = sourceUrl;
+      this.includeChecksum = includeChecksum;
       this.fileName = (String) fileDetails.get(NAME);
       this.size = (Long) fileDetails.get(SIZE);
       buf = new byte[(int) Math.min(this.size, ReplicationHandler.PACKET_SZ)];
@@ -1787,25 +2086,43 @@ public class IndexFetcher {
         }
       } finally {
         cleanup();
-        // if cleanup succeeds . The file is downloaded fully. do an fsync
-        fsyncService.submit(
-            () -> {
-              try {
-                file.sync();
-              } catch (IOException e) {
-                fsyncException = e;
-              }
-            });
+        // if cleanup succeeds . The file is downloaded fully. do an fsync, unless it failed the
+        // verification and was deleted: the sync would race with fetching the file again
+        corrupt = bytesDownloaded == size && !verify();
+        if (!corrupt) {
+          fsyncService.submit(
+              () -> {
+                try {
+                  file.sync();
+                } catch (IOException e) {
+                  fsyncException = e;
+                }
+              });
+        }
       }
     }
 
+    /**
+     * Checks a completely downloaded file before it is synced.
+     *
+     * @return false if the file is corrupt, in which case it was deleted
+     */
+    protected boolean verify() throws IOException {
+      return true;
+    }
+
+    /** Whether the downloaded file failed the verification and was deleted. */
+    boolean isCorrupt() {
+      return corrupt;
+    }
+
     private int fetchPackets(FastInputStream fis) throws Exception {
       byte[] intbytes = new byte[4];
       byte[] longbytes = new byte[8];
       try {
         while (true) {
           if (stop) {
-            stop = false;
+            // stop is reset once the whole fetch is cleaned up, so that concurrent fetchers see it
             aborted = true;
             throw new ReplicationHandlerException("User aborted replication");
           }
@@ -1831,21 +2148,32 @@ public class IndexFetcher {
           }
           // then read the packet of bytes
           fis.readFully(buf, 0, packetSize);
+          assert TestInjection.injectCorruptFetchedPacket(buf, packetSize);
           // compare the checksum as sent from the leader
           if (includeChecksum) {
             checksum.reset();
             checksum.update(buf, 0, packetSize);
             long checkSumClient = checksum.getValue();
             if (checkSumClient != checkSumServer) {
-              log.error("Checksum not matched between client and server for file: {}", fileName);
-              // if checksum is wrong it is a problem return (there doesn't seem to be a retry in
-              // this case.)
-              return 1;
+              // nothing of this packet was written, so the retry resumes the download from the
+              // end of the last verified packet rather than failing the whole file
+              throw new IOException(
+                  "Checksum not matched between client and server for file: "
+                      + fileName
+                      + " at offset "
+                      + bytesDownloaded);
             }
           }
           // if everything is fine, write down the packet to the file
           file.write(buf, packetSize);
           bytesDownloaded += packetSize;
+          if (fetchRateLimiter != null) {
+            bytesSincePause += packetSize;
+            if (bytesSincePause >= fetchRateLimiter.getMinPauseCheckBytes()) {
+              fetchRateLimiter.pause(bytesSincePause);
+              bytesSincePause = 0;
+            }
+          }
           log.debug("Fetched and wrote {} bytes of file: {}", bytesDownloaded, fileName);
           // errorCount is always set to zero after a successful packet
           errorCount = 0;
@@ -1965,7 +2293,7 @@ public class IndexFetcher {
 
       // TODO use shardhandler
       try (HttpSolrClient client =
-          new Builder(leaderUrl)
+          new Builder(sourceUrl)
               .withHttpClient(myHttpClient)
               .withResponseParser(null)
               .withConnectionTimeout(connTimeout)
@@ -2014,16 +2342,55 @@ public class IndexFetcher {
     }
   }
 
+  /**
+   * Fetches an index file. When the leader reported the file's Lucene checksum, the whole
+   * downloaded file is verified against it.
+   */
   private class DirectoryFileFetcher extends FileFetcher {
+    private final Directory tmpIndexDir;
+    private final String saveAs;
+    private final Long expectedChecksum;
+
     DirectoryFileFetcher(
         Directory tmpIndexDir,
         Map<String, Object> fileDetails,
         String saveAs,
         String solrParamOutput,
-        long latestGen)
+        long latestGen,
+        String sourceUrl,
+        boolean includeChecksum)
         throws IOException {
       super(
-          new DirectoryFile(tmpIndexDir, saveAs), fileDetails, saveAs, solrParamOutput, latestGen);
+          new DirectoryFile(tmpIndexDir, saveAs),
+          fileDetails,
+          saveAs,
+          solrParamOutput,
+          latestGen,
+          sourceUrl,
+          includeChecksum);
+      this.tmpIndexDir = tmpIndexDir;
+      this.saveAs = saveAs;
+      this.expectedChecksum = (Long) fileDetails.get(CHECKSUM);
+    }
+
+    /**
+     * Checks the downloaded file against the checksum the leader reported, if any, and deletes it
+     * if it does not match.
+     */
+    @Override
+    protected boolean verify() throws IOException {
+      if (expectedChecksum == null) {
+        return true;
+      }
+      try (IndexInput in = tmpIndexDir.openInput(saveAs, IOContext.READONCE)) {
+        if (CodecUtil.checksumEntireFile(in) == expectedChecksum) {
+          return true;
+        }
+      } catch (CorruptIndexException e) {
+        log.warn("Downloaded file {} is corrupt", saveAs, e);
+      }
+      tmpIndexDir.deleteFile(saveAs);
+      return false;
     }
   }
 
@@ -2078,7 +2445,14 @@ public class IndexFetcher {
         String solrParamOutput,
         long latestGen)
         throws IOException {
-      super(new LocalFsFile(dir, saveAs), fileDetails, saveAs, solrParamOutput, latestGen);
+      super(
+          new LocalFsFile(dir, saveAs),
+          fileDetails,
+          saveAs,
+          solrParamOutput,
+          latestGen,
+          leaderUrl,
+          true);
     }
   }
 
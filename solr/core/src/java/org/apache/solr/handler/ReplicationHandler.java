@@ -18,6 +18,7 @@ package org.apache.solr.handler;
 
 import static org.apache.solr.common.params.CommonParams.NAME;
 
+import java.io.EOFException;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -27,12 +28,16 @@ import java.io.OutputStream;
 import java.lang.invoke.MethodHandles;
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -67,6 +72,8 @@ import org.apache.lucene.index.SegmentCommitInfo;
 import org.apache.lucene.index.SegmentInfos;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.FilterDirectory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.RateLimiter;
@@ -1689,6 +1696,11 @@ public class ReplicationHandler extends RequestHandlerBase implements SolrCoreAw
         initWrite();
 
         Directory dir = core.withSearcher(searcher -> searcher.getIndexReader().directory());
+        Path localFile = compress || fileName == null ? null : getLocalFile(dir, fileName);
+        if (localFile != null) {
+          writeFromFileChannel(localFile, out);
+          return;
+        }
         in = dir.openInput(fileName, IOContext.READONCE);
         // if offset is mentioned move the pointer to that point
         if (offset != -1) in.seek(offset);
@@ -1737,6 +1749,80 @@ public class ReplicationHandler extends RequestHandlerBase implements SolrCoreAw
       }
     }
 
+    /**
+     * Returns the path of an index file that lives on the local file system, or null if it is not
+     * (e.g. HDFS, or a file only held in memory by an NRTCachingDirectory) and must be read through
+     * the {@link Directory}.
+     */
+    private Path getLocalFile(Directory dir, String fileName) throws IOException {
+      Directory unwrapped = FilterDirectory.unwrap(dir);
+      if (!(unwrapped instanceof FSDirectory)) {
+        return null;
+      }
+      Path path = ((FSDirectory) unwrapped).getDirectory().resolve(fileName);
+      if (!Files.exists(path) || Files.size(path) != dir.fileLength(fileName)) {
+        return null;
+      }
+      return path;
+    }
+
+    /**
+     * Same packet protocol as {@link #write(OutputStream)}, but reads the file through a {@link
+     * FileChannel}. Without checksums, the packet payload is handed to {@link
+     * FileChannel#transferTo} so the bytes are not copied through our buffer; with checksums they
+     * are read with positional reads, bypassing the IndexInput.
+     */
+    private void writeFromFileChannel(Path path, OutputStream out) throws IOException {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+          WritableByteChannel target = Channels.newChannel(new CloseShieldOutputStream(out))) {
+        long filelen = channel.size();
+        long maxBytesBeforePause = 0;
+        offset = offset == -1 ? 0 : offset;
+        while (true) {
+          int read = (int) Math.min(buf.length, filelen - offset);
+          fos.writeInt(read);
+          if (useChecksum) {
+            ByteBuffer bb = ByteBuffer.wrap(buf, 0, read);
+            while (bb.hasRemaining()) {
+              if (channel.read(bb, offset + bb.position()) < 0) {
+                throw new EOFException("Unexpected end of file " + path);
+              }
+            }
+            checksum.reset();
+            checksum.update(buf, 0, read);
+            fos.writeLong(checksum.getValue());
+            fos.write(buf, 0, read);
+            fos.flush();
+          } else {
+            // everything buffered in fos must go out before the payload
+            fos.flush();
+            long transferred = 0;
+            while (transferred < read) {
+              long n = channel.transferTo(offset + transferred, read - transferred, target);
+              if (n <= 0) {
+                throw new EOFException("Unexpected end of file " + path);
+              }
+              transferred += n;
+            }
+          }
+          log.debug("Wrote {} bytes for file {}", offset + read, fileName); // nowarn
+
+          // Pause if necessary
+          maxBytesBeforePause += read;
+          if (maxBytesBeforePause >= rateLimiter.getMinPauseCheckBytes()) {
+            rateLimiter.pause(maxBytesBeforePause);
+            maxBytesBeforePause = 0;
+          }
+          if (read != buf.length) {
+            writeNothingAndFlush();
+            fos.close();
+            break;
+          }
+          offset += read;
+        }
+      }
+    }
+
     /** Used to write a marker for EOF */
     protected void writeNothingAndFlush() throws IOException {
       fos.writeInt(0);
@@ -1928,6 +2014,15 @@ public class ReplicationHandler extends RequestHandlerBase implements SolrCoreAw
 
   public static final String MAX_WRITE_PER_SECOND = "maxWriteMBPerSec";
 
+  /** Follower option: the number of index files an {@link IndexFetcher} downloads concurrently */
+  public static final String FETCH_CONCURRENCY = "fetchConcurrency";
+
+  /**
+   * Follower option: comma separated core urls of other replicas that index files identical to the
+   * leader's may be downloaded from, to spread the load of a full copy
+   */
+  public static final String PEER_URLS = "peerUrls";
+
   public static final String CONF_FILE_SHORT = "cf";
 
   public static final String TLOG_FILE = "tlogFile";
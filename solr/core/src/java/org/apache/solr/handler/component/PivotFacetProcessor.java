@@ -72,7 +72,8 @@ public class PivotFacetProcessor extends SimpleFacets {
     // own instance of StatsInfo
     StatsInfo statsInfo = rb._statsInfo;
 
-    SimpleOrderedMap<List<NamedList<Object>>> pivotResponse = new SimpleOrderedMap<>();
+    final List<ParsedParams> parsedPivots = new ArrayList<>(pivots.length);
+    final List<String> topFields = new ArrayList<>(pivots.length);
     for (String pivotList : pivots) {
       final ParsedParams parsed;
 
@@ -96,6 +97,39 @@ public class PivotFacetProcessor extends SimpleFacets {
           }
         }
       }
+      parsedPivots.add(parsed);
+      topFields.add(pivotFields.get(0));
+    }
+
+    // The top level fields of the pivots sharing their docs are counted in a single pass. The
+    // nested levels are not: each of them is counted over the subset of its parent value, and
+    // these subsets partition the parent docs, so counting them already visits each parent doc
+    // once in total. Counting them together with nested ordinals would need a (parent values x
+    // child ordinals) matrix without saving any doc visits, and the subsets are still needed for
+    // the stats, queries, ranges and deeper levels of each pivot value.
+    final List<ParsedParams> unrefinedPivots = new ArrayList<>(parsedPivots.size());
+    final List<String> unrefinedFields = new ArrayList<>(parsedPivots.size());
+    for (int i = 0; i < parsedPivots.size(); i++) {
+      final ParsedParams parsed = parsedPivots.get(i);
+      if (null == parsed.localParams || null == parsed.localParams.get(PivotFacet.REFINE_PARAM)) {
+        unrefinedPivots.add(parsed);
+        unrefinedFields.add(topFields.get(i));
+      }
+    }
+
+    try {
+      countFieldsInSinglePass(unrefinedPivots, unrefinedFields, true);
+      return process(parsedPivots, statsInfo);
+    } finally {
+      singlePassCounts.clear();
+    }
+  }
+
+  private SimpleOrderedMap<List<NamedList<Object>>> process(
+      List<ParsedParams> parsedPivots, StatsInfo statsInfo) throws IOException {
+    SimpleOrderedMap<List<NamedList<Object>>> pivotResponse = new SimpleOrderedMap<>();
+    for (ParsedParams parsed : parsedPivots) {
+      List<String> pivotFields = StrUtils.splitSmart(parsed.facetValue, ",", true);
 
       // start by assuming no local params...
 
@@ -16,7 +16,9 @@
  */
 package org.apache.solr.handler.component;
 
+import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.hppc.IntIntHashMap;
+import com.carrotsearch.hppc.LongArrayList;
 import com.carrotsearch.hppc.cursors.IntIntCursor;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Collections2;
@@ -24,6 +26,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Maps;
 import com.google.common.collect.ObjectArrays;
 import com.google.common.collect.Sets;
 import java.io.IOException;
@@ -47,6 +50,8 @@ import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
@@ -57,17 +62,23 @@ import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexReaderContext;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.FieldComparator;
 import org.apache.lucene.search.FieldComparatorSource;
 import org.apache.lucene.search.SimpleFieldComparator;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.solr.common.SolrException;
@@ -166,6 +177,8 @@ public class QueryElevationComponent extends SearchComponent implements SolrCore
    * @see #getConfigVersion(SolrCore)
    */
   protected long cacheVersion;
+  /** The docs of the elevated ids, kept across reloads of {@link #cacheElevationProvider}. */
+  private final ElevatedDocsCache elevatedDocsCache = new ElevatedDocsCache();
 
   @Override
   public void init(NamedList<?> args) {
@@ -551,6 +564,8 @@ public class QueryElevationComponent extends SearchComponent implements SolrCore
           // This works with the EditorialMarkerFactory.
           rb.req.getContext().put(EXCLUDED, elevation.excludedIds);
         } else {
+          // the term queries, unlike a query of the excluded docs, keep the query comparable for
+          // the queryResultCache, and each of them is cheap to run and cached by the query cache
           for (TermQuery tq : elevation.excludeQueries) {
             queryBuilder.add(tq, BooleanClause.Occur.MUST_NOT);
           }
@@ -572,8 +587,7 @@ public class QueryElevationComponent extends SearchComponent implements SolrCore
             .getBool(
                 QueryElevationParams.USE_CONFIGURED_ELEVATED_ORDER,
                 this.useConfiguredElevatedOrder);
-    final IntIntHashMap elevatedWithPriority =
-        getBoostDocs(rb.req.getSearcher(), elevation.elevatedIds, rb.req.getContext());
+    final IntIntHashMap elevatedWithPriority = getBoostDocs(rb, elevation);
     ElevationComparatorSource comparator =
         new ElevationComparatorSource(elevatedWithPriority, useConfigured);
     setSortSpec(rb, forceElevation, comparator);
@@ -730,6 +744,27 @@ public class QueryElevationComponent extends SearchComponent implements SolrCore
     return boostDocs;
   }
 
+  /**
+   * Gets the boosted docs of the elevation like {@link #getBoostDocs(SolrIndexSearcher, Set, Map)},
+   * but from the docs the elevation caches per segment and searcher.
+   */
+  private IntIntHashMap getBoostDocs(ResponseBuilder rb, Elevation elevation) throws IOException {
+    final Map<Object, Object> context = rb.req.getContext();
+    IntIntHashMap boostDocs = (IntIntHashMap) context.get(BOOSTED_DOCIDS);
+    if (boostDocs == null) {
+      boostDocs = getElevatedDocs(rb.req.getSearcher(), elevation).boostDocs();
+      context.put(BOOSTED_DOCIDS, boostDocs);
+    }
+    return boostDocs;
+  }
+
+  /** Gets the docs of the elevated ids of the elevation in the searcher. */
+  @VisibleForTesting
+  ElevatedDocs getElevatedDocs(SolrIndexSearcher searcher, Elevation elevation)
+      throws IOException {
+    return elevation.getElevatedDocs(searcher, uniqueKeyField.getName(), elevatedDocsCache);
+  }
+
   // ---------------------------------------------------------------------------------
   // SolrInfoBean
   // ---------------------------------------------------------------------------------
@@ -1103,6 +1138,12 @@ public class QueryElevationComponent extends SearchComponent implements SolrCore
     // just keep the term query, b/c we will not always explicitly exclude the item based on
     // markExcludes query time param
     public final TermQuery[] excludeQueries; // may be null
+    // the elevated ids in order, which key the docs of this elevation in the ElevatedDocsCache
+    private final List<BytesRef> elevatedIdsKey;
+
+    // the elevations this one was merged from, and the ordinals of their elevated ids in this one
+    private final List<Elevation> mergedElevations; // null if not merged
+    private final int[][] mergedElevatedOrds;
 
     /**
      * Constructs an elevation.
@@ -1138,6 +1179,9 @@ public class QueryElevationComponent extends SearchComponent implements SolrCore
         }
         excludeQueries = excludeQueriesBuilder.toArray(new TermQuery[0]);
       }
+      elevatedIdsKey = List.copyOf(this.elevatedIds);
+      mergedElevations = null;
+      mergedElevatedOrds = null;
     }
 
     protected Elevation(
@@ -1145,10 +1189,38 @@ public class QueryElevationComponent extends SearchComponent implements SolrCore
         BooleanQuery includeQuery,
         Set<BytesRef> excludedIds,
         TermQuery[] excludeQueries) {
+      this(elevatedIds, includeQuery, excludedIds, excludeQueries, null);
+    }
+
+    private Elevation(
+        Set<BytesRef> elevatedIds,
+        BooleanQuery includeQuery,
+        Set<BytesRef> excludedIds,
+        TermQuery[] excludeQueries,
+        List<Elevation> mergedElevations) {
       this.elevatedIds = elevatedIds;
       this.includeQuery = includeQuery;
       this.excludedIds = excludedIds;
       this.excludeQueries = excludeQueries;
+      this.elevatedIdsKey = List.copyOf(elevatedIds);
+      this.mergedElevations = mergedElevations;
+      if (mergedElevations == null) {
+        mergedElevatedOrds = null;
+      } else {
+        Map<BytesRef, Integer> elevatedOrds = Maps.newHashMapWithExpectedSize(elevatedIds.size());
+        for (BytesRef elevatedId : elevatedIds) {
+          elevatedOrds.put(elevatedId, elevatedOrds.size());
+        }
+        mergedElevatedOrds = new int[mergedElevations.size()][];
+        for (int i = 0; i < mergedElevatedOrds.length; i++) {
+          Set<BytesRef> mergedElevatedIds = mergedElevations.get(i).elevatedIds;
+          mergedElevatedOrds[i] = new int[mergedElevatedIds.size()];
+          int ord = 0;
+          for (BytesRef elevatedId : mergedElevatedIds) {
+            mergedElevatedOrds[i][ord++] = elevatedOrds.get(elevatedId);
+          }
+        }
+      }
     }
 
     /**
@@ -1206,7 +1278,90 @@ public class QueryElevationComponent extends SearchComponent implements SolrCore
               ObjectArrays.concat(this.excludeQueries, elevation.excludeQueries, TermQuery.class);
         }
       }
-      return new Elevation(elevatedIds, includeQueryBuilder.build(), excludedIds, excludeQueries);
+      List<Elevation> mergedElevations = new ArrayList<>();
+      for (Elevation e : Arrays.asList(this, elevation)) {
+        if (e.mergedElevations == null) {
+          mergedElevations.add(e);
+        } else {
+          mergedElevations.addAll(e.mergedElevations);
+        }
+      }
+      return new Elevation(
+          elevatedIds, includeQueryBuilder.build(), excludedIds, excludeQueries, mergedElevations);
+    }
+
+    /**
+     * Gets the docs of the elevated ids in the searcher. They are cached per index reader, and
+     * built from the docs of each segment that are cached as long as the segment is open. A merged
+     * elevation builds them from the docs cached for the elevations it was merged from.
+     *
+     * @param idField The name of the uniqueKey field.
+     * @param cache The cache of the docs, shared by the elevations having the same elevated ids.
+     */
+    protected ElevatedDocs getElevatedDocs(
+        SolrIndexSearcher searcher, String idField, ElevatedDocsCache cache) throws IOException {
+      final IndexReader reader = searcher.getIndexReader();
+      final IndexReader.CacheHelper cacheHelper = reader.getReaderCacheHelper();
+      if (cacheHelper == null) {
+        return buildElevatedDocs(reader, idField, cache);
+      }
+      final Map<List<BytesRef>, ElevatedDocs> readerCache =
+          ElevatedDocsCache.forKey(cache.elevatedDocs, cacheHelper.getKey());
+      ElevatedDocs elevatedDocs = readerCache.get(elevatedIdsKey);
+      if (elevatedDocs == null) {
+        elevatedDocs = buildElevatedDocs(reader, idField, cache);
+        readerCache.put(elevatedIdsKey, elevatedDocs);
+      }
+      return elevatedDocs;
+    }
+
+    private ElevatedDocs buildElevatedDocs(
+        IndexReader reader, String idField, ElevatedDocsCache cache) throws IOException {
+      final IntArrayList elevatedDocIds = new IntArrayList();
+      final IntArrayList priorities = new IntArrayList();
+      for (LeafReaderContext leaf : reader.leaves()) {
+        final SegmentDocs segmentDocs = getSegmentDocs(leaf.reader(), idField, cache);
+        final Bits liveDocs = leaf.reader().getLiveDocs();
+        for (int i = 0; i < segmentDocs.elevatedDocs.length; i++) {
+          final int doc = segmentDocs.elevatedDocs[i];
+          if (liveDocs == null || liveDocs.get(doc)) {
+            elevatedDocIds.add(leaf.docBase + doc);
+            // the first elevated id has the highest priority, and the last one 1
+            priorities.add(elevatedIds.size() - segmentDocs.elevatedOrds[i]);
+          }
+        }
+      }
+      return new ElevatedDocs(elevatedDocIds.toArray(), priorities.toArray());
+    }
+
+    private SegmentDocs getSegmentDocs(LeafReader reader, String idField, ElevatedDocsCache cache)
+        throws IOException {
+      if (mergedElevations != null) {
+        final LongArrayList elevatedDocsAndOrds = new LongArrayList();
+        for (int i = 0; i < mergedElevations.size(); i++) {
+          final SegmentDocs segmentDocs =
+              mergedElevations.get(i).getSegmentDocs(reader, idField, cache);
+          for (int j = 0; j < segmentDocs.elevatedDocs.length; j++) {
+            elevatedDocsAndOrds.add(
+                SegmentDocs.docAndOrd(
+                    segmentDocs.elevatedDocs[j],
+                    mergedElevatedOrds[i][segmentDocs.elevatedOrds[j]]));
+          }
+        }
+        return new SegmentDocs(elevatedDocsAndOrds);
+      }
+      final IndexReader.CacheHelper cacheHelper = reader.getCoreCacheHelper();
+      if (cacheHelper == null) {
+        return SegmentDocs.lookup(reader, idField, elevatedIds);
+      }
+      final Map<List<BytesRef>, SegmentDocs> segmentCache =
+          ElevatedDocsCache.forKey(cache.segmentDocs, cacheHelper.getKey());
+      SegmentDocs segmentDocs = segmentCache.get(elevatedIdsKey);
+      if (segmentDocs == null) {
+        segmentDocs = SegmentDocs.lookup(reader, idField, elevatedIds);
+        segmentCache.put(elevatedIdsKey, segmentDocs);
+      }
+      return segmentDocs;
     }
 
     @Override
@@ -1219,6 +1374,107 @@ public class QueryElevationComponent extends SearchComponent implements SolrCore
     }
   }
 
+  /**
+   * The docs of the elevated ids of the {@link Elevation}s per segment core, so that only the new
+   * segments of a searcher are read, and per index reader, as several searchers may be open at
+   * once. They are keyed by the elevated ids rather than held by the elevations, so that they are
+   * kept when the {@link ElevationProvider} is reloaded, which happens for each new searcher when
+   * the config version is unknown (e.g. in ZooKeeper).
+   */
+  protected static class ElevatedDocsCache {
+    private final Map<IndexReader.CacheKey, Map<List<BytesRef>, SegmentDocs>> segmentDocs =
+        Collections.synchronizedMap(new WeakHashMap<>());
+    private final Map<IndexReader.CacheKey, Map<List<BytesRef>, ElevatedDocs>> elevatedDocs =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static <V> Map<List<BytesRef>, V> forKey(
+        Map<IndexReader.CacheKey, Map<List<BytesRef>, V>> cache, IndexReader.CacheKey key) {
+      return cache.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+    }
+  }
+
+  /**
+   * The docs of the elevated ids of an {@link Elevation} in a segment, including the deleted docs
+   * so that they are valid for any searcher having the segment.
+   */
+  private static class SegmentDocs {
+    final int[] elevatedDocs; // sorted
+    final int[] elevatedOrds; // the ordinals of the elevated ids of the elevatedDocs
+
+    /** Looks up the docs of the ids in the terms index of the reader. */
+    static SegmentDocs lookup(LeafReader reader, String idField, Set<BytesRef> elevatedIds)
+        throws IOException {
+      final LongArrayList elevatedDocsAndOrds = new LongArrayList();
+      final Terms terms = reader.terms(idField);
+      if (terms != null) {
+        final TermsEnum termsEnum = terms.iterator();
+        PostingsEnum postings = null;
+        int ord = 0;
+        for (BytesRef elevatedId : elevatedIds) {
+          if (termsEnum.seekExact(elevatedId)) {
+            postings = termsEnum.postings(postings, PostingsEnum.NONE);
+            for (int doc = postings.nextDoc();
+                doc != DocIdSetIterator.NO_MORE_DOCS;
+                doc = postings.nextDoc()) {
+              elevatedDocsAndOrds.add(docAndOrd(doc, ord));
+            }
+          }
+          ord++;
+        }
+      }
+      return new SegmentDocs(elevatedDocsAndOrds);
+    }
+
+    static long docAndOrd(int doc, int ord) {
+      return ((long) doc << 32) | ord;
+    }
+
+    /**
+     * @param elevatedDocsAndOrds The elevated docs and the ordinals of their ids, see {@link
+     *     #docAndOrd(int, int)}. A doc found several times keeps its lowest ordinal.
+     */
+    SegmentDocs(LongArrayList elevatedDocsAndOrds) {
+      final long[] docsAndOrds = elevatedDocsAndOrds.toArray();
+      Arrays.sort(docsAndOrds);
+      final IntArrayList docs = new IntArrayList(docsAndOrds.length);
+      final IntArrayList ords = new IntArrayList(docsAndOrds.length);
+      for (long docAndOrd : docsAndOrds) {
+        final int doc = (int) (docAndOrd >>> 32);
+        if (docs.isEmpty() || docs.get(docs.size() - 1) != doc) {
+          docs.add(doc);
+          ords.add((int) docAndOrd);
+        }
+      }
+      this.elevatedDocs = docs.toArray();
+      this.elevatedOrds = ords.toArray();
+    }
+  }
+
+  /** The docs of the elevated ids of an {@link Elevation} in a searcher. */
+  protected static class ElevatedDocs {
+    private final int[] elevatedDocIds; // sorted
+    private final int[] priorities; // of the elevatedDocIds
+
+    private ElevatedDocs(int[] elevatedDocIds, int[] priorities) {
+      this.elevatedDocIds = elevatedDocIds;
+      this.priorities = priorities;
+    }
+
+    /** The number of elevated docs in the searcher. */
+    public int size() {
+      return elevatedDocIds.length;
+    }
+
+    /** The elevated docIds mapped to their priority, see {@link #getBoostDocs}. */
+    public IntIntHashMap boostDocs() {
+      final IntIntHashMap boostDocs = new IntIntHashMap(elevatedDocIds.length);
+      for (int i = 0; i < elevatedDocIds.length; i++) {
+        boostDocs.put(elevatedDocIds[i], priorities[i]);
+      }
+      return boostDocs;
+    }
+  }
+
   /** Elevates certain docs to the top. */
   private class ElevationComparatorSource extends FieldComparatorSource {
 
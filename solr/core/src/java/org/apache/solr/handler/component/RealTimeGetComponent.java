@@ -1271,7 +1271,8 @@ public class RealTimeGetComponent extends SearchComponent {
       rb.rsp.add("fingerprint", fingerprint);
     }
 
-    try (UpdateLog.RecentUpdates recentUpdates = ulog.getRecentUpdates()) {
+    try (UpdateLog.RecentUpdates recentUpdates =
+        ulog.getRecentUpdates(getVersionsWindow(params, ulog))) {
       List<Long> versions = recentUpdates.getVersions(nVersions);
       rb.rsp.add("versions", versions);
     }
@@ -1281,6 +1282,10 @@ public class RealTimeGetComponent extends SearchComponent {
       ResponseBuilder rb, int nVersions, String syncWithLeader, List<Long> versions) {
     try (PeerSyncWithLeader peerSync =
         new PeerSyncWithLeader(rb.req.getCore(), syncWithLeader, nVersions)) {
+      int maxVersions = rb.req.getParams().getInt("maxVersions", -1);
+      if (maxVersions != -1) {
+        peerSync.setMaxUpdates(maxVersions);
+      }
       boolean success = peerSync.sync(versions).isSuccess();
       rb.rsp.add("syncWithLeader", success);
     } catch (IOException e) {
@@ -1306,6 +1311,10 @@ public class RealTimeGetComponent extends SearchComponent {
     boolean cantReachIsSuccess = rb.req.getParams().getBool("cantReachIsSuccess", false);
     try (PeerSync peerSync =
         new PeerSync(rb.req.getCore(), replicas, nVersions, cantReachIsSuccess)) {
+      int maxVersions = rb.req.getParams().getInt("maxVersions", -1);
+      if (maxVersions != -1) {
+        peerSync.setMaxUpdates(maxVersions);
+      }
       boolean success = peerSync.sync().isSuccess();
       // TODO: more complex response?
       rb.rsp.add("sync", success);
@@ -1329,10 +1338,12 @@ public class RealTimeGetComponent extends SearchComponent {
     UpdateLog ulog = req.getCore().getUpdateHandler().getUpdateLog();
     if (ulog == null) return;
 
+    int window = getVersionsWindow(params, ulog);
+
     // handle version ranges
     List<Long> versions = null;
     if (versionsStr.indexOf("...") != -1) {
-      versions = resolveVersionRanges(versionsStr, ulog);
+      versions = resolveVersionRanges(versionsStr, ulog, window);
     } else {
       versions =
           StrUtils.splitSmart(versionsStr, ",", true).stream()
@@ -1354,7 +1365,7 @@ public class RealTimeGetComponent extends SearchComponent {
     long minVersion = Long.MAX_VALUE;
 
     // TODO: get this from cache instead of rebuilding?
-    try (UpdateLog.RecentUpdates recentUpdates = ulog.getRecentUpdates()) {
+    try (UpdateLog.RecentUpdates recentUpdates = ulog.getRecentUpdates(window)) {
       LongSet updateVersions = new LongSet(versions.size());
       for (Long version : versions) {
         try {
@@ -1384,7 +1395,26 @@ public class RealTimeGetComponent extends SearchComponent {
     }
   }
 
-  private List<Long> resolveVersionRanges(String versionsStr, UpdateLog ulog) {
+  /**
+   * The number of records to read from the update log for versions or updates: numRecordsToKeep,
+   * unless PeerSync widened its window past it with <code>versionsWindow</code> to find enough
+   * overlap.
+   */
+  private static int getVersionsWindow(SolrParams params, UpdateLog ulog) {
+    int versionsWindow = params.getInt("versionsWindow", 0);
+    if (versionsWindow > ulog.getMaxNumRecordsToRead()) {
+      throw new SolrException(
+          ErrorCode.BAD_REQUEST,
+          "versionsWindow="
+              + versionsWindow
+              + " exceeds the maxNumRecordsToRead="
+              + ulog.getMaxNumRecordsToRead()
+              + " of the update log");
+    }
+    return Math.max(versionsWindow, ulog.getNumRecordsToKeep());
+  }
+
+  private List<Long> resolveVersionRanges(String versionsStr, UpdateLog ulog, int window) {
     if (StringUtils.isEmpty(versionsStr)) {
       return Collections.emptyList();
     }
@@ -1395,15 +1425,15 @@ public class RealTimeGetComponent extends SearchComponent {
 
     // get all the versions from updatelog and sort them
     List<Long> versionAvailable = null;
-    try (UpdateLog.RecentUpdates recentUpdates = ulog.getRecentUpdates()) {
-      versionAvailable = recentUpdates.getVersions(ulog.getNumRecordsToKeep());
+    try (UpdateLog.RecentUpdates recentUpdates = ulog.getRecentUpdates(window)) {
+      versionAvailable = recentUpdates.getVersions(window);
     }
     // sort versions
     Collections.sort(versionAvailable, PeerSync.absComparator);
 
     // This can be done with single pass over both ranges and versionsAvailable, that would require
     // merging ranges. We currently use Set to ensure there are no duplicates.
-    Set<Long> versionsToRet = new HashSet<>(ulog.getNumRecordsToKeep());
+    Set<Long> versionsToRet = new HashSet<>(versionAvailable.size());
     for (String range : ranges) {
       String[] rangeBounds = range.split("\\.{3}");
       int indexStart =
@@ -303,6 +303,10 @@ public class SpellCheckComponent extends SearchComponent implements SolrCoreAwar
             .setMaxCollationEvaluations(maxCollationEvaluations)
             .setSuggestionsMayOverlap(suggestionsMayOverlap)
             .setDocCollectionLimit(maxCollationCollectDocs);
+    if (params.getBool(SPELLCHECK_COLLATE_PRUNE_CANDIDATES, false)) {
+      SolrSpellChecker spellChecker = getSpellChecker(params);
+      collator.setPruningField(spellChecker == null ? null : spellChecker.getField());
+    }
     List<SpellCheckCollation> collations = collator.collate(spellingResult, q, rb);
     // by sorting here we guarantee a non-distributed request returns all
     // results in the same order as a distributed request would,
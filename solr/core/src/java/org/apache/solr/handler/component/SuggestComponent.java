@@ -16,6 +16,7 @@
  */
 package org.apache.solr.handler.component;
 
+import com.google.common.annotations.VisibleForTesting;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.nio.file.Files;
@@ -32,6 +33,10 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import org.apache.lucene.search.suggest.Lookup;
 import org.apache.lucene.search.suggest.Lookup.LookupResult;
@@ -44,8 +49,11 @@ import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.params.ShardParams;
 import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.ExecutorUtil;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.common.util.SimpleOrderedMap;
+import org.apache.solr.common.util.SolrNamedThreadFactory;
+import org.apache.solr.core.CloseHook;
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.core.SolrEventListener;
 import org.apache.solr.metrics.MetricsMap;
@@ -56,6 +64,7 @@ import org.apache.solr.spelling.suggest.SolrSuggester;
 import org.apache.solr.spelling.suggest.SuggesterOptions;
 import org.apache.solr.spelling.suggest.SuggesterParams;
 import org.apache.solr.spelling.suggest.SuggesterResult;
+import org.apache.solr.util.RefCounted;
 import org.apache.solr.util.plugin.SolrCoreAware;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -87,6 +96,12 @@ public class SuggestComponent extends SearchComponent
   /** SolrConfig label to identify boolean value to build suggesters on startup */
   private static final String BUILD_ON_STARTUP_LABEL = "buildOnStartup";
 
+  /**
+   * SolrConfig label to identify boolean value to build suggesters on commit or optimize in a
+   * background thread, instead of blocking the opening of the new searcher
+   */
+  private static final String BUILD_IN_BACKGROUND_LABEL = "buildInBackground";
+
   protected NamedList<?> initParams;
 
   /**
@@ -94,6 +109,8 @@ public class SuggestComponent extends SearchComponent
    */
   protected Map<String, SolrSuggester> suggesters = new ConcurrentHashMap<>();
 
+  private final List<SuggesterListener> listeners = new ArrayList<>();
+
   /** Container for various labels used in the responses generated by this component */
   private static class SuggesterResultLabels {
     static final String SUGGEST = "suggest";
@@ -148,6 +165,8 @@ public class SuggestComponent extends SearchComponent
               Boolean.parseBoolean((String) suggesterParams.get(BUILD_ON_COMMIT_LABEL));
           boolean buildOnOptimize =
               Boolean.parseBoolean((String) suggesterParams.get(BUILD_ON_OPTIMIZE_LABEL));
+          boolean buildInBackground =
+              Boolean.parseBoolean((String) suggesterParams.get(BUILD_IN_BACKGROUND_LABEL));
 
           if (buildOnCommit || buildOnOptimize || buildOnStartup) {
             SuggesterListener listener =
@@ -157,6 +176,7 @@ public class SuggestComponent extends SearchComponent
                     buildOnCommit,
                     buildOnOptimize,
                     buildOnStartup,
+                    buildInBackground,
                     core.isReloaded());
             if (log.isInfoEnabled()) {
               log.info(
@@ -166,12 +186,21 @@ public class SuggestComponent extends SearchComponent
             }
             core.registerFirstSearcherListener(listener);
             core.registerNewSearcherListener(listener);
+            listeners.add(listener);
           }
         }
       }
     }
   }
 
+  /** Waits for the builds that were scheduled in the background so far to complete. */
+  @VisibleForTesting
+  void waitForBackgroundBuilds() throws InterruptedException, ExecutionException {
+    for (SuggesterListener listener : listeners) {
+      listener.waitForBackgroundBuilds();
+    }
+  }
+
   /** Responsible for issuing build and rebuild command to the specified {@link SolrSuggester} */
   @Override
   public void prepare(ResponseBuilder rb) throws IOException {
@@ -506,6 +535,11 @@ public class SuggestComponent extends SearchComponent
     private final boolean buildOnCommit;
     private final boolean buildOnOptimize;
     private final boolean buildOnStartup;
+    private final boolean buildInBackground;
+    // builds on commit or optimize when buildInBackground, created on first use
+    private ExecutorService buildExecutor;
+    // whether a new background build was requested since the last one started
+    private final AtomicBoolean buildPending = new AtomicBoolean();
 
     // On core reload, immediately after the core is created a new searcher is opened, causing the
     // suggester to trigger a "buildOnCommit". The only event that we want to trigger in that
@@ -520,12 +554,14 @@ public class SuggestComponent extends SearchComponent
         boolean buildOnCommit,
         boolean buildOnOptimize,
         boolean buildOnStartup,
+        boolean buildInBackground,
         boolean isCoreReload) {
       this.core = core;
       this.suggester = checker;
       this.buildOnCommit = buildOnCommit;
       this.buildOnOptimize = buildOnOptimize;
       this.buildOnStartup = buildOnStartup;
+      this.buildInBackground = buildInBackground;
       this.isCoreReload = isCoreReload;
     }
 
@@ -547,13 +583,13 @@ public class SuggestComponent extends SearchComponent
           if (log.isInfoEnabled()) {
             log.info("buildOnCommit: {}", suggester.getName());
           }
-          buildSuggesterIndex(newSearcher);
+          rebuildSuggesterIndex(newSearcher);
         } else if (buildOnOptimize) {
           if (newSearcher.getIndexReader().leaves().size() == 1) {
             if (log.isInfoEnabled()) {
               log.info("buildOnOptimize: {}", suggester.getName());
             }
-            buildSuggesterIndex(newSearcher);
+            rebuildSuggesterIndex(newSearcher);
           }
         }
       }
@@ -567,6 +603,80 @@ public class SuggestComponent extends SearchComponent
       }
     }
 
+    /**
+     * Builds the suggester again, either right away or, if configured to, in the background from
+     * the newest searcher of the core.
+     */
+    private void rebuildSuggesterIndex(SolrIndexSearcher newSearcher) {
+      if (!buildInBackground) {
+        buildSuggesterIndex(newSearcher);
+        return;
+      }
+      // commits that happen while a build runs only cause one more build, once it is done
+      if (buildPending.getAndSet(true)) {
+        return;
+      }
+      try {
+        getBuildExecutor().execute(this::buildFromLatestSearcher);
+      } catch (RejectedExecutionException e) {
+        // the core is closing
+        buildPending.set(false);
+      }
+    }
+
+    /**
+     * Builds the suggester from the newest searcher of the core, unless it was already built from
+     * its index. That searcher is the one that triggered the build or a later one, and may still be
+     * warming: the registered searcher could be older than the commit.
+     */
+    private void buildFromLatestSearcher() {
+      buildPending.set(false);
+      if (core.isClosed()) {
+        return;
+      }
+      RefCounted<SolrIndexSearcher> searcher = core.getNewestSearcher(false);
+      if (searcher == null) {
+        return;
+      }
+      try {
+        if (suggester.isBuiltFrom(searcher.get())) {
+          log.info("Suggester {} is up to date, skipping build", suggester.getName());
+        } else {
+          buildSuggesterIndex(searcher.get());
+        }
+      } finally {
+        searcher.decref();
+      }
+    }
+
+    void waitForBackgroundBuilds() throws InterruptedException, ExecutionException {
+      final ExecutorService executor;
+      synchronized (this) {
+        executor = buildExecutor;
+      }
+      if (executor != null) {
+        // the builds run one at a time, in the order they were scheduled
+        executor.submit(() -> {}).get();
+      }
+    }
+
+    private synchronized ExecutorService getBuildExecutor() {
+      if (buildExecutor == null) {
+        buildExecutor =
+            ExecutorUtil.newMDCAwareSingleThreadExecutor(
+                new SolrNamedThreadFactory("suggesterBuilder"));
+        final ExecutorService executor = buildExecutor;
+        core.addCloseHook(
+            new CloseHook() {
+              @Override
+              public void preClose(SolrCore core) {
+                ExecutorUtil.shutdownNowAndAwaitTermination(executor);
+              }
+            });
+      }
+      return buildExecutor;
+    }
+
     @Override
     public void postCommit() {}
 
@@ -585,6 +695,8 @@ public class SuggestComponent extends SearchComponent
           + buildOnOptimize
           + ", buildOnStartup="
           + buildOnStartup
+          + ", buildInBackground="
+          + buildInBackground
           + ", isCoreReload="
           + isCoreReload
           + "]";
@@ -89,6 +89,14 @@ public abstract class Tagger {
     if (initSize > 0) docIdsCache = new HashMap<>(initSize);
   }
 
+  /**
+   * Caches the docIds of the terms looked up in the given map, which may be shared with other
+   * Taggers of the same terms and liveDocs. It must be thread-safe if they run concurrently.
+   */
+  public void setDocIdsCache(Map<BytesRef, IntsRef> docIdsCache) {
+    this.docIdsCache = docIdsCache;
+  }
+
   public void process() throws IOException {
     if (terms == null) return;
 
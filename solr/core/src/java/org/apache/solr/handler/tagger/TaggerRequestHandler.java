@@ -27,12 +27,20 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.lang.invoke.MethodHandles;
+import java.text.BreakIterator;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.xml.stream.XMLStreamException;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenFilterFactory;
@@ -47,10 +55,14 @@ import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BitSetIterator;
 import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.IntsRef;
+import org.apache.lucene.util.RamUsageEstimator;
 import org.apache.solr.analysis.TokenizerChain;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.params.CommonParams;
@@ -66,10 +78,12 @@ import org.apache.solr.search.DocList;
 import org.apache.solr.search.DocSet;
 import org.apache.solr.search.DocSlice;
 import org.apache.solr.search.QParser;
+import org.apache.solr.search.SolrCache;
 import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.search.SolrReturnFields;
 import org.apache.solr.search.SyntaxError;
 import org.apache.solr.security.AuthorizationContext;
+import org.apache.solr.util.ConcurrentTasks;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -93,6 +107,16 @@ public class TaggerRequestHandler extends RequestHandlerBase {
   public static final String IGNORE_STOPWORDS = "ignoreStopwords";
   /** Request parameter. */
   public static final String XML_OFFSET_ADJUST = "xmlOffsetAdjust";
+  /** Request parameter. */
+  public static final String THREADS = "threads";
+  /** Request parameter. */
+  public static final String CHUNK_SIZE = "chunkSize";
+
+  /**
+   * The name of the optional user cache holding the docIds of the token sequences looked up in the
+   * terms index, so that they are shared by the requests to the same searcher.
+   */
+  public static final String DOC_IDS_CACHE_NAME = "taggerDocIdsCache";
 
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
@@ -122,6 +146,8 @@ public class TaggerRequestHandler extends RequestHandlerBase {
     final boolean skipAltTokens = req.getParams().getBool(SKIP_ALT_TOKENS, false);
     final boolean ignoreStopWords =
         req.getParams().getBool(IGNORE_STOPWORDS, fieldHasIndexedStopFilter(indexedField, req));
+    final int threads = req.getParams().getInt(THREADS, 1);
+    final int chunkSize = Math.max(1, req.getParams().getInt(CHUNK_SIZE, 10000));
 
     // --Get posted data
     Reader inputReader = null;
@@ -149,8 +175,12 @@ public class TaggerRequestHandler extends RequestHandlerBase {
 
     final OffsetCorrector offsetCorrector = getOffsetCorrector(req.getParams(), inputStringFuture);
 
+    // Long input may be split on sentence boundaries and tagged by several threads, but not XML
+    // because the elements would be split too.
+    final boolean tagInChunks = threads > 1 && offsetCorrector == null;
+
     final String inputString; // only populated if needed
-    if (addMatchText || inputStringFuture.inputString != null) {
+    if (addMatchText || tagInChunks || inputStringFuture.inputString != null) {
       // Read the input fully into a String buffer that we'll need later,
       // then replace the input with a reader wrapping the buffer.
       inputString = inputStringFuture.call();
@@ -161,83 +191,65 @@ public class TaggerRequestHandler extends RequestHandlerBase {
     }
 
     final SolrIndexSearcher searcher = req.getSearcher();
-    final FixedBitSet matchDocIdsBS = new FixedBitSet(searcher.maxDoc());
-    final List<SimpleOrderedMap<?>> tags = new ArrayList<>(2000);
+    final TagCollector tagCollector =
+        new TagCollector(
+            searcher, idSchemaField, tagsLimit, offsetCorrector, addMatchText ? inputString : null);
 
     try {
       Analyzer analyzer = req.getSchema().getField(indexedField).getType().getQueryAnalyzer();
-      try (TokenStream tokenStream = analyzer.tokenStream("", inputReader)) {
-        Terms terms = searcher.getSlowAtomicReader().terms(indexedField);
-        if (terms != null) {
-          Tagger tagger =
-              new Tagger(
+      Terms terms = searcher.getSlowAtomicReader().terms(indexedField);
+      if (terms != null) {
+        final List<Query> corpusFilterQueries = parseCorpusFilterQueries(req);
+        final Bits docCorpus = computeDocCorpus(searcher, corpusFilterQueries);
+        final Map<BytesRef, IntsRef> searcherDocIdsCache =
+            getSearcherDocIdsCache(searcher, indexedField, corpusFilterQueries);
+        final List<Chunk> chunks = tagInChunks ? splitIntoChunks(inputString, chunkSize) : null;
+        if (chunks != null && chunks.size() > 1) {
+          final ChunkTagger chunkTagger =
+              new ChunkTagger(
+                  analyzer,
                   terms,
-                  computeDocCorpus(req),
-                  tokenStream,
+                  docCorpus,
                   tagClusterReducer,
                   skipAltTokens,
-                  ignoreStopWords) {
-                @Override
-                protected void tagCallback(int startOffset, int endOffset, Object docIdsKey) {
-                  if (tags.size() >= tagsLimit) return;
-                  if (offsetCorrector != null) {
-                    int[] offsetPair = offsetCorrector.correctPair(startOffset, endOffset);
-                    if (offsetPair == null) {
-                      log.debug(
-                          "Discarded offsets [{}, {}] because couldn't balance XML.",
-                          startOffset,
-                          endOffset);
-                      return;
-                    }
-                    startOffset = offsetPair[0];
-                    endOffset = offsetPair[1];
+                  ignoreStopWords,
+                  searcherDocIdsCache != null ? searcherDocIdsCache : new ConcurrentHashMap<>(2000),
+                  tagsLimit);
+          tagChunks(req, chunks, chunkTagger, threads);
+          for (Chunk chunk : chunks) {
+            for (Chunk.FoundTag tag : chunk.tags) {
+              tagCollector.addTag(tag.startOffset, tag.endOffset, tag.docIds);
+            }
+          }
+        } else {
+          try (TokenStream tokenStream = analyzer.tokenStream("", inputReader)) {
+            Tagger tagger =
+                new Tagger(
+                    terms,
+                    docCorpus,
+                    tokenStream,
+                    tagClusterReducer,
+                    skipAltTokens,
+                    ignoreStopWords) {
+                  @Override
+                  protected void tagCallback(int startOffset, int endOffset, Object docIdsKey) {
+                    tagCollector.addTag(startOffset, endOffset, lookupDocIds(docIdsKey));
                   }
-
-                  SimpleOrderedMap<Object> tag = new SimpleOrderedMap<>();
-                  tag.add("startOffset", startOffset);
-                  tag.add("endOffset", endOffset);
-                  if (addMatchText)
-                    tag.add("matchText", inputString.substring(startOffset, endOffset));
-                  // below caches, and also flags matchDocIdsBS
-                  tag.add("ids", lookupSchemaDocIds(docIdsKey));
-                  tags.add(tag);
-                }
-
-                Map<Object, List<Object>> docIdsListCache = new HashMap<>(2000);
-
-                ValueSourceAccessor uniqueKeyCache =
-                    new ValueSourceAccessor(
-                        searcher, idSchemaField.getType().getValueSource(idSchemaField, null));
-
-                private List<Object> lookupSchemaDocIds(Object docIdsKey) {
-                  List<Object> schemaDocIds = docIdsListCache.get(docIdsKey);
-                  if (schemaDocIds != null) return schemaDocIds;
-                  IntsRef docIds = lookupDocIds(docIdsKey);
-                  // translate lucene docIds to schema ids
-                  schemaDocIds = new ArrayList<>(docIds.length);
-                  for (int i = docIds.offset; i < docIds.offset + docIds.length; i++) {
-                    int docId = docIds.ints[i];
-                    assert i == docIds.offset || docIds.ints[i - 1] < docId : "not sorted?";
-                    matchDocIdsBS.set(docId); // also, flip docid in bitset
-                    try {
-                      schemaDocIds.add(uniqueKeyCache.objectVal(docId)); // translates here
-                    } catch (IOException e) {
-                      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, e);
-                    }
-                  }
-                  assert !schemaDocIds.isEmpty();
-
-                  docIdsListCache.put(docIds, schemaDocIds);
-                  return schemaDocIds;
-                }
-              };
-          tagger.enableDocIdsCache(2000); // TODO configurable
-          tagger.process();
+                };
+            if (searcherDocIdsCache != null) {
+              tagger.setDocIdsCache(searcherDocIdsCache);
+            } else {
+              tagger.enableDocIdsCache(2000); // TODO configurable
+            }
+            tagger.process();
+          }
         }
       }
     } finally {
       inputReader.close();
     }
+    final List<SimpleOrderedMap<?>> tags = tagCollector.tags;
+    final FixedBitSet matchDocIdsBS = tagCollector.matchDocIdsBS;
     rsp.add("tagsCount", tags.size());
     rsp.add("tags", tags);
 
@@ -269,6 +281,294 @@ public class TaggerRequestHandler extends RequestHandlerBase {
     }
   }
 
+  /**
+   * Adds the tags to the response, translating the docIds of the matching documents to their
+   * uniqueKey values.
+   */
+  private static class TagCollector {
+    final List<SimpleOrderedMap<?>> tags = new ArrayList<>(2000);
+    final FixedBitSet matchDocIdsBS;
+    private final int tagsLimit;
+    private final OffsetCorrector offsetCorrector;
+    private final String matchTextInput; // null unless the matched text is added to the tags
+    private final Map<Object, List<Object>> docIdsListCache = new HashMap<>(2000);
+    private final ValueSourceAccessor uniqueKeyCache;
+
+    TagCollector(
+        SolrIndexSearcher searcher,
+        SchemaField idSchemaField,
+        int tagsLimit,
+        OffsetCorrector offsetCorrector,
+        String matchTextInput) {
+      this.matchDocIdsBS = new FixedBitSet(searcher.maxDoc());
+      this.tagsLimit = tagsLimit;
+      this.offsetCorrector = offsetCorrector;
+      this.matchTextInput = matchTextInput;
+      this.uniqueKeyCache =
+          new ValueSourceAccessor(
+              searcher, idSchemaField.getType().getValueSource(idSchemaField, null));
+    }
+
+    void addTag(int startOffset, int endOffset, IntsRef docIds) {
+      if (tags.size() >= tagsLimit) return;
+      if (offsetCorrector != null) {
+        int[] offsetPair = offsetCorrector.correctPair(startOffset, endOffset);
+        if (offsetPair == null) {
+          log.debug(
+              "Discarded offsets [{}, {}] because couldn't balance XML.", startOffset, endOffset);
+          return;
+        }
+        startOffset = offsetPair[0];
+        endOffset = offsetPair[1];
+      }
+
+      SimpleOrderedMap<Object> tag = new SimpleOrderedMap<>();
+      tag.add("startOffset", startOffset);
+      tag.add("endOffset", endOffset);
+      if (matchTextInput != null)
+        tag.add("matchText", matchTextInput.substring(startOffset, endOffset));
+      // below caches, and also flags matchDocIdsBS
+      tag.add("ids", lookupSchemaDocIds(docIds));
+      tags.add(tag);
+    }
+
+    private List<Object> lookupSchemaDocIds(IntsRef docIds) {
+      List<Object> schemaDocIds = docIdsListCache.get(docIds);
+      if (schemaDocIds != null) return schemaDocIds;
+      // translate lucene docIds to schema ids
+      schemaDocIds = new ArrayList<>(docIds.length);
+      for (int i = docIds.offset; i < docIds.offset + docIds.length; i++) {
+        int docId = docIds.ints[i];
+        assert i == docIds.offset || docIds.ints[i - 1] < docId : "not sorted?";
+        matchDocIdsBS.set(docId); // also, flip docid in bitset
+        try {
+          schemaDocIds.add(uniqueKeyCache.objectVal(docId)); // translates here
+        } catch (IOException e) {
+          throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, e);
+        }
+      }
+      assert !schemaDocIds.isEmpty();
+
+      docIdsListCache.put(docIds, schemaDocIds);
+      return schemaDocIds;
+    }
+  }
+
+  /**
+   * Splits the text into chunks of at least {@code chunkSize} characters, each ending on a sentence
+   * boundary. Tags spanning two sentences are not found in chunks.
+   */
+  static List<Chunk> splitIntoChunks(String text, int chunkSize) {
+    final List<Chunk> chunks = new ArrayList<>();
+    final BreakIterator sentences = BreakIterator.getSentenceInstance(Locale.ROOT);
+    sentences.setText(text);
+    int start = 0;
+    while (start < text.length()) {
+      int end =
+          text.length() - start > chunkSize
+              ? sentences.following(start + chunkSize - 1)
+              : BreakIterator.DONE;
+      if (end == BreakIterator.DONE) {
+        end = text.length();
+      }
+      chunks.add(new Chunk(start, text.substring(start, end)));
+      start = end;
+    }
+    return chunks;
+  }
+
+  /**
+   * Tags the chunks concurrently on the search executor of the core container.
+   *
+   * @param threads the maximum number of chunks tagged at the same time, including the current
+   *     thread
+   */
+  private void tagChunks(
+      SolrQueryRequest req, List<Chunk> chunks, ChunkTagger chunkTagger, int threads)
+      throws IOException {
+    final AtomicInteger nextChunk = new AtomicInteger();
+    final int numWorkers = Math.min(threads, chunks.size());
+    final List<Callable<Void>> workers = new ArrayList<>(numWorkers);
+    for (int i = 0; i < numWorkers; i++) {
+      workers.add(
+          () -> {
+            tagChunks(chunks, chunkTagger, nextChunk);
+            return null;
+          });
+    }
+    try {
+      ConcurrentTasks.run(req.getCore().getCoreContainer().getSearchExecutor(), workers);
+    } finally {
+      // makes the other workers stop early if one of them failed
+      nextChunk.set(chunks.size());
+    }
+  }
+
+  private static void tagChunks(List<Chunk> chunks, ChunkTagger chunkTagger, AtomicInteger next)
+      throws IOException {
+    for (int i = next.getAndIncrement(); i < chunks.size(); i = next.getAndIncrement()) {
+      chunkTagger.tag(chunks.get(i));
+    }
+  }
+
+  /** A part of the input text, and the tags found in it once tagged. */
+  static class Chunk {
+    final int startOffset;
+    final String text;
+    final List<FoundTag> tags = new ArrayList<>();
+
+    Chunk(int startOffset, String text) {
+      this.startOffset = startOffset;
+      this.text = text;
+    }
+
+    static class FoundTag {
+      final int startOffset;
+      final int endOffset;
+      final IntsRef docIds;
+
+      FoundTag(int startOffset, int endOffset, IntsRef docIds) {
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.docIds = docIds;
+      }
+    }
+  }
+
+  /** Tags chunks of the input; can be used by several threads at the same time. */
+  private static class ChunkTagger {
+    private final Analyzer analyzer;
+    private final Terms terms;
+    private final Bits docCorpus;
+    private final TagClusterReducer tagClusterReducer;
+    private final boolean skipAltTokens;
+    private final boolean ignoreStopWords;
+    private final Map<BytesRef, IntsRef> docIdsCache; // thread-safe
+    private final int tagsLimit;
+
+    ChunkTagger(
+        Analyzer analyzer,
+        Terms terms,
+        Bits docCorpus,
+        TagClusterReducer tagClusterReducer,
+        boolean skipAltTokens,
+        boolean ignoreStopWords,
+        Map<BytesRef, IntsRef> docIdsCache,
+        int tagsLimit) {
+      this.analyzer = analyzer;
+      this.terms = terms;
+      this.docCorpus = docCorpus;
+      this.tagClusterReducer = tagClusterReducer;
+      this.skipAltTokens = skipAltTokens;
+      this.ignoreStopWords = ignoreStopWords;
+      this.docIdsCache = docIdsCache;
+      this.tagsLimit = tagsLimit;
+    }
+
+    void tag(Chunk chunk) throws IOException {
+      try (TokenStream tokenStream = analyzer.tokenStream("", chunk.text)) {
+        Tagger tagger =
+            new Tagger(
+                terms, docCorpus, tokenStream, tagClusterReducer, skipAltTokens, ignoreStopWords) {
+              @Override
+              protected void tagCallback(int startOffset, int endOffset, Object docIdsKey) {
+                if (chunk.tags.size() >= tagsLimit) return;
+                chunk.tags.add(
+                    new Chunk.FoundTag(
+                        chunk.startOffset + startOffset,
+                        chunk.startOffset + endOffset,
+                        lookupDocIds(docIdsKey)));
+              }
+            };
+        tagger.setDocIdsCache(docIdsCache);
+        tagger.process();
+      }
+    }
+  }
+
+  /**
+   * The docIds cache of the searcher for the field and corpus, shared by the requests and their
+   * threads, or null if the {@link #DOC_IDS_CACHE_NAME} user cache isn't configured.
+   */
+  private Map<BytesRef, IntsRef> getSearcherDocIdsCache(
+      SolrIndexSearcher searcher, String field, List<Query> corpusFilterQueries) {
+    final SolrCache<Object, Object> cache = searcher.getCache(DOC_IDS_CACHE_NAME);
+    if (cache == null) {
+      return null;
+    }
+    return new SolrCacheDocIds(cache, Arrays.asList(field, corpusFilterQueries));
+  }
+
+  /**
+   * The docIds of the token sequences of a field and corpus, as entries of the {@link
+   * #DOC_IDS_CACHE_NAME} user cache. So their size is accounted for, and bounded, by that cache.
+   * Only supports {@link #get} and {@link #put}, which is all {@link TermPrefixCursor} uses.
+   */
+  private static class SolrCacheDocIds extends AbstractMap<BytesRef, IntsRef> {
+    private final SolrCache<Object, Object> cache;
+    private final List<Object> fieldAndCorpus;
+
+    SolrCacheDocIds(SolrCache<Object, Object> cache, List<Object> fieldAndCorpus) {
+      this.cache = cache;
+      this.fieldAndCorpus = fieldAndCorpus;
+    }
+
+    @Override
+    public IntsRef get(Object key) {
+      final int[] docIds = (int[]) cache.get(new DocIdsKey(fieldAndCorpus, (BytesRef) key));
+      return docIds == null ? null : new IntsRef(docIds, 0, docIds.length);
+    }
+
+    @Override
+    public IntsRef put(BytesRef key, IntsRef value) {
+      // a plain array, whose size the cache can estimate
+      final int[] docIds =
+          ArrayUtil.copyOfSubArray(value.ints, value.offset, value.offset + value.length);
+      cache.put(new DocIdsKey(fieldAndCorpus, key), docIds);
+      return null;
+    }
+
+    @Override
+    public Set<Entry<BytesRef, IntsRef>> entrySet() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /** The key of the docIds of a token sequence of a field and corpus in the user cache. */
+  private static class DocIdsKey implements Accountable {
+    private static final long BASE_RAM_BYTES_USED =
+        RamUsageEstimator.shallowSizeOfInstance(DocIdsKey.class)
+            + RamUsageEstimator.shallowSizeOfInstance(BytesRef.class)
+            + RamUsageEstimator.NUM_BYTES_ARRAY_HEADER;
+
+    private final List<Object> fieldAndCorpus; // shared by the keys of the field and corpus
+    private final BytesRef tokens;
+
+    DocIdsKey(List<Object> fieldAndCorpus, BytesRef tokens) {
+      this.fieldAndCorpus = fieldAndCorpus;
+      this.tokens = tokens;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof DocIdsKey)) {
+        return false;
+      }
+      final DocIdsKey other = (DocIdsKey) o;
+      return tokens.equals(other.tokens) && fieldAndCorpus.equals(other.fieldAndCorpus);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * fieldAndCorpus.hashCode() + tokens.hashCode();
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return BASE_RAM_BYTES_USED + tokens.length;
+    }
+  }
+
   protected OffsetCorrector getOffsetCorrector(
       SolrParams params, Callable<String> inputStringProvider) throws Exception {
     final boolean xmlOffsetAdjust = params.getBool(XML_OFFSET_ADJUST, false);
@@ -315,25 +615,32 @@ public class TaggerRequestHandler extends RequestHandlerBase {
     return tagClusterReducer;
   }
 
-  /**
-   * The set of documents matching the provided 'fq' (filter query). Don't include deleted docs
-   * either. If null is returned, then all docs are available.
-   */
-  private Bits computeDocCorpus(SolrQueryRequest req) throws SyntaxError, IOException {
+  /** The provided 'fq' (filter queries) defining the corpus, possibly empty. */
+  private List<Query> parseCorpusFilterQueries(SolrQueryRequest req) throws SyntaxError {
     final String[] corpusFilterQueries = req.getParams().getParams("fq");
-    final SolrIndexSearcher searcher = req.getSearcher();
-    final Bits docBits;
-    if (corpusFilterQueries != null && corpusFilterQueries.length > 0) {
-      List<Query> filterQueries = new ArrayList<Query>(corpusFilterQueries.length);
-      for (String corpusFilterQuery : corpusFilterQueries) {
-        QParser qParser = QParser.getParser(corpusFilterQuery, null, req);
-        try {
-          filterQueries.add(qParser.parse());
-        } catch (SyntaxError e) {
-          throw new SolrException(SolrException.ErrorCode.BAD_REQUEST, e);
-        }
+    if (corpusFilterQueries == null) {
+      return Collections.emptyList();
+    }
+    List<Query> filterQueries = new ArrayList<Query>(corpusFilterQueries.length);
+    for (String corpusFilterQuery : corpusFilterQueries) {
+      QParser qParser = QParser.getParser(corpusFilterQuery, null, req);
+      try {
+        filterQueries.add(qParser.parse());
+      } catch (SyntaxError e) {
+        throw new SolrException(SolrException.ErrorCode.BAD_REQUEST, e);
       }
+    }
+    return filterQueries;
+  }
 
+  /**
+   * The set of documents matching the filter queries. Don't include deleted docs either. If null
+   * is returned, then all docs are available.
+   */
+  private Bits computeDocCorpus(SolrIndexSearcher searcher, List<Query> filterQueries)
+      throws IOException {
+    final Bits docBits;
+    if (!filterQueries.isEmpty()) {
       final DocSet docSet = searcher.getDocSet(filterQueries); // hopefully in the cache
 
       docBits = docSet.getBits();
@@ -173,9 +173,8 @@ class TermPrefixCursor {
 
     // cache
     if (docIdsCache != null) {
-      ensureBufIsACopy();
-      // clone is shallow; that's okay as the prefix isn't overwritten; it's just appended to
-      docIdsCache.put(prefixBuf.clone(), docIds);
+      // a deep copy because this cursor may be re-used, and the cache may outlive it
+      docIdsCache.put(BytesRef.deepCopyOf(prefixBuf), docIds);
     }
     return docIds;
   }
@@ -18,13 +18,18 @@ package org.apache.solr.highlight;
 
 import java.io.IOException;
 import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import org.apache.lucene.index.FieldInfo;
@@ -51,6 +56,8 @@ import org.apache.solr.search.DocIterator;
 import org.apache.solr.search.DocList;
 import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.search.SolrReturnFields;
+import org.apache.solr.util.ConcurrentTasks;
+import org.apache.solr.util.RTimer;
 import org.apache.solr.util.RTimerTree;
 import org.apache.solr.util.plugin.PluginInfoInitialized;
 
@@ -84,6 +91,7 @@ import org.apache.solr.util.plugin.PluginInfoInitialized;
  * &lt;int name="hl.cacheFieldValCharsThreshold"&gt;524288&lt;/int&gt;
  * &lt;str name="hl.offsetSource"&gt;&lt;/str&gt;
  * &lt;bool name="hl.weightMatches"&gt;true&lt;/bool&gt;
+ * &lt;int name="hl.threads"&gt;&lt;/int&gt;
  * &lt;/lst&gt;
  * &lt;/requestHandler&gt;
  * </pre>
@@ -126,6 +134,8 @@ import org.apache.solr.util.plugin.PluginInfoInitialized;
  *   <li>hl.offsetSource (string) specifies which offset source to use, prefers postings, but will
  *       use what's available if not specified
  *   <li>hl.weightMatches (bool) enables Lucene Weight Matches mode
+ *   <li>hl.threads (int) enables batch mode: the fields are highlighted in batches of documents
+ *       run on up to this many threads, and timed in the debug output. Not set by default
  * </ul>
  *
  * @lucene.experimental
@@ -159,13 +169,157 @@ public class UnifiedSolrHighlighter extends SolrHighlighter implements PluginInf
     }
 
     UnifiedHighlighter highlighter = getHighlighter(req);
-    Map<String, String[]> snippets =
-        fieldNames.length == 0
-            ? Collections.emptyMap()
-            : highlighter.highlightFields(fieldNames, query, docIDs, maxPassages);
+    Map<String, String[]> snippets;
+    if (fieldNames.length == 0) {
+      snippets = Collections.emptyMap();
+    } else if (params.get(HighlightParams.THREADS) == null) {
+      snippets = highlighter.highlightFields(fieldNames, query, docIDs, maxPassages);
+    } else {
+      snippets =
+          highlightFieldsInBatches(
+              req,
+              highlighter,
+              fieldNames,
+              query,
+              docIDs,
+              maxPassages,
+              params.getInt(HighlightParams.THREADS));
+    }
     return encodeSnippets(keys, fieldNames, snippets);
   }
 
+  /**
+   * Highlights all the fields together, splitting the documents in as many batches as there are
+   * threads. The batches are highlighted concurrently on the searcher's search executor, if any,
+   * and the time spent highlighting them is reported under a <code>highlightFields</code> timer of
+   * the request.
+   *
+   * @param threads the maximum number of batches highlighted at the same time, including the
+   *     current thread
+   * @return map from field name to snippet array for the docs
+   */
+  protected Map<String, String[]> highlightFieldsInBatches(
+      SolrQueryRequest req,
+      UnifiedHighlighter highlighter,
+      String[] fieldNames,
+      Query query,
+      int[] docIDs,
+      int[] maxPassages,
+      int threads)
+      throws IOException {
+    final ExecutorService executor =
+        req.getSearcher().getCore().getCoreContainer().getSearchExecutor();
+    final int numThreads = executor == null ? 1 : Math.max(1, threads);
+    final int batchSize = Math.max(1, (docIDs.length + numThreads - 1) / numThreads);
+    final RTimerTree timer =
+        req.getRequestTimer() == null
+            ? new RTimerTree()
+            : req.getRequestTimer().sub("highlightFields");
+    final ConcurrentTimer batchTimer = new ConcurrentTimer(timer);
+
+    final Map<String, String[]> snippets = new HashMap<>();
+    for (String fieldName : fieldNames) {
+      snippets.put(fieldName, new String[docIDs.length]);
+    }
+    final List<HighlightBatch> batches = new ArrayList<>(numThreads);
+    for (int from = 0; from < docIDs.length; from += batchSize) {
+      final int to = Math.min(from + batchSize, docIDs.length);
+      batches.add(
+          new HighlightBatch(
+              highlighter, fieldNames, query, docIDs, from, to, maxPassages, snippets, batchTimer));
+    }
+
+    if (batches.size() > 1) {
+      ConcurrentTasks.run(executor, batches);
+    } else {
+      for (HighlightBatch batch : batches) {
+        batch.call();
+      }
+    }
+    timer.stop();
+    return snippets;
+  }
+
+  /** The documents whose fields are highlighted together */
+  private static class HighlightBatch implements Callable<Void> {
+    private final UnifiedHighlighter highlighter;
+    private final String[] fieldNames;
+    private final Query query;
+    private final int[] docIDs;
+    private final int from;
+    private final int to;
+    private final int[] maxPassages;
+    private final Map<String, String[]> snippets;
+    private final ConcurrentTimer timer;
+
+    HighlightBatch(
+        UnifiedHighlighter highlighter,
+        String[] fieldNames,
+        Query query,
+        int[] docIDs,
+        int from,
+        int to,
+        int[] maxPassages,
+        Map<String, String[]> snippets,
+        ConcurrentTimer timer) {
+      this.highlighter = highlighter;
+      this.fieldNames = fieldNames;
+      this.query = query;
+      this.docIDs = docIDs;
+      this.from = from;
+      this.to = to;
+      this.maxPassages = maxPassages;
+      this.snippets = snippets;
+      this.timer = timer;
+    }
+
+    /** Highlights the fields of the batch's documents into their range of the snippet arrays */
+    @Override
+    public Void call() throws IOException {
+      timer.resume();
+      try {
+        final Map<String, String[]> batchSnippets =
+            highlighter.highlightFields(
+                fieldNames, query, Arrays.copyOfRange(docIDs, from, to), maxPassages);
+        for (String fieldName : fieldNames) {
+          System.arraycopy(
+              batchSnippets.get(fieldName), 0, snippets.get(fieldName), from, to - from);
+        }
+      } finally {
+        timer.pause();
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Lets several threads time the same {@link RTimer}, which then measures the wall time during
+   * which at least one of them was running.
+   */
+  private static class ConcurrentTimer {
+    private final RTimer timer;
+    private int running;
+
+    /** Wraps a timer in the STARTED state, and pauses it */
+    ConcurrentTimer(RTimer timer) {
+      this.timer = timer;
+      timer.resume(); // ensure state is STARTED
+      timer.pause();
+    }
+
+    synchronized void resume() {
+      if (running++ == 0) {
+        timer.resume();
+      }
+    }
+
+    synchronized void pause() {
+      if (--running == 0) {
+        timer.pause();
+      }
+    }
+  }
+
   /**
    * Creates an instance of the Lucene {@link UnifiedHighlighter}. Provided for subclass extension
    * so that a subclass can return a subclass of {@link SolrExtendedUnifiedHighlighter}.
@@ -243,6 +397,7 @@ public class UnifiedSolrHighlighter extends SolrHighlighter implements PluginInf
 
     protected final IndexSchema schema;
     protected final RTimerTree loadFieldValuesTimer;
+    private final ConcurrentTimer concurrentLoadFieldValuesTimer;
 
     public SolrExtendedUnifiedHighlighter(SolrQueryRequest req) {
       super(req.getSearcher(), req.getSchema().getIndexAnalyzer());
@@ -262,9 +417,8 @@ public class UnifiedSolrHighlighter extends SolrHighlighter implements PluginInf
       }
       loadFieldValuesTimer =
           timerTree.sub("loadFieldValues"); // we assume a new timer, state of STARTED
-      loadFieldValuesTimer.resume(); // ensure state is STARTED (some obscure test / use-case)
-      loadFieldValuesTimer
-          .pause(); // state of PAUSED now with about zero time. Will fail if state isn't STARTED.
+      // state of PAUSED now with about zero time, and fields may be loaded from several threads
+      concurrentLoadFieldValuesTimer = new ConcurrentTimer(loadFieldValuesTimer);
     }
 
     @Override
@@ -406,11 +560,12 @@ public class UnifiedSolrHighlighter extends SolrHighlighter implements PluginInf
     protected List<CharSequence[]> loadFieldValues(
         String[] fields, DocIdSetIterator docIter, int cacheCharsThreshold) throws IOException {
       // Time loading field values.  It can be an expensive part of highlighting.
-      loadFieldValuesTimer.resume();
+      concurrentLoadFieldValuesTimer.resume();
       try {
         return super.loadFieldValues(fields, docIter, cacheCharsThreshold);
       } finally {
-        loadFieldValuesTimer.pause(); // note: doesn't need to be "stopped"; pause is fine.
+        // note: doesn't need to be "stopped"; pause is fine.
+        concurrentLoadFieldValuesTimer.pause();
       }
     }
 
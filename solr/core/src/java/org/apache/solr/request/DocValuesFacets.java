@@ -17,6 +17,7 @@
 package org.apache.solr.request;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Predicate;
 import org.apache.lucene.index.DocValues;
@@ -97,98 +98,58 @@ public class DocValuesFacets {
       Predicate<BytesRef> termFilter,
       FacetDebugInfo fdebug)
       throws IOException {
-    SchemaField schemaField = searcher.getSchema().getField(fieldName);
+    return getCounts(
+        searcher,
+        docs,
+        new FieldCounts(searcher, fieldName, prefix),
+        offset,
+        limit,
+        mincount,
+        missing,
+        sort,
+        termFilter,
+        fdebug);
+  }
+
+  /**
+   * Same as {@link #getCounts(SolrIndexSearcher, DocSet, String, int, int, int, boolean, String,
+   * String, Predicate, FacetDebugInfo)}, from counts that may already have been counted by {@link
+   * #countInSinglePass(SolrIndexSearcher, DocSet, List)} over the same docs.
+   */
+  public static NamedList<Integer> getCounts(
+      SolrIndexSearcher searcher,
+      DocSet docs,
+      FieldCounts fieldCounts,
+      int offset,
+      int limit,
+      int mincount,
+      boolean missing,
+      String sort,
+      Predicate<BytesRef> termFilter,
+      FacetDebugInfo fdebug)
+      throws IOException {
+    SchemaField schemaField = fieldCounts.schemaField;
     FieldType ft = schemaField.getType();
     NamedList<Integer> res = new NamedList<>();
 
-    // TODO: remove multiValuedFieldCache(), check dv type / uninversion type?
-    final boolean multiValued = schemaField.multiValued() || ft.multiValuedFieldCache();
-
-    final SortedSetDocValues si; // for term lookups only
-    OrdinalMap ordinalMap = null; // for mapping per-segment ords to global ones
-    if (multiValued) {
-      si = searcher.getSlowAtomicReader().getSortedSetDocValues(fieldName);
-      if (si instanceof MultiDocValues.MultiSortedSetDocValues) {
-        ordinalMap = ((MultiSortedSetDocValues) si).mapping;
-      }
-    } else {
-      SortedDocValues single = searcher.getSlowAtomicReader().getSortedDocValues(fieldName);
-      si = single == null ? null : DocValues.singleton(single);
-      if (single instanceof MultiDocValues.MultiSortedDocValues) {
-        ordinalMap = ((MultiDocValues.MultiSortedDocValues) single).mapping;
-      }
-    }
+    final SortedSetDocValues si = fieldCounts.si;
     if (si == null) {
       return finalize(res, searcher, schemaField, docs, -1, missing);
     }
-    if (si.getValueCount() >= Integer.MAX_VALUE) {
-      throw new UnsupportedOperationException(
-          "Currently this faceting method is limited to " + Integer.MAX_VALUE + " unique terms");
-    }
-
-    final BytesRefBuilder prefixRef;
-    if (prefix == null) {
-      prefixRef = null;
-    } else if (prefix.length() == 0) {
-      prefix = null;
-      prefixRef = null;
-    } else {
-      prefixRef = new BytesRefBuilder();
-      prefixRef.copyChars(prefix);
-    }
 
-    int startTermIndex, endTermIndex;
-    if (prefix != null && si.getValueCount() > 0) {
-      startTermIndex = (int) si.lookupTerm(prefixRef.get());
-      if (startTermIndex < 0) startTermIndex = -startTermIndex - 1;
-      prefixRef.append(UnicodeUtil.BIG_TERM);
-      endTermIndex = (int) si.lookupTerm(prefixRef.get());
-      assert endTermIndex < 0;
-      endTermIndex = -endTermIndex - 1;
-    } else {
-      startTermIndex = -1;
-      endTermIndex = (int) si.getValueCount();
-    }
-
-    final int nTerms = endTermIndex - startTermIndex;
+    final int startTermIndex = fieldCounts.startTermIndex;
+    final int nTerms = fieldCounts.nTerms;
     int missingCount = -1;
     final CharsRefBuilder charsRef = new CharsRefBuilder();
     if (nTerms > 0 && docs.size() >= mincount) {
 
-      // count collection array only needs to be as big as the number of terms we are
-      // going to collect counts for.
-      final int[] counts = new int[nTerms];
       if (fdebug != null) {
         fdebug.putInfoItem("numBuckets", nTerms);
       }
-
-      List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
-      for (int subIndex = 0; subIndex < leaves.size(); subIndex++) {
-        LeafReaderContext leaf = leaves.get(subIndex);
-        // solr docsets already exclude any deleted docs
-        final DocIdSetIterator disi = docs.iterator(leaf);
-        if (disi != null) {
-          if (multiValued) {
-            SortedSetDocValues sub = leaf.reader().getSortedSetDocValues(fieldName);
-            if (sub == null) {
-              sub = DocValues.emptySortedSet();
-            }
-            final SortedDocValues singleton = DocValues.unwrapSingleton(sub);
-            if (singleton != null) {
-              // some codecs may optimize SORTED_SET storage for single-valued fields
-              accumSingle(counts, startTermIndex, singleton, disi, subIndex, ordinalMap);
-            } else {
-              accumMulti(counts, startTermIndex, sub, disi, subIndex, ordinalMap);
-            }
-          } else {
-            SortedDocValues sub = leaf.reader().getSortedDocValues(fieldName);
-            if (sub == null) {
-              sub = DocValues.emptySorted();
-            }
-            accumSingle(counts, startTermIndex, sub, disi, subIndex, ordinalMap);
-          }
-        }
+      if (fieldCounts.counts == null) {
+        fieldCounts.count(searcher, docs);
       }
+      final int[] counts = fieldCounts.counts;
 
       if (startTermIndex == -1) {
         missingCount = counts[0];
@@ -285,6 +246,283 @@ public class DocValuesFacets {
     return finalize(res, searcher, schemaField, docs, missingCount, missing);
   }
 
+  /**
+   * Counts the docValues of all the fields at once, iterating over the docs of each segment a
+   * single time instead of once per field.
+   */
+  public static void countInSinglePass(
+      SolrIndexSearcher searcher, DocSet docs, List<FieldCounts> fields) throws IOException {
+    final List<FieldCounts> fieldsToCount = new ArrayList<>(fields.size());
+    for (FieldCounts fieldCounts : fields) {
+      if (fieldCounts.si != null && fieldCounts.nTerms > 0) {
+        fieldCounts.counts = new int[fieldCounts.nTerms];
+        fieldsToCount.add(fieldCounts);
+      }
+    }
+    if (fieldsToCount.isEmpty()) {
+      return;
+    }
+
+    final LeafCounter[] leafCounters = new LeafCounter[fieldsToCount.size()];
+    List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
+    for (int subIndex = 0; subIndex < leaves.size(); subIndex++) {
+      LeafReaderContext leaf = leaves.get(subIndex);
+      // solr docsets already exclude any deleted docs
+      DocIdSetIterator disi = docs.iterator(leaf);
+      if (disi == null) {
+        continue;
+      }
+      for (int i = 0; i < leafCounters.length; i++) {
+        leafCounters[i] = fieldsToCount.get(i).newLeafCounter(leaf, subIndex, disi.cost());
+      }
+      int doc;
+      while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+        for (LeafCounter leafCounter : leafCounters) {
+          leafCounter.collect(doc);
+        }
+      }
+      for (LeafCounter leafCounter : leafCounters) {
+        leafCounter.finish();
+      }
+    }
+  }
+
+  /**
+   * The counts of the values of a docValues field per global ordinal, restricted to the terms
+   * starting with a prefix if any.
+   */
+  public static final class FieldCounts {
+    final SchemaField schemaField;
+    final boolean multiValued;
+    final SortedSetDocValues si; // for term lookups only; null if the field has no values
+    final OrdinalMap ordinalMap; // for mapping per-segment ords to global ones
+    final int startTermIndex;
+    final int nTerms;
+    int[] counts; // null until counted
+
+    public FieldCounts(SolrIndexSearcher searcher, String fieldName, String prefix)
+        throws IOException {
+      schemaField = searcher.getSchema().getField(fieldName);
+      FieldType ft = schemaField.getType();
+
+      // TODO: remove multiValuedFieldCache(), check dv type / uninversion type?
+      multiValued = schemaField.multiValued() || ft.multiValuedFieldCache();
+
+      OrdinalMap ordinalMap = null;
+      if (multiValued) {
+        si = searcher.getSlowAtomicReader().getSortedSetDocValues(fieldName);
+        if (si instanceof MultiDocValues.MultiSortedSetDocValues) {
+          ordinalMap = ((MultiSortedSetDocValues) si).mapping;
+        }
+      } else {
+        SortedDocValues single = searcher.getSlowAtomicReader().getSortedDocValues(fieldName);
+        si = single == null ? null : DocValues.singleton(single);
+        if (single instanceof MultiDocValues.MultiSortedDocValues) {
+          ordinalMap = ((MultiDocValues.MultiSortedDocValues) single).mapping;
+        }
+      }
+      this.ordinalMap = ordinalMap;
+      if (si == null) {
+        startTermIndex = -1;
+        nTerms = 0;
+        return;
+      }
+      if (si.getValueCount() >= Integer.MAX_VALUE) {
+        throw new UnsupportedOperationException(
+            "Currently this faceting method is limited to " + Integer.MAX_VALUE + " unique terms");
+      }
+
+      final BytesRefBuilder prefixRef;
+      if (prefix == null) {
+        prefixRef = null;
+      } else if (prefix.length() == 0) {
+        prefix = null;
+        prefixRef = null;
+      } else {
+        prefixRef = new BytesRefBuilder();
+        prefixRef.copyChars(prefix);
+      }
+
+      int endTermIndex;
+      if (prefix != null && si.getValueCount() > 0) {
+        int startTermIndex = (int) si.lookupTerm(prefixRef.get());
+        if (startTermIndex < 0) startTermIndex = -startTermIndex - 1;
+        this.startTermIndex = startTermIndex;
+        prefixRef.append(UnicodeUtil.BIG_TERM);
+        endTermIndex = (int) si.lookupTerm(prefixRef.get());
+        assert endTermIndex < 0;
+        endTermIndex = -endTermIndex - 1;
+      } else {
+        startTermIndex = -1;
+        endTermIndex = (int) si.getValueCount();
+      }
+      nTerms = endTermIndex - startTermIndex;
+    }
+
+    /** Counts the values of the docs, one segment after the other. */
+    void count(SolrIndexSearcher searcher, DocSet docs) throws IOException {
+      // count collection array only needs to be as big as the number of terms we are
+      // going to collect counts for.
+      counts = new int[nTerms];
+      final String fieldName = schemaField.getName();
+
+      List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
+      for (int subIndex = 0; subIndex < leaves.size(); subIndex++) {
+        LeafReaderContext leaf = leaves.get(subIndex);
+        // solr docsets already exclude any deleted docs
+        final DocIdSetIterator disi = docs.iterator(leaf);
+        if (disi != null) {
+          if (multiValued) {
+            SortedSetDocValues sub = leaf.reader().getSortedSetDocValues(fieldName);
+            if (sub == null) {
+              sub = DocValues.emptySortedSet();
+            }
+            final SortedDocValues singleton = DocValues.unwrapSingleton(sub);
+            if (singleton != null) {
+              // some codecs may optimize SORTED_SET storage for single-valued fields
+              accumSingle(counts, startTermIndex, singleton, disi, subIndex, ordinalMap);
+            } else {
+              accumMulti(counts, startTermIndex, sub, disi, subIndex, ordinalMap);
+            }
+          } else {
+            SortedDocValues sub = leaf.reader().getSortedDocValues(fieldName);
+            if (sub == null) {
+              sub = DocValues.emptySorted();
+            }
+            accumSingle(counts, startTermIndex, sub, disi, subIndex, ordinalMap);
+          }
+        }
+      }
+    }
+
+    /** Counts the values of a segment doc by doc, with the same strategies as accumSingle/Multi */
+    LeafCounter newLeafCounter(LeafReaderContext leaf, int subIndex, long cost)
+        throws IOException {
+      final String fieldName = schemaField.getName();
+      if (multiValued) {
+        SortedSetDocValues sub = leaf.reader().getSortedSetDocValues(fieldName);
+        if (sub == null) {
+          sub = DocValues.emptySortedSet();
+        }
+        final SortedDocValues singleton = DocValues.unwrapSingleton(sub);
+        if (singleton != null) {
+          // some codecs may optimize SORTED_SET storage for single-valued fields
+          return new SingleValuedLeafCounter(this, singleton, subIndex, cost);
+        }
+        return new MultiValuedLeafCounter(this, sub, subIndex, cost);
+      } else {
+        SortedDocValues sub = leaf.reader().getSortedDocValues(fieldName);
+        if (sub == null) {
+          sub = DocValues.emptySorted();
+        }
+        return new SingleValuedLeafCounter(this, sub, subIndex, cost);
+      }
+    }
+  }
+
+  /** Counts the values of a field in a segment, one doc at a time. */
+  private abstract static class LeafCounter {
+    final int[] counts;
+    final int startTermIndex;
+    final int subIndex;
+    final OrdinalMap map;
+    // not null if counting in segment ordinal space first, see accumSingleSeg/accumMultiSeg
+    final int[] segCounts;
+    final LongValues ordMap; // for mapping on the fly otherwise
+
+    LeafCounter(FieldCounts fieldCounts, long valueCount, int subIndex, long cost) {
+      this.counts = fieldCounts.counts;
+      this.startTermIndex = fieldCounts.startTermIndex;
+      this.subIndex = subIndex;
+      this.map = fieldCounts.ordinalMap;
+      if (startTermIndex == -1 && (map == null || valueCount < cost * 10)) {
+        segCounts = map == null ? counts : new int[1 + (int) valueCount];
+        ordMap = null;
+      } else {
+        segCounts = null;
+        ordMap = map == null ? null : map.getGlobalOrds(subIndex);
+      }
+    }
+
+    abstract void collect(int doc) throws IOException;
+
+    void finish() {
+      if (segCounts != null && map != null) {
+        migrateGlobal(counts, segCounts, subIndex, map);
+      }
+    }
+  }
+
+  private static final class SingleValuedLeafCounter extends LeafCounter {
+    private final SortedDocValues si;
+
+    SingleValuedLeafCounter(FieldCounts fieldCounts, SortedDocValues si, int subIndex, long cost) {
+      super(fieldCounts, si.getValueCount(), subIndex, cost);
+      this.si = si;
+    }
+
+    @Override
+    void collect(int doc) throws IOException {
+      if (segCounts != null) {
+        if (si.advanceExact(doc)) {
+          segCounts[1 + si.ordValue()]++;
+        } else {
+          segCounts[0]++;
+        }
+        return;
+      }
+      int term;
+      if (si.advanceExact(doc)) {
+        term = si.ordValue();
+      } else {
+        term = -1;
+      }
+      if (map != null && term >= 0) {
+        term = (int) ordMap.get(term);
+      }
+      int arrIdx = term - startTermIndex;
+      if (arrIdx >= 0 && arrIdx < counts.length) counts[arrIdx]++;
+    }
+  }
+
+  private static final class MultiValuedLeafCounter extends LeafCounter {
+    private final SortedSetDocValues si;
+
+    MultiValuedLeafCounter(
+        FieldCounts fieldCounts, SortedSetDocValues si, int subIndex, long cost) {
+      super(fieldCounts, si.getValueCount(), subIndex, cost);
+      this.si = si;
+    }
+
+    @Override
+    void collect(int doc) throws IOException {
+      if (segCounts != null) {
+        if (si.advanceExact(doc)) {
+          int term = (int) si.nextOrd();
+          do {
+            segCounts[1 + term]++;
+          } while ((term = (int) si.nextOrd()) >= 0);
+        } else {
+          counts[0]++; // missing
+        }
+        return;
+      }
+      if (si.advanceExact(doc)) {
+        // strange do-while to collect the missing count (first ord is NO_MORE_ORDS)
+        int term = (int) si.nextOrd();
+        do {
+          if (map != null) {
+            term = (int) ordMap.get(term);
+          }
+          int arrIdx = term - startTermIndex;
+          if (arrIdx >= 0 && arrIdx < counts.length) counts[arrIdx]++;
+        } while ((term = (int) si.nextOrd()) >= 0);
+      } else if (startTermIndex == -1) {
+        counts[0]++; // missing count
+      }
+    }
+  }
+
   /** finalizes result: computes missing count if applicable */
   static NamedList<Integer> finalize(
       NamedList<Integer> res,
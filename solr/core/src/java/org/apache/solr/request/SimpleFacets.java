@@ -74,6 +74,7 @@ import org.apache.solr.common.util.StrUtils;
 import org.apache.solr.handler.component.ResponseBuilder;
 import org.apache.solr.handler.component.SpatialHeatmapFacets;
 import org.apache.solr.request.IntervalFacets.FacetInterval;
+import org.apache.solr.response.SolrQueryResponse;
 import org.apache.solr.schema.BoolField;
 import org.apache.solr.schema.FieldType;
 import org.apache.solr.schema.IndexSchema;
@@ -86,12 +87,15 @@ import org.apache.solr.search.NumericHidingLeafReader;
 import org.apache.solr.search.QParser;
 import org.apache.solr.search.QueryParsing;
 import org.apache.solr.search.QueryUtils;
+import org.apache.solr.search.SolrCache;
 import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.search.SyntaxError;
 import org.apache.solr.search.facet.FacetDebugInfo;
 import org.apache.solr.search.facet.FacetRequest;
+import org.apache.solr.search.grouping.GroupOrdinals;
 import org.apache.solr.search.grouping.GroupingSpecification;
 import org.apache.solr.util.BoundedTreeSet;
+import org.apache.solr.util.LongPriorityQueue;
 import org.apache.solr.util.RTimer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -118,6 +122,14 @@ public class SimpleFacets {
   protected FacetDebugInfo fdebugParent;
   protected FacetDebugInfo fdebug;
 
+  // the group ordinals of the last grouped facet, and the docs they were built for
+  private GroupOrdinals lastGroupOrdinals;
+  private DocSet lastGroupOrdinalsDocs;
+
+  // the docValues counts of the facet fields counted together by countFieldsInSinglePass
+  protected final Map<ParsedParams, DocValuesFacets.FieldCounts> singlePassCounts =
+      new IdentityHashMap<>();
+
   // per-facet values
   protected static final class ParsedParams {
     public final SolrParams localParams; // localParams on this particular facet command
@@ -331,11 +343,63 @@ public class SimpleFacets {
           "Specify the group.field as parameter or local parameter");
     }
 
+    GroupOrdinals groupOrdinals = getGroupOrdinals(groupField, docSet);
+    if (groupOrdinals != null) {
+      return groupOrdinals.getGroupCount(searcher.getDocSet(facetQuery));
+    }
+
     AllGroupsCollector<?> collector = new AllGroupsCollector<>(new TermGroupSelector(groupField));
     searcher.search(QueryUtils.combineQueryAndFilter(facetQuery, docSet.makeQuery()), collector);
     return collector.getGroupCount();
   }
 
+  /**
+   * Returns the {@link GroupOrdinals} of <code>docs</code>, or null if no {@link
+   * GroupOrdinals#CACHE_NAME} cache is configured or the group field isn't supported by them.
+   * They are built once per request for the same docs, and reused across requests from the cache
+   * when <code>docs</code> are the untruncated results of the main query.
+   */
+  protected synchronized GroupOrdinals getGroupOrdinals(String groupField, DocSet docs)
+      throws IOException {
+    if (lastGroupOrdinals != null
+        && lastGroupOrdinalsDocs == docs
+        && lastGroupOrdinals.getGroupField().equals(groupField)) {
+      return lastGroupOrdinals;
+    }
+    SolrCache<Object, Object> groupCache = searcher.getCache(GroupOrdinals.CACHE_NAME);
+    if (groupCache == null
+        || !GroupOrdinals.isSupported(searcher.getSchema().getFieldOrNull(groupField))) {
+      return null;
+    }
+
+    if (isMainResultDocSet(docs)) {
+      Object key =
+          GroupOrdinals.cacheKey(
+              groupField, QueryUtils.makeQueryable(rb.wrap(rb.getQuery())), rb.getFilters());
+      lastGroupOrdinals =
+          (GroupOrdinals)
+              groupCache.computeIfAbsent(
+                  key, k -> GroupOrdinals.create(searcher, groupField, docs));
+    } else {
+      lastGroupOrdinals = GroupOrdinals.create(searcher, groupField, docs);
+    }
+    lastGroupOrdinalsDocs = docs;
+    return lastGroupOrdinals;
+  }
+
+  private boolean isMainResultDocSet(DocSet docs) {
+    if (rb == null || rb.getResults() == null || rb.getResults().docSet != docs) {
+      return false;
+    }
+    GroupingSpecification groupingSpec = rb.getGroupingSpec();
+    if (groupingSpec != null && groupingSpec.isTruncateGroups()) {
+      return false; // the docs are the group heads
+    }
+    NamedList<Object> header = rb.rsp.getResponseHeader();
+    return header == null
+        || !Boolean.TRUE.equals(header.get(SolrQueryResponse.RESPONSE_HEADER_PARTIAL_RESULTS_KEY));
+  }
+
   enum FacetMethod {
     ENUM,
     FC,
@@ -444,10 +508,7 @@ public class SimpleFacets {
     if (limit == 0 && !missing) return new NamedList<>();
 
     if (mincount == null) {
-      Boolean zeros = params.getFieldBool(field, FacetParams.FACET_ZEROS);
-      // mincount = (zeros!=null && zeros) ? 0 : 1;
-      mincount = (zeros != null && !zeros) ? 1 : 0;
-      // current default is to include zeros.
+      mincount = getDefaultMincount(field, params);
     }
 
     // default to sorting if there is a limit.
@@ -471,19 +532,7 @@ public class SimpleFacets {
     FieldType ft = sf.getType();
 
     // determine what type of faceting method to use
-    final String methodStr = params.getFieldParam(field, FacetParams.FACET_METHOD);
-    final FacetMethod requestedMethod;
-    if (FacetParams.FACET_METHOD_enum.equals(methodStr)) {
-      requestedMethod = FacetMethod.ENUM;
-    } else if (FacetParams.FACET_METHOD_fcs.equals(methodStr)) {
-      requestedMethod = FacetMethod.FCS;
-    } else if (FacetParams.FACET_METHOD_fc.equals(methodStr)) {
-      requestedMethod = FacetMethod.FC;
-    } else if (FacetParams.FACET_METHOD_uif.equals(methodStr)) {
-      requestedMethod = FacetMethod.UIF;
-    } else {
-      requestedMethod = null;
-    }
+    final FacetMethod requestedMethod = getRequestedFacetMethod(field, params);
 
     final boolean multiToken = sf.multiValued() || ft.multiValuedFieldCache();
 
@@ -643,19 +692,35 @@ public class SimpleFacets {
           }
           break;
         case FC:
-          counts =
-              DocValuesFacets.getCounts(
-                  searcher,
-                  docs,
-                  field,
-                  offset,
-                  limit,
-                  mincount,
-                  missing,
-                  sort,
-                  prefix,
-                  termFilter,
-                  fdebug);
+          final DocValuesFacets.FieldCounts fieldCounts = singlePassCounts.get(parsed);
+          if (fieldCounts != null && fieldCounts.schemaField.getName().equals(field)) {
+            counts =
+                DocValuesFacets.getCounts(
+                    searcher,
+                    docs,
+                    fieldCounts,
+                    offset,
+                    limit,
+                    mincount,
+                    missing,
+                    sort,
+                    termFilter,
+                    fdebug);
+          } else {
+            counts =
+                DocValuesFacets.getCounts(
+                    searcher,
+                    docs,
+                    field,
+                    offset,
+                    limit,
+                    mincount,
+                    missing,
+                    sort,
+                    prefix,
+                    termFilter,
+                    fdebug);
+          }
           break;
         default:
           throw new AssertionError();
@@ -670,6 +735,30 @@ public class SimpleFacets {
     return counts;
   }
 
+  /** The mincount to use when none is specified, depending on the "zeros" param */
+  private static int getDefaultMincount(String field, SolrParams params) {
+    Boolean zeros = params.getFieldBool(field, FacetParams.FACET_ZEROS);
+    // mincount = (zeros!=null && zeros) ? 0 : 1;
+    // current default is to include zeros.
+    return (zeros != null && !zeros) ? 1 : 0;
+  }
+
+  /** The facet method requested for the field, or null if none is */
+  private static FacetMethod getRequestedFacetMethod(String field, SolrParams params) {
+    final String methodStr = params.getFieldParam(field, FacetParams.FACET_METHOD);
+    if (FacetParams.FACET_METHOD_enum.equals(methodStr)) {
+      return FacetMethod.ENUM;
+    } else if (FacetParams.FACET_METHOD_fcs.equals(methodStr)) {
+      return FacetMethod.FCS;
+    } else if (FacetParams.FACET_METHOD_fc.equals(methodStr)) {
+      return FacetMethod.FC;
+    } else if (FacetParams.FACET_METHOD_uif.equals(methodStr)) {
+      return FacetMethod.UIF;
+    } else {
+      return null;
+    }
+  }
+
   /**
    * @param existsRequested facet.exists=true is passed for the given field
    */
@@ -792,6 +881,24 @@ public class SimpleFacets {
     }
 
     BytesRef prefixBytesRef = prefix != null ? new BytesRef(prefix) : null;
+    boolean orderByCount =
+        sort.equals(FacetParams.FACET_SORT_COUNT)
+            || sort.equals(FacetParams.FACET_SORT_COUNT_LEGACY);
+    if (searcher.getSchema().getField(field).getType().getNumberType() == null) {
+      GroupOrdinals groupOrdinals = getGroupOrdinals(groupField, base);
+      if (groupOrdinals != null) {
+        return getGroupedCounts(
+            groupOrdinals.getFacetCounts(searcher, field, prefixBytesRef),
+            field,
+            offset,
+            limit,
+            mincount,
+            missing,
+            orderByCount,
+            termFilter);
+      }
+    }
+
     final TermGroupFacetCollector collector =
         TermGroupFacetCollector.createTermGroupFacetCollector(
             groupField, field, multiToken, prefixBytesRef, 128);
@@ -801,9 +908,6 @@ public class SimpleFacets {
     // When GroupFacetCollector can handle numerics we can remove the wrapped collectors
     searcher.search(base.makeQuery(), fieldWrapper);
 
-    boolean orderByCount =
-        sort.equals(FacetParams.FACET_SORT_COUNT)
-            || sort.equals(FacetParams.FACET_SORT_COUNT_LEGACY);
     TermGroupFacetCollector.GroupedFacetResult result =
         collector.mergeSegmentResults(
             limit < 0 ? Integer.MAX_VALUE : (offset + limit), mincount, orderByCount);
@@ -829,6 +933,77 @@ public class SimpleFacets {
     return facetCounts;
   }
 
+  /**
+   * Pages the grouped counts of a facet field the same way as {@link
+   * TermGroupFacetCollector.GroupedFacetResult}: the term filter is applied to the page.
+   */
+  private NamedList<Integer> getGroupedCounts(
+      GroupOrdinals.FacetCounts counts,
+      String field,
+      int offset,
+      int limit,
+      int mincount,
+      boolean missing,
+      boolean orderByCount,
+      Predicate<BytesRef> termFilter)
+      throws IOException {
+    CharsRefBuilder charsRef = new CharsRefBuilder();
+    FieldType facetFieldType = searcher.getSchema().getFieldType(field);
+    NamedList<Integer> facetCounts = new NamedList<>();
+    int nTerms = counts.size();
+    int lim = limit < 0 ? Integer.MAX_VALUE : limit;
+
+    if (lim > 0 && orderByCount) {
+      int maxsize = (int) Math.min((long) offset + lim, nTerms);
+      LongPriorityQueue queue =
+          new LongPriorityQueue(Math.min(maxsize, 1000), maxsize, Long.MIN_VALUE);
+      int min = mincount - 1; // the smallest value in the top 'N' values
+      for (int i = 0; i < nTerms && maxsize > 0; i++) {
+        int c = counts.getCount(i);
+        if (c > min) {
+          // smaller term numbers sort higher, so subtract the term number instead
+          long pair = (((long) c) << 32) + (Integer.MAX_VALUE - i);
+          boolean displaced = queue.insert(pair);
+          if (displaced) min = (int) (queue.top() >>> 32);
+        }
+      }
+
+      int collectCount = Math.max(0, queue.size() - offset);
+      int sortedIdxStart = queue.size() - (collectCount - 1);
+      int sortedIdxEnd = queue.size() + 1;
+      final long[] sorted = queue.sort(collectCount);
+      for (int i = sortedIdxStart; i < sortedIdxEnd; i++) {
+        long pair = sorted[i];
+        BytesRef term = counts.getTerm(Integer.MAX_VALUE - (int) pair);
+        if (termFilter != null && !termFilter.test(term)) {
+          continue;
+        }
+        facetFieldType.indexedToReadable(term, charsRef);
+        facetCounts.add(charsRef.toString(), (int) (pair >>> 32));
+      }
+    } else if (lim > 0) {
+      int off = offset;
+      for (int i = 0; i < nTerms; i++) {
+        int c = counts.getCount(i);
+        if (c < mincount) continue;
+        if (--off >= 0) continue;
+        if (--lim < 0) break;
+        BytesRef term = counts.getTerm(i);
+        if (termFilter != null && !termFilter.test(term)) {
+          continue;
+        }
+        facetFieldType.indexedToReadable(term, charsRef);
+        facetCounts.add(charsRef.toString(), c);
+      }
+    }
+
+    if (missing) {
+      facetCounts.add(null, counts.getMissingCount());
+    }
+
+    return facetCounts;
+  }
+
   private Collector getNumericHidingWrapper(final String field, Collector collector) {
     SchemaField sf = searcher.getSchema().getFieldOrNull(field);
     if (sf != null
@@ -887,14 +1062,25 @@ public class SimpleFacets {
       fdebugParent.putInfoItem("maxThreads", maxThreads);
     }
 
+    final List<ParsedParams> parsedFields = new ArrayList<>(facetFs.length);
+    final List<String> fields = new ArrayList<>(facetFs.length);
+    for (String f : facetFs) {
+      final ParsedParams parsed = parseParams(FacetParams.FACET_FIELD, f);
+      parsedFields.add(parsed);
+      fields.add(parsed.facetValue);
+    }
+
     try {
+      // the fields sharing their docs are counted before the (possibly concurrent) tasks, which
+      // then only have to pick their top terms
+      countFieldsInSinglePass(parsedFields, fields, false);
+
       // Loop over fields; submit to executor, keeping the future
-      for (String f : facetFs) {
+      for (ParsedParams parsed : parsedFields) {
         if (fdebugParent != null) {
           fdebug = new FacetDebugInfo();
           fdebugParent.addChild(fdebug);
         }
-        final ParsedParams parsed = parseParams(FacetParams.FACET_FIELD, f);
         final SolrParams localParams = parsed.localParams;
         final String termList = localParams == null ? null : localParams.get(CommonParams.TERMS);
         final String key = parsed.key;
@@ -947,11 +1133,82 @@ public class SimpleFacets {
           SolrException.ErrorCode.SERVER_ERROR,
           "Error while processing facet fields: " + e.toString(),
           e);
+    } finally {
+      singlePassCounts.clear();
     }
 
     return res;
   }
 
+  /**
+   * Counts the docValues of the facet fields using the {@link FacetMethod#FC} method over the same
+   * docs in a single pass over these docs, instead of one pass per field. The counts are then
+   * picked up by {@link #getTermCounts(String, ParsedParams)} and {@link
+   * #getTermCountsForPivots(String, ParsedParams)} for the same {@link ParsedParams} and field,
+   * until {@link #singlePassCounts} is cleared.
+   *
+   * @param parsedFacets the parsed facets to count
+   * @param fields the field to count for each of the parsed facets, in the same order
+   * @param pivot whether the fields are the top level fields of pivots
+   */
+  protected void countFieldsInSinglePass(
+      List<ParsedParams> parsedFacets, List<String> fields, boolean pivot) throws IOException {
+    final Map<DocSet, List<Integer>> facetsByDocs = new IdentityHashMap<>();
+    for (int i = 0; i < parsedFacets.size(); i++) {
+      final ParsedParams parsed = parsedFacets.get(i);
+      if (isSinglePassCandidate(fields.get(i), parsed, pivot)) {
+        facetsByDocs.computeIfAbsent(parsed.docs, k -> new ArrayList<>()).add(i);
+      }
+    }
+    for (Map.Entry<DocSet, List<Integer>> entry : facetsByDocs.entrySet()) {
+      if (entry.getValue().size() < 2) {
+        continue; // nothing to share
+      }
+      final List<DocValuesFacets.FieldCounts> counts = new ArrayList<>(entry.getValue().size());
+      for (int i : entry.getValue()) {
+        final ParsedParams parsed = parsedFacets.get(i);
+        final String field = fields.get(i);
+        final String prefix = parsed.params.getFieldParam(field, FacetParams.FACET_PREFIX);
+        final DocValuesFacets.FieldCounts fieldCounts =
+            new DocValuesFacets.FieldCounts(searcher, field, prefix);
+        singlePassCounts.put(parsed, fieldCounts);
+        counts.add(fieldCounts);
+      }
+      DocValuesFacets.countInSinglePass(searcher, entry.getKey(), counts);
+    }
+  }
+
+  /** Whether {@link #getTermCounts(String, Integer, ParsedParams)} would count the field with FC */
+  private boolean isSinglePassCandidate(String field, ParsedParams parsed, boolean pivot) {
+    final SolrParams params = parsed.params;
+    if (!pivot
+        && parsed.localParams != null
+        && parsed.localParams.get(CommonParams.TERMS) != null) {
+      return false;
+    }
+    if (params.getFieldInt(field, FacetParams.FACET_LIMIT, 100) == 0
+        && !params.getFieldBool(field, FacetParams.FACET_MISSING, false)) {
+      return false;
+    }
+    if (params.getFieldBool(field, GroupParams.GROUP_FACET, false)
+        || params.getFieldBool(field, FacetParams.FACET_EXISTS, false)) {
+      return false;
+    }
+    final SchemaField sf = searcher.getSchema().getFieldOrNull(field);
+    if (sf == null || sf.getType().isPointField()) {
+      return false;
+    }
+    Integer mincount =
+        pivot
+            ? params.getFieldInt(field, FacetParams.FACET_PIVOT_MINCOUNT, 1)
+            : params.getFieldInt(field, FacetParams.FACET_MINCOUNT);
+    if (mincount == null) {
+      mincount = getDefaultMincount(field, params);
+    }
+    final FacetMethod requestedMethod = getRequestedFacetMethod(field, params);
+    return selectFacetMethod(field, sf, requestedMethod, mincount, false) == FacetMethod.FC;
+  }
+
   /**
    * Computes the term-&gt;count counts for the specified term values relative to the
    *
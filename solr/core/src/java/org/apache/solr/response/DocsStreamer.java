@@ -18,6 +18,7 @@ package org.apache.solr.response;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -56,6 +57,15 @@ import org.apache.solr.search.SolrReturnFields;
 public class DocsStreamer implements Iterator<SolrDocument> {
   public static final Set<Class<? extends FieldType>> KNOWN_TYPES = new HashSet<>();
 
+  /**
+   * System property for the number of documents fetched together, see {@link
+   * SolrDocumentFetcher#solrDocs(int[], SolrReturnFields)}. A value of 1 fetches documents one at a
+   * time.
+   */
+  public static final String BATCH_SIZE_PROP = "solr.docsStreamer.batchSize";
+
+  private static final int BATCH_SIZE = Math.max(1, Integer.getInteger(BATCH_SIZE_PROP, 64));
+
   private final org.apache.solr.response.ResultContext rctx;
   private final SolrDocumentFetcher docFetcher; // a collaborator of SolrIndexSearcher
   private final DocList docs;
@@ -67,6 +77,13 @@ public class DocsStreamer implements Iterator<SolrDocument> {
 
   private int idx = -1;
 
+  // the documents fetched ahead of time, with their ids and scores
+  private final int[] batchIds;
+  private final float[] batchScores;
+  private SolrDocument[] batch;
+  private int batchIdx;
+  private int batchSize;
+
   public DocsStreamer(ResultContext rctx) {
     this.rctx = rctx;
     this.docs = rctx.getDocList();
@@ -75,6 +92,10 @@ public class DocsStreamer implements Iterator<SolrDocument> {
     docFetcher = rctx.getSearcher().getDocFetcher();
     solrReturnFields = (SolrReturnFields) rctx.getReturnFields();
 
+    final int maxBatchSize = Math.min(BATCH_SIZE, docs.size());
+    batchIds = maxBatchSize > 1 ? new int[maxBatchSize] : null;
+    batchScores = maxBatchSize > 1 && rctx.wantsScores() ? new float[maxBatchSize] : null;
+
     if (transformer != null) transformer.setContext(rctx);
   }
 
@@ -83,19 +104,33 @@ public class DocsStreamer implements Iterator<SolrDocument> {
   }
 
   public boolean hasNext() {
-    return docIterator.hasNext();
+    return batchIdx < batchSize || docIterator.hasNext();
   }
 
   public SolrDocument next() {
-    int id = docIterator.nextDoc();
+    final int id;
+    final SolrDocument sdoc;
+    final float score;
+    if (batchIds == null) {
+      id = docIterator.nextDoc();
+      sdoc = docFetcher.solrDoc(id, solrReturnFields);
+      score = rctx.wantsScores() ? docIterator.score() : 0f;
+    } else {
+      if (batchIdx == batchSize) {
+        fetchBatch();
+      }
+      id = batchIds[batchIdx];
+      sdoc = batch[batchIdx];
+      score = batchScores != null ? batchScores[batchIdx] : 0f;
+      batch[batchIdx++] = null;
+    }
     idx++;
-    SolrDocument sdoc = docFetcher.solrDoc(id, solrReturnFields);
 
     if (transformer != null) {
       boolean doScore = rctx.wantsScores();
       try {
         if (doScore) {
-          transformer.transform(sdoc, id, docIterator.score());
+          transformer.transform(sdoc, id, score);
         } else {
           transformer.transform(sdoc, id);
         }
@@ -107,6 +142,23 @@ public class DocsStreamer implements Iterator<SolrDocument> {
     return sdoc;
   }
 
+  /** Fetches the next documents all at once, which is cheaper than one at a time */
+  private void fetchBatch() {
+    batchSize = 0;
+    while (batchSize < batchIds.length && docIterator.hasNext()) {
+      batchIds[batchSize] = docIterator.nextDoc();
+      if (batchScores != null) {
+        batchScores[batchSize] = docIterator.score();
+      }
+      batchSize++;
+    }
+    batchIdx = 0;
+    batch =
+        docFetcher.solrDocs(
+            batchSize == batchIds.length ? batchIds : Arrays.copyOf(batchIds, batchSize),
+            solrReturnFields);
+  }
+
   /**
    * This method is less efficient then the 3 arg version because it may convert some fields that
    * are not needed
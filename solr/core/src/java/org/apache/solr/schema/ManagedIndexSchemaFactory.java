@@ -533,6 +533,9 @@ public class ManagedIndexSchemaFactory extends IndexSchemaFactory implements Sol
   @Override
   public void inform(SolrCore core) {
     this.core = core;
+    if (loader == null && core.getLatestSchema() instanceof ManagedIndexSchema) {
+      adoptSharedSchema(core);
+    }
     if (loader instanceof ZkSolrResourceLoader) {
       this.zkIndexSchemaReader = new ZkIndexSchemaReader(this, core);
       ZkSolrResourceLoader zkLoader = (ZkSolrResourceLoader) loader;
@@ -558,6 +561,23 @@ public class ManagedIndexSchemaFactory extends IndexSchemaFactory implements Sol
     }
   }
 
+  /**
+   * Called when the core's schema was served from the shared schema cache (see {@link
+   * ConfigSetService#getSharedIndexSchema}) instead of being created by this factory. Picks up the
+   * shared schema so that this core still follows schema changes in ZooKeeper.
+   */
+  private void adoptSharedSchema(SolrCore core) {
+    this.config = core.getSolrConfig();
+    this.loader = config.getResourceLoader();
+    this.schema = (ManagedIndexSchema) core.getLatestSchema();
+    this.schemaUpdateLock = schema.getSchemaUpdateLock();
+    if (loader instanceof ZkSolrResourceLoader) {
+      final String managedSchemaPath = lookupZKManagedSchemaPath();
+      managedSchemaResourceName =
+          managedSchemaPath.substring(managedSchemaPath.lastIndexOf("/") + 1);
+    }
+  }
+
   public ManagedIndexSchema getSchema() {
     return schema;
   }
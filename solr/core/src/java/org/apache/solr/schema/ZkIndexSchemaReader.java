@@ -20,12 +20,15 @@ import java.io.ByteArrayInputStream;
 import java.lang.invoke.MethodHandles;
 import java.util.concurrent.TimeUnit;
 import org.apache.solr.cloud.ZkSolrResourceLoader;
+import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrException.ErrorCode;
 import org.apache.solr.common.cloud.OnReconnect;
 import org.apache.solr.common.cloud.SolrZkClient;
 import org.apache.solr.common.cloud.ZooKeeperException;
 import org.apache.solr.core.CloseHook;
+import org.apache.solr.core.ConfigSetService;
 import org.apache.solr.core.CoreContainer;
+import org.apache.solr.core.SolrConfig;
 import org.apache.solr.core.SolrCore;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.WatchedEvent;
@@ -47,6 +50,8 @@ public class ZkIndexSchemaReader implements OnReconnect {
       uniqueCoreId; // used in equals impl to uniquely identify the core that we're dependent on
   private SchemaWatcher schemaWatcher;
   private ZkSolrResourceLoader zkLoader;
+  private final ConfigSetService configSetService;
+  private final String configSetName;
 
   public ZkIndexSchemaReader(
       ManagedIndexSchemaFactory managedIndexSchemaFactory, SolrCore solrCore) {
@@ -55,6 +60,8 @@ public class ZkIndexSchemaReader implements OnReconnect {
     this.zkClient = zkLoader.getZkController().getZkClient();
     this.managedSchemaPath = managedIndexSchemaFactory.lookupZKManagedSchemaPath();
     this.uniqueCoreId = solrCore.getName() + ":" + solrCore.getStartNanoTime();
+    this.configSetService = solrCore.getCoreContainer().getConfigSetService();
+    this.configSetName = solrCore.getCoreDescriptor().getConfigSet();
 
     // register a CloseHook for the core this reader is linked to, so that we can de-register the
     // listener
@@ -179,19 +186,34 @@ public class ZkIndexSchemaReader implements OnReconnect {
             log.info("Retrieved schema version {} from Zookeeper", stat.getVersion());
           }
           long start = System.nanoTime();
-          String resourceName = managedIndexSchemaFactory.getManagedSchemaResourceName();
-          ManagedIndexSchema newSchema =
-              new ManagedIndexSchema(
-                  managedIndexSchemaFactory.getConfig(),
+          final int zkVersion = stat.getVersion();
+          final String resourceName = managedIndexSchemaFactory.getManagedSchemaResourceName();
+          final SolrConfig solrConfig = managedIndexSchemaFactory.getConfig();
+          // cores of the same configSet all watch the same znode; when schema sharing is enabled
+          // only the first of them to see a new version parses it, the others reuse that instance
+          IndexSchema newSchema =
+              configSetService.getSharedIndexSchema(
+                  configSetName,
                   resourceName,
+                  zkVersion,
+                  solrConfig.luceneMatchVersion,
                   () ->
-                      IndexSchemaFactory.getParsedSchema(
-                          new ByteArrayInputStream(data), zkLoader, resourceName),
-                  managedIndexSchemaFactory.isMutable(),
-                  resourceName,
-                  stat.getVersion(),
-                  oldSchema.getSchemaUpdateLock());
-          managedIndexSchemaFactory.setSchema(newSchema);
+                      new ManagedIndexSchema(
+                          solrConfig,
+                          resourceName,
+                          () ->
+                              IndexSchemaFactory.getParsedSchema(
+                                  new ByteArrayInputStream(data), zkLoader, resourceName),
+                          managedIndexSchemaFactory.isMutable(),
+                          resourceName,
+                          zkVersion,
+                          oldSchema.getSchemaUpdateLock()));
+          if (!(newSchema instanceof ManagedIndexSchema)) {
+            throw new SolrException(
+                ErrorCode.SERVER_ERROR,
+                "Shared schema for configSet " + configSetName + " is not a managed schema");
+          }
+          managedIndexSchemaFactory.setSchema((ManagedIndexSchema) newSchema);
           long stop = System.nanoTime();
           log.info(
               "Finished refreshing schema in {} ms",
@@ -25,6 +25,7 @@ import com.carrotsearch.hppc.IntLongHashMap;
 import com.carrotsearch.hppc.cursors.IntIntCursor;
 import com.carrotsearch.hppc.cursors.IntLongCursor;
 import com.carrotsearch.hppc.procedures.IntProcedure;
+import com.codahale.metrics.Histogram;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
@@ -52,6 +53,7 @@ import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.queries.function.FunctionQuery;
 import org.apache.lucene.queries.function.FunctionValues;
 import org.apache.lucene.queries.function.ValueSource;
+import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.FieldComparator;
 import org.apache.lucene.search.IndexSearcher;
@@ -60,6 +62,7 @@ import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryVisitor;
 import org.apache.lucene.search.Scorable;
 import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SimpleCollector;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.util.ArrayUtil;
@@ -67,12 +70,15 @@ import org.apache.lucene.util.BitSetIterator;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.LongValues;
+import org.apache.lucene.util.RamUsageEstimator;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.params.GroupParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.core.SolrInfoBean;
 import org.apache.solr.handler.component.QueryElevationComponent;
 import org.apache.solr.handler.component.ResponseBuilder;
+import org.apache.solr.metrics.SolrMetricsContext;
 import org.apache.solr.request.LocalSolrQueryRequest;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.request.SolrRequestInfo;
@@ -298,6 +304,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     private NullPolicy nullPolicy;
     private Set<BytesRef> boosted; // ordered by "priority"
     private int size;
+    private boolean parallel;
 
     public String getField() {
       return this.collapseField;
@@ -348,6 +355,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
           + (hint == null ? "" : ", hint=" + this.hint)
           + ", size="
           + this.size
+          + (parallel ? ", parallel=true" : "")
           + ")";
     }
 
@@ -401,6 +409,8 @@ public class CollapsingQParserPlugin extends QParserPlugin {
 
       this.hint = localParams.get("hint");
       this.size = localParams.getInt("size", 100000); // Only used for collapsing on int fields.
+      // Only used when selecting group heads by score.
+      this.parallel = localParams.getBool("parallel", false);
 
       {
         final SolrRequestInfo info = SolrRequestInfo.getRequestInfo();
@@ -457,17 +467,27 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         }
 
         boostDocsMap = QueryElevationComponent.getBoostDocs(searcher, this.boosted, context);
-        return collectorFactory.getCollector(
-            this.collapseField,
-            this.groupHeadSelector,
-            this.sortSpec,
-            this.nullPolicy.getCode(),
-            this.hint,
-            this.needsScores4Collapsing,
-            this.needsScores,
-            this.size,
-            boostDocsMap,
-            searcher);
+        final DelegatingCollector collector =
+            collectorFactory.getCollector(
+                this.collapseField,
+                this.groupHeadSelector,
+                this.sortSpec,
+                this.nullPolicy.getCode(),
+                this.hint,
+                this.needsScores4Collapsing,
+                this.needsScores,
+                this.size,
+                this.parallel,
+                boostDocsMap,
+                searcher);
+        final SolrMetricsContext solrMetricsContext = searcher.getCore().getSolrMetricsContext();
+        if (collector instanceof GroupHeadCollector && solrMetricsContext != null) {
+          // standard query parsers are shared by all cores, so this is registered with the core
+          ((GroupHeadCollector) collector).groupHeadBytes =
+              solrMetricsContext.histogram(
+                  "groupHeadBytes", SolrInfoBean.Category.QUERYPARSER.toString(), NAME);
+        }
+        return collector;
 
       } catch (IOException e) {
         throw new RuntimeException(e);
@@ -571,12 +591,99 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     }
   }
 
+  /**
+   * Collects the score selected group heads of a single segment, so that {@link OrdScoreCollector}
+   * and {@link IntScoreCollector} can have their segments collected in parallel. Group keys are
+   * segment ords or collapse values; each head packs the score bits with the segment doc, like
+   * {@link IntScoreCollector} does. Only queries with a thread-safe Weight are collected in
+   * parallel, and their scores are never negative, so the scores and their bits sort the same.
+   */
+  private abstract static class SegmentScoreCollector extends SimpleCollector {
+
+    final int nullPolicy;
+    final IntLongHashMap heads = new IntLongHashMap();
+    float nullScore = -Float.MAX_VALUE;
+    int nullDoc = -1;
+    IntArrayList nullDocs;
+    FloatArrayList nullScores;
+    Scorable scorer;
+
+    SegmentScoreCollector(int nullPolicy) {
+      this.nullPolicy = nullPolicy;
+      if (nullPolicy == NullPolicy.EXPAND.getCode()) {
+        nullDocs = new IntArrayList();
+        nullScores = new FloatArrayList();
+      }
+    }
+
+    static float score(long head) {
+      return Float.intBitsToFloat((int) (head >>> 32));
+    }
+
+    static int doc(long head) {
+      return (int) head;
+    }
+
+    @Override
+    public ScoreMode scoreMode() {
+      return ScoreMode.COMPLETE;
+    }
+
+    @Override
+    public void setScorer(Scorable scorer) {
+      this.scorer = scorer;
+    }
+
+    void collectInGroup(int key, int contextDoc) throws IOException {
+      final float score = scorer.score();
+      final long head = (((long) Float.floatToRawIntBits(score)) << 32) | contextDoc;
+      final int idx = heads.indexOf(key);
+      if (idx < 0) {
+        heads.indexInsert(idx, key, head);
+      } else if (score > score(heads.indexGet(idx))) {
+        heads.indexReplace(idx, head);
+      }
+    }
+
+    void collectInNullGroup(int contextDoc) throws IOException {
+      if (nullPolicy == NullPolicy.COLLAPSE.getCode()) {
+        final float score = scorer.score();
+        if (score > nullScore) {
+          nullScore = score;
+          nullDoc = contextDoc;
+        }
+      } else if (nullPolicy == NullPolicy.EXPAND.getCode()) {
+        nullDocs.add(contextDoc);
+        nullScores.add(scorer.score());
+      }
+    }
+  }
+
+  /**
+   * Base class of the collectors that hold their group heads in structures growing with the number
+   * of groups (or collapse values), so that the memory these take can be recorded per request.
+   */
+  abstract static class GroupHeadCollector extends DelegatingCollector {
+
+    Histogram groupHeadBytes; // may be null
+
+    /** Returns the bytes taken by the structures holding the group heads. */
+    abstract long groupHeadRamBytesUsed();
+
+    /** Called at the start of {@link #finish()}, once all group heads have been collected. */
+    void recordGroupHeadBytes() {
+      if (groupHeadBytes != null) {
+        groupHeadBytes.update(groupHeadRamBytesUsed());
+      }
+    }
+  }
+
   /**
    * Collapses on Ordinal Values using Score to select the group head.
    *
    * @lucene.internal
    */
-  static class OrdScoreCollector extends DelegatingCollector {
+  static class OrdScoreCollector extends GroupHeadCollector implements SegmentParallelCollector {
 
     private LeafReaderContext[] contexts;
     private final DocValuesProducer collapseValuesProducer;
@@ -594,6 +701,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     private int nullDoc = -1;
     private boolean collectElevatedDocsWhenCollapsing;
     private FloatArrayList nullScores;
+    private final boolean parallel;
 
     private final BoostedDocsCollector boostedDocsCollector;
 
@@ -604,9 +712,11 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         int nullPolicy,
         IntIntHashMap boostDocsMap,
         IndexSearcher searcher,
-        boolean collectElevatedDocsWhenCollapsing)
+        boolean collectElevatedDocsWhenCollapsing,
+        boolean parallel)
         throws IOException {
       this.maxDoc = maxDoc;
+      this.parallel = parallel;
       this.contexts = new LeafReaderContext[segments];
       this.collectElevatedDocsWhenCollapsing = collectElevatedDocsWhenCollapsing;
       List<LeafReaderContext> con = searcher.getTopReaderContext().leaves();
@@ -637,6 +747,56 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       return ScoreMode.COMPLETE;
     }
 
+    @Override
+    public boolean collectSegmentsInParallel() {
+      // segment ords can only be merged through an OrdinalMap (not with top_fc), and the boosted
+      // docs are tracked across all segments at once
+      return parallel
+          && ordinalMap != null
+          && (!collectElevatedDocsWhenCollapsing || !boostedDocsCollector.hasBoosts);
+    }
+
+    @Override
+    public Collector newSegmentCollector(LeafReaderContext context) {
+      // each segment's values are only ever used by the thread collecting that segment
+      final SortedDocValues values = multiSortedDocValues.values[context.ord];
+      return new SegmentScoreCollector(nullPolicy) {
+        @Override
+        public void collect(int contextDoc) throws IOException {
+          if (values.advanceExact(contextDoc)) {
+            collectInGroup(values.ordValue(), contextDoc);
+          } else {
+            collectInNullGroup(contextDoc);
+          }
+        }
+      };
+    }
+
+    @Override
+    public void mergeSegmentCollector(LeafReaderContext context, Collector segmentCollector) {
+      final SegmentScoreCollector segment = (SegmentScoreCollector) segmentCollector;
+      final LongValues globalOrds = ordinalMap.getGlobalOrds(context.ord);
+      for (IntLongCursor cursor : segment.heads) {
+        final int ord = (int) globalOrds.get(cursor.key);
+        final float score = SegmentScoreCollector.score(cursor.value);
+        // segments are merged in order, so ties keep the lowest doc just like collect() does
+        if (score > scores.get(ord)) {
+          ords.put(ord, context.docBase + SegmentScoreCollector.doc(cursor.value));
+          scores.put(ord, score);
+        }
+      }
+      if (segment.nullScore > nullScore) {
+        nullScore = segment.nullScore;
+        nullDoc = context.docBase + segment.nullDoc;
+      }
+      if (segment.nullDocs != null) {
+        for (int i = 0; i < segment.nullDocs.size(); i++) {
+          collapsedSet.set(context.docBase + segment.nullDocs.get(i));
+        }
+        nullScores.addAll(segment.nullScores);
+      }
+    }
+
     @Override
     protected void doSetNextReader(LeafReaderContext context) throws IOException {
       this.contexts[context.ord] = context;
@@ -696,11 +856,17 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       }
     }
 
+    @Override
+    long groupHeadRamBytesUsed() {
+      return ords.ramBytesUsed() + scores.ramBytesUsed();
+    }
+
     @Override
     public void finish() throws IOException {
       if (contexts.length == 0) {
         return;
       }
+      recordGroupHeadBytes();
 
       // Handle the boosted docs.
       boostedDocsCollector.purgeGroupsThatHaveBoostedDocs(
@@ -798,7 +964,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
    *
    * @lucene.internal
    */
-  static class IntScoreCollector extends DelegatingCollector {
+  static class IntScoreCollector extends GroupHeadCollector implements SegmentParallelCollector {
 
     private LeafReaderContext[] contexts;
     private FixedBitSet collapsedSet;
@@ -811,6 +977,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     private FloatArrayList nullScores;
     private String field;
     private boolean collectElevatedDocsWhenCollapsing;
+    private final boolean parallel;
 
     private final BoostedDocsCollector boostedDocsCollector;
 
@@ -822,8 +989,10 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         String field,
         IntIntHashMap boostDocsMap,
         IndexSearcher searcher,
-        boolean collectElevatedDocsWhenCollapsing) {
+        boolean collectElevatedDocsWhenCollapsing,
+        boolean parallel) {
       this.maxDoc = maxDoc;
+      this.parallel = parallel;
       this.contexts = new LeafReaderContext[segments];
       this.collectElevatedDocsWhenCollapsing = collectElevatedDocsWhenCollapsing;
       List<LeafReaderContext> con = searcher.getTopReaderContext().leaves();
@@ -847,6 +1016,56 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       return ScoreMode.COMPLETE;
     }
 
+    @Override
+    public boolean collectSegmentsInParallel() {
+      // the boosted docs are tracked across all segments at once
+      return parallel && (!collectElevatedDocsWhenCollapsing || !boostedDocsCollector.hasBoosts);
+    }
+
+    @Override
+    public Collector newSegmentCollector(LeafReaderContext context) throws IOException {
+      final NumericDocValues values = DocValues.getNumeric(context.reader(), this.field);
+      return new SegmentScoreCollector(nullPolicy) {
+        @Override
+        public void collect(int contextDoc) throws IOException {
+          if (values.advanceExact(contextDoc)) {
+            collectInGroup((int) values.longValue(), contextDoc);
+          } else {
+            collectInNullGroup(contextDoc);
+          }
+        }
+      };
+    }
+
+    @Override
+    public void mergeSegmentCollector(LeafReaderContext context, Collector segmentCollector) {
+      final SegmentScoreCollector segment = (SegmentScoreCollector) segmentCollector;
+      for (IntLongCursor cursor : segment.heads) {
+        final float score = SegmentScoreCollector.score(cursor.value);
+        final long scoreDoc =
+            (((long) Float.floatToRawIntBits(score)) << 32)
+                + context.docBase
+                + SegmentScoreCollector.doc(cursor.value);
+        final int idx = cmap.indexOf(cursor.key);
+        if (idx < 0) {
+          cmap.indexInsert(idx, cursor.key, scoreDoc);
+        } else if (Float.floatToRawIntBits(score) > (int) (cmap.indexGet(idx) >> 32)) {
+          // same comparison as collect(), segments are merged in order so ties keep the lowest doc
+          cmap.indexReplace(idx, scoreDoc);
+        }
+      }
+      if (segment.nullScore > nullScore) {
+        nullScore = segment.nullScore;
+        nullDoc = context.docBase + segment.nullDoc;
+      }
+      if (segment.nullDocs != null) {
+        for (int i = 0; i < segment.nullDocs.size(); i++) {
+          collapsedSet.set(context.docBase + segment.nullDocs.get(i));
+        }
+        nullScores.addAll(segment.nullScores);
+      }
+    }
+
     @Override
     protected void doSetNextReader(LeafReaderContext context) throws IOException {
       this.contexts[context.ord] = context;
@@ -903,11 +1122,17 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       }
     }
 
+    @Override
+    long groupHeadRamBytesUsed() {
+      return RamUsageEstimator.sizeOf(cmap.keys) + RamUsageEstimator.sizeOf(cmap.values);
+    }
+
     @Override
     public void finish() throws IOException {
       if (contexts.length == 0) {
         return;
       }
+      recordGroupHeadBytes();
 
       // Handle the boosted docs.
       boostedDocsCollector.purgeGroupsThatHaveBoostedDocs(
@@ -988,7 +1213,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
    *
    * @lucene.internal
    */
-  static class OrdFieldValueCollector extends DelegatingCollector {
+  static class OrdFieldValueCollector extends GroupHeadCollector {
     private LeafReaderContext[] contexts;
 
     private DocValuesProducer collapseValuesProducer;
@@ -1177,10 +1402,16 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       collapseStrategy.collapse(ord, contextDoc, globalDoc);
     }
 
+    @Override
+    long groupHeadRamBytesUsed() {
+      return collapseStrategy.ramBytesUsed();
+    }
+
     public void finish() throws IOException {
       if (contexts.length == 0) {
         return;
       }
+      recordGroupHeadBytes();
 
       int currentContext = 0;
       int currentDocBase = 0;
@@ -1269,7 +1500,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
    *
    * @lucene.internal
    */
-  static class IntFieldValueCollector extends DelegatingCollector {
+  static class IntFieldValueCollector extends GroupHeadCollector {
     private LeafReaderContext[] contexts;
     private NumericDocValues collapseValues;
     private int maxDoc;
@@ -1421,10 +1652,16 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       }
     }
 
+    @Override
+    long groupHeadRamBytesUsed() {
+      return collapseStrategy.ramBytesUsed();
+    }
+
     public void finish() throws IOException {
       if (contexts.length == 0) {
         return;
       }
+      recordGroupHeadBytes();
 
       int currentContext = 0;
       int currentDocBase = 0;
@@ -2037,6 +2274,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         boolean needsScores4Collapsing,
         boolean needsScores,
         int size,
+        boolean parallel,
         IntIntHashMap boostDocs,
         SolrIndexSearcher searcher)
         throws IOException {
@@ -2129,7 +2367,8 @@ public class CollapsingQParserPlugin extends QParserPlugin {
               nullPolicy,
               boostDocs,
               searcher,
-              collectElevatedDocsWhenCollapsing);
+              collectElevatedDocsWhenCollapsing,
+              parallel);
 
         } else if (isNumericCollapsible(collapseFieldType)) {
           if (blockCollapse) {
@@ -2144,7 +2383,8 @@ public class CollapsingQParserPlugin extends QParserPlugin {
               collapseField,
               boostDocs,
               searcher,
-              collectElevatedDocsWhenCollapsing);
+              collectElevatedDocsWhenCollapsing,
+              parallel);
 
         } else {
           throw new SolrException(
@@ -2335,6 +2575,10 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     public IntFloatDynamicMap getScores() {
       return scores;
     }
+
+    public long ramBytesUsed() {
+      return ords.ramBytesUsed() + (scores == null ? 0 : scores.ramBytesUsed());
+    }
   }
 
   /*
@@ -2372,6 +2616,11 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       }
     }
 
+    @Override
+    public long ramBytesUsed() {
+      return super.ramBytesUsed() + ordVals.ramBytesUsed();
+    }
+
     public void setNextReader(LeafReaderContext context) throws IOException {
       this.minMaxValues = DocValues.getNumeric(context.reader(), this.field);
     }
@@ -2447,6 +2696,11 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       }
     }
 
+    @Override
+    public long ramBytesUsed() {
+      return super.ramBytesUsed() + ordVals.ramBytesUsed();
+    }
+
     public void setNextReader(LeafReaderContext context) throws IOException {
       this.minMaxValues = DocValues.getNumeric(context.reader(), this.field);
     }
@@ -2524,6 +2778,11 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       }
     }
 
+    @Override
+    public long ramBytesUsed() {
+      return super.ramBytesUsed() + ordVals.ramBytesUsed();
+    }
+
     public void setNextReader(LeafReaderContext context) throws IOException {
       this.minMaxVals = DocValues.getNumeric(context.reader(), this.field);
     }
@@ -2608,6 +2867,11 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       collapseScore.setupIfNeeded(groupHeadSelector, rcontext);
     }
 
+    @Override
+    public long ramBytesUsed() {
+      return super.ramBytesUsed() + ordVals.ramBytesUsed();
+    }
+
     public void setNextReader(LeafReaderContext context) throws IOException {
       functionValues = this.valueSource.getValues(rcontext, context);
     }
@@ -2868,6 +3132,13 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     public IntIntDynamicMap getDocs() {
       return docs;
     }
+
+    public long ramBytesUsed() {
+      return RamUsageEstimator.sizeOf(cmap.keys)
+          + RamUsageEstimator.sizeOf(cmap.values)
+          + docs.ramBytesUsed()
+          + (scores == null ? 0 : scores.ramBytesUsed());
+    }
   }
 
   /*
@@ -2909,6 +3180,11 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       }
     }
 
+    @Override
+    public long ramBytesUsed() {
+      return super.ramBytesUsed() + testValues.ramBytesUsed();
+    }
+
     public void setNextReader(LeafReaderContext context) throws IOException {
       this.minMaxVals = DocValues.getNumeric(context.reader(), this.field);
     }
@@ -3000,6 +3276,11 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       }
     }
 
+    @Override
+    public long ramBytesUsed() {
+      return super.ramBytesUsed() + testValues.ramBytesUsed();
+    }
+
     public void setNextReader(LeafReaderContext context) throws IOException {
       this.minMaxVals = DocValues.getNumeric(context.reader(), this.field);
     }
@@ -3106,6 +3387,11 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       collapseScore.setupIfNeeded(groupHeadSelector, rcontext);
     }
 
+    @Override
+    public long ramBytesUsed() {
+      return super.ramBytesUsed() + testValues.ramBytesUsed();
+    }
+
     @SuppressWarnings({"unchecked"})
     public void setNextReader(LeafReaderContext context) throws IOException {
       functionValues = this.valueSource.getValues(rcontext, context);
@@ -66,6 +66,7 @@ import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.schema.FieldType;
 import org.apache.solr.schema.SchemaField;
 import org.apache.solr.schema.StrFieldSource;
+import org.apache.solr.search.grouping.GroupOrdinals;
 import org.apache.solr.search.grouping.collector.FilterCollector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -108,6 +109,8 @@ public class Grouping {
   private float maxScore = Float.NaN; // max score seen in any doclist
   private boolean signalCacheWarning = false;
   private TimeLimitingCollector timeLimitingCollector;
+  private SolrCache<Object, Object> groupCache;
+  private DocSet matchingDocs; // only set when group ordinals need to be built from it
 
   // output if one of the grouping commands should be used as the main result.
   public DocList mainResult;
@@ -326,6 +329,8 @@ public class Grouping {
     getDocSet = (cmd.getFlags() & SolrIndexSearcher.GET_DOCSET) != 0;
     getDocList = (cmd.getFlags() & SolrIndexSearcher.GET_DOCLIST) != 0;
     query = QueryUtils.makeQueryable(cmd.getQuery());
+    // group ordinals are cached by query and filters, which don't cover a DocSet filter
+    groupCache = cmd.getFilter() == null ? searcher.getCache(GroupOrdinals.CACHE_NAME) : null;
 
     for (Command<?> cmd : commands) {
       cmd.prepare();
@@ -344,7 +349,7 @@ public class Grouping {
     }
 
     DocSetCollector setCollector = null;
-    if (getDocSet && allGroupHeadsCollector == null) {
+    if ((getDocSet || needsGroupOrdinals()) && allGroupHeadsCollector == null) {
       setCollector = new DocSetCollector(maxDoc);
       collectors.add(setCollector);
     }
@@ -377,8 +382,14 @@ public class Grouping {
 
     if (getGroupedDocSet && allGroupHeadsCollector != null) {
       qr.setDocSet(new BitDocSet(allGroupHeadsCollector.retrieveGroupHeads(maxDoc)));
-    } else if (getDocSet) {
-      qr.setDocSet(setCollector.getDocSet());
+    } else if (setCollector != null) {
+      DocSet docSet = setCollector.getDocSet();
+      if (getDocSet) {
+        qr.setDocSet(docSet);
+      }
+      if (needsGroupOrdinals() && !qr.isPartialResults()) {
+        matchingDocs = docSet;
+      }
     }
 
     collectors.clear();
@@ -435,6 +446,15 @@ public class Grouping {
     }
   }
 
+  private boolean needsGroupOrdinals() {
+    for (Command<?> command : commands) {
+      if (command instanceof CommandField && ((CommandField) command).needsGroupOrdinals()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Invokes search with the specified filter and collector. If a time limit has been specified,
    * wrap the collector in a TimeLimitingCollector
@@ -737,9 +757,23 @@ public class Grouping {
     TotalHitCountCollector fallBackCollector;
     Collection<SearchGroup<BytesRef>> topGroups;
 
+    // counts the groups instead of allGroupsCollector when the group ordinals cache is configured
+    Object groupOrdinalsKey;
+    GroupOrdinals groupOrdinals;
+
     @Override
     protected void prepare() throws IOException {
       actualGroupsToFind = getMax(offset, numGroups, maxDoc);
+      if (groupCache != null
+          && totalCount == TotalCount.grouped
+          && GroupOrdinals.isSupported(searcher.getSchema().getField(groupBy))) {
+        groupOrdinalsKey = GroupOrdinals.cacheKey(groupBy, query, cmd.getFilterList());
+        groupOrdinals = (GroupOrdinals) groupCache.get(groupOrdinalsKey);
+      }
+    }
+
+    boolean needsGroupOrdinals() {
+      return groupOrdinalsKey != null && groupOrdinals == null;
     }
 
     @Override
@@ -759,15 +793,21 @@ public class Grouping {
 
     @Override
     protected Collector createSecondPassCollector() throws IOException {
+      if (needsGroupOrdinals() && matchingDocs != null) {
+        groupOrdinals = GroupOrdinals.create(searcher, groupBy, matchingDocs);
+        groupCache.put(groupOrdinalsKey, groupOrdinals);
+      }
+      final boolean countGroups = totalCount == TotalCount.grouped && groupOrdinals == null;
+
       if (actualGroupsToFind <= 0) {
         allGroupsCollector = new AllGroupsCollector<>(new TermGroupSelector(groupBy));
-        return totalCount == TotalCount.grouped ? allGroupsCollector : null;
+        return countGroups ? allGroupsCollector : null;
       }
 
       topGroups =
           format == Format.grouped ? firstPass.getTopGroups(offset) : firstPass.getTopGroups(0);
       if (topGroups == null) {
-        if (totalCount == TotalCount.grouped) {
+        if (countGroups) {
           allGroupsCollector = new AllGroupsCollector<>(new TermGroupSelector(groupBy));
           fallBackCollector = new TotalHitCountCollector();
           return MultiCollector.wrap(allGroupsCollector, fallBackCollector);
@@ -789,7 +829,7 @@ public class Grouping {
               groupedDocsToCollect,
               needScores);
 
-      if (totalCount == TotalCount.grouped) {
+      if (countGroups) {
         allGroupsCollector = new AllGroupsCollector<>(new TermGroupSelector(groupBy));
         return MultiCollector.wrap(secondPass, allGroupsCollector);
       } else {
@@ -875,6 +915,9 @@ public class Grouping {
 
     @Override
     protected Integer getNumberOfGroups() {
+      if (groupOrdinals != null) {
+        return groupOrdinals.getGroupCount();
+      }
       return allGroupsCollector == null ? null : allGroupsCollector.getGroupCount();
     }
   }
@@ -31,16 +31,21 @@ import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.ConstantScoreScorer;
 import org.apache.lucene.search.ConstantScoreWeight;
+import org.apache.lucene.search.DocIdSet;
 import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.FilteredDocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryVisitor;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.DocIdSetBuilder;
 import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.RamUsageEstimator;
 import org.apache.lucene.util.StringHelper;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.util.SimpleOrderedMap;
@@ -55,6 +60,14 @@ import org.apache.solr.util.RTimer;
 import org.apache.solr.util.RefCounted;
 
 class JoinQuery extends Query {
+  /**
+   * Name of the optional user cache holding the intermediate results of joins: the from terms
+   * matching a from query, and the docs of each to segment having those terms. Entries are keyed
+   * by the readers they were computed from, so they may be carried over to new searchers with a
+   * {@link NoOpRegenerator}.
+   */
+  public static final String CACHE_NAME = "joinCache";
+
   String fromField;
   String toField;
   // TODO: name is missleading here compared to JoinQParserPlugin usage - here it must be a core
@@ -230,7 +243,8 @@ class JoinQuery extends Query {
       }
 
       if (!usePoints) {
-        return getDocSetEnumerate();
+        SolrCache<Object, Object> joinCache = toSearcher.getCache(CACHE_NAME);
+        return joinCache == null ? getDocSetEnumerate() : getDocSetCached(joinCache);
       }
 
       // point fields
@@ -312,47 +326,9 @@ class JoinQuery extends Query {
 
         fromTermCount++;
 
-        boolean intersects = false;
-        int freq = termsEnum.docFreq();
         fromTermTotalDf++;
-
-        if (freq < minDocFreqFrom) {
-          fromTermDirectCount++;
-          // OK to skip liveDocs, since we check for intersection with docs matching query
-          fromDeState.postingsEnum =
-              fromDeState.termsEnum.postings(fromDeState.postingsEnum, PostingsEnum.NONE);
-          PostingsEnum postingsEnum = fromDeState.postingsEnum;
-
-          if (postingsEnum instanceof MultiPostingsEnum) {
-            MultiPostingsEnum.EnumWithSlice[] subs = ((MultiPostingsEnum) postingsEnum).getSubs();
-            int numSubs = ((MultiPostingsEnum) postingsEnum).getNumSubs();
-            outer:
-            for (int subindex = 0; subindex < numSubs; subindex++) {
-              MultiPostingsEnum.EnumWithSlice sub = subs[subindex];
-              if (sub.postingsEnum == null) continue;
-              int base = sub.slice.start;
-              int docid;
-              while ((docid = sub.postingsEnum.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
-                if (fastForRandomSet.get(docid + base)) {
-                  intersects = true;
-                  break outer;
-                }
-              }
-            }
-          } else {
-            int docid;
-            while ((docid = postingsEnum.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
-              if (fastForRandomSet.get(docid)) {
-                intersects = true;
-                break;
-              }
-            }
-          }
-        } else {
-          // use the filter cache
-          DocSet fromTermSet = fromSearcher.getDocSet(fromDeState);
-          intersects = fromSet.intersects(fromTermSet);
-        }
+        boolean intersects =
+            fromTermIntersects(fromDeState, fromSet, fastForRandomSet, minDocFreqFrom);
 
         if (intersects) {
           fromTermHits++;
@@ -470,6 +446,304 @@ class JoinQuery extends Query {
 
       return new SortedIntDocSet(dedup, dedup.length);
     }
+
+    /** Whether any doc having the current term of {@code fromDeState} matches the from query. */
+    private boolean fromTermIntersects(
+        SolrIndexSearcher.DocsEnumState fromDeState,
+        DocSet fromSet,
+        Bits fastForRandomSet,
+        int minDocFreqFrom)
+        throws IOException {
+      if (fromDeState.termsEnum.docFreq() >= minDocFreqFrom) {
+        // use the filter cache
+        DocSet fromTermSet = fromSearcher.getDocSet(fromDeState);
+        return fromSet.intersects(fromTermSet);
+      }
+
+      fromTermDirectCount++;
+      // OK to skip liveDocs, since we check for intersection with docs matching query
+      fromDeState.postingsEnum =
+          fromDeState.termsEnum.postings(fromDeState.postingsEnum, PostingsEnum.NONE);
+      PostingsEnum postingsEnum = fromDeState.postingsEnum;
+
+      if (postingsEnum instanceof MultiPostingsEnum) {
+        MultiPostingsEnum.EnumWithSlice[] subs = ((MultiPostingsEnum) postingsEnum).getSubs();
+        int numSubs = ((MultiPostingsEnum) postingsEnum).getNumSubs();
+        for (int subindex = 0; subindex < numSubs; subindex++) {
+          MultiPostingsEnum.EnumWithSlice sub = subs[subindex];
+          if (sub.postingsEnum == null) continue;
+          int base = sub.slice.start;
+          int docid;
+          while ((docid = sub.postingsEnum.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+            if (fastForRandomSet.get(docid + base)) {
+              return true;
+            }
+          }
+        }
+      } else {
+        int docid;
+        while ((docid = postingsEnum.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+          if (fastForRandomSet.get(docid)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Like {@link #getDocSetEnumerate()}, but reusing the intermediate results held by the {@link
+     * #CACHE_NAME} cache: the from terms matching the from query, keyed by the from reader, and
+     * the docs of the to segments having those terms, keyed by segment.
+     */
+    public DocSet getDocSetCached(SolrCache<Object, Object> joinCache) throws IOException {
+      final FromTerms fromTerms = getFromTerms(joinCache);
+      fromSetSize = fromTerms.fromSetSize;
+      fromTermHits = fromTerms.terms.length;
+      if (fromTerms.terms.length == 0) {
+        return DocSet.empty();
+      }
+
+      final List<LeafReaderContext> leaves = toSearcher.getTopReaderContext().leaves();
+      final DocIdSet[] segmentDocs = new DocIdSet[leaves.size()];
+      long cost = 0;
+      for (LeafReaderContext leaf : leaves) {
+        final DocIdSet docs = getToSegmentDocs(joinCache, leaf, fromTerms);
+        final DocIdSetIterator it = docs.iterator();
+        cost += it == null ? 0 : it.cost();
+        segmentDocs[leaf.ord] = docs;
+      }
+
+      final DocSetBuilder builder = new DocSetBuilder(toSearcher.maxDoc(), cost);
+      for (LeafReaderContext leaf : leaves) {
+        final DocIdSetIterator it = segmentDocs[leaf.ord].iterator();
+        if (it == null) continue;
+        // the cached docs ignore deletions, which may change without the segment changing
+        final Bits liveDocs = leaf.reader().getLiveDocs();
+        builder.add(
+            liveDocs == null
+                ? it
+                : new FilteredDocIdSetIterator(it) {
+                  @Override
+                  protected boolean match(int doc) {
+                    return liveDocs.get(doc);
+                  }
+                },
+            leaf.docBase);
+      }
+      final DocSet result = builder.build(null);
+      resultListDocs = result.size();
+      return result;
+    }
+
+    private FromTerms getFromTerms(SolrCache<Object, Object> joinCache) throws IOException {
+      final IndexReader.CacheHelper cacheHelper =
+          fromSearcher.getIndexReader().getReaderCacheHelper();
+      final FromQueryKey key =
+          cacheHelper == null
+              ? null
+              : new FromQueryKey(cacheHelper.getKey(), fromField, q, FromTerms.class);
+      FromTerms fromTerms = key == null ? null : (FromTerms) joinCache.get(key);
+      if (fromTerms == null) {
+        fromTerms = collectFromTerms();
+        if (key != null) {
+          joinCache.put(key, fromTerms);
+        }
+      }
+      return fromTerms;
+    }
+
+    private FromTerms collectFromTerms() throws IOException {
+      final List<BytesRef> matching = new ArrayList<>();
+      final Terms terms = fromSearcher.getSlowAtomicReader().terms(fromField);
+      final DocSet fromSet = fromSearcher.getDocSet(q);
+      if (terms == null) {
+        return new FromTerms(new BytesRef[0], fromSet.size());
+      }
+
+      final int minDocFreqFrom = Math.max(5, fromSearcher.maxDoc() >> 13);
+      final Bits fastForRandomSet = fromSet.getBits();
+
+      String prefixStr =
+          TrieField.getMainValuePrefix(fromSearcher.getSchema().getFieldType(fromField));
+      BytesRef prefix = prefixStr == null ? null : new BytesRef(prefixStr);
+
+      TermsEnum termsEnum = terms.iterator();
+      BytesRef term = null;
+      if (prefix == null) {
+        term = termsEnum.next();
+      } else if (termsEnum.seekCeil(prefix) != TermsEnum.SeekStatus.END) {
+        term = termsEnum.term();
+      }
+
+      SolrIndexSearcher.DocsEnumState fromDeState = new SolrIndexSearcher.DocsEnumState();
+      fromDeState.fieldName = fromField;
+      fromDeState.liveDocs = fromSearcher.getLiveDocsBits();
+      fromDeState.termsEnum = termsEnum;
+      fromDeState.minSetSizeCached = minDocFreqFrom;
+
+      while (term != null) {
+        if (prefix != null && !StringHelper.startsWith(term, prefix)) break;
+        fromTermCount++;
+        fromTermTotalDf++;
+        if (fromTermIntersects(fromDeState, fromSet, fastForRandomSet, minDocFreqFrom)) {
+          matching.add(BytesRef.deepCopyOf(term));
+        }
+        term = termsEnum.next();
+      }
+      return new FromTerms(matching.toArray(new BytesRef[0]), fromSet.size());
+    }
+
+    private DocIdSet getToSegmentDocs(
+        SolrCache<Object, Object> joinCache, LeafReaderContext leaf, FromTerms fromTerms)
+        throws IOException {
+      final IndexReader.CacheHelper cacheHelper = leaf.reader().getCoreCacheHelper();
+      final ToSegmentKey key =
+          cacheHelper == null ? null : new ToSegmentKey(cacheHelper.getKey(), toField, fromTerms);
+      DocIdSet docs = key == null ? null : (DocIdSet) joinCache.get(key);
+      if (docs != null) {
+        return docs;
+      }
+
+      docs = DocIdSet.EMPTY;
+      final Terms terms = leaf.reader().terms(toField);
+      if (terms != null) {
+        final DocIdSetBuilder builder = new DocIdSetBuilder(leaf.reader().maxDoc(), terms);
+        final TermsEnum termsEnum = terms.iterator();
+        PostingsEnum postingsEnum = null;
+        for (BytesRef term : fromTerms.terms) {
+          if (termsEnum.seekExact(term)) {
+            toTermHits++;
+            toTermHitsTotalDf += termsEnum.docFreq();
+            postingsEnum = termsEnum.postings(postingsEnum, PostingsEnum.NONE);
+            builder.add(postingsEnum);
+          }
+        }
+        docs = builder.build();
+      }
+      if (key != null) {
+        joinCache.put(key, docs);
+      }
+      return docs;
+    }
+  }
+
+  /**
+   * Key of a from side result in the {@link #CACHE_NAME} cache. It holds the cache key of the
+   * from reader rather than the searcher, so that entries of an older searcher never match and
+   * don't keep it open.
+   */
+  static final class FromQueryKey {
+    private final Object readerKey;
+    private final String fromField;
+    private final Query q;
+    private final Class<?> valueClass;
+
+    FromQueryKey(Object readerKey, String fromField, Query q, Class<?> valueClass) {
+      this.readerKey = readerKey;
+      this.fromField = fromField;
+      this.q = q;
+      this.valueClass = valueClass;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof FromQueryKey)) return false;
+      FromQueryKey other = (FromQueryKey) o;
+      return readerKey == other.readerKey
+          && valueClass == other.valueClass
+          && fromField.equals(other.fromField)
+          && q.equals(other.q);
+    }
+
+    @Override
+    public int hashCode() {
+      int h = System.identityHashCode(readerKey);
+      h = h * 31 + fromField.hashCode();
+      h = h * 31 + q.hashCode();
+      h = h * 31 + valueClass.hashCode();
+      return h;
+    }
+  }
+
+  /**
+   * The sorted from terms matching a from query. Only the terms take part in equality, so that
+   * from queries matching the same terms share the to side entries.
+   */
+  static final class FromTerms implements Accountable {
+    private static final long BASE_RAM_BYTES_USED =
+        RamUsageEstimator.shallowSizeOfInstance(FromTerms.class);
+    private static final long BYTES_REF_RAM_BYTES_USED =
+        RamUsageEstimator.shallowSizeOfInstance(BytesRef.class);
+
+    final BytesRef[] terms;
+    final int fromSetSize;
+    private final int hash;
+    private final long ramBytesUsed;
+
+    FromTerms(BytesRef[] terms, int fromSetSize) {
+      this.terms = terms;
+      this.fromSetSize = fromSetSize;
+      this.hash = Arrays.hashCode(terms);
+      long bytes = BASE_RAM_BYTES_USED + RamUsageEstimator.shallowSizeOf(terms);
+      for (BytesRef term : terms) {
+        bytes += BYTES_REF_RAM_BYTES_USED + RamUsageEstimator.sizeOf(term.bytes);
+      }
+      this.ramBytesUsed = bytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof FromTerms)) return false;
+      FromTerms other = (FromTerms) o;
+      return hash == other.hash && Arrays.equals(terms, other.terms);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return ramBytesUsed;
+    }
+  }
+
+  /**
+   * Key of the docs of a to segment having some from terms, in the {@link #CACHE_NAME} cache. The
+   * docs include deleted ones, so the entry stays valid for as long as the segment core does.
+   */
+  static final class ToSegmentKey {
+    private final Object segmentKey;
+    private final String toField;
+    private final FromTerms fromTerms;
+
+    ToSegmentKey(Object segmentKey, String toField, FromTerms fromTerms) {
+      this.segmentKey = segmentKey;
+      this.toField = toField;
+      this.fromTerms = fromTerms;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof ToSegmentKey)) return false;
+      ToSegmentKey other = (ToSegmentKey) o;
+      return segmentKey == other.segmentKey
+          && toField.equals(other.toField)
+          && fromTerms.equals(other.fromTerms);
+    }
+
+    @Override
+    public int hashCode() {
+      int h = System.identityHashCode(segmentKey);
+      h = h * 31 + toField.hashCode();
+      h = h * 31 + fromTerms.hashCode();
+      return h;
+    }
   }
 
   @Override
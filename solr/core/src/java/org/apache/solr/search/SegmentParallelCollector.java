@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.io.IOException;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.Collector;
+
+/**
+ * Implemented by a collector whose collection phase only gathers state, such as a {@link
+ * DelegatingCollector} that doesn't pass documents on to its delegate until {@link
+ * DelegatingCollector#finish()}. Such a collector can have the segments of the index collected
+ * concurrently: {@link SolrIndexSearcher} asks for an independent collector per segment, runs them
+ * on the node's search executor and then merges them back, in segment order, before calling
+ * {@code finish()} if any.
+ *
+ * @lucene.experimental
+ */
+public interface SegmentParallelCollector {
+
+  /**
+   * Whether this collector wants its segments collected concurrently. Implementations return false
+   * when their state cannot be split by segment for the current request.
+   */
+  boolean collectSegmentsInParallel();
+
+  /**
+   * Returns a new collector that will only ever see documents from the given segment. This may be
+   * called from any thread, so it must not mutate state shared with other segments.
+   */
+  Collector newSegmentCollector(LeafReaderContext context) throws IOException;
+
+  /**
+   * Merges a collector returned by {@link #newSegmentCollector} into this one. Called once per
+   * segment, on the searching thread, in segment order.
+   */
+  void mergeSegmentCollector(LeafReaderContext context, Collector segmentCollector)
+      throws IOException;
+}
@@ -58,8 +58,11 @@ import org.apache.lucene.index.SortedNumericDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.StoredFieldVisitor;
 import org.apache.lucene.misc.document.LazyDocument;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.NumericUtils;
+import org.apache.lucene.util.RamUsageEstimator;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentBase;
 import org.apache.solr.common.SolrException;
@@ -86,7 +89,10 @@ public class SolrDocumentFetcher {
 
   private final boolean enableLazyFieldLoading;
 
-  private final SolrCache<Integer, Document> documentCache;
+  private final SolrCache<DocumentCacheKey, CachedDocument> documentCache;
+
+  // the segments of the searcher, to tell which cached documents are still valid
+  private final Set<IndexReader.CacheKey> segmentKeys;
 
   private final Set<String> allStored;
 
@@ -128,6 +134,18 @@ public class SolrDocumentFetcher {
     } else {
       documentCache = null;
     }
+    if (documentCache != null) {
+      final Set<IndexReader.CacheKey> segmentKeys = new HashSet<>();
+      for (LeafReaderContext leafContext : searcher.getLeafContexts()) {
+        IndexReader.CacheHelper cacheHelper = leafContext.reader().getCoreCacheHelper();
+        if (cacheHelper != null) {
+          segmentKeys.add(cacheHelper.getKey());
+        }
+      }
+      this.segmentKeys = Collections.unmodifiableSet(segmentKeys);
+    } else {
+      this.segmentKeys = Collections.emptySet();
+    }
 
     final Set<String> nonStoredDVsUsedAsStored = new HashSet<>();
     final Set<String> allNonStoredDVs = new HashSet<>();
@@ -191,10 +209,44 @@ public class SolrDocumentFetcher {
     return enableLazyFieldLoading;
   }
 
-  public SolrCache<Integer, Document> getDocumentCache() {
+  public SolrCache<DocumentCacheKey, CachedDocument> getDocumentCache() {
     return documentCache;
   }
 
+  /**
+   * Whether a document cached by a previous searcher can be reused by this one: its segment must
+   * still be part of this searcher (deletions don't matter, deleted documents don't get fetched)
+   * and all of its fields must be loaded already, since lazy fields refer to the previous searcher.
+   */
+  boolean isReusable(DocumentCacheKey key, CachedDocument cached) {
+    if (!segmentKeys.contains(key.segmentKey)) {
+      return false;
+    }
+    for (IndexableField f : cached.document) {
+      if (f instanceof LazyDocument.LazyField && !((LazyDocument.LazyField) f).hasBeenLoaded()) {
+        return false;
+      }
+      if (f instanceof LargeLazyField && !((LargeLazyField) f).hasBeenLoaded()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the key of the document in the documentCache, or null if its segment can't be cached
+   */
+  private DocumentCacheKey getDocumentCacheKey(int docId) {
+    final List<LeafReaderContext> leafContexts = searcher.getLeafContexts();
+    final LeafReaderContext leafContext =
+        leafContexts.get(ReaderUtil.subIndex(docId, leafContexts));
+    final IndexReader.CacheHelper cacheHelper = leafContext.reader().getCoreCacheHelper();
+    if (cacheHelper == null) {
+      return null;
+    }
+    return new DocumentCacheKey(cacheHelper.getKey(), docId - leafContext.docBase);
+  }
+
   /**
    * Returns a collection of the names of all stored fields which can be highlighted the index
    * reader knows about.
@@ -253,15 +305,16 @@ public class SolrDocumentFetcher {
    * @see SolrIndexSearcher#doc(int, Set)
    */
   public Document doc(int i, Set<String> fields) throws IOException {
-    Document d;
-    if (documentCache != null) {
+    final DocumentCacheKey key = documentCache != null ? getDocumentCacheKey(i) : null;
+    if (key != null) {
       final Set<String> getFields = enableLazyFieldLoading ? fields : null;
-      d = documentCache.computeIfAbsent(i, docId -> docNC(docId, getFields));
-      if (d == null) {
+      CachedDocument cached =
+          documentCache.computeIfAbsent(key, k -> new CachedDocument(docNC(i, getFields)));
+      if (cached == null) {
         // failed to retrieve due to an earlier exception, try again?
         return docNC(i, fields);
       } else {
-        return d;
+        return cached.document;
       }
     } else {
       return docNC(i, fields);
@@ -308,6 +361,24 @@ public class SolrDocumentFetcher {
     return solrReturnFields.getFetchOptimizer(rfoSupplier).getSolrDoc(luceneDocId);
   }
 
+  /**
+   * Populates the SolrDocuments of a batch of documents, such as a page of results, the same way
+   * as {@link #solrDoc(int, SolrReturnFields)}. Rather than one document after the other, the
+   * documents are visited in index order: stored fields are read in docid order, so that
+   * neighbouring documents can share the decompression of a block, and docValues are read column
+   * by column for each segment.
+   *
+   * @param luceneDocIds The Lucene doc IDs, in any order
+   * @param solrReturnFields the structure holding the fields to be returned, see {@link
+   *     #solrDoc(int, SolrReturnFields)}
+   * @return The SolrDocuments with values requested, in the order of <code>luceneDocIds</code>
+   */
+  public SolrDocument[] solrDocs(int[] luceneDocIds, SolrReturnFields solrReturnFields) {
+    Supplier<RetrieveFieldsOptimizer> rfoSupplier =
+        () -> new RetrieveFieldsOptimizer(solrReturnFields);
+    return solrReturnFields.getFetchOptimizer(rfoSupplier).getSolrDocs(luceneDocIds);
+  }
+
   /**
    * {@link StoredFieldVisitor} which loads the specified fields eagerly (or all if null). If {@link
    * #enableLazyFieldLoading} then the rest get special lazy field entries. Designated "large"
@@ -565,6 +636,52 @@ public class SolrDocumentFetcher {
     }
   }
 
+  /**
+   * Like {@link #decorateDocValueFields(SolrDocumentBase, int, Set)}, but for many documents at
+   * once. The fields are read column by column in each segment, with a single docValues iterator
+   * per field and segment.
+   *
+   * @param docs the documents to populate, in the same order as <code>docids</code>
+   * @param docids The lucene docids of the documents, sorted in increasing order without duplicates
+   * @param fields The fields with docValues to populate the documents with. DocValues fields which
+   *     do not exist or not decodable will be ignored.
+   */
+  private void decorateDocValueFields(
+      SolrDocumentBase<?, ?>[] docs, int[] docids, Set<String> fields) throws IOException {
+    final List<LeafReaderContext> leafContexts = searcher.getLeafContexts();
+    int start = 0;
+    while (start < docids.length) {
+      final LeafReaderContext leafContext =
+          leafContexts.get(ReaderUtil.subIndex(docids[start], leafContexts));
+      final LeafReader leafReader = leafContext.reader();
+      final int docBase = leafContext.docBase;
+      int end = start + 1;
+      while (end < docids.length && docids[end] < docBase + leafReader.maxDoc()) {
+        end++;
+      }
+
+      for (String fieldName : fields) {
+        final SchemaField schemaField = searcher.getSchema().getFieldOrNull(fieldName);
+        final FieldInfo fi = searcher.getFieldInfos().fieldInfo(fieldName);
+        if (schemaField == null || !schemaField.hasDocValues() || fi == null) {
+          continue; // Searcher doesn't have info about this field, hence ignore it.
+        }
+        final DocIdSetIterator dv = getDocValues(leafReader, fieldName, fi.getDocValuesType());
+        if (dv == null) {
+          continue;
+        }
+        for (int i = start; i < end; i++) {
+          Object fieldValue =
+              decodeDVField(docids[i] - docBase, dv, fi.getDocValuesType(), schemaField);
+          if (fieldValue != null) {
+            docs[i].setField(fieldName, fieldValue);
+          }
+        }
+      }
+      start = end;
+    }
+  }
+
   /**
    * Decode value from DV field for a document
    *
@@ -579,26 +696,64 @@ public class SolrDocumentFetcher {
     }
 
     final DocValuesType dvType = fi.getDocValuesType();
+    final DocIdSetIterator dv = getDocValues(leafReader, fieldName, dvType);
+    if (dv == null) {
+      return null;
+    }
+    return decodeDVField(localId, dv, dvType, schemaField);
+  }
+
+  /**
+   * @return the docValues of the field in the segment, or null if it has none we can decode
+   */
+  private DocIdSetIterator getDocValues(
+      LeafReader leafReader, String fieldName, DocValuesType dvType) throws IOException {
     switch (dvType) {
       case NUMERIC:
-        final NumericDocValues ndv = leafReader.getNumericDocValues(fieldName);
-        if (ndv == null) {
-          return null;
+        return leafReader.getNumericDocValues(fieldName);
+      case BINARY:
+        return leafReader.getBinaryDocValues(fieldName);
+      case SORTED:
+        return leafReader.getSortedDocValues(fieldName);
+      case SORTED_NUMERIC:
+        return leafReader.getSortedNumericDocValues(fieldName);
+      case SORTED_SET:
+        final SortedSetDocValues values = leafReader.getSortedSetDocValues(fieldName);
+        if (values != null && values.getValueCount() > 0) {
+          return values;
         }
+        return null;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Decode value of a document from the given docValues, which are advanced to it and so must not
+   * be positioned past it already
+   *
+   * @return null if the document has no value or it can not be decoded
+   */
+  private Object decodeDVField(
+      int localId, DocIdSetIterator dv, DocValuesType dvType, SchemaField schemaField)
+      throws IOException {
+    switch (dvType) {
+      case NUMERIC:
+        final NumericDocValues ndv = (NumericDocValues) dv;
         if (!ndv.advanceExact(localId)) {
           return null;
         }
         Long val = ndv.longValue();
         return decodeNumberFromDV(schemaField, val, false);
       case BINARY:
-        BinaryDocValues bdv = leafReader.getBinaryDocValues(fieldName);
-        if (bdv != null && bdv.advanceExact(localId)) {
+        BinaryDocValues bdv = (BinaryDocValues) dv;
+        if (bdv.advanceExact(localId)) {
           return BytesRef.deepCopyOf(bdv.binaryValue());
         }
         return null;
       case SORTED:
-        SortedDocValues sdv = leafReader.getSortedDocValues(fieldName);
-        if (sdv != null && sdv.advanceExact(localId)) {
+        SortedDocValues sdv = (SortedDocValues) dv;
+        if (sdv.advanceExact(localId)) {
           final BytesRef bRef = sdv.lookupOrd(sdv.ordValue());
           // Special handling for Boolean fields since they're stored as 'T' and 'F'.
           if (schemaField.getType() instanceof BoolField) {
@@ -609,8 +764,8 @@ public class SolrDocumentFetcher {
         }
         return null;
       case SORTED_NUMERIC:
-        final SortedNumericDocValues numericDv = leafReader.getSortedNumericDocValues(fieldName);
-        if (numericDv != null && numericDv.advance(localId) == localId) {
+        final SortedNumericDocValues numericDv = (SortedNumericDocValues) dv;
+        if (numericDv.advanceExact(localId)) {
           final int docValueCount = numericDv.docValueCount();
           final List<Object> outValues = new ArrayList<>(docValueCount);
           for (int i = 0; i < docValueCount; i++) {
@@ -633,8 +788,8 @@ public class SolrDocumentFetcher {
         }
         return null;
       case SORTED_SET:
-        final SortedSetDocValues values = leafReader.getSortedSetDocValues(fieldName);
-        if (values != null && values.getValueCount() > 0 && values.advance(localId) == localId) {
+        final SortedSetDocValues values = (SortedSetDocValues) dv;
+        if (values.advanceExact(localId)) {
           final List<Object> outValues = new LinkedList<>();
           for (long ord = values.nextOrd();
               ord != SortedSetDocValues.NO_MORE_ORDS;
@@ -725,6 +880,90 @@ public class SolrDocumentFetcher {
     return nonStoredDVsWithoutCopyTargets;
   }
 
+  /**
+   * Key of a document in the documentCache. Documents are identified within their segment rather
+   * than by their docid in the searcher, so that the documents of segments that didn't change
+   * remain valid for the next searchers; see {@link #isReusable(DocumentCacheKey, CachedDocument)}.
+   */
+  public static final class DocumentCacheKey implements Accountable {
+    private static final long BASE_RAM_BYTES_USED =
+        RamUsageEstimator.shallowSizeOfInstance(DocumentCacheKey.class);
+
+    final IndexReader.CacheKey segmentKey;
+    final int docId; // within the segment
+
+    DocumentCacheKey(IndexReader.CacheKey segmentKey, int docId) {
+      this.segmentKey = segmentKey;
+      this.docId = docId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof DocumentCacheKey)) return false;
+      DocumentCacheKey that = (DocumentCacheKey) o;
+      return docId == that.docId && segmentKey == that.segmentKey;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(segmentKey) + docId;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return BASE_RAM_BYTES_USED;
+    }
+
+    @Override
+    public String toString() {
+      return "DocumentCacheKey(" + segmentKey + ", " + docId + ")";
+    }
+  }
+
+  /**
+   * A document in the documentCache, along with an estimate of its size taken when it was cached
+   * so that the cache can be bounded by RAM (maxRamMB)
+   */
+  public static final class CachedDocument implements Accountable {
+    private static final long BASE_RAM_BYTES_USED =
+        RamUsageEstimator.shallowSizeOfInstance(CachedDocument.class)
+            + RamUsageEstimator.shallowSizeOfInstance(Document.class);
+
+    final Document document;
+    private final long ramBytesUsed;
+
+    CachedDocument(Document document) {
+      this.document = document;
+      long ramBytesUsed = BASE_RAM_BYTES_USED;
+      for (IndexableField f : document) {
+        ramBytesUsed +=
+            RamUsageEstimator.NUM_BYTES_OBJECT_REF + RamUsageEstimator.NUM_BYTES_OBJECT_HEADER;
+        if (f instanceof LazyDocument.LazyField || f instanceof LargeLazyField) {
+          continue; // not loaded yet
+        }
+        BytesRef binaryValue = f.binaryValue();
+        if (binaryValue != null) {
+          ramBytesUsed += RamUsageEstimator.sizeOf(binaryValue.bytes);
+        } else if (f.numericValue() != null) {
+          ramBytesUsed += Long.BYTES;
+        } else if (f.stringValue() != null) {
+          ramBytesUsed += RamUsageEstimator.sizeOf(f.stringValue());
+        }
+      }
+      this.ramBytesUsed = ramBytesUsed;
+    }
+
+    public Document getDocument() {
+      return document;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return ramBytesUsed;
+    }
+  }
+
   /**
    * Moved as a private class here, we consider it an impelmentation detail. It should not be
    * exposed outside of this class.
@@ -881,5 +1120,67 @@ public class SolrDocumentFetcher {
       }
       return sdoc;
     }
+
+    private SolrDocument[] getSolrDocs(int[] luceneDocIds) {
+      final SolrDocument[] sdocs = new SolrDocument[luceneDocIds.length];
+
+      // sort the positions of the documents by docid, packing both in a long
+      final long[] sorted = new long[luceneDocIds.length];
+      for (int i = 0; i < luceneDocIds.length; i++) {
+        sorted[i] = ((long) luceneDocIds[i] << 32) | i;
+      }
+      Arrays.sort(sorted);
+
+      // the distinct docids in increasing order, along with their documents
+      final int[] docids = new int[sorted.length];
+      final SolrDocument[] docs = new SolrDocument[sorted.length];
+      int numDocs = 0;
+      try {
+        for (long docAndPos : sorted) {
+          final int docid = (int) (docAndPos >>> 32);
+          final int pos = (int) docAndPos;
+          if (numDocs > 0 && docids[numDocs - 1] == docid) {
+            // the same document twice; it still needs an instance of its own
+            sdocs[pos] = getSolrDoc(docid);
+            continue;
+          }
+          final SolrDocument sdoc;
+          if (returnStoredFields()) {
+            Document doc = doc(docid, getStoredFields());
+            // make sure to use the schema from the searcher and not the request (cross-core)
+            sdoc =
+                DocsStreamer.convertLuceneDocToSolrDoc(
+                    doc, searcher.getSchema(), getReturnFields());
+          } else {
+            // no need to get stored fields of the document, see SOLR-5968
+            sdoc = new SolrDocument();
+          }
+          sdocs[pos] = sdoc;
+          docids[numDocs] = docid;
+          docs[numDocs] = sdoc;
+          numDocs++;
+        }
+
+        if (returnStoredFields()) {
+          solrReturnFields.setFieldSources(
+              returnDVFields()
+                  ? SolrReturnFields.FIELD_SOURCES.MIXED_SOURCES
+                  : SolrReturnFields.FIELD_SOURCES.ALL_FROM_STORED);
+        } else {
+          solrReturnFields.setFieldSources(SolrReturnFields.FIELD_SOURCES.ALL_FROM_DV);
+        }
+
+        // decorate the documents with non-stored docValues fields
+        if (returnDVFields()) {
+          decorateDocValueFields(docs, Arrays.copyOf(docids, numDocs), getDvFields());
+        }
+      } catch (IOException e) {
+        throw new SolrException(
+            SolrException.ErrorCode.SERVER_ERROR,
+            "Error reading documents with docIds " + Arrays.toString(luceneDocIds),
+            e);
+      }
+      return sdocs;
+    }
   }
 }
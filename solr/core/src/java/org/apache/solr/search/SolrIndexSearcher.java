@@ -31,11 +31,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.DirectoryReader;
@@ -72,6 +75,8 @@ import org.apache.solr.index.SlowCompositeReaderWrapper;
 import org.apache.solr.metrics.MetricsMap;
 import org.apache.solr.metrics.SolrMetricManager;
 import org.apache.solr.metrics.SolrMetricsContext;
+import org.apache.solr.query.FilterQuery;
+import org.apache.solr.query.SolrRangeQuery;
 import org.apache.solr.request.LocalSolrQueryRequest;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.request.SolrRequestInfo;
@@ -84,6 +89,7 @@ import org.apache.solr.search.stats.StatsSource;
 import org.apache.solr.uninverting.UninvertingReader;
 import org.apache.solr.update.IndexFingerprint;
 import org.apache.solr.update.SolrIndexConfig;
+import org.apache.solr.util.ConcurrentTasks;
 import org.apache.solr.util.IOFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -114,6 +120,9 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
   private final long openNanoTime = System.nanoTime();
   private Date registerTime;
   private long warmupTime = 0;
+
+  // the searcher this one is being warmed from, only set during warm()
+  private volatile SolrIndexSearcher warmingFrom;
   private final DirectoryReader reader;
   private final boolean closeReader;
 
@@ -237,7 +246,12 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     }
 
     try {
-      super.search(query, collector);
+      if (collector instanceof SegmentParallelCollector
+          && ((SegmentParallelCollector) collector).collectSegmentsInParallel()) {
+        searchSegmentsInParallel(query, collector);
+      } else {
+        super.search(query, collector);
+      }
     } catch (TimeLimitingCollector.TimeExceededException
         | ExitableDirectoryReader.ExitingReaderException
         | CancellableCollector.QueryCancelledException x) {
@@ -264,6 +278,57 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     return collector;
   }
 
+  /**
+   * Collects every segment with its own collector from {@link
+   * SegmentParallelCollector#newSegmentCollector} on the node's search executor, then merges
+   * them back in segment order. The segments share a single Weight.
+   *
+   * <p>Falls back to a plain search if there is only one segment or no executor, or if the query
+   * is not known to have a thread-safe Weight, see {@link #hasThreadSafeWeight(Query)}. A Weight
+   * per segment would repeat the costly preparation of queries such as joins for each segment.
+   *
+   * @param collector a collector that is also a {@link SegmentParallelCollector}
+   */
+  public void searchSegmentsInParallel(Query query, Collector collector) throws IOException {
+    final ExecutorService executor = core.getCoreContainer().getSearchExecutor();
+    if (executor == null || leafContexts.size() < 2 || !hasThreadSafeWeight(query)) {
+      super.search(query, collector);
+      return;
+    }
+
+    final SegmentParallelCollector parallelCollector = (SegmentParallelCollector) collector;
+    final Weight weight = createWeight(rewrite(query), collector.scoreMode(), 1f);
+    // the timeAllowed deadline is thread local, so hand it over to the collecting threads
+    final Long timeoutAtNs = SolrQueryTimeoutImpl.getTimeoutAtNs();
+    final Thread searchingThread = Thread.currentThread();
+    final List<Callable<Collector>> tasks = new ArrayList<>(leafContexts.size());
+    for (LeafReaderContext leaf : leafContexts) {
+      tasks.add(
+          () -> {
+            // segments no other thread picked up are collected by the searching thread
+            final boolean forked = Thread.currentThread() != searchingThread;
+            if (forked && timeoutAtNs != null) {
+              SolrQueryTimeoutImpl.set(
+                  TimeUnit.NANOSECONDS.toMillis(timeoutAtNs - System.nanoTime()));
+            }
+            try {
+              final Collector segmentCollector = parallelCollector.newSegmentCollector(leaf);
+              search(Collections.singletonList(leaf), weight, segmentCollector);
+              return segmentCollector;
+            } finally {
+              if (forked) {
+                SolrQueryTimeoutImpl.reset();
+              }
+            }
+          });
+    }
+
+    final List<Collector> segmentCollectors = ConcurrentTasks.run(executor, tasks);
+    for (int i = 0; i < segmentCollectors.size(); i++) {
+      parallelCollector.mergeSegmentCollector(leafContexts.get(i), segmentCollectors.get(i));
+    }
+  }
+
   public SolrIndexSearcher(
       SolrCore core,
       String path,
@@ -358,7 +423,8 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
               ? null
               : solrConfig.queryResultCacheConfig.newInstance();
       if (queryResultCache != null) clist.add(queryResultCache);
-      SolrCache<Integer, Document> documentCache = docFetcher.getDocumentCache();
+      SolrCache<SolrDocumentFetcher.DocumentCacheKey, SolrDocumentFetcher.CachedDocument>
+          documentCache = docFetcher.getDocumentCache();
       if (documentCache != null) clist.add(documentCache);
 
       if (solrConfig.userCacheConfigs.isEmpty()) {
@@ -625,6 +691,10 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
     if (solrConfig.filterCacheConfig != null
         && solrConfig.filterCacheConfig.getRegenerator() == null) {
+      final boolean perSegmentWarming =
+          Boolean.parseBoolean(
+              String.valueOf(
+                  solrConfig.filterCacheConfig.toMap(new HashMap<>()).get("perSegmentWarming")));
       solrConfig.filterCacheConfig.setRegenerator(
           new CacheRegenerator() {
             @Override
@@ -635,7 +705,36 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
                 K oldKey,
                 V oldVal)
                 throws IOException {
-              newSearcher.cacheDocSet((Query) oldKey, null, false);
+              if (perSegmentWarming) {
+                newSearcher.warmDocSet((Query) oldKey, (DocSet) oldVal);
+              } else {
+                newSearcher.cacheDocSet((Query) oldKey, null, false);
+              }
+              return true;
+            }
+          });
+    }
+
+    if (solrConfig.documentCacheConfig != null
+        && solrConfig.documentCacheConfig.getRegenerator() == null) {
+      solrConfig.documentCacheConfig.setRegenerator(
+          new CacheRegenerator() {
+            @Override
+            public <K, V> boolean regenerateItem(
+                SolrIndexSearcher newSearcher,
+                SolrCache<K, V> newCache,
+                SolrCache<K, V> oldCache,
+                K oldKey,
+                V oldVal)
+                throws IOException {
+              // documents of segments that are still around are carried over as they are
+              if (newSearcher
+                  .getDocFetcher()
+                  .isReusable(
+                      (SolrDocumentFetcher.DocumentCacheKey) oldKey,
+                      (SolrDocumentFetcher.CachedDocument) oldVal)) {
+                newCache.put(oldKey, oldVal);
+              }
               return true;
             }
           });
@@ -2376,42 +2475,190 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     // warm the caches in order...
     ModifiableSolrParams params = new ModifiableSolrParams();
     params.add("warming", "true");
-    for (int i = 0; i < cacheList.length; i++) {
-      if (log.isDebugEnabled()) {
-        log.debug("autowarming [{}] from [{}]\n\t{}", this, old, old.cacheList[i]);
-      }
+    warmingFrom = old;
+    try {
+      for (int i = 0; i < cacheList.length; i++) {
+        if (log.isDebugEnabled()) {
+          log.debug("autowarming [{}] from [{}]\n\t{}", this, old, old.cacheList[i]);
+        }
 
-      final SolrQueryRequest req =
-          new LocalSolrQueryRequest(core, params) {
-            @Override
-            public SolrIndexSearcher getSearcher() {
-              return SolrIndexSearcher.this;
-            }
+        final SolrQueryRequest req =
+            new LocalSolrQueryRequest(core, params) {
+              @Override
+              public SolrIndexSearcher getSearcher() {
+                return SolrIndexSearcher.this;
+              }
 
-            @Override
-            public void close() {}
-          };
+              @Override
+              public void close() {}
+            };
 
-      final SolrQueryResponse rsp = new SolrQueryResponse();
-      SolrRequestInfo.setRequestInfo(new SolrRequestInfo(req, rsp));
-      try {
-        cacheList[i].warm(this, old.cacheList[i]);
-      } finally {
+        final SolrQueryResponse rsp = new SolrQueryResponse();
+        SolrRequestInfo.setRequestInfo(new SolrRequestInfo(req, rsp));
         try {
-          req.close();
+          cacheList[i].warm(this, old.cacheList[i]);
         } finally {
-          SolrRequestInfo.clearRequestInfo();
+          try {
+            req.close();
+          } finally {
+            SolrRequestInfo.clearRequestInfo();
+          }
         }
-      }
 
-      if (log.isDebugEnabled()) {
-        log.debug("autowarming result for [{}]\n\t{}", this, cacheList[i]);
+        if (log.isDebugEnabled()) {
+          log.debug("autowarming result for [{}]\n\t{}", this, cacheList[i]);
+        }
       }
+    } finally {
+      warmingFrom = null;
     }
     warmupTime =
         TimeUnit.MILLISECONDS.convert(System.nanoTime() - warmingStartTime, TimeUnit.NANOSECONDS);
   }
 
+  /**
+   * Caches the DocSet of a filter of the searcher this one is warmed from, computing it from the
+   * previous answer when possible.
+   *
+   * @see #getDocSetFromPrevious(Query, DocSet, SolrIndexSearcher)
+   */
+  private void warmDocSet(Query query, DocSet previousAnswer) throws IOException {
+    final SolrIndexSearcher previous = warmingFrom;
+    if (previous == null || !isSegmentLocal(query)) {
+      cacheDocSet(query, null, false);
+    } else {
+      cacheDocSet(query, getDocSetFromPrevious(query, previousAnswer, previous), false);
+    }
+  }
+
+  /**
+   * Whether the documents a query matches in a segment only depend on that segment, which is what
+   * {@link #getDocSetFromPrevious(Query, DocSet, SolrIndexSearcher)} relies on. Only the queries
+   * known to be are accepted; joins, graph queries, function queries (which may use index-wide
+   * statistics) and any other query are not.
+   */
+  static boolean isSegmentLocal(Query query) {
+    return allClauses(
+        query,
+        clause -> {
+          if (clause instanceof MultiTermQuery) {
+            // top terms rewrites pick their terms from the whole index
+            return !(((MultiTermQuery) clause).getRewriteMethod() instanceof TopTermsRewrite);
+          }
+          return isBasicQuery(clause) || clause instanceof SolrRangeQuery;
+        });
+  }
+
+  /**
+   * Whether a single Weight of the query can score several segments concurrently. Only the queries
+   * known to have stateless Weights are accepted; joins, graph queries, function queries and any
+   * other query, whose Weights may lazily compute state, are not.
+   */
+  static boolean hasThreadSafeWeight(Query query) {
+    return allClauses(
+        query,
+        clause ->
+            isBasicQuery(clause)
+                || clause instanceof MultiTermQuery
+                || clause instanceof DocSetQuery);
+  }
+
+  private static boolean isBasicQuery(Query query) {
+    return query instanceof TermQuery
+        || query instanceof PhraseQuery
+        || query instanceof MultiPhraseQuery
+        || query instanceof TermInSetQuery
+        || query instanceof PointRangeQuery
+        || query instanceof PointInSetQuery
+        || query instanceof DocValuesFieldExistsQuery
+        || query instanceof NormsFieldExistsQuery
+        || query instanceof MatchAllDocsQuery
+        || query instanceof MatchNoDocsQuery;
+  }
+
+  /**
+   * Whether all the clauses of a query, walking down boolean, dismax, boost, constant score and
+   * filter queries, pass the given test. The clauses are walked here rather than with a {@link
+   * QueryVisitor} since some queries, such as {@link JoinQuery}, don't report themselves to
+   * visitors.
+   */
+  private static boolean allClauses(Query query, Predicate<Query> test) {
+    if (query instanceof BooleanQuery) {
+      for (BooleanClause clause : (BooleanQuery) query) {
+        if (!allClauses(clause.getQuery(), test)) {
+          return false;
+        }
+      }
+      return true;
+    } else if (query instanceof DisjunctionMaxQuery) {
+      for (Query disjunct : (DisjunctionMaxQuery) query) {
+        if (!allClauses(disjunct, test)) {
+          return false;
+        }
+      }
+      return true;
+    } else if (query instanceof BoostQuery) {
+      return allClauses(((BoostQuery) query).getQuery(), test);
+    } else if (query instanceof ConstantScoreQuery) {
+      return allClauses(((ConstantScoreQuery) query).getQuery(), test);
+    } else if (query instanceof WrappedQuery) {
+      return allClauses(((WrappedQuery) query).getWrappedQuery(), test);
+    } else if (query instanceof FilterQuery) {
+      return allClauses(((FilterQuery) query).getQuery(), test);
+    }
+    return test.test(query);
+  }
+
+  /**
+   * Computes the DocSet matching a query from its answer in a previous searcher: the matches in the
+   * segments both searchers share are carried over, minus the documents deleted since, and the
+   * query is only run against the other segments (new or merged ones). This is only valid for
+   * queries that match the documents of a segment regardless of the other segments.
+   *
+   * @param query the query, which must be positive
+   * @param previousAnswer the DocSet matching the query in the previous searcher
+   * @param previous the previous searcher
+   */
+  DocSet getDocSetFromPrevious(Query query, DocSet previousAnswer, SolrIndexSearcher previous)
+      throws IOException {
+    final Map<IndexReader.CacheKey, LeafReaderContext> previousLeaves = new HashMap<>();
+    for (LeafReaderContext leaf : previous.getLeafContexts()) {
+      final IndexReader.CacheHelper cacheHelper = leaf.reader().getCoreCacheHelper();
+      if (cacheHelper != null) {
+        previousLeaves.put(cacheHelper.getKey(), leaf);
+      }
+    }
+
+    final DocSetCollector collector = new DocSetCollector(maxDoc());
+    Weight weight = null; // only created if there are new segments
+    for (LeafReaderContext leaf : leafContexts) {
+      final IndexReader.CacheHelper cacheHelper = leaf.reader().getCoreCacheHelper();
+      final LeafReaderContext previousLeaf =
+          cacheHelper == null ? null : previousLeaves.get(cacheHelper.getKey());
+      final DocIdSetIterator it;
+      if (previousLeaf != null) {
+        it = previousAnswer.iterator(previousLeaf);
+      } else {
+        if (weight == null) {
+          weight = createWeight(rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
+        }
+        final Scorer scorer = weight.scorer(leaf);
+        it = scorer == null ? null : scorer.iterator();
+      }
+      if (it == null) {
+        continue;
+      }
+      final LeafCollector leafCollector = collector.getLeafCollector(leaf);
+      final Bits liveDocs = leaf.reader().getLiveDocs();
+      for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
+        if (liveDocs == null || liveDocs.get(doc)) {
+          leafCollector.collect(doc);
+        }
+      }
+    }
+    return DocSetUtil.getDocSet(collector, this);
+  }
+
   /** return the named generic cache */
   @SuppressWarnings({"rawtypes"})
   public SolrCache getCache(String cacheName) {
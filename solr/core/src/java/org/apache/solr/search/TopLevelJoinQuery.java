@@ -20,6 +20,7 @@ package org.apache.solr.search;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.SortedSetDocValues;
@@ -79,7 +80,8 @@ public class TopLevelJoinQuery extends JoinQuery {
       }
 
       final LongBitSet fromOrdBitSet =
-          findFieldOrdinalsMatchingQuery(q, fromField, fromSearcher, topLevelFromDocValues);
+          getFieldOrdinalsMatchingQuery(
+              toSearcher.getCache(CACHE_NAME), fromSearcher, topLevelFromDocValues);
       final LongBitSet toOrdBitSet = new LongBitSet(topLevelToDocValues.getValueCount());
       final BitsetBounds toBitsetBounds =
           convertFromOrdinalsIntoToField(
@@ -177,6 +179,32 @@ public class TopLevelJoinQuery extends JoinQuery {
     return DocValues.singleton(DocValues.getSorted(leafReader, fieldName));
   }
 
+  /**
+   * The from ordinals matching the from query, reused from the {@link JoinQuery#CACHE_NAME} cache
+   * if it is configured. Top level ordinals only hold for the reader they come from, so the entry
+   * is keyed by it.
+   */
+  private LongBitSet getFieldOrdinalsMatchingQuery(
+      SolrCache<Object, Object> joinCache,
+      SolrIndexSearcher fromSearcher,
+      SortedSetDocValues fromDocValues)
+      throws IOException {
+    final IndexReader.CacheHelper cacheHelper =
+        joinCache == null ? null : fromSearcher.getIndexReader().getReaderCacheHelper();
+    if (cacheHelper == null) {
+      return findFieldOrdinalsMatchingQuery(q, fromField, fromSearcher, fromDocValues);
+    }
+
+    final FromQueryKey key =
+        new FromQueryKey(cacheHelper.getKey(), fromField, q, LongBitSet.class);
+    LongBitSet fromOrdBitSet = (LongBitSet) joinCache.get(key);
+    if (fromOrdBitSet == null) {
+      fromOrdBitSet = findFieldOrdinalsMatchingQuery(q, fromField, fromSearcher, fromDocValues);
+      joinCache.put(key, fromOrdBitSet);
+    }
+    return fromOrdBitSet;
+  }
+
   private static LongBitSet findFieldOrdinalsMatchingQuery(
       Query q, String field, SolrIndexSearcher searcher, SortedSetDocValues docValues)
       throws IOException {
@@ -87,7 +87,11 @@ public class FacetField extends FacetRequestSorted {
     if (fcontext.facetInfo != null) {
       // refinement... we will end up either skipping the entire facet, or doing calculating only
       // specific facet buckets
-      if (multiToken && !sf.hasDocValues() && method != FacetMethod.DV && sf.isUninvertible()) {
+      if (multiToken
+          && !sf.hasDocValues()
+          && method != FacetMethod.DV
+          && sf.isUninvertible()
+          && !UnInvertedField.isPerSegment(fcontext.searcher)) {
         // Match the access method from the first phase.
         // It won't always matter, but does currently for an all-values bucket
         return new FacetFieldProcessorByArrayUIF(fcontext, this, sf);
@@ -163,6 +167,11 @@ public class FacetField extends FacetRequestSorted {
       return new FacetFieldProcessorByArrayDV(fcontext, this, sf);
     }
 
+    if (UnInvertedField.isPerSegment(fcontext.searcher)) {
+      // per-segment un-inverted ords, reused across searchers, with a top-level OrdinalMap
+      return new FacetFieldProcessorByArrayDV(fcontext, this, sf);
+    }
+
     // Top-level multi-valued field cache (UIF)
     return new FacetFieldProcessorByArrayUIF(fcontext, this, sf);
   }
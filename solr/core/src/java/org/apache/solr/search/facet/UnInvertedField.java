@@ -623,6 +623,24 @@ public class UnInvertedField extends DocTermOrds {
   //////////////////////////// caching /////////////////////////////
   //////////////////////////////////////////////////////////////////
 
+  /**
+   * Attribute of the <code>fieldValueCache</code> configuration which, when true, makes
+   * <code>facet.method=uif</code> facet on per-segment un-inverted ords instead of a top-level
+   * {@link UnInvertedField}. The per-segment structures live in the field cache keyed by segment
+   * core, so only new segments are un-inverted after a commit, and an {@link
+   * org.apache.lucene.index.OrdinalMap} composes them into a top-level view.
+   */
+  public static final String PER_SEGMENT = "perSegment";
+
+  /**
+   * Whether field faceting on un-inverted fields should be done per segment
+   *
+   * @see #PER_SEGMENT
+   */
+  public static boolean isPerSegment(SolrIndexSearcher searcher) {
+    return searcher.getCore().getSolrConfig().fieldValueCachePerSegment;
+  }
+
   public static UnInvertedField getUnInvertedField(String field, SolrIndexSearcher searcher)
       throws IOException {
     SolrCache<String, UnInvertedField> cache = searcher.getFieldValueCache();
@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.grouping;
+
+import com.carrotsearch.hppc.LongHashSet;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.UnicodeUtil;
+import org.apache.solr.schema.SchemaField;
+import org.apache.solr.search.DocIterator;
+import org.apache.solr.search.DocSet;
+import org.apache.solr.search.QueryResultKey;
+import org.apache.solr.search.SolrIndexSearcher;
+
+/**
+ * The top level group ordinal of every document in a {@link DocSet}, gathered in a single pass over
+ * the group field. It serves the number of groups (<code>group.ngroups</code>) and the grouped
+ * facet counts (<code>group.facet</code>) of the documents without collecting them again per
+ * facet.
+ *
+ * <p>Top level ordinals only hold for the searcher they come from, so instances are cached in the
+ * optional per searcher {@link #CACHE_NAME} user cache, keyed by the group field and the query and
+ * filters that produced the documents (see {@link #cacheKey(String, Query, List)}).
+ *
+ * @lucene.experimental
+ */
+public final class GroupOrdinals implements Accountable {
+
+  /** The name of the optional user cache holding the group ordinals of grouped searches */
+  public static final String CACHE_NAME = "groupCache";
+
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(GroupOrdinals.class);
+
+  private final String groupField;
+  private final int[] docs;
+  // the group ordinal of docs[i], -1 if it has no value in the group field
+  private final int[] groupOrds;
+  private final int valueCount;
+  private final int groupCount;
+
+  private GroupOrdinals(String groupField, int[] docs, int[] groupOrds, int valueCount) {
+    this.groupField = groupField;
+    this.docs = docs;
+    this.groupOrds = groupOrds;
+    this.valueCount = valueCount;
+
+    final FixedBitSet groups = new FixedBitSet(valueCount + 1);
+    for (int groupOrd : groupOrds) {
+      groups.set(groupOrd + 1);
+    }
+    this.groupCount = groups.cardinality();
+  }
+
+  /**
+   * Whether group ordinals can be used for the given field. Numeric fields need the {@link
+   * org.apache.solr.search.NumericHidingLeafReader} to be grouped on, so they are left to the
+   * grouping collectors.
+   */
+  public static boolean isSupported(SchemaField field) {
+    return field != null && !field.multiValued() && field.getType().getNumberType() == null;
+  }
+
+  /** Reads the group ordinal of every document in <code>docs</code>. */
+  public static GroupOrdinals create(SolrIndexSearcher searcher, String groupField, DocSet docs)
+      throws IOException {
+    final SortedDocValues groupValues =
+        DocValues.getSorted(searcher.getSlowAtomicReader(), groupField);
+    final int[] docIds = new int[docs.size()];
+    final int[] groupOrds = new int[docIds.length];
+    int i = 0;
+    for (DocIterator it = docs.iterator(); it.hasNext(); i++) {
+      final int doc = it.nextDoc();
+      docIds[i] = doc;
+      groupOrds[i] = groupValues.advanceExact(doc) ? groupValues.ordValue() : -1;
+    }
+    return new GroupOrdinals(groupField, docIds, groupOrds, groupValues.getValueCount());
+  }
+
+  /**
+   * The key of the group ordinals of the documents matching <code>query</code> and <code>filters
+   * </code>, with the filters compared regardless of their order.
+   */
+  public static Object cacheKey(String groupField, Query query, List<Query> filters) {
+    return new Key(
+        groupField,
+        new QueryResultKey(query, filters == null || filters.isEmpty() ? null : filters, null, 0));
+  }
+
+  public String getGroupField() {
+    return groupField;
+  }
+
+  /**
+   * The number of distinct groups, counting the documents without a group value as one group the
+   * same way {@link org.apache.lucene.search.grouping.AllGroupsCollector} does.
+   */
+  public int getGroupCount() {
+    return groupCount;
+  }
+
+  /** The number of distinct groups of the documents that are also in <code>subset</code>. */
+  public int getGroupCount(DocSet subset) {
+    final FixedBitSet groups = new FixedBitSet(valueCount + 1);
+    for (int i = 0; i < docs.length; i++) {
+      if (subset.exists(docs[i])) {
+        groups.set(groupOrds[i] + 1);
+      }
+    }
+    return groups.cardinality();
+  }
+
+  /**
+   * Counts the distinct groups of every term of <code>facetField</code>, limited to the terms
+   * starting with <code>prefix</code> if it isn't null. The groups of the documents without any
+   * term are counted as missing, unless there is a prefix.
+   */
+  public FacetCounts getFacetCounts(SolrIndexSearcher searcher, String facetField, BytesRef prefix)
+      throws IOException {
+    final SortedSetDocValues facetValues =
+        DocValues.getSortedSet(searcher.getSlowAtomicReader(), facetField);
+    long startOrd = 0;
+    long endOrd = facetValues.getValueCount();
+    if (prefix != null) {
+      startOrd = facetValues.lookupTerm(prefix);
+      if (startOrd < 0) {
+        startOrd = -startOrd - 1;
+      }
+      final BytesRefBuilder endPrefix = new BytesRefBuilder();
+      endPrefix.append(prefix);
+      endPrefix.append(UnicodeUtil.BIG_TERM);
+      endOrd = facetValues.lookupTerm(endPrefix.get());
+      if (endOrd < 0) {
+        endOrd = -endOrd - 1;
+      }
+    }
+
+    final int[] counts = new int[Math.toIntExact(endOrd - startOrd)];
+    final FixedBitSet missingGroups = prefix == null ? new FixedBitSet(valueCount + 1) : null;
+    // a (term, group) pair is only counted the first time it is seen
+    final LongHashSet seen = new LongHashSet();
+    final long groupSlots = valueCount + 1L;
+    for (int i = 0; i < docs.length; i++) {
+      final int group = groupOrds[i] + 1;
+      if (!facetValues.advanceExact(docs[i])) {
+        if (missingGroups != null) {
+          missingGroups.set(group);
+        }
+        continue;
+      }
+      for (long ord = facetValues.nextOrd();
+          ord != SortedSetDocValues.NO_MORE_ORDS && ord < endOrd;
+          ord = facetValues.nextOrd()) {
+        if (ord >= startOrd && seen.add(ord * groupSlots + group)) {
+          counts[(int) (ord - startOrd)]++;
+        }
+      }
+    }
+
+    final int missingCount = missingGroups == null ? 0 : missingGroups.cardinality();
+    return new FacetCounts(facetValues, startOrd, counts, missingCount);
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED
+        + RamUsageEstimator.sizeOf(docs)
+        + RamUsageEstimator.sizeOf(groupOrds)
+        + RamUsageEstimator.sizeOf(groupField);
+  }
+
+  /** The grouped counts of the terms of a facet field, in index order. */
+  public static final class FacetCounts {
+    private final SortedSetDocValues facetValues;
+    private final long startOrd;
+    private final int[] counts;
+    private final int missingCount;
+
+    private FacetCounts(
+        SortedSetDocValues facetValues, long startOrd, int[] counts, int missingCount) {
+      this.facetValues = facetValues;
+      this.startOrd = startOrd;
+      this.counts = counts;
+      this.missingCount = missingCount;
+    }
+
+    public int size() {
+      return counts.length;
+    }
+
+    /** The number of distinct groups of the <code>i</code>th term */
+    public int getCount(int i) {
+      return counts[i];
+    }
+
+    /** The <code>i</code>th term, only valid until the next call */
+    public BytesRef getTerm(int i) throws IOException {
+      return facetValues.lookupOrd(startOrd + i);
+    }
+
+    /** The number of distinct groups of the documents without a term */
+    public int getMissingCount() {
+      return missingCount;
+    }
+  }
+
+  private static final class Key {
+    private final String groupField;
+    private final QueryResultKey queryKey;
+
+    private Key(String groupField, QueryResultKey queryKey) {
+      this.groupField = groupField;
+      this.queryKey = queryKey;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      Key other = (Key) o;
+      return groupField.equals(other.groupField) && queryKey.equals(other.queryKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(groupField, queryKey);
+    }
+  }
+}
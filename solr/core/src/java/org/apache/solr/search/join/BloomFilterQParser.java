@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.join;
+
+import java.nio.BufferUnderflowException;
+import org.apache.lucene.search.Query;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.schema.SchemaField;
+import org.apache.solr.schema.StrField;
+import org.apache.solr.search.QParser;
+import org.apache.solr.search.QueryParsing;
+import org.apache.solr.search.SyntaxError;
+
+@SuppressWarnings("WeakerAccess")
+public class BloomFilterQParser extends QParser {
+
+  public static final String FIELD = "f";
+
+  public BloomFilterQParser(
+      String qstr, SolrParams localParams, SolrParams params, SolrQueryRequest req) {
+    super(qstr, localParams, params, req);
+  }
+
+  @Override
+  public Query parse() throws SyntaxError {
+    String field = localParams.get(FIELD);
+    String encodedFilter = localParams.get(QueryParsing.V);
+    if (field == null || encodedFilter == null) {
+      throw new SyntaxError("bloom_filter requires a field and an encoded filter");
+    }
+
+    // the filter holds the bytes of string terms, which can only be compared with the docValues of
+    // a string field
+    SchemaField schemaField = req.getSchema().getField(field);
+    if (!(schemaField.getType() instanceof StrField) || !schemaField.hasDocValues()) {
+      throw new SolrException(
+          SolrException.ErrorCode.BAD_REQUEST,
+          "bloom_filter requires a string field with docValues, but got: " + field);
+    }
+
+    try {
+      return new BloomFilterQuery(field, encodedFilter);
+    } catch (IllegalArgumentException | BufferUnderflowException e) {
+      throw new SyntaxError("Invalid bloom filter: " + e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.join;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Objects;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.ConstantScoreScorer;
+import org.apache.lucene.search.ConstantScoreWeight;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TwoPhaseIterator;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.LongBitSet;
+
+/**
+ * Matches the documents having a docValues value of a field that may be in a {@link
+ * JoinKeyBloomFilter}. Each segment's values are only tested against the filter once.
+ */
+public class BloomFilterQuery extends Query {
+
+  protected final String field;
+  protected final String encodedFilter;
+  private final JoinKeyBloomFilter filter;
+
+  public BloomFilterQuery(String field, String encodedFilter) {
+    this.field = field;
+    this.encodedFilter = encodedFilter;
+    this.filter = JoinKeyBloomFilter.decode(encodedFilter);
+  }
+
+  @Override
+  public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost)
+      throws IOException {
+    return new ConstantScoreWeight(this, boost) {
+
+      @Override
+      public boolean isCacheable(LeafReaderContext context) {
+        return DocValues.isCacheable(context, field);
+      }
+
+      @Override
+      public Scorer scorer(LeafReaderContext context) throws IOException {
+        SortedSetDocValues docValues = DocValues.getSortedSet(context.reader(), field);
+        LongBitSet matchingOrds = getMatchingOrds(docValues);
+        if (matchingOrds == null) {
+          return null;
+        }
+
+        TwoPhaseIterator iterator =
+            new TwoPhaseIterator(docValues) {
+              @Override
+              public boolean matches() throws IOException {
+                long ord;
+                while ((ord = docValues.nextOrd()) != SortedSetDocValues.NO_MORE_ORDS) {
+                  if (matchingOrds.get(ord)) {
+                    return true;
+                  }
+                }
+                return false;
+              }
+
+              @Override
+              public float matchCost() {
+                return 2;
+              }
+            };
+
+        return new ConstantScoreScorer(this, boost, scoreMode, iterator);
+      }
+
+      // the ords of the values that may be in the filter, null if none
+      private LongBitSet getMatchingOrds(SortedSetDocValues docValues) throws IOException {
+        LongBitSet matchingOrds = null;
+        TermsEnum termsEnum = docValues.termsEnum();
+        for (BytesRef term = termsEnum.next(); term != null; term = termsEnum.next()) {
+          if (filter.mightContain(term)) {
+            if (matchingOrds == null) {
+              matchingOrds = new LongBitSet(docValues.getValueCount());
+            }
+            matchingOrds.set(termsEnum.ord());
+          }
+        }
+        return matchingOrds;
+      }
+    };
+  }
+
+  @Override
+  public void visit(QueryVisitor visitor) {
+    visitor.visitLeaf(this);
+  }
+
+  @Override
+  public String toString(String field) {
+    // the filter itself may be large, so only its size is shown
+    return String.format(
+        Locale.ROOT, "{!bloom_filter f=%s}[%d chars]", this.field, encodedFilter.length());
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return sameClassAs(other) && equalsTo(getClass().cast(other));
+  }
+
+  private boolean equalsTo(BloomFilterQuery other) {
+    return Objects.equals(field, other.field) && Objects.equals(encodedFilter, other.encodedFilter);
+  }
+
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = classHash();
+    result = prime * result + Objects.hashCode(field);
+    result = prime * result + Objects.hashCode(encodedFilter);
+    return result;
+  }
+}
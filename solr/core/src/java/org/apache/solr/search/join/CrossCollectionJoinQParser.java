@@ -39,6 +39,7 @@ public class CrossCollectionJoinQParser extends QParser {
   public static final String TO = "to";
   public static final String ROUTED_BY_JOIN_KEY = "routed";
   public static final String TTL = "ttl";
+  public static final String SEMI_JOIN = "semiJoin";
 
   public static final int TTL_DEFAULT = 60 * 60; // in seconds
 
@@ -53,6 +54,7 @@ public class CrossCollectionJoinQParser extends QParser {
               FROM,
               TO,
               ROUTED_BY_JOIN_KEY,
+              SEMI_JOIN,
               TTL));
 
   private final String routerField;
@@ -92,6 +94,7 @@ public class CrossCollectionJoinQParser extends QParser {
     String toField = localParams.get(TO);
 
     boolean routedByJoinKey = localParams.getBool(ROUTED_BY_JOIN_KEY, toField.equals(routerField));
+    boolean semiJoin = localParams.getBool(SEMI_JOIN, false);
     int ttl = localParams.getInt(TTL, TTL_DEFAULT);
 
     ModifiableSolrParams otherParams = new ModifiableSolrParams();
@@ -103,6 +106,15 @@ public class CrossCollectionJoinQParser extends QParser {
     }
 
     return new CrossCollectionJoinQuery(
-        query, zkHost, solrUrl, collection, fromField, toField, routedByJoinKey, ttl, otherParams);
+        query,
+        zkHost,
+        solrUrl,
+        collection,
+        fromField,
+        toField,
+        routedByJoinKey,
+        semiJoin,
+        ttl,
+        otherParams);
   }
 }
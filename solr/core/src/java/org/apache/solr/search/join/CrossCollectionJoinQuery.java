@@ -18,10 +18,12 @@
 package org.apache.solr.search.join;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.index.Terms;
@@ -35,6 +37,7 @@ import org.apache.lucene.search.QueryVisitor;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.FixedBitSet;
 import org.apache.solr.client.solrj.io.SolrClientCache;
@@ -56,13 +59,24 @@ import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.params.SolrParams;
 import org.apache.solr.schema.FieldType;
+import org.apache.solr.schema.StrField;
 import org.apache.solr.search.BitDocSet;
 import org.apache.solr.search.DocSet;
 import org.apache.solr.search.DocSetUtil;
+import org.apache.solr.search.SolrCache;
 import org.apache.solr.search.SolrIndexSearcher;
 
 public class CrossCollectionJoinQuery extends Query {
 
+  /**
+   * Prefix of the name of the optional user cache holding, per searcher, the encoded bloom filter
+   * of the local values of a "to" field, for {@code semiJoin=true}.
+   */
+  public static final String BLOOM_FILTER_CACHE_KEY_PREFIX = "bloom_";
+
+  /** The false positive probability the bloom filter of the local join keys is sized for. */
+  static final double BLOOM_FILTER_FPP = 0.01;
+
   protected final String query;
   protected final String zkHost;
   protected final String solrUrl;
@@ -70,6 +84,7 @@ public class CrossCollectionJoinQuery extends Query {
   protected final String fromField;
   protected final String toField;
   protected final boolean routedByJoinKey;
+  protected final boolean semiJoin;
 
   protected final long timestamp;
   protected final int ttl;
@@ -87,6 +102,34 @@ public class CrossCollectionJoinQuery extends Query {
       boolean routedByJoinKey,
       int ttl,
       SolrParams otherParams) {
+    this(
+        query,
+        zkHost,
+        solrUrl,
+        collection,
+        fromField,
+        toField,
+        routedByJoinKey,
+        false,
+        ttl,
+        otherParams);
+  }
+
+  /**
+   * @param semiJoin if true, a bloom filter of the local join keys is sent along with the remote
+   *     query, so that it only returns the keys that may exist locally.
+   */
+  public CrossCollectionJoinQuery(
+      String query,
+      String zkHost,
+      String solrUrl,
+      String collection,
+      String fromField,
+      String toField,
+      boolean routedByJoinKey,
+      boolean semiJoin,
+      int ttl,
+      SolrParams otherParams) {
 
     this.query = query;
     this.zkHost = zkHost;
@@ -95,6 +138,7 @@ public class CrossCollectionJoinQuery extends Query {
     this.fromField = fromField;
     this.toField = toField;
     this.routedByJoinKey = routedByJoinKey;
+    this.semiJoin = semiJoin;
 
     this.timestamp = System.nanoTime();
     this.ttl = ttl;
@@ -117,18 +161,26 @@ public class CrossCollectionJoinQuery extends Query {
     FieldType fieldType;
     SolrIndexSearcher searcher;
 
-    TermsEnum termsEnum;
+    // the keys are looked up in each segment directly, rather than through a merged view of all
+    // the segments' terms
+    List<LeafReaderContext> leaves;
+    TermsEnum[] termsEnums;
     BytesRefBuilder bytes;
     PostingsEnum postingsEnum;
 
     FixedBitSet bitSet;
 
-    public TermsJoinKeyCollector(FieldType fieldType, Terms terms, SolrIndexSearcher searcher)
+    public TermsJoinKeyCollector(FieldType fieldType, SolrIndexSearcher searcher)
         throws IOException {
       this.fieldType = fieldType;
       this.searcher = searcher;
 
-      termsEnum = terms.iterator();
+      leaves = searcher.getTopReaderContext().leaves();
+      termsEnums = new TermsEnum[leaves.size()];
+      for (LeafReaderContext leaf : leaves) {
+        Terms terms = leaf.reader().terms(toField);
+        termsEnums[leaf.ord] = terms == null ? null : terms.iterator();
+      }
       bytes = new BytesRefBuilder();
 
       bitSet = new FixedBitSet(searcher.maxDoc());
@@ -137,9 +189,15 @@ public class CrossCollectionJoinQuery extends Query {
     @Override
     public void collect(Object value) throws IOException {
       fieldType.readableToIndexed((String) value, bytes);
-      if (termsEnum.seekExact(bytes.get())) {
-        postingsEnum = termsEnum.postings(postingsEnum, PostingsEnum.NONE);
-        bitSet.or(postingsEnum);
+      for (LeafReaderContext leaf : leaves) {
+        TermsEnum termsEnum = termsEnums[leaf.ord];
+        if (termsEnum != null && termsEnum.seekExact(bytes.get())) {
+          postingsEnum = termsEnum.postings(postingsEnum, PostingsEnum.NONE);
+          int doc;
+          while ((doc = postingsEnum.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+            bitSet.set(leaf.docBase + doc);
+          }
+        }
       }
     }
 
@@ -215,6 +273,66 @@ public class CrossCollectionJoinQuery extends Query {
       }
     }
 
+    /**
+     * A filter that only matches the remote docs whose join key may exist locally, or null if
+     * that's not requested or not possible. The filter holds the local terms, which are only the
+     * same bytes as the remote docValues for string fields.
+     */
+    private String createBloomFilterFq() throws IOException {
+      if (!semiJoin || !(searcher.getSchema().getFieldType(toField) instanceof StrField)) {
+        return null;
+      }
+      String encodedFilter = getLocalKeysFilter();
+      if (encodedFilter == null) {
+        return null;
+      }
+      // the filter is specific to this request, so it shouldn't take up space in the filterCache
+      return String.format(
+          Locale.ROOT,
+          "{!%s f=%s cache=false}%s",
+          BloomFilterQParserPlugin.NAME,
+          fromField,
+          encodedFilter);
+    }
+
+    private String getLocalKeysFilter() throws IOException {
+      IndexReader.CacheHelper cacheHelper = searcher.getIndexReader().getReaderCacheHelper();
+      if (cacheHelper == null) {
+        return buildLocalKeysFilter();
+      }
+      final SolrCache<IndexReader.CacheKey, String> cache =
+          searcher.getCache(BLOOM_FILTER_CACHE_KEY_PREFIX + toField);
+      if (cache == null) {
+        return buildLocalKeysFilter();
+      }
+      return cache.computeIfAbsent(cacheHelper.getKey(), ck -> buildLocalKeysFilter());
+    }
+
+    // the encoded bloom filter of the local join keys, null if there are too many of them
+    private String buildLocalKeysFilter() throws IOException {
+      // an upper bound, as a key may be in several segments
+      long numKeys = 0;
+      for (LeafReaderContext leaf : searcher.getTopReaderContext().leaves()) {
+        Terms terms = leaf.reader().terms(toField);
+        if (terms != null) {
+          numKeys += terms.size();
+        }
+      }
+      JoinKeyBloomFilter filter = JoinKeyBloomFilter.create(numKeys, BLOOM_FILTER_FPP);
+      if (filter == null) {
+        return null;
+      }
+
+      Terms terms = searcher.getSlowAtomicReader().terms(toField);
+      if (terms != null) {
+        TermsEnum termsEnum = terms.iterator();
+        for (BytesRef term = termsEnum.next(); term != null; term = termsEnum.next()) {
+          filter.add(term);
+        }
+      }
+      return filter.encode();
+    }
+
     private TupleStream createCloudSolrStream(SolrClientCache solrClientCache) throws IOException {
       String streamZkHost;
       if (zkHost != null) {
@@ -229,6 +347,10 @@ public class CrossCollectionJoinQuery extends Query {
       if (fq != null) {
         params.add(CommonParams.FQ, fq);
       }
+      String bloomFilterFq = createBloomFilterFq();
+      if (bloomFilterFq != null) {
+        params.add(CommonParams.FQ, bloomFilterFq);
+      }
       params.set(CommonParams.FL, fromField);
       params.set(CommonParams.SORT, fromField + " asc");
       params.set(CommonParams.QT, "/export");
@@ -243,7 +365,7 @@ public class CrossCollectionJoinQuery extends Query {
       return uniqueStream;
     }
 
-    private TupleStream createSolrStream() {
+    private TupleStream createSolrStream() throws IOException {
       StreamExpression searchExpr =
           new StreamExpression("search")
               .withParameter(collection)
@@ -252,6 +374,11 @@ public class CrossCollectionJoinQuery extends Query {
       if (fq != null) {
         searchExpr.withParameter(new StreamExpressionNamedParameter(CommonParams.FQ, fq));
       }
+      String bloomFilterFq = createBloomFilterFq();
+      if (bloomFilterFq != null) {
+        searchExpr.withParameter(
+            new StreamExpressionNamedParameter(CommonParams.FQ, bloomFilterFq));
+      }
       searchExpr
           .withParameter(new StreamExpressionNamedParameter(CommonParams.FL, fromField))
           .withParameter(new StreamExpressionNamedParameter(CommonParams.SORT, fromField + " asc"))
@@ -277,14 +404,6 @@ public class CrossCollectionJoinQuery extends Query {
     }
 
     private DocSet getDocSet() throws IOException {
-      SolrClientCache solrClientCache = searcher.getCore().getCoreContainer().getSolrClientCache();
-      TupleStream solrStream;
-      if (zkHost != null || solrUrl == null) {
-        solrStream = createCloudSolrStream(solrClientCache);
-      } else {
-        solrStream = createSolrStream();
-      }
-
       FieldType fieldType = searcher.getSchema().getFieldType(toField);
       JoinKeyCollector collector;
       if (fieldType.isPointField()) {
@@ -294,7 +413,15 @@ public class CrossCollectionJoinQuery extends Query {
         if (terms == null) {
           return DocSet.empty();
         }
-        collector = new TermsJoinKeyCollector(fieldType, terms, searcher);
+        collector = new TermsJoinKeyCollector(fieldType, searcher);
+      }
+
+      SolrClientCache solrClientCache = searcher.getCore().getCoreContainer().getSolrClientCache();
+      TupleStream solrStream;
+      if (zkHost != null || solrUrl == null) {
+        solrStream = createCloudSolrStream(solrClientCache);
+      } else {
+        solrStream = createSolrStream();
       }
 
       try {
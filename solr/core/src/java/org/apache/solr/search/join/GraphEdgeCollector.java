@@ -19,7 +19,6 @@ package org.apache.solr.search.join;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.TreeSet;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.SortedSetDocValues;
@@ -27,18 +26,22 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.sandbox.search.DocValuesTermsQuery;
 import org.apache.lucene.search.AutomatonQuery;
 import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.SimpleCollector;
 import org.apache.lucene.search.TermInSetQuery;
 import org.apache.lucene.util.BitSet;
+import org.apache.lucene.util.BitSetIterator;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefHash;
 import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.LongBitSet;
 import org.apache.lucene.util.automaton.Automaton;
 import org.apache.lucene.util.automaton.DaciukMihovAutomatonBuilder;
 import org.apache.solr.schema.SchemaField;
 import org.apache.solr.search.DocSet;
+import org.apache.solr.search.SegmentParallelCollector;
 
 /**
  * A graph hit collector. This accumulates the edges for a given graph traversal. On each collect
@@ -46,7 +49,8 @@ import org.apache.solr.search.DocSet;
  *
  * @lucene.internal
  */
-abstract class GraphEdgeCollector extends SimpleCollector implements Collector {
+abstract class GraphEdgeCollector extends SimpleCollector
+    implements Collector, SegmentParallelCollector {
   // For graph traversal, the result set that has already been visited and thus can be skipped for
   // during value collection.
   DocSet skipSet;
@@ -55,9 +59,14 @@ abstract class GraphEdgeCollector extends SimpleCollector implements Collector {
 
   int numHits = 0; // number of documents visited
   BitSet bits; // if not null, used to collect documents visited
+  // the doc bits starts at, non zero for a segment collector whose bits only cover its segment
+  int bitsBase = 0;
 
   int base;
 
+  // whether segments are collected concurrently
+  boolean parallel = false;
+
   SchemaField collectField;
 
   // skipSet and leafNodes may be null
@@ -78,6 +87,50 @@ abstract class GraphEdgeCollector extends SimpleCollector implements Collector {
     return numHits;
   }
 
+  // Set whether the segments should be collected concurrently
+  public void setParallel(boolean parallel) {
+    this.parallel = parallel;
+  }
+
+  @Override
+  public boolean collectSegmentsInParallel() {
+    return parallel;
+  }
+
+  @Override
+  public Collector newSegmentCollector(LeafReaderContext context) throws IOException {
+    GraphEdgeCollector segmentCollector = newCollector();
+    if (bits != null) {
+      // the bits of the collectors are set concurrently, so they must not share any words
+      segmentCollector.bits = new FixedBitSet(context.reader().maxDoc());
+      segmentCollector.bitsBase = context.docBase;
+    }
+    return segmentCollector;
+  }
+
+  @Override
+  public void mergeSegmentCollector(LeafReaderContext context, Collector segmentCollector)
+      throws IOException {
+    GraphEdgeCollector other = (GraphEdgeCollector) segmentCollector;
+    numHits += other.numHits;
+    if (bits != null) {
+      DocIdSetIterator it = new BitSetIterator(other.bits, 0);
+      for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
+        bits.set(doc + other.bitsBase);
+      }
+    }
+    mergeEdges(other);
+  }
+
+  // a collector of the same kind, with nothing collected yet
+  abstract GraphEdgeCollector newCollector();
+
+  // add the edges collected by a segment collector to ours
+  abstract void mergeEdges(GraphEdgeCollector segmentCollector) throws IOException;
+
+  // the number of distinct edge ids collected
+  public abstract int getEdgeCount() throws IOException;
+
   public void collect(int segDoc) throws IOException {
     int doc = segDoc + base;
     if (skipSet != null && skipSet.exists(doc)) {
@@ -86,7 +139,7 @@ abstract class GraphEdgeCollector extends SimpleCollector implements Collector {
       return;
     }
 
-    if (bits != null) bits.set(doc);
+    if (bits != null) bits.set(doc - bitsBase);
     // increment the hit count so we know how many docs we traversed this time.
     numHits++;
 
@@ -113,7 +166,8 @@ abstract class GraphEdgeCollector extends SimpleCollector implements Collector {
     base = context.docBase;
   }
 
-  public abstract Query getResultQuery(SchemaField matchField, boolean useAutomaton);
+  public abstract Query getResultQuery(SchemaField matchField, boolean useAutomaton)
+      throws IOException;
 
   @Override
   public ScoreMode scoreMode() {
@@ -124,6 +178,8 @@ abstract class GraphEdgeCollector extends SimpleCollector implements Collector {
     // all the collected terms
     private BytesRefHash collectorTerms;
     private SortedSetDocValues docTermOrds;
+    // the ords collected in the current segment, only looked up once we're done with it
+    private LongBitSet segmentOrds;
 
     GraphTermsCollector(SchemaField collectField, DocSet skipSet, DocSet leafNodes) {
       super(collectField, skipSet, leafNodes);
@@ -132,11 +188,47 @@ abstract class GraphEdgeCollector extends SimpleCollector implements Collector {
 
     @Override
     public void doSetNextReader(LeafReaderContext context) throws IOException {
+      addSegmentTerms();
       super.doSetNextReader(context);
       // Grab the updated doc values.
       docTermOrds = DocValues.getSortedSet(context.reader(), collectField.getName());
     }
 
+    @Override
+    GraphEdgeCollector newCollector() {
+      return new GraphTermsCollector(collectField, skipSet, leafNodes);
+    }
+
+    @Override
+    void mergeEdges(GraphEdgeCollector segmentCollector) throws IOException {
+      GraphTermsCollector other = (GraphTermsCollector) segmentCollector;
+      other.addSegmentTerms();
+      BytesRef ref = new BytesRef();
+      for (int i = 0; i < other.collectorTerms.size(); i++) {
+        collectorTerms.add(other.collectorTerms.get(i, ref));
+      }
+    }
+
+    @Override
+    public int getEdgeCount() throws IOException {
+      addSegmentTerms();
+      return collectorTerms.size();
+    }
+
+    // add the terms of the ords collected in the current segment, each ord being looked up once
+    private void addSegmentTerms() throws IOException {
+      if (segmentOrds == null) {
+        return;
+      }
+      final long numOrds = segmentOrds.length();
+      for (long ord = segmentOrds.nextSetBit(0);
+          ord != -1;
+          ord = ord + 1 < numOrds ? segmentOrds.nextSetBit(ord + 1) : -1) {
+        collectorTerms.add(docTermOrds.lookupOrd(ord));
+      }
+      segmentOrds = null;
+    }
+
     @Override
     void addEdgeIdsToResult(int doc) throws IOException {
       // set the doc to pull the edges ids for.
@@ -144,18 +236,20 @@ abstract class GraphEdgeCollector extends SimpleCollector implements Collector {
         docTermOrds.advance(doc);
       }
       if (doc == docTermOrds.docID()) {
-        BytesRef edgeValue = new BytesRef();
+        if (segmentOrds == null) {
+          segmentOrds = new LongBitSet(docTermOrds.getValueCount());
+        }
         long ord;
         while ((ord = docTermOrds.nextOrd()) != SortedSetDocValues.NO_MORE_ORDS) {
-          edgeValue = docTermOrds.lookupOrd(ord);
-          // add the edge id to the collector terms.
-          collectorTerms.add(edgeValue);
+          // remember the edge id, its term is added to the collector terms with the segment's
+          segmentOrds.set(ord);
         }
       }
     }
 
     @Override
-    public Query getResultQuery(SchemaField matchField, boolean useAutomaton) {
+    public Query getResultQuery(SchemaField matchField, boolean useAutomaton) throws IOException {
+      addSegmentTerms();
       if (collectorTerms == null || collectorTerms.size() == 0) {
         // return null if there are no terms (edges) to traverse.
         return null;
@@ -188,12 +282,13 @@ abstract class GraphEdgeCollector extends SimpleCollector implements Collector {
 
     /** Build an automaton to represent the frontier query */
     private Automaton buildAutomaton(BytesRefHash termBytesHash) {
-      // need top pass a sorted set of terms to the autn builder (maybe a better way to avoid this?)
-      final TreeSet<BytesRef> terms = new TreeSet<BytesRef>();
-      for (int i = 0; i < termBytesHash.size(); i++) {
-        BytesRef ref = new BytesRef();
-        termBytesHash.get(i, ref);
-        terms.add(ref);
+      // the autn builder needs the terms in order, which the hash can give without copying them
+      // into a sorted set first
+      final int size = termBytesHash.size();
+      final int[] sortedIds = termBytesHash.sort();
+      final List<BytesRef> terms = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        terms.add(termBytesHash.get(sortedIds[i], new BytesRef()));
       }
       final Automaton a = DaciukMihovAutomatonBuilder.build(terms);
       return a;
@@ -51,6 +51,24 @@ public class GraphPointsCollector extends GraphEdgeCollector {
     values = DocValues.getSortedNumeric(context.reader(), collectField.getName());
   }
 
+  @Override
+  GraphEdgeCollector newCollector() {
+    return new GraphPointsCollector(collectField, skipSet, leafNodes);
+  }
+
+  @Override
+  void mergeEdges(GraphEdgeCollector segmentCollector) {
+    for (LongIterator iter = ((GraphPointsCollector) segmentCollector).set.iterator();
+        iter.hasNext(); ) {
+      set.add(iter.next());
+    }
+  }
+
+  @Override
+  public int getEdgeCount() {
+    return set.cardinality();
+  }
+
   @Override
   void addEdgeIdsToResult(int doc) throws IOException {
     // set the doc to pull the edges ids for.
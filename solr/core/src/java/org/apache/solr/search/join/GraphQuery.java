@@ -42,10 +42,14 @@ import org.apache.lucene.util.BytesRefHash;
 import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.automaton.Automaton;
 import org.apache.lucene.util.automaton.DaciukMihovAutomatonBuilder;
+import org.apache.solr.common.util.SimpleOrderedMap;
+import org.apache.solr.handler.component.ResponseBuilder;
+import org.apache.solr.request.SolrRequestInfo;
 import org.apache.solr.schema.SchemaField;
 import org.apache.solr.search.BitDocSet;
 import org.apache.solr.search.DocSet;
 import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.solr.util.RTimer;
 
 /**
  * GraphQuery - search for nodes and traverse edges in an index.
@@ -74,6 +78,18 @@ public class GraphQuery extends Query {
   /** Use automaton compilation for graph query traversal (experimental + expert use only) */
   private boolean useAutn = true;
 
+  /** The default for {@link #getAutnMinTerms()}. */
+  public static final int DEFAULT_AUTN_MIN_TERMS = -1;
+
+  /**
+   * Frontiers with at least this many terms are compiled into an automaton even if {@link
+   * #isUseAutn()} is false, -1 means never.
+   */
+  private int autnMinTerms = DEFAULT_AUTN_MIN_TERMS;
+
+  /** Whether the segments are traversed concurrently when expanding each frontier. */
+  private boolean parallel = false;
+
   /**
    * If this is true, the graph traversal result will only return documents that do not have a value
    * in the edge field. (Only leaf nodes returned from the graph)
@@ -130,12 +146,16 @@ public class GraphQuery extends Query {
     sb.append("[returnRoot=").append(returnRoot).append(']');
     sb.append("[onlyLeafNodes=").append(onlyLeafNodes).append(']');
     sb.append("[useAutn=").append(useAutn).append(']');
+    if (parallel) {
+      sb.append("[parallel=true]");
+    }
     return sb.toString();
   }
 
   protected class GraphQueryWeight extends Weight {
 
     final SolrIndexSearcher fromSearcher;
+    final ResponseBuilder rb;
     private int currentDepth = -1;
     private DocSet resultSet;
     SchemaField collectSchemaField; // the field to collect values from
@@ -145,6 +165,8 @@ public class GraphQuery extends Query {
       // Grab the searcher so we can run additional searches.
       super(null);
       this.fromSearcher = searcher;
+      SolrRequestInfo info = SolrRequestInfo.getRequestInfo();
+      this.rb = info == null ? null : info.getResponseBuilder();
       this.matchSchemaField = searcher.getSchema().getField(fromField);
       this.collectSchemaField = searcher.getSchema().getField(toField);
     }
@@ -186,11 +208,15 @@ public class GraphQuery extends Query {
       Query frontierQuery = q;
       // Find all documents in this graph that are leaf nodes to speed traversal
       DocSet leafNodes = resolveLeafNodes();
+      // the size and time of each level of the traversal, only gathered when debugging
+      List<Object> levels = rb != null && rb.isDebug() ? new ArrayList<>() : null;
       // Start the breadth first graph traversal.
 
       do {
         // Increment how far we have gone in the frontier.
         currentDepth++;
+        RTimer timer = levels != null ? new RTimer() : null;
+        int edgeCount = 0;
         // if we are at the max level we don't need the graph terms collector.
         // TODO validate that the join case works properly.
         if (maxDepth != -1 && currentDepth >= maxDepth) {
@@ -210,10 +236,23 @@ public class GraphQuery extends Query {
 
           fromSet = new BitDocSet(new FixedBitSet(capacity));
           graphResultCollector.setCollectDocs(fromSet.getBits());
+          graphResultCollector.setParallel(isParallel());
 
-          fromSearcher.search(frontierQuery, graphResultCollector);
+          if (graphResultCollector.collectSegmentsInParallel()) {
+            fromSearcher.searchSegmentsInParallel(frontierQuery, graphResultCollector);
+          } else {
+            fromSearcher.search(frontierQuery, graphResultCollector);
+          }
 
-          frontierQuery = graphResultCollector.getResultQuery(matchSchemaField, isUseAutn());
+          // looking up a large frontier by intersecting an automaton with the terms dictionary
+          // beats seeking each of its terms
+          edgeCount = graphResultCollector.getEdgeCount();
+          boolean useAutomaton =
+              isUseAutn()
+                  || (autnMinTerms != -1
+                      && edgeCount >= autnMinTerms
+                      && matchSchemaField.indexed());
+          frontierQuery = graphResultCollector.getResultQuery(matchSchemaField, useAutomaton);
           // If there is a filter to be used while crawling the graph, add that.
           if (frontierQuery != null && getTraversalFilter() != null) {
             BooleanQuery.Builder builder = new BooleanQuery.Builder();
@@ -228,11 +267,22 @@ public class GraphQuery extends Query {
         }
         // Add the bits from this level to the result set.
         resultBits.or(fromSet.getBits());
+        if (levels != null) {
+          SimpleOrderedMap<Object> level = new SimpleOrderedMap<>();
+          level.add("depth", currentDepth);
+          level.add("frontierSize", fromSet.size());
+          level.add("edgeCount", edgeCount);
+          level.add("time", (long) timer.getTime());
+          levels.add(level);
+        }
         // test if we discovered any new edges, if not , we're done.
         if ((maxDepth != -1 && currentDepth >= maxDepth)) {
           break;
         }
       } while (frontierQuery != null);
+      if (levels != null) {
+        rb.addDebug(levels, "graph", GraphQuery.this.toString());
+      }
       // helper bit set operations on the final result set
       if (!returnRoot) {
         resultBits.andNot(rootBits);
@@ -272,12 +322,17 @@ public class GraphQuery extends Query {
       return a;
     }
 
-    @Override
-    public Scorer scorer(LeafReaderContext context) throws IOException {
+    /** The graph is only traversed once, even if segments are scored by several threads. */
+    private synchronized DocSet getResultSet() throws IOException {
       if (resultSet == null) {
         resultSet = getDocSet();
       }
-      DocIdSetIterator disi = resultSet.iterator(context);
+      return resultSet;
+    }
+
+    @Override
+    public Scorer scorer(LeafReaderContext context) throws IOException {
+      DocIdSetIterator disi = getResultSet().iterator(context);
       // create a scrorer on the result set, if results from right query are empty, use empty
       // iterator.
       return new GraphScorer(this, disi == null ? DocIdSetIterator.empty() : disi, 1);
@@ -387,6 +442,30 @@ public class GraphQuery extends Query {
     this.useAutn = useAutn;
   }
 
+  /**
+   * @return the minimum number of terms for a frontier to be compiled into an automaton, -1 if
+   *     only {@link #isUseAutn()} decides.
+   */
+  public int getAutnMinTerms() {
+    return autnMinTerms;
+  }
+
+  public void setAutnMinTerms(int autnMinTerms) {
+    this.autnMinTerms = autnMinTerms;
+  }
+
+  /**
+   * @return if true, the segments are traversed concurrently, on the node's search executor,
+   *     when expanding each frontier.
+   */
+  public boolean isParallel() {
+    return parallel;
+  }
+
+  public void setParallel(boolean parallel) {
+    this.parallel = parallel;
+  }
+
   /**
    * @return if true only documents that do not have a value in the edge id field will be returned.
    */
@@ -58,6 +58,10 @@ public class GraphQueryParser extends QParser {
     // if true, an automaton will be compiled to issue the next graph hop
     // this avoid having a large number of boolean clauses. (and it's faster too!)
     boolean useAutn = localParams.getBool("useAutn", false);
+    // frontiers with at least this many terms are compiled into an automaton regardless
+    int autnMinTerms = localParams.getInt("autnMinTerms", GraphQuery.DEFAULT_AUTN_MIN_TERMS);
+    // if true, the segments are traversed concurrently when expanding each frontier
+    boolean parallel = localParams.getBool("parallel", false);
 
     // Construct a graph query object based on parameters passed in.
     GraphQuery gq = new GraphQuery(rootNodeQuery, fromField, toField, traversalFilter);
@@ -66,6 +70,8 @@ public class GraphQueryParser extends QParser {
     gq.setOnlyLeafNodes(onlyLeafNodes);
     gq.setReturnRoot(returnRootNodes);
     gq.setUseAutn(useAutn);
+    gq.setAutnMinTerms(autnMinTerms);
+    gq.setParallel(parallel);
     // return the parsed graph query.
     return gq;
   }
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.join;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import org.apache.lucene.util.BytesRef;
+import org.apache.solr.common.util.Hash;
+
+/**
+ * A bloom filter over join keys, small enough to be sent along with a request so that the remote
+ * side of a cross collection join only returns the keys that may exist locally. It never rejects a
+ * key that was added, but may accept a key that wasn't.
+ *
+ * @lucene.internal
+ */
+final class JoinKeyBloomFilter {
+
+  /** The largest filter we bother sending, beyond this it costs about as much as it saves. */
+  static final long MAX_BITS = 1L << 24;
+
+  private final int numHashes;
+  private final long[] bits;
+  private final long numBits;
+
+  private JoinKeyBloomFilter(int numHashes, long[] bits) {
+    this.numHashes = numHashes;
+    this.bits = bits;
+    this.numBits = (long) bits.length * Long.SIZE;
+  }
+
+  /**
+   * Creates a filter sized for the expected number of keys and false positive probability, or
+   * returns null if that would take more than {@link #MAX_BITS}.
+   */
+  static JoinKeyBloomFilter create(long expectedKeys, double fpp) {
+    long n = Math.max(1, expectedKeys);
+    long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+    if (m > MAX_BITS) {
+      return null;
+    }
+    int words = (int) Math.max(1, (m + Long.SIZE - 1) / Long.SIZE);
+    int k = (int) Math.max(1, Math.round((double) words * Long.SIZE / n * Math.log(2)));
+    return new JoinKeyBloomFilter(Math.min(k, 16), new long[words]);
+  }
+
+  void add(BytesRef key) {
+    Hash.LongPair hash = new Hash.LongPair();
+    Hash.murmurhash3_x64_128(key.bytes, key.offset, key.length, 0, hash);
+    long combined = hash.val1;
+    for (int i = 0; i < numHashes; i++) {
+      long bit = (combined & Long.MAX_VALUE) % numBits;
+      bits[(int) (bit >>> 6)] |= 1L << bit;
+      combined += hash.val2;
+    }
+  }
+
+  boolean mightContain(BytesRef key) {
+    Hash.LongPair hash = new Hash.LongPair();
+    Hash.murmurhash3_x64_128(key.bytes, key.offset, key.length, 0, hash);
+    long combined = hash.val1;
+    for (int i = 0; i < numHashes; i++) {
+      long bit = (combined & Long.MAX_VALUE) % numBits;
+      if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+        return false;
+      }
+      combined += hash.val2;
+    }
+    return true;
+  }
+
+  /** Encodes this filter into a string that can be passed as a request parameter. */
+  String encode() {
+    ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + bits.length * Long.BYTES);
+    buffer.putInt(numHashes);
+    for (long word : bits) {
+      buffer.putLong(word);
+    }
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+  }
+
+  /** Decodes a filter from {@link #encode()}. */
+  static JoinKeyBloomFilter decode(String encoded) {
+    ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(encoded));
+    int numHashes = buffer.getInt();
+    if (numHashes < 1 || buffer.remaining() < Long.BYTES || buffer.remaining() % Long.BYTES != 0) {
+      throw new IllegalArgumentException("Not an encoded join key filter");
+    }
+    long[] bits = new long[buffer.remaining() / Long.BYTES];
+    for (int i = 0; i < bits.length; i++) {
+      bits[i] = buffer.getLong();
+    }
+    return new JoinKeyBloomFilter(numHashes, bits);
+  }
+}
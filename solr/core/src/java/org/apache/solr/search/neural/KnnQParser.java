@@ -16,22 +16,35 @@
  */
 package org.apache.solr.search.neural;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.lucene.search.Query;
 import org.apache.solr.common.SolrException;
+import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.SolrParams;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.schema.DenseVectorField;
 import org.apache.solr.schema.FieldType;
 import org.apache.solr.schema.SchemaField;
+import org.apache.solr.search.ExtendedQuery;
+import org.apache.solr.search.PostFilter;
 import org.apache.solr.search.QParser;
 import org.apache.solr.search.QueryParsing;
+import org.apache.solr.search.SyntaxError;
 
 public class KnnQParser extends QParser {
 
   // retrieve the top K results based on the distance similarity function
   static final String TOP_K = "topK";
   static final int DEFAULT_TOP_K = 10;
+  // only search the documents matching the filter queries of the request
+  static final String PRE_FILTER = "preFilter";
+  // score every pre-filtered document if there are no more than this many of them
+  static final String EXACT_SEARCH_THRESHOLD = "exactSearchThreshold";
+  static final int DEFAULT_EXACT_SEARCH_THRESHOLD = 10000;
+  // search the segments concurrently
+  static final String PARALLEL = "parallel";
 
   /**
    * Constructor for the QParser
@@ -47,7 +60,7 @@ public class KnnQParser extends QParser {
   }
 
   @Override
-  public Query parse() {
+  public Query parse() throws SyntaxError {
     String denseVectorField = localParams.get(QueryParsing.F);
     String vectorToSearch = localParams.get(QueryParsing.V);
     int topK = localParams.getInt(TOP_K, DEFAULT_TOP_K);
@@ -72,7 +85,58 @@ public class KnnQParser extends QParser {
 
     DenseVectorField denseVectorType = (DenseVectorField) fieldType;
     float[] parsedVectorToSearch = parseVector(vectorToSearch, denseVectorType.getDimension());
-    return denseVectorType.getKnnVectorQuery(schemaField.getName(), parsedVectorToSearch, topK);
+    List<Query> preFilters = getPreFilters();
+    boolean parallel = localParams.getBool(PARALLEL, false);
+    if (preFilters == null && !parallel) {
+      return denseVectorType.getKnnVectorQuery(schemaField.getName(), parsedVectorToSearch, topK);
+    }
+    return new SolrKnnVectorQuery(
+        schemaField.getName(),
+        parsedVectorToSearch,
+        topK,
+        denseVectorType.getSimilarityFunction(),
+        preFilters,
+        localParams.getInt(EXACT_SEARCH_THRESHOLD, DEFAULT_EXACT_SEARCH_THRESHOLD),
+        parallel);
+  }
+
+  /**
+   * The filter queries of the request if this knn query is pre-filtered by them, null otherwise.
+   * A knn query used as a filter query is never pre-filtered, and post filters are left out.
+   */
+  private List<Query> getPreFilters() throws SyntaxError {
+    if (!localParams.getBool(PRE_FILTER, false) || isFilter()) {
+      return null;
+    }
+    List<Query> filters = new ArrayList<>();
+    String[] filterQueries = req.getParams().getParams(CommonParams.FQ);
+    if (filterQueries != null) {
+      for (String filterQuery : filterQueries) {
+        if (StringUtils.isBlank(filterQuery)) {
+          continue;
+        }
+        QParser filterParser = QParser.getParser(filterQuery, req);
+        filterParser.setIsFilter(true);
+        Query filter = filterParser.getQuery();
+        if (filter != null && !isPostFilter(filter)) {
+          filters.add(filter);
+        }
+      }
+    }
+    return filters;
+  }
+
+  /**
+   * Whether the filter is applied as a post filter, after the main query, like {@link
+   * org.apache.solr.search.SolrIndexSearcher#getProcessedFilter} does. It is then too costly to
+   * pre-filter with, and still filters the knn results afterwards.
+   */
+  private static boolean isPostFilter(Query filter) {
+    if (filter instanceof ExtendedQuery) {
+      ExtendedQuery eq = (ExtendedQuery) filter;
+      return !eq.getCache() && eq.getCost() >= 100 && eq instanceof PostFilter;
+    }
+    return false;
   }
 
   /**
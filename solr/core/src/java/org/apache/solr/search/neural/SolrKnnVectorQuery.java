@@ -0,0 +1,396 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.neural;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Explanation;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnVectorQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.PriorityQueue;
+import org.apache.solr.search.DocSet;
+import org.apache.solr.search.SolrCache;
+import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.solr.util.ConcurrentTasks;
+
+/**
+ * A K nearest neighbors query like {@link KnnVectorQuery}, that can only match the documents
+ * matching a list of filters, and search the segments concurrently.
+ *
+ * <p>The filters are resolved to a {@link DocSet} through the filterCache. If it has no more than
+ * <code>exactSearchThreshold</code> documents, their vectors are compared to the target one by one
+ * instead of traversing the HNSW graph of each segment, which would visit most of the graph to find
+ * K of them. The top K documents only hold for the searcher they were found with, and are reused
+ * from the optional {@link #CACHE_NAME} cache when it is configured.
+ */
+public class SolrKnnVectorQuery extends Query {
+
+  /** The name of the optional user cache holding the top K documents of knn queries */
+  public static final String CACHE_NAME = "knnCache";
+
+  private static final TopDocs NO_RESULTS =
+      new TopDocs(new TotalHits(0, TotalHits.Relation.EQUAL_TO), new ScoreDoc[0]);
+
+  private final String field;
+  private final float[] target;
+  private final int k;
+  private final VectorSimilarityFunction similarityFunction;
+  private final List<Query> filters;
+  private final int exactSearchThreshold;
+  private final boolean parallel;
+
+  /**
+   * @param filters the filters the documents have to match, or null to search all documents
+   * @param exactSearchThreshold the maximum number of documents matching the filters to compare
+   *     to the target one by one
+   * @param parallel whether to search the segments concurrently on the search executor
+   */
+  public SolrKnnVectorQuery(
+      String field,
+      float[] target,
+      int k,
+      VectorSimilarityFunction similarityFunction,
+      List<Query> filters,
+      int exactSearchThreshold,
+      boolean parallel) {
+    if (k < 1) {
+      throw new IllegalArgumentException("k must be at least 1, got: " + k);
+    }
+    this.field = field;
+    this.target = target;
+    this.k = k;
+    this.similarityFunction = similarityFunction;
+    this.filters = filters;
+    this.exactSearchThreshold = exactSearchThreshold;
+    this.parallel = parallel;
+  }
+
+  public List<Query> getFilters() {
+    return filters;
+  }
+
+  public int getExactSearchThreshold() {
+    return exactSearchThreshold;
+  }
+
+  public boolean isParallel() {
+    return parallel;
+  }
+
+  @Override
+  public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost)
+      throws IOException {
+    if (!(searcher instanceof SolrIndexSearcher)) {
+      // without a filterCache to search within, intersect with the filters instead
+      BooleanQuery.Builder builder = new BooleanQuery.Builder();
+      builder.add(new KnnVectorQuery(field, target, k), BooleanClause.Occur.MUST);
+      if (filters != null) {
+        for (Query filter : filters) {
+          builder.add(filter, BooleanClause.Occur.FILTER);
+        }
+      }
+      return searcher.createWeight(searcher.rewrite(builder.build()), scoreMode, boost);
+    }
+
+    final SolrIndexSearcher solrSearcher = (SolrIndexSearcher) searcher;
+    final SolrCache<Object, Object> knnCache = solrSearcher.getCache(CACHE_NAME);
+    final TopDocs topK =
+        knnCache == null
+            ? search(solrSearcher)
+            : (TopDocs) knnCache.computeIfAbsent(this, key -> search(solrSearcher));
+    return createWeight(topK.scoreDocs, boost);
+  }
+
+  private TopDocs search(SolrIndexSearcher searcher) throws IOException {
+    final DocSet acceptDocs = filters == null ? null : searcher.getDocSet(filters);
+    final Bits acceptBits = acceptDocs == null ? null : acceptDocs.getBits();
+    final boolean exact = acceptDocs != null && acceptDocs.size() <= exactSearchThreshold;
+
+    final List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
+    final TopDocs[] perLeafResults = new TopDocs[leaves.size()];
+    final ExecutorService executor =
+        parallel && leaves.size() > 1
+            ? searcher.getCore().getCoreContainer().getSearchExecutor()
+            : null;
+    if (executor == null) {
+      for (LeafReaderContext leaf : leaves) {
+        perLeafResults[leaf.ord] = searchLeaf(leaf, acceptDocs, acceptBits, exact);
+      }
+      return TopDocs.merge(k, perLeafResults);
+    }
+
+    final List<Callable<TopDocs>> tasks = new ArrayList<>(leaves.size());
+    for (LeafReaderContext leaf : leaves) {
+      tasks.add(() -> searchLeaf(leaf, acceptDocs, acceptBits, exact));
+    }
+    ConcurrentTasks.run(executor, tasks).toArray(perLeafResults);
+    return TopDocs.merge(k, perLeafResults);
+  }
+
+  private TopDocs searchLeaf(
+      LeafReaderContext context, DocSet acceptDocs, Bits acceptBits, boolean exact)
+      throws IOException {
+    final LeafReader reader = context.reader();
+    final TopDocs results;
+    if (acceptDocs == null) {
+      results = reader.searchNearestVectors(field, target, k, reader.getLiveDocs());
+    } else if (exact) {
+      results = exactSearch(reader, acceptDocs.iterator(context));
+    } else {
+      final int docBase = context.docBase;
+      final int maxDoc = reader.maxDoc();
+      // the DocSet has no deleted docs, so it also stands for the live docs
+      results =
+          reader.searchNearestVectors(
+              field,
+              target,
+              k,
+              new Bits() {
+                @Override
+                public boolean get(int index) {
+                  return acceptBits.get(docBase + index);
+                }
+
+                @Override
+                public int length() {
+                  return maxDoc;
+                }
+              });
+    }
+
+    if (results == null) {
+      return NO_RESULTS;
+    }
+    if (context.docBase > 0) {
+      for (ScoreDoc scoreDoc : results.scoreDocs) {
+        scoreDoc.doc += context.docBase;
+      }
+    }
+    return results;
+  }
+
+  /** Scores the vector of every accepted document, keeping the top K. */
+  private TopDocs exactSearch(LeafReader reader, DocIdSetIterator acceptIterator)
+      throws IOException {
+    final VectorValues vectors = reader.getVectorValues(field);
+    if (vectors == null || acceptIterator == null) {
+      return NO_RESULTS;
+    }
+
+    final PriorityQueue<ScoreDoc> queue =
+        new PriorityQueue<>(k) {
+          @Override
+          protected boolean lessThan(ScoreDoc a, ScoreDoc b) {
+            return a.score == b.score ? a.doc > b.doc : a.score < b.score;
+          }
+        };
+    int visited = 0;
+    for (int doc = acceptIterator.nextDoc();
+        doc != DocIdSetIterator.NO_MORE_DOCS;
+        doc = acceptIterator.nextDoc()) {
+      if (vectors.docID() < doc && vectors.advance(doc) == DocIdSetIterator.NO_MORE_DOCS) {
+        break;
+      }
+      if (vectors.docID() == doc) {
+        queue.insertWithOverflow(new ScoreDoc(doc, score(vectors.vectorValue())));
+        visited++;
+      }
+    }
+
+    final ScoreDoc[] scoreDocs = new ScoreDoc[queue.size()];
+    for (int i = scoreDocs.length - 1; i >= 0; i--) {
+      scoreDocs[i] = queue.pop();
+    }
+    return new TopDocs(new TotalHits(visited, TotalHits.Relation.EQUAL_TO), scoreDocs);
+  }
+
+  /** The same score the HNSW search of the vectors format gives to a vector. */
+  private float score(float[] vector) {
+    final float similarity = similarityFunction.compare(target, vector);
+    return similarityFunction.reversed ? (float) Math.exp(-similarity / target.length) : similarity;
+  }
+
+  /** A weight matching the top K documents with their scores, like the rewritten KnnVectorQuery */
+  private Weight createWeight(ScoreDoc[] topK, float boost) {
+    final int[] docs = new int[topK.length];
+    final float[] scores = new float[topK.length];
+    final ScoreDoc[] byDoc = topK.clone();
+    Arrays.sort(byDoc, (a, b) -> Integer.compare(a.doc, b.doc));
+    for (int i = 0; i < byDoc.length; i++) {
+      docs[i] = byDoc[i].doc;
+      scores[i] = byDoc[i].score * boost;
+    }
+
+    return new Weight(this) {
+      @Override
+      public Explanation explain(LeafReaderContext context, int doc) {
+        final int found = Arrays.binarySearch(docs, context.docBase + doc);
+        if (found < 0) {
+          return Explanation.noMatch("not in top " + k);
+        }
+        return Explanation.match(scores[found], "within top " + k);
+      }
+
+      @Override
+      public Scorer scorer(LeafReaderContext context) {
+        final int lower = lowerBound(docs, context.docBase);
+        final int upper = lowerBound(docs, context.docBase + context.reader().maxDoc());
+        if (lower == upper) {
+          return null;
+        }
+        final int docBase = context.docBase;
+        return new Scorer(this) {
+          int index = lower - 1;
+
+          @Override
+          public DocIdSetIterator iterator() {
+            return new DocIdSetIterator() {
+              @Override
+              public int docID() {
+                return SolrKnnVectorQuery.docID(docs, index, lower, upper, docBase);
+              }
+
+              @Override
+              public int nextDoc() {
+                index++;
+                return docID();
+              }
+
+              @Override
+              public int advance(int target) throws IOException {
+                return slowAdvance(target);
+              }
+
+              @Override
+              public long cost() {
+                return upper - lower;
+              }
+            };
+          }
+
+          @Override
+          public int docID() {
+            return SolrKnnVectorQuery.docID(docs, index, lower, upper, docBase);
+          }
+
+          @Override
+          public float score() {
+            return scores[index];
+          }
+
+          @Override
+          public float getMaxScore(int upTo) {
+            float maxScore = 0;
+            for (int i = lower; i < upper; i++) {
+              maxScore = Math.max(maxScore, scores[i]);
+            }
+            return maxScore;
+          }
+        };
+      }
+
+      @Override
+      public boolean isCacheable(LeafReaderContext ctx) {
+        return false; // the top K depend on all the segments
+      }
+    };
+  }
+
+  private static int docID(int[] docs, int index, int lower, int upper, int docBase) {
+    if (index < lower) {
+      return -1;
+    }
+    return index < upper ? docs[index] - docBase : DocIdSetIterator.NO_MORE_DOCS;
+  }
+
+  private static int lowerBound(int[] docs, int doc) {
+    final int found = Arrays.binarySearch(docs, doc);
+    return found < 0 ? -found - 1 : found;
+  }
+
+  @Override
+  public void visit(QueryVisitor visitor) {
+    if (visitor.acceptField(field)) {
+      visitor.visitLeaf(this);
+    }
+  }
+
+  @Override
+  public String toString(String field) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("<vector:")
+        .append(this.field)
+        .append('[')
+        .append(target[0])
+        .append(",...][")
+        .append(k)
+        .append(']');
+    if (filters != null) {
+      sb.append(filters);
+    }
+    if (parallel) {
+      sb.append("[parallel=true]");
+    }
+    return sb.append('>').toString();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return sameClassAs(other) && equalsTo(getClass().cast(other));
+  }
+
+  private boolean equalsTo(SolrKnnVectorQuery other) {
+    return field.equals(other.field)
+        && Arrays.equals(target, other.target)
+        && k == other.k
+        && similarityFunction == other.similarityFunction
+        && Objects.equals(filters, other.filters)
+        && exactSearchThreshold == other.exactSearchThreshold;
+  }
+
+  @Override
+  public int hashCode() {
+    int h = classHash();
+    h = 31 * h + field.hashCode();
+    h = 31 * h + Arrays.hashCode(target);
+    h = 31 * h + k;
+    h = 31 * h + Objects.hashCode(filters);
+    h = 31 * h + exactSearchThreshold;
+    return h;
+  }
+}
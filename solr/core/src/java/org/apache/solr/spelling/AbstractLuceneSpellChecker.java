@@ -249,14 +249,6 @@ public abstract class AbstractLuceneSpellChecker extends SolrSpellChecker {
     return accuracy;
   }
 
-  /*
-   * @return the Field used
-   *
-   * */
-  public String getField() {
-    return field;
-  }
-
   /*
    *
    * @return the FieldType name.
@@ -152,6 +152,11 @@ public abstract class SolrSpellChecker {
     return name;
   }
 
+  /** The field the suggestions are taken from, or null if they do not come from a single field */
+  public String getField() {
+    return field;
+  }
+
   /**
    * Reloads the index. Useful if an external process is responsible for building the spell checker.
    *
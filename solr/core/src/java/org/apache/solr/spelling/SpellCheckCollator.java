@@ -18,12 +18,21 @@ package org.apache.solr.spelling;
 
 import static org.apache.solr.common.params.CommonParams.ID;
 
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Bits;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.params.DisMaxParams;
@@ -37,6 +46,7 @@ import org.apache.solr.handler.component.ResponseBuilder;
 import org.apache.solr.handler.component.SearchComponent;
 import org.apache.solr.request.LocalSolrQueryRequest;
 import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.schema.SchemaField;
 import org.apache.solr.search.EarlyTerminatingCollectorException;
 import org.apache.solr.search.SolrIndexSearcher;
 import org.slf4j.Logger;
@@ -49,6 +59,7 @@ public class SpellCheckCollator {
   private int maxCollationEvaluations = 10000;
   private boolean suggestionsMayOverlap = false;
   private int docCollectionLimit = 0;
+  private String pruningField = null;
 
   public List<SpellCheckCollation> collate(
       SpellingResult result, String originalQuery, ResponseBuilder ultimateResponse) {
@@ -85,6 +96,15 @@ public class SpellCheckCollator {
       maxDocId = reader.maxDoc();
     }
 
+    SchemaField pruningSchemaField = null;
+    if (verifyCandidateWithQuery && pruningField != null) {
+      pruningSchemaField = ultimateResponse.req.getSchema().getFieldOrNull(pruningField);
+      if (pruningSchemaField != null) {
+        // pruned candidates don't count as tries, so rank more of them
+        maxNumberToIterate = Math.max(maxNumberToIterate, maxCollationEvaluations);
+      }
+    }
+
     int tryNo = 0;
     int collNo = 0;
     PossibilityIterator possibilityIter =
@@ -99,6 +119,15 @@ public class SpellCheckCollator {
       String collationQueryStr = getCollation(originalQuery, possibility.corrections);
       long hits = 0;
 
+      if (pruningSchemaField != null
+          && !correctionsCooccur(
+              ultimateResponse.req.getSearcher(), pruningSchemaField, possibility.corrections)) {
+        if (log.isDebugEnabled()) {
+          log.debug("Collation: {} pruned, corrections never occur together", collationQueryStr);
+        }
+        continue;
+      }
+
       if (verifyCandidateWithQuery) {
         tryNo++;
         SolrParams origParams = ultimateResponse.req.getParams();
@@ -206,6 +235,50 @@ public class SpellCheckCollator {
     return collations;
   }
 
+  /**
+   * Whether at least one live document contains all the corrected terms, a cheap necessary
+   * condition for a collation that requires all of its terms to match.
+   */
+  private boolean correctionsCooccur(
+      SolrIndexSearcher searcher, SchemaField field, List<SpellCheckCorrection> corrections) {
+    BooleanQuery.Builder builder = new BooleanQuery.Builder();
+    for (SpellCheckCorrection correction : corrections) {
+      // skipped by getCollation too
+      if (correction.getOriginal().getPositionIncrement() == 0) continue;
+      for (String word : correction.getCorrection().split(" ")) {
+        if (!word.isEmpty()) {
+          builder.add(
+              field.getType().getFieldTermQuery(null, field, word), BooleanClause.Occur.FILTER);
+        }
+      }
+    }
+    BooleanQuery query = builder.build();
+    if (query.clauses().isEmpty()) {
+      return true;
+    }
+    try {
+      Weight weight =
+          searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1);
+      for (LeafReaderContext leaf : searcher.getTopReaderContext().leaves()) {
+        Scorer scorer = weight.scorer(leaf);
+        if (scorer == null) {
+          continue;
+        }
+        Bits liveDocs = leaf.reader().getLiveDocs();
+        DocIdSetIterator docs = scorer.iterator();
+        for (int doc = docs.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docs.nextDoc()) {
+          if (liveDocs == null || liveDocs.get(doc)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    } catch (IOException | RuntimeException e) {
+      log.warn("Exception checking whether the corrections of a collation occur together.", e);
+      return true; // test the collation with a query instead
+    }
+  }
+
   private String getCollation(String origQuery, List<SpellCheckCorrection> corrections) {
     StringBuilder collation = new StringBuilder(origQuery);
     int offset = 0;
@@ -285,4 +358,13 @@ public class SpellCheckCollator {
     this.docCollectionLimit = docCollectionLimit;
     return this;
   }
+
+  /**
+   * Skips the collation candidates whose corrected terms never occur together in the given field
+   * instead of testing them with a query, null to test all of them.
+   */
+  public SpellCheckCollator setPruningField(String pruningField) {
+    this.pruningField = pruningField;
+    return this;
+  }
 }
@@ -79,7 +79,11 @@ public class SolrSuggester implements Accountable {
   private String sourceLocation;
   private Path storeDir;
   private Dictionary dictionary;
-  private Lookup lookup;
+  // replaced by a new lookup on each build unless it holds resources that must be closed
+  private volatile Lookup lookup;
+  private NamedList<?> config;
+  // version of the index reader the lookup was last built from, -1 if it wasn't
+  private long builtIndexVersion = -1;
   private String lookupImpl;
   private String dictionaryImpl;
   private String name;
@@ -96,6 +100,7 @@ public class SolrSuggester implements Accountable {
     log.info("init: {}", config);
 
     // read the config
+    this.config = config;
     name = config.get(NAME) != null ? (String) config.get(NAME) : DEFAULT_DICT_NAME;
     sourceLocation = (String) config.get(LOCATION);
     lookupImpl = (String) config.get(LOOKUP_IMPL);
@@ -166,13 +171,18 @@ public class SolrSuggester implements Accountable {
     return name;
   }
 
-  /** Build the underlying Lucene Suggester */
-  public void build(SolrCore core, SolrIndexSearcher searcher) throws IOException {
+  /**
+   * Build the underlying Lucene Suggester. Lookups that don't need to be closed are built as a new
+   * instance which replaces the current one once it is complete, so that suggestions keep being
+   * served from the previous build in the meantime.
+   */
+  public synchronized void build(SolrCore core, SolrIndexSearcher searcher) throws IOException {
     log.info("SolrSuggester.build({})", name);
 
     dictionary = dictionaryFactory.create(core, searcher);
+    Lookup target = lookup instanceof Closeable ? lookup : factory.create(config, core);
     try {
-      lookup.build(dictionary);
+      target.build(dictionary);
     } catch (AlreadyClosedException e) {
       RuntimeException e2 =
           new SolrCoreState.CoreIsClosedException(
@@ -180,26 +190,37 @@ public class SolrSuggester implements Accountable {
       e2.initCause(e);
       throw e2;
     }
+    lookup = target;
+    builtIndexVersion = sourceLocation == null ? searcher.getIndexReader().getVersion() : -1;
     if (storeDir != null) {
-      Path target = getStoreFile();
-      if (!lookup.store(Files.newOutputStream(target))) {
+      Path storeFile = getStoreFile();
+      if (!target.store(Files.newOutputStream(storeFile))) {
         log.error("Store Lookup build failed");
       } else {
         if (log.isInfoEnabled()) {
-          log.info("Stored suggest data to: {}", target.toAbsolutePath());
+          log.info("Stored suggest data to: {}", storeFile.toAbsolutePath());
         }
       }
     }
   }
 
+  /**
+   * Whether the last build of this suggester read its dictionary from the same index as the one of
+   * the searcher, in which case building it again would give the same suggestions.
+   */
+  public synchronized boolean isBuiltFrom(SolrIndexSearcher searcher) {
+    return builtIndexVersion != -1 && builtIndexVersion == searcher.getIndexReader().getVersion();
+  }
+
   /** Reloads the underlying Lucene Suggester */
-  public void reload() throws IOException {
+  public synchronized void reload() throws IOException {
     log.info("SolrSuggester.reload({})", name);
     if (dictionary == null && storeDir != null) {
       Path lookupFile = getStoreFile();
       if (Files.exists(lookupFile)) {
         // this may be a firstSearcher event, try loading it
         lookup.load(Files.newInputStream(lookupFile));
+        builtIndexVersion = -1;
       } else {
         log.info("lookup file doesn't exist");
       }
@@ -221,6 +242,7 @@ public class SolrSuggester implements Accountable {
     if (log.isDebugEnabled()) {
       log.debug("getSuggestions: {}", options.token);
     }
+    final Lookup lookup = this.lookup; // may be replaced by a concurrent build
     if (lookup == null) {
       log.info("Lookup is null - invoke suggest.build first");
       return EMPTY_RESULT;
@@ -30,7 +30,9 @@ import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import org.apache.http.NoHttpResponseException;
@@ -68,8 +70,15 @@ public class PeerSync implements SolrMetricProducer {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   private static final boolean debug = log.isDebugEnabled();
 
+  /**
+   * System property for the largest window of versions PeerSync may grow to when the default one
+   * does not overlap enough with a replica's. Defaults to nUpdates, i.e. the window never grows.
+   */
+  public static final String MAX_UPDATES_PROP = "solr.peerSync.maxUpdates";
+
   private List<String> replicas;
   private int nUpdates;
+  private int maxUpdates;
 
   private UpdateHandler uhandler;
   private UpdateLog ulog;
@@ -86,7 +95,8 @@ public class PeerSync implements SolrMetricProducer {
   private SolrCore core;
   private Updater updater;
 
-  private MissedUpdatesFinder missedUpdatesFinder;
+  // keyed by the size of the window of versions compared
+  private final Map<Integer, MissedUpdatesFinder> missedUpdatesFinders = new HashMap<>();
 
   // metrics
   private Timer syncTime;
@@ -103,6 +113,7 @@ public class PeerSync implements SolrMetricProducer {
     boolean doFingerprintComparison;
     Exception updateException;
     long totalRequestedUpdates;
+    int nUpdates; // the window of versions requested
   }
 
   public PeerSync(SolrCore core, List<String> replicas, int nUpdates, boolean cantReachIsSuccess) {
@@ -126,6 +137,7 @@ public class PeerSync implements SolrMetricProducer {
 
     uhandler = core.getUpdateHandler();
     ulog = uhandler.getUpdateLog();
+    setMaxUpdates(Integer.getInteger(MAX_UPDATES_PROP, nUpdates));
     // TODO: close
     shardHandlerFactory = core.getCoreContainer().getShardHandlerFactory();
     shardHandler = shardHandlerFactory.getShardHandler();
@@ -135,6 +147,20 @@ public class PeerSync implements SolrMetricProducer {
         .registerMetricProducer(SolrInfoBean.Category.REPLICATION.toString(), this);
   }
 
+  /**
+   * Sets the largest window of versions this PeerSync may grow to. When a replica's versions do not
+   * overlap enough with ours, or we're missing more than the window allows, the versions are
+   * requested again from that replica with a doubled window, as long as older transaction logs
+   * still hold them. This avoids a full replication after short outages with high update rates.
+   * The window never grows past {@link UpdateLog#getMaxNumRecordsToRead()}.
+   */
+  public void setMaxUpdates(int maxUpdates) {
+    if (ulog != null) {
+      maxUpdates = Math.min(maxUpdates, ulog.getMaxNumRecordsToRead());
+    }
+    this.maxUpdates = Math.max(nUpdates, maxUpdates);
+  }
+
   public static final String METRIC_SCOPE = "peerSync";
 
   @Override
@@ -235,8 +261,9 @@ public class PeerSync implements SolrMetricProducer {
         return PeerSyncResult.failure(false);
       }
 
-      this.missedUpdatesFinder =
-          new MissedUpdatesFinder(ourUpdates, msg(), nUpdates, ourLowThreshold, ourHighThreshold);
+      missedUpdatesFinders.put(
+          nUpdates,
+          new MissedUpdatesFinder(ourUpdates, msg(), nUpdates, ourLowThreshold, ourHighThreshold));
 
       for (; ; ) {
         ShardResponse srsp = shardHandler.takeCompletedOrError();
@@ -343,9 +370,62 @@ public class PeerSync implements SolrMetricProducer {
     sreq.params.set(DISTRIB, false);
     sreq.params.set("getVersions", nUpdates);
     sreq.params.set("fingerprint", doFingerprint);
+    sreq.nUpdates = nUpdates;
     shardHandler.submit(sreq, replica, sreq.params);
   }
 
+  /** Asks the replica of a versions response again with a wider window of versions */
+  private boolean requestMoreVersions(ShardResponse srsp, int window) {
+    SyncShardRequest sreq = (SyncShardRequest) srsp.getShardRequest();
+
+    if (log.isInfoEnabled()) {
+      log.info(
+          "{} Not enough overlap with {} in the last {} versions, requesting the last {}",
+          msg(),
+          sreq.shards[0],
+          sreq.nUpdates,
+          window);
+    }
+
+    // reuse our original request object
+    sreq.params = new ModifiableSolrParams();
+    sreq.params.set("qt", "/get");
+    sreq.params.set(DISTRIB, false);
+    sreq.params.set("getVersions", window);
+    sreq.params.set("versionsWindow", window);
+    sreq.params.set("fingerprint", doFingerprint);
+    sreq.nUpdates = window;
+    sreq.responses.clear(); // needs to be zeroed for correct correlation to occur
+
+    shardHandler.submit(sreq, sreq.shards[0], sreq.params);
+
+    return true;
+  }
+
+  /**
+   * Returns the finder comparing our last <code>window</code> versions, reading them from the
+   * update log the first time that window is used
+   */
+  private MissedUpdatesFinder getMissedUpdatesFinder(int window) {
+    MissedUpdatesFinder finder = missedUpdatesFinders.get(window);
+    if (finder == null) {
+      List<Long> ourUpdates;
+      try (UpdateLog.RecentUpdates recentUpdates = ulog.getRecentUpdates(window)) {
+        ourUpdates = recentUpdates.getVersions(window);
+      }
+      ourUpdates.sort(absComparator);
+      finder =
+          new MissedUpdatesFinder(
+              ourUpdates,
+              msg(),
+              window,
+              percentile(ourUpdates, 0.8f),
+              percentile(ourUpdates, 0.2f));
+      missedUpdatesFinders.put(window, finder);
+    }
+    return finder;
+  }
+
   private boolean handleResponse(ShardResponse srsp) {
     ShardRequest sreq = srsp.getShardRequest();
 
@@ -465,11 +545,16 @@ public class PeerSync implements SolrMetricProducer {
       return true;
     }
 
-    MissedUpdatesRequest updatesRequest = missedUpdatesFinder.find(otherVersions, sreq.shards[0]);
+    MissedUpdatesRequest updatesRequest =
+        getMissedUpdatesFinder(sreq.nUpdates).find(otherVersions, sreq.shards[0]);
 
     if (updatesRequest == MissedUpdatesRequest.ALREADY_IN_SYNC) {
       return true;
     } else if (updatesRequest == MissedUpdatesRequest.UNABLE_TO_SYNC) {
+      // a wider window can only help if the replica had more versions than we asked for
+      if (sreq.nUpdates < maxUpdates && otherVersions.size() >= sreq.nUpdates) {
+        return requestMoreVersions(srsp, (int) Math.min(2L * sreq.nUpdates, maxUpdates));
+      }
       return false;
     } else if (updatesRequest == MissedUpdatesRequest.EMPTY) {
       // If we requested updates from another replica, we can't compare fingerprints yet with this
@@ -526,6 +611,11 @@ public class PeerSync implements SolrMetricProducer {
     sreq.params.set(DISTRIB, false);
     sreq.params.set("getUpdates", versionsAndRanges);
     sreq.params.set("onlyIfActive", onlyIfActive);
+    int window = ((SyncShardRequest) sreq).nUpdates;
+    if (window > nUpdates) {
+      // the other replica needs to look as far back in its update log as it did for the versions
+      sreq.params.set("versionsWindow", window);
+    }
 
     sreq.params.set("fingerprint", doFingerprint);
     sreq.responses.clear(); // needs to be zeroed for correct correlation to occur
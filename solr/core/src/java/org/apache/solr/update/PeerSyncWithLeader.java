@@ -51,6 +51,7 @@ public class PeerSyncWithLeader implements SolrMetricProducer {
 
   private String leaderUrl;
   private int nUpdates;
+  private int maxUpdates;
 
   private UpdateHandler uhandler;
   private UpdateLog ulog;
@@ -77,6 +78,7 @@ public class PeerSyncWithLeader implements SolrMetricProducer {
     this.doFingerprint = !"true".equals(System.getProperty("solr.disableFingerprint"));
     this.uhandler = core.getUpdateHandler();
     this.ulog = uhandler.getUpdateLog();
+    setMaxUpdates(Integer.getInteger(PeerSync.MAX_UPDATES_PROP, nUpdates));
     HttpClient httpClient = core.getCoreContainer().getUpdateShardHandler().getDefaultHttpClient();
     this.clientToLeader = new HttpSolrClient.Builder(leaderUrl).withHttpClient(httpClient).build();
 
@@ -86,6 +88,19 @@ public class PeerSyncWithLeader implements SolrMetricProducer {
         .registerMetricProducer(SolrInfoBean.Category.REPLICATION.toString(), this);
   }
 
+  /**
+   * Sets the largest window of versions this PeerSyncWithLeader may grow to, like {@link
+   * PeerSync#setMaxUpdates(int)}. When the leader's versions do not overlap enough with ours, or
+   * we're missing more than the window allows, the versions are requested again from the leader
+   * with a doubled window.
+   */
+  public void setMaxUpdates(int maxUpdates) {
+    if (ulog != null) {
+      maxUpdates = Math.min(maxUpdates, ulog.getMaxNumRecordsToRead());
+    }
+    this.maxUpdates = Math.max(nUpdates, maxUpdates);
+  }
+
   public static final String METRIC_SCOPE = "peerSync";
 
   @Override
@@ -148,17 +163,10 @@ public class PeerSyncWithLeader implements SolrMetricProducer {
       // measure only when actual sync is performed
       timerContext = syncTime.time();
 
-      List<Long> ourUpdates;
-      try (UpdateLog.RecentUpdates recentUpdates = ulog.getRecentUpdates()) {
-        ourUpdates = recentUpdates.getVersions(nUpdates);
-        bufferedUpdates = recentUpdates.getBufferUpdates();
-      }
-
-      ourUpdates.sort(absComparator);
+      List<Long> ourUpdates = getOurUpdates(nUpdates);
       startingVersions.sort(absComparator);
 
       long ourLowThreshold = percentile(startingVersions, 0.8f);
-      long ourHighThreshold = percentile(startingVersions, 0.2f);
 
       // now make sure that the starting updates overlap our updates
       // there shouldn't be reorders, so any overlap will do.
@@ -172,14 +180,9 @@ public class PeerSyncWithLeader implements SolrMetricProducer {
         return PeerSync.PeerSyncResult.failure();
       }
 
-      // let's merge the lists
-      for (Long ver : startingVersions) {
-        if (Math.abs(ver) < smallestNewUpdate) {
-          ourUpdates.add(ver);
-        }
-      }
+      mergeStartingVersions(ourUpdates, startingVersions);
 
-      boolean success = doSync(ourUpdates, ourLowThreshold, ourHighThreshold);
+      boolean success = doSync(ourUpdates, startingVersions, ourLowThreshold);
 
       if (log.isInfoEnabled()) {
         log.info("{} DONE. sync {}", msg(), (success ? "succeeded" : "failed"));
@@ -200,25 +203,72 @@ public class PeerSyncWithLeader implements SolrMetricProducer {
     }
   }
 
-  private boolean doSync(List<Long> ourUpdates, long ourLowThreshold, long ourHighThreshold) {
-    // get leader's recent versions and fingerprint
-    // note: by getting leader's versions later, we guarantee that leader's versions always super
-    // set of {@link bufferedUpdates}
-    NamedList<Object> leaderVersionsAndFingerprint = getVersions();
-    IndexFingerprint leaderFingerprint = getFingerprint(leaderVersionsAndFingerprint);
-    if (doFingerprint) {
-      if (leaderFingerprint == null) {
-        log.warn("Could not get fingerprint from the leader");
-        return false;
+  /** Our last <code>window</code> versions, sorted, and the buffered updates among them */
+  private List<Long> getOurUpdates(int window) {
+    List<Long> ourUpdates;
+    try (UpdateLog.RecentUpdates recentUpdates = ulog.getRecentUpdates(window)) {
+      ourUpdates = recentUpdates.getVersions(window);
+      bufferedUpdates = recentUpdates.getBufferUpdates();
+    }
+    ourUpdates.sort(absComparator);
+    return ourUpdates;
+  }
+
+  /** Adds the starting versions older than all of our updates to them */
+  private static void mergeStartingVersions(List<Long> ourUpdates, List<Long> startingVersions) {
+    long smallestNewUpdate = Math.abs(ourUpdates.get(ourUpdates.size() - 1));
+    for (Long ver : startingVersions) {
+      if (Math.abs(ver) < smallestNewUpdate) {
+        ourUpdates.add(ver);
+      }
+    }
+  }
+
+  private boolean doSync(List<Long> ourUpdates, List<Long> startingVersions, long ourLowThreshold) {
+    int window = nUpdates;
+    NamedList<Object> leaderVersionsAndFingerprint;
+    IndexFingerprint leaderFingerprint;
+    MissedUpdatesRequest missedUpdates;
+    for (; ; ) {
+      // get leader's recent versions and fingerprint
+      // note: by getting leader's versions later, we guarantee that leader's versions always super
+      // set of {@link bufferedUpdates}
+      leaderVersionsAndFingerprint = getVersions(window);
+      leaderFingerprint = getFingerprint(leaderVersionsAndFingerprint);
+      if (doFingerprint) {
+        if (leaderFingerprint == null) {
+          log.warn("Could not get fingerprint from the leader");
+          return false;
+        }
+        log.info("Leader fingerprint {}", leaderFingerprint);
+      }
+
+      missedUpdatesFinder = new MissedUpdatesFinder(ourUpdates, msg(), window, ourLowThreshold);
+      missedUpdates = buildMissedUpdatesRequest(leaderVersionsAndFingerprint);
+      // a wider window can only help if the leader had more versions than we asked for
+      List<?> leaderVersions = (List<?>) leaderVersionsAndFingerprint.get("versions");
+      if (missedUpdates != MissedUpdatesRequest.UNABLE_TO_SYNC
+          || window >= maxUpdates
+          || leaderVersions.size() < window) {
+        break;
+      }
+      int widerWindow = (int) Math.min(2L * window, maxUpdates);
+      if (log.isInfoEnabled()) {
+        log.info(
+            "{} Not enough overlap with {} in the last {} versions, requesting the last {}",
+            msg(),
+            leaderUrl,
+            window,
+            widerWindow);
       }
-      log.info("Leader fingerprint {}", leaderFingerprint);
+      window = widerWindow;
+      ourUpdates = getOurUpdates(window);
+      mergeStartingVersions(ourUpdates, startingVersions);
     }
 
-    missedUpdatesFinder = new MissedUpdatesFinder(ourUpdates, msg(), nUpdates, ourLowThreshold);
-    MissedUpdatesRequest missedUpdates = buildMissedUpdatesRequest(leaderVersionsAndFingerprint);
     if (missedUpdates == MissedUpdatesRequest.ALREADY_IN_SYNC) return true;
     if (missedUpdates != MissedUpdatesRequest.UNABLE_TO_SYNC) {
-      NamedList<Object> missedUpdatesRsp = requestUpdates(missedUpdates);
+      NamedList<Object> missedUpdatesRsp = requestUpdates(missedUpdates, window);
       if (handleUpdates(missedUpdatesRsp, missedUpdates.totalRequestedUpdates, leaderFingerprint)) {
         if (doFingerprint) {
           return compareFingerprint(leaderFingerprint);
@@ -250,7 +300,7 @@ public class PeerSyncWithLeader implements SolrMetricProducer {
     return updatesRequest;
   }
 
-  private NamedList<Object> requestUpdates(MissedUpdatesRequest missedUpdatesRequest) {
+  private NamedList<Object> requestUpdates(MissedUpdatesRequest missedUpdatesRequest, int window) {
     if (log.isInfoEnabled()) {
       log.info(
           "{} Requesting updates from {} n={} versions={}",
@@ -266,6 +316,10 @@ public class PeerSyncWithLeader implements SolrMetricProducer {
     params.set("getUpdates", missedUpdatesRequest.versionsAndRanges);
     params.set("onlyIfActive", false);
     params.set("skipDbq", true);
+    if (window > nUpdates) {
+      // the leader needs to look as far back in its update log as it did for the versions
+      params.set("versionsWindow", window);
+    }
 
     return request(params, "Failed on getting missed updates from the leader");
   }
@@ -345,11 +399,14 @@ public class PeerSyncWithLeader implements SolrMetricProducer {
     }
   }
 
-  private NamedList<Object> getVersions() {
+  private NamedList<Object> getVersions(int window) {
     ModifiableSolrParams params = new ModifiableSolrParams();
     params.set("qt", "/get");
     params.set(DISTRIB, false);
-    params.set("getVersions", nUpdates);
+    params.set("getVersions", window);
+    if (window > nUpdates) {
+      params.set("versionsWindow", window);
+    }
     params.set("fingerprint", doFingerprint);
 
     return request(params, "Failed to get recent versions from leader");
@@ -215,6 +215,8 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
   protected final int numDeletesByQueryToKeep = 100;
   protected int numRecordsToKeep;
   protected int maxNumLogsToKeep;
+  // the most records getRecentUpdates(int) reads from the logs, however many are asked for
+  protected int maxNumRecordsToRead;
   // This should only be used to initialize VersionInfo... the actual number of buckets may be
   // rounded up to a power of two.
   protected int numVersionBuckets;
@@ -336,6 +338,11 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
     return maxNumLogsToKeep;
   }
 
+  /** The most records {@link #getRecentUpdates(int)} reads from the logs */
+  public int getMaxNumRecordsToRead() {
+    return Math.max(maxNumRecordsToRead, numRecordsToKeep);
+  }
+
   public int getNumVersionBuckets() {
     return numVersionBuckets;
   }
@@ -353,6 +360,10 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
 
     numRecordsToKeep = objToInt(info.initArgs.get("numRecordsToKeep"), 100);
     maxNumLogsToKeep = objToInt(info.initArgs.get("maxNumLogsToKeep"), 10);
+    maxNumRecordsToRead =
+        objToInt(
+            info.initArgs.get("maxNumRecordsToRead"),
+            (int) Math.min(Integer.MAX_VALUE, 10L * numRecordsToKeep));
     numVersionBuckets = objToInt(info.initArgs.get("numVersionBuckets"), 65536);
     if (numVersionBuckets <= 0)
       throw new SolrException(
@@ -360,11 +371,12 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
           "Number of version buckets must be greater than 0!");
 
     log.info(
-        "Initializing UpdateLog: dataDir={} defaultSyncLevel={} numRecordsToKeep={} maxNumLogsToKeep={} numVersionBuckets={}",
+        "Initializing UpdateLog: dataDir={} defaultSyncLevel={} numRecordsToKeep={} maxNumLogsToKeep={} maxNumRecordsToRead={} numVersionBuckets={}",
         dataDir,
         defaultSyncLevel,
         numRecordsToKeep,
         maxNumLogsToKeep,
+        maxNumRecordsToRead,
         numVersionBuckets);
   }
 
@@ -1515,9 +1527,19 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
     public List<Update> deleteByQueryList;
     public List<DeleteUpdate> deleteList;
     Set<Long> bufferUpdates = new HashSet<>();
+    final int maxNumRecords;
 
     public RecentUpdates(Deque<TransactionLog> logList) {
+      this(logList, numRecordsToKeep);
+    }
+
+    /**
+     * @param maxNumRecords the maximum number of records to read from the logs, which may be more
+     *     than numRecordsToKeep if older logs are still around
+     */
+    public RecentUpdates(Deque<TransactionLog> logList, int maxNumRecords) {
       this.logList = logList;
+      this.maxNumRecords = maxNumRecords;
       boolean success = false;
       try {
         update();
@@ -1598,7 +1620,7 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
       updateList = new ArrayList<>(logList.size());
       deleteByQueryList = new ArrayList<>();
       deleteList = new ArrayList<>();
-      updates = new HashMap<>(numRecordsToKeep);
+      updates = new HashMap<>();
 
       for (TransactionLog oldLog : logList) {
         List<Update> updatesForLog = new ArrayList<>();
@@ -1607,7 +1629,7 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
         try {
           reader = oldLog.getReverseReader();
 
-          while (numUpdates < numRecordsToKeep) {
+          while (numUpdates < maxNumRecords) {
             Object o = null;
             try {
               o = reader.next();
@@ -1697,6 +1719,18 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
 
   /** The RecentUpdates object returned must be closed after use */
   public RecentUpdates getRecentUpdates() {
+    return getRecentUpdates(numRecordsToKeep);
+  }
+
+  /**
+   * Like {@link #getRecentUpdates()}, but reads up to <code>maxNumRecords</code> records from the
+   * logs that are still around instead of just numRecordsToKeep. Used by PeerSync to widen its
+   * window of versions when the default one does not overlap enough with a peer's. No more than
+   * {@link #getMaxNumRecordsToRead()} records are read.
+   *
+   * <p>The RecentUpdates object returned must be closed after use
+   */
+  public RecentUpdates getRecentUpdates(int maxNumRecords) {
     Deque<TransactionLog> logList;
     synchronized (this) {
       logList = new LinkedList<>(logs);
@@ -1719,7 +1753,8 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
 
     // TODO: what if I hand out a list of updates, then do an update, then hand out another list
     // (and one of the updates I originally handed out fell off the list).  Over-request?
-    return new RecentUpdates(logList);
+    return new RecentUpdates(
+        logList, Math.min(Math.max(maxNumRecords, numRecordsToKeep), getMaxNumRecordsToRead()));
   }
 
   public void bufferUpdates() {
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.solr.common.SolrException;
+
+/**
+ * Runs the parts of a single request concurrently on a shared, bounded executor such as {@link
+ * org.apache.solr.core.CoreContainer#getSearchExecutor()}.
+ *
+ * <p>The calling thread runs any task that no thread of the executor has picked up yet instead of
+ * waiting for it. So the tasks always complete, even when every thread of the executor is busy or
+ * is itself waiting on tasks it submitted to the same executor.
+ */
+public class ConcurrentTasks {
+
+  private ConcurrentTasks() {}
+
+  /**
+   * Runs the tasks and returns their results, in the same order.
+   *
+   * @throws IOException the first exception thrown by a task, if an IOException
+   */
+  public static <T> List<T> run(Executor executor, List<? extends Callable<T>> tasks)
+      throws IOException {
+    final List<FutureTask<T>> futures = new ArrayList<>(tasks.size());
+    try {
+      for (Callable<T> task : tasks) {
+        final FutureTask<T> future = new FutureTask<>(task);
+        futures.add(future);
+        try {
+          executor.execute(future);
+        } catch (RejectedExecutionException e) {
+          // run below by the calling thread
+        }
+      }
+
+      for (FutureTask<T> future : futures) {
+        future.run(); // does nothing if a thread of the executor already started it
+      }
+      final List<T> results = new ArrayList<>(futures.size());
+      for (FutureTask<T> future : futures) {
+        results.add(future.get());
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, e);
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, cause);
+    } finally {
+      for (FutureTask<T> future : futures) {
+        future.cancel(false); // interrupting could close a reader's channels
+      }
+    }
+  }
+}
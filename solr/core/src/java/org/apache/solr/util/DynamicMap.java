@@ -17,13 +17,29 @@
 
 package org.apache.solr.util;
 
+import org.apache.lucene.util.Accountable;
+
 /**
  * An efficient map for storing keys as integer in range from 0..n with n can be estimated up-front.
  * By automatically switching from a hashMap (which is memory efficient) to an array (which is
  * faster) on increasing number of keys. So it SHOULD not be used for other cases where key can be
  * any arbitrary integer.
+ *
+ * <p>The array is split in pages of {@link #PAGE_SIZE} values that are only allocated once a key
+ * falls into them, so a large key space never needs one huge contiguous allocation and key ranges
+ * that are never used cost nothing.
  */
-public interface DynamicMap {
+public interface DynamicMap extends Accountable {
+
+  int PAGE_SHIFT = 12;
+  int PAGE_SIZE = 1 << PAGE_SHIFT;
+  int PAGE_MASK = PAGE_SIZE - 1;
+
+  /**
+   * Key spaces at least this large stay on the hashMap until the keys get a lot denser, and don't
+   * pre-size it for all of these keys either.
+   */
+  int LARGE_KEY_MAX = 1 << 20;
 
   default boolean useArrayBased(int expectedKeyMax) {
     boolean assertsEnabled = false;
@@ -37,18 +53,22 @@ public interface DynamicMap {
     return expectedKeyMax < (1 << 12);
   }
 
-  /** Compute threshold for switching from hashMap based to array */
+  /**
+   * Compute threshold for switching from hashMap based to array. The number of keys put so far is
+   * the estimate of how many keys will be used: for large key spaces the hashMap is kept until that
+   * estimate comes close to the point where the (paged) array is the smaller of the two.
+   */
   default int threshold(int expectedKeyMax) {
-    return expectedKeyMax >>> 6;
+    return expectedKeyMax < LARGE_KEY_MAX ? expectedKeyMax >>> 6 : expectedKeyMax >>> 3;
   }
 
   /**
    * Compute expected elements for hppc maps, so resizing won't happen if we store less elements
-   * than {@code threshold}
+   * than {@code threshold}, unless the key space is large: then the map grows as keys are put.
    */
   default int mapExpectedElements(int expectedKeyMax) {
     // hppc's expectedElements <= first hppc's resizeAt.
     // +2 let's us not to worry about which comparison operator to choose
-    return threshold(expectedKeyMax) + 2;
+    return Math.min(threshold(expectedKeyMax), LARGE_KEY_MAX >>> 6) + 2;
   }
 }
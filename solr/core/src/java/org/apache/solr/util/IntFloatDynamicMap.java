@@ -22,11 +22,12 @@ import com.carrotsearch.hppc.cursors.FloatCursor;
 import com.carrotsearch.hppc.procedures.IntFloatProcedure;
 import java.util.Arrays;
 import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.RamUsageEstimator;
 
 public class IntFloatDynamicMap implements DynamicMap {
   private int maxSize;
   private IntFloatHashMap hashMap;
-  private float[] keyValues;
+  private float[][] pages;
   private float emptyValue;
   private int threshold;
 
@@ -47,36 +48,41 @@ public class IntFloatDynamicMap implements DynamicMap {
   }
 
   private void upgradeToArray() {
-    keyValues = new float[maxSize];
-    if (emptyValue != 0.0f) {
-      Arrays.fill(keyValues, emptyValue);
-    }
+    pages = new float[(maxSize + PAGE_MASK) >>> PAGE_SHIFT][];
     if (hashMap != null) {
-      hashMap.forEach((IntFloatProcedure) (key, value) -> keyValues[key] = value);
+      hashMap.forEach((IntFloatProcedure) (key, value) -> page(key)[key & PAGE_MASK] = value);
       hashMap = null;
     }
   }
 
-  private void growBuffer(int minSize) {
-    assert keyValues != null;
-    int size = keyValues.length;
-    keyValues = ArrayUtil.grow(keyValues, minSize);
-    if (emptyValue != 0.0f) {
-      for (int i = size; i < keyValues.length; i++) {
-        keyValues[i] = emptyValue;
+  /** Returns the page holding the given key, allocating or growing it as needed. */
+  private float[] page(int key) {
+    final int index = key >>> PAGE_SHIFT;
+    if (index >= pages.length) {
+      pages = ArrayUtil.grow(pages, index + 1);
+    }
+    final int offset = key & PAGE_MASK;
+    float[] page = pages[index];
+    if (page == null || offset >= page.length) {
+      // only the first page of a map with less than PAGE_SIZE keys may be shorter than PAGE_SIZE
+      final int oldLength = page == null ? 0 : page.length;
+      final int newLength =
+          Math.min(PAGE_SIZE, Math.max(maxSize, ArrayUtil.oversize(offset + 1, Float.BYTES)));
+      page = page == null ? new float[newLength] : ArrayUtil.growExact(page, newLength);
+      if (emptyValue != 0.0f) {
+        Arrays.fill(page, oldLength, newLength, emptyValue);
       }
+      pages[index] = page;
     }
+    return page;
   }
 
   public void put(int key, float value) {
-    if (keyValues != null) {
-      if (key >= keyValues.length) {
-        growBuffer(key + 1);
-      }
-      keyValues[key] = value;
+    this.maxSize = Math.max(key + 1, maxSize);
+    if (pages != null) {
+      page(key)[key & PAGE_MASK] = value;
     } else {
       this.hashMap.put(key, value);
-      this.maxSize = Math.max(key + 1, maxSize);
       if (this.hashMap.size() >= threshold) {
         upgradeToArray();
       }
@@ -84,20 +90,25 @@ public class IntFloatDynamicMap implements DynamicMap {
   }
 
   public float get(int key) {
-    if (keyValues != null) {
-      if (key >= keyValues.length) {
+    if (pages != null) {
+      final int index = key >>> PAGE_SHIFT;
+      final int offset = key & PAGE_MASK;
+      if (index >= pages.length || pages[index] == null || offset >= pages[index].length) {
         return emptyValue;
       }
-      return keyValues[key];
+      return pages[index][offset];
     } else {
       return this.hashMap.getOrDefault(key, emptyValue);
     }
   }
 
   public void forEachValue(FloatConsumer consumer) {
-    if (keyValues != null) {
-      for (float val : keyValues) {
-        if (val != emptyValue) consumer.accept(val);
+    if (pages != null) {
+      for (float[] page : pages) {
+        if (page == null) continue;
+        for (float val : page) {
+          if (val != emptyValue) consumer.accept(val);
+        }
       }
     } else {
       for (FloatCursor ord : hashMap.values()) {
@@ -107,10 +118,27 @@ public class IntFloatDynamicMap implements DynamicMap {
   }
 
   public void remove(int key) {
-    if (keyValues != null) {
-      if (key < keyValues.length) keyValues[key] = emptyValue;
+    if (pages != null) {
+      final int index = key >>> PAGE_SHIFT;
+      final int offset = key & PAGE_MASK;
+      if (index < pages.length && pages[index] != null && offset < pages[index].length) {
+        pages[index][offset] = emptyValue;
+      }
     } else {
       hashMap.remove(key);
     }
   }
+
+  @Override
+  public long ramBytesUsed() {
+    if (pages != null) {
+      long bytes = RamUsageEstimator.shallowSizeOf(pages);
+      for (float[] page : pages) {
+        if (page != null) bytes += RamUsageEstimator.sizeOf(page);
+      }
+      return bytes;
+    } else {
+      return RamUsageEstimator.sizeOf(hashMap.keys) + RamUsageEstimator.sizeOf(hashMap.values);
+    }
+  }
 }
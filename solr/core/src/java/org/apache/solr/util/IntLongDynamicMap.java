@@ -23,17 +23,18 @@ import com.carrotsearch.hppc.procedures.IntLongProcedure;
 import java.util.Arrays;
 import java.util.function.LongConsumer;
 import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.RamUsageEstimator;
 
 public class IntLongDynamicMap implements DynamicMap {
   private int maxSize;
   private IntLongHashMap hashMap;
-  private long[] keyValues;
+  private long[][] pages;
   private long emptyValue;
   private int threshold;
 
   /**
    * Create map with expected max value of key. Although the map will automatically do resizing to
-   * be able to hold key {@code >=g expectedKeyMax}. But putting key much larger than {@code
+   * be able to hold key {@code >= expectedKeyMax}. But putting key much larger than {@code
    * expectedKeyMax} is discourage since it can leads to use LOT OF memory.
    */
   public IntLongDynamicMap(int expectedKeyMax, long emptyValue) {
@@ -48,35 +49,40 @@ public class IntLongDynamicMap implements DynamicMap {
   }
 
   private void upgradeToArray() {
-    keyValues = new long[maxSize];
-    if (emptyValue != 0) {
-      Arrays.fill(keyValues, emptyValue);
-    }
+    pages = new long[(maxSize + PAGE_MASK) >>> PAGE_SHIFT][];
     if (hashMap != null) {
-      hashMap.forEach((IntLongProcedure) (key, value) -> keyValues[key] = value);
+      hashMap.forEach((IntLongProcedure) (key, value) -> page(key)[key & PAGE_MASK] = value);
       hashMap = null;
     }
   }
 
-  private void growBuffer(int minSize) {
-    assert keyValues != null;
-    int size = keyValues.length;
-    keyValues = ArrayUtil.grow(keyValues, minSize);
-    if (emptyValue != 0) {
-      for (int i = size; i < keyValues.length; i++) {
-        keyValues[i] = emptyValue;
+  /** Returns the page holding the given key, allocating or growing it as needed. */
+  private long[] page(int key) {
+    final int index = key >>> PAGE_SHIFT;
+    if (index >= pages.length) {
+      pages = ArrayUtil.grow(pages, index + 1);
+    }
+    final int offset = key & PAGE_MASK;
+    long[] page = pages[index];
+    if (page == null || offset >= page.length) {
+      // only the first page of a map with less than PAGE_SIZE keys may be shorter than PAGE_SIZE
+      final int oldLength = page == null ? 0 : page.length;
+      final int newLength =
+          Math.min(PAGE_SIZE, Math.max(maxSize, ArrayUtil.oversize(offset + 1, Long.BYTES)));
+      page = page == null ? new long[newLength] : ArrayUtil.growExact(page, newLength);
+      if (emptyValue != 0) {
+        Arrays.fill(page, oldLength, newLength, emptyValue);
       }
+      pages[index] = page;
     }
+    return page;
   }
 
   public void put(int key, long value) {
-    if (keyValues != null) {
-      if (key >= keyValues.length) {
-        growBuffer(key + 1);
-      }
-      keyValues[key] = value;
+    this.maxSize = Math.max(key + 1, maxSize);
+    if (pages != null) {
+      page(key)[key & PAGE_MASK] = value;
     } else {
-      this.maxSize = Math.max(key + 1, maxSize);
       this.hashMap.put(key, value);
       if (this.hashMap.size() >= threshold) {
         upgradeToArray();
@@ -85,20 +91,25 @@ public class IntLongDynamicMap implements DynamicMap {
   }
 
   public long get(int key) {
-    if (keyValues != null) {
-      if (key >= keyValues.length) {
+    if (pages != null) {
+      final int index = key >>> PAGE_SHIFT;
+      final int offset = key & PAGE_MASK;
+      if (index >= pages.length || pages[index] == null || offset >= pages[index].length) {
         return emptyValue;
       }
-      return keyValues[key];
+      return pages[index][offset];
     } else {
       return this.hashMap.getOrDefault(key, emptyValue);
     }
   }
 
   public void forEachValue(LongConsumer consumer) {
-    if (keyValues != null) {
-      for (long val : keyValues) {
-        if (val != emptyValue) consumer.accept(val);
+    if (pages != null) {
+      for (long[] page : pages) {
+        if (page == null) continue;
+        for (long val : page) {
+          if (val != emptyValue) consumer.accept(val);
+        }
       }
     } else {
       for (LongCursor ord : hashMap.values()) {
@@ -108,10 +119,27 @@ public class IntLongDynamicMap implements DynamicMap {
   }
 
   public void remove(int key) {
-    if (keyValues != null) {
-      if (key < keyValues.length) keyValues[key] = emptyValue;
+    if (pages != null) {
+      final int index = key >>> PAGE_SHIFT;
+      final int offset = key & PAGE_MASK;
+      if (index < pages.length && pages[index] != null && offset < pages[index].length) {
+        pages[index][offset] = emptyValue;
+      }
     } else {
       hashMap.remove(key);
     }
   }
+
+  @Override
+  public long ramBytesUsed() {
+    if (pages != null) {
+      long bytes = RamUsageEstimator.shallowSizeOf(pages);
+      for (long[] page : pages) {
+        if (page != null) bytes += RamUsageEstimator.sizeOf(page);
+      }
+      return bytes;
+    } else {
+      return RamUsageEstimator.sizeOf(hashMap.keys) + RamUsageEstimator.sizeOf(hashMap.values);
+    }
+  }
 }
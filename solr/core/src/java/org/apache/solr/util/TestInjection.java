@@ -166,6 +166,9 @@ public class TestInjection {
 
   public static volatile boolean uifOutOfMemoryError = false;
 
+  /** The number of file packets the IndexFetcher receives that get a corrupted byte */
+  public static volatile AtomicInteger countCorruptFetchedPackets = new AtomicInteger(0);
+
   private static volatile CountDownLatch notifyPauseForeverDone = new CountDownLatch(1);
 
   public static void notifyPauseForeverDone() {
@@ -196,6 +199,7 @@ public class TestInjection {
     delayInExecutePlanAction = null;
     delayBeforeCreatingNewDocSet = null;
     countDocSetDelays.set(0);
+    countCorruptFetchedPackets.set(0);
     failInExecutePlanAction = false;
     skipIndexWriterCommitOnClose = false;
     uifOutOfMemoryError = false;
@@ -588,6 +592,14 @@ public class TestInjection {
     return true;
   }
 
+  public static boolean injectCorruptFetchedPacket(byte[] packet, int packetSize) {
+    if (packetSize > 0 && countCorruptFetchedPackets.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+      log.info("Corrupting a fetched packet of {} bytes", packetSize);
+      packet[packetSize / 2] ^= 0x1;
+    }
+    return true;
+  }
+
   public static boolean injectDocSetDelay(Object query) {
     if (delayBeforeCreatingNewDocSet != null) {
       countDocSetDelays.incrementAndGet();
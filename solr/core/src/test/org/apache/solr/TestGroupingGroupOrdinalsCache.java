@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr;
+
+import org.apache.solr.metrics.MetricsMap;
+import org.apache.solr.metrics.SolrMetricManager;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Tests group.ngroups and group.facet counted from group ordinals kept in a groupCache. */
+public class TestGroupingGroupOrdinalsCache extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeTests() throws Exception {
+    System.setProperty("enable.update.log", "false"); // schema12 doesn't support _version_
+    System.setProperty("solr.groupCache.enabled", "true");
+    initCore("solrconfig.xml", "schema12.xml");
+  }
+
+  @AfterClass
+  public static void afterTests() {
+    System.clearProperty("solr.groupCache.enabled");
+  }
+
+  @Before
+  public void cleanIndex() {
+    assertU(delQ("*:*"));
+    assertU(commit());
+  }
+
+  @Test
+  public void testGroupingGroupOrdinalsCache() throws Exception {
+    assertU(add(doc("id", "1", "value1_s1", "1", "value3_s1", "a")));
+    assertU(add(doc("id", "2", "value1_s1", "1", "value3_s1", "a")));
+    assertU(add(doc("id", "3", "value1_s1", "2", "value3_s1", "b")));
+    assertU(commit());
+    assertU(add(doc("id", "4", "value1_s1", "1", "value3_s1", "b")));
+    assertU(add(doc("id", "5", "value1_s1", "2")));
+    assertU(add(doc("id", "6", "value3_s1", "a")));
+    assertU(commit());
+
+    String[] params =
+        new String[] {
+          "q", "*:*",
+          "fq", "id:[1 TO 6]",
+          "rows", "1",
+          "fl", "id",
+          "group", "true",
+          "group.field", "value1_s1",
+          "group.ngroups", "true",
+          "group.facet", "true",
+          "facet", "true",
+          "facet.field", "value3_s1",
+          "facet.missing", "true",
+          "facet.query", "value3_s1:a"
+        };
+    // the group without a value counts as a group, the same as with the grouping collectors
+    assertJQ(
+        req(params),
+        "/grouped/value1_s1/ngroups==3",
+        "/facet_counts/facet_queries=={'value3_s1:a':2}",
+        "/facet_counts/facet_fields=={'value3_s1':['a',2,'b',2,null,1]}");
+    long hits = groupCacheStat("hits");
+
+    // the group ordinals of the same query and filters serve both the groups and the facets
+    assertJQ(
+        req(params),
+        "/grouped/value1_s1/ngroups==3",
+        "/facet_counts/facet_queries=={'value3_s1:a':2}",
+        "/facet_counts/facet_fields=={'value3_s1':['a',2,'b',2,null,1]}");
+    assertTrue(groupCacheStat("hits") > hits);
+
+    // without faceting the matching documents are collected only to fill the cache
+    assertJQ(
+        req(
+            "q", "*:*",
+            "fq", "value3_s1:a",
+            "group", "true",
+            "group.field", "value1_s1",
+            "group.ngroups", "true"),
+        "/grouped/value1_s1/ngroups==2");
+    hits = groupCacheStat("hits");
+    assertJQ(
+        req(
+            "q", "*:*",
+            "fq", "value3_s1:a",
+            "group", "true",
+            "group.field", "value1_s1",
+            "group.ngroups", "true"),
+        "/grouped/value1_s1/ngroups==2");
+    assertEquals(hits + 1, groupCacheStat("hits"));
+  }
+
+  private long groupCacheStat(String stat) {
+    MetricsMap groupCacheStats =
+        (MetricsMap)
+            ((SolrMetricManager.GaugeWrapper<?>)
+                    h.getCore()
+                        .getCoreMetricManager()
+                        .getRegistry()
+                        .getMetrics()
+                        .get("CACHE.searcher.groupCache"))
+                .getGauge();
+    return (Long) groupCacheStats.getValue().get(stat);
+  }
+}
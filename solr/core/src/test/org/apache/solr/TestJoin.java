@@ -56,7 +56,7 @@ public class TestJoin extends SolrTestCaseJ4 {
   private static final String DEPT_FIELD = "dept_ss_dv";
   private static final String DEPT_ID_FIELD = "dept_id_indexed_sdv";
 
-  private void indexEmployeeDocs() {
+  static void indexEmployeeDocs() {
     assertU(
         add(
             doc(
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr;
+
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.metrics.MetricsMap;
+import org.apache.solr.metrics.SolrMetricManager;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Tests joins reusing their intermediate results from a configured joinCache. */
+public class TestJoinCache extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeTests() throws Exception {
+    System.setProperty("enable.update.log", "false"); // schema12 doesn't support _version_
+    System.setProperty("solr.joinCache.enabled", "true");
+
+    // all points change at the same time point fields need docvalues
+    if (System.getProperty("solr.tests.IntegerFieldType").contains("Point")) {
+      System.setProperty("solr.tests.numeric.dv", "true");
+    }
+
+    initCore("solrconfig.xml", "schema12.xml");
+  }
+
+  @AfterClass
+  public static void afterTests() {
+    System.clearProperty("solr.joinCache.enabled");
+  }
+
+  @Test
+  public void testJoinCache() throws Exception {
+    TestJoin.indexEmployeeDocs();
+
+    ModifiableSolrParams p = params("sort", "id asc", "fl", "id");
+    String join = "{!join from=dept_ss_dv to=dept_id_indexed_sdv}title:MTS";
+
+    assertJQ(
+        req(p, "q", join),
+        "/response=={'numFound':3,'start':0,'numFoundExact':true,'docs':[{'id':'10'},{'id':'12'},{'id':'13'}]}");
+    long hits = joinCacheStat("hits");
+
+    // a different filter doesn't hit the filterCache, but reuses the join's intermediate results
+    assertJQ(
+        req(p, "q", join, "fq", "text:stuff"),
+        "/response=={'numFound':2,'start':0,'numFoundExact':true,'docs':[{'id':'10'},{'id':'12'}]}");
+    assertTrue(joinCacheStat("hits") > hits);
+
+    // the topLevelDV method caches its from ordinals
+    String topLevelJoin =
+        "{!join from=dept_ss_dv to=dept_id_indexed_sdv method=topLevelDV}title:MTS";
+    assertJQ(
+        req(p, "q", topLevelJoin),
+        "/response=={'numFound':3,'start':0,'numFoundExact':true,'docs':[{'id':'10'},{'id':'12'},{'id':'13'}]}");
+    hits = joinCacheStat("hits");
+    assertJQ(
+        req(p, "q", topLevelJoin, "fq", "text:stuff"),
+        "/response=={'numFound':2,'start':0,'numFoundExact':true,'docs':[{'id':'10'},{'id':'12'}]}");
+    assertTrue(joinCacheStat("hits") > hits);
+
+    // per segment results may be carried over to the new searcher, but ignore deletions
+    assertU(delI("12"));
+    assertU(commit());
+    assertJQ(
+        req(p, "q", join),
+        "/response=={'numFound':2,'start':0,'numFoundExact':true,'docs':[{'id':'10'},{'id':'13'}]}");
+    assertJQ(
+        req(p, "q", topLevelJoin),
+        "/response=={'numFound':2,'start':0,'numFoundExact':true,'docs':[{'id':'10'},{'id':'13'}]}");
+  }
+
+  private long joinCacheStat(String stat) {
+    MetricsMap joinCacheStats =
+        (MetricsMap)
+            ((SolrMetricManager.GaugeWrapper<?>)
+                    h.getCore()
+                        .getCoreMetricManager()
+                        .getRegistry()
+                        .getMetrics()
+                        .get("CACHE.searcher.joinCache"))
+                .getGauge();
+    return (Long) joinCacheStats.getValue().get(stat);
+  }
+}
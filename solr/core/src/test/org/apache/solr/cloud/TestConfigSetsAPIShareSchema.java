@@ -16,11 +16,17 @@
  */
 package org.apache.solr.cloud;
 
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import org.apache.solr.client.solrj.request.CollectionAdminRequest;
 import org.apache.solr.client.solrj.request.ConfigSetAdminRequest;
+import org.apache.solr.client.solrj.request.schema.SchemaRequest;
 import org.apache.solr.common.SolrException;
+import org.apache.solr.common.util.TimeSource;
 import org.apache.solr.core.CoreContainer;
 import org.apache.solr.core.SolrCore;
+import org.apache.solr.schema.IndexSchema;
+import org.apache.solr.util.TimeOut;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -37,6 +43,9 @@ public class TestConfigSetsAPIShareSchema extends SolrCloudTestCase {
             "conf1", TEST_PATH().resolve("configsets").resolve("cloud-minimal").resolve("conf"))
         .addConfig(
             "cShare", TEST_PATH().resolve("configsets").resolve("cloud-minimal").resolve("conf"))
+        .addConfig(
+            "cShareManaged",
+            TEST_PATH().resolve("configsets").resolve("_default").resolve("conf"))
         .configure();
   }
 
@@ -94,4 +103,34 @@ public class TestConfigSetsAPIShareSchema extends SolrCloudTestCase {
       assertNotSame(coreCol1.getLatestSchema(), coreCol2.getLatestSchema());
     }
   }
+
+  @Test
+  public void testSharedManagedSchemaAfterUpdate() throws Exception {
+    CollectionAdminRequest.createCollection("mcol1", "cShareManaged", 1, 1)
+        .processAndWait(cluster.getSolrClient(), DEFAULT_TIMEOUT);
+    CollectionAdminRequest.createCollection("mcol2", "cShareManaged", 1, 1)
+        .processAndWait(cluster.getSolrClient(), DEFAULT_TIMEOUT);
+
+    CoreContainer coreContainer = cluster.getJettySolrRunner(0).getCoreContainer();
+    try (SolrCore core1 = coreContainer.getCore("mcol1_shard1_replica_n1");
+        SolrCore core2 = coreContainer.getCore("mcol2_shard1_replica_n1")) {
+      assertSame(core1.getLatestSchema(), core2.getLatestSchema());
+    }
+
+    new SchemaRequest.AddField(Map.of("name", "shared_new_field", "type", "string"))
+        .process(cluster.getSolrClient(), "mcol1");
+
+    // mcol1 is reloaded and mcol2 refreshes from ZooKeeper; both should share the new version
+    new TimeOut(DEFAULT_TIMEOUT, TimeUnit.SECONDS, TimeSource.NANO_TIME)
+        .waitFor(
+            "cores did not converge on the updated schema",
+            () -> {
+              try (SolrCore core1 = coreContainer.getCore("mcol1_shard1_replica_n1");
+                  SolrCore core2 = coreContainer.getCore("mcol2_shard1_replica_n1")) {
+                IndexSchema schema1 = core1.getLatestSchema();
+                return schema1.getFieldOrNull("shared_new_field") != null
+                    && schema1 == core2.getLatestSchema();
+              }
+            });
+  }
 }
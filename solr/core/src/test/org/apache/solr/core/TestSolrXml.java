@@ -72,6 +72,7 @@ public class TestSolrXml extends SolrTestCaseJ4 {
         "config set handler class", "testConfigSetsHandler", cfg.getConfigSetsHandlerClass());
     assertEquals("core load threads", 11, cfg.getCoreLoadThreadCount(false));
     assertEquals("replay update threads", 100, cfg.getReplayUpdatesThreads());
+    assertEquals("index searcher executor threads", 7, cfg.getIndexSearcherExecutorThreads());
     assertThat(
         "core root dir",
         cfg.getCoreRootDirectory().toString(),
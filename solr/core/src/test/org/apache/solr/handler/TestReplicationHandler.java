@@ -25,6 +25,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.invoke.MethodHandles;
 import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
@@ -946,6 +948,187 @@ public class TestReplicationHandler extends SolrTestCaseJ4 {
     checkForSingleIndex(followerJetty);
   }
 
+  @Test
+  public void doTestIndexFetchConcurrently() throws Exception {
+    // download up to 3 files at a time
+    doTestIndexFetchWithParams(ReplicationHandler.FETCH_CONCURRENCY + "=3&");
+  }
+
+  @Test
+  public void doTestIndexFetchFromPeers() throws Exception {
+    // the leader itself stands in for a peer with an identical index
+    String peerUrl = buildUrl(leaderJetty.getLocalPort()) + "/" + DEFAULT_TEST_CORENAME;
+    doTestIndexFetchWithParams(
+        ReplicationHandler.PEER_URLS
+            + "="
+            + URLEncoder.encode(peerUrl, StandardCharsets.UTF_8)
+            + "&"
+            + ReplicationHandler.FETCH_CONCURRENCY
+            + "=2&");
+  }
+
+  @Test
+  public void doTestIndexFetchFromReplicaPeer() throws Exception {
+    doTestIndexFetchFromPeer(true);
+  }
+
+  @Test
+  public void doTestIndexFetchFromPeerAtOtherGeneration() throws Exception {
+    doTestIndexFetchFromPeer(false);
+  }
+
+  /**
+   * Fetches the leader's index with a second follower as the peer, which either already replicated
+   * the leader's latest commit or has an index of its own, at another generation, in which case
+   * every file must come from the leader.
+   */
+  private void doTestIndexFetchFromPeer(boolean peerInSync) throws Exception {
+    SolrInstance peer =
+        new SolrInstance(
+            createTempDir("solr-instance").toFile(), "follower", leaderJetty.getLocalPort());
+    peer.setUp();
+    // no polling
+    peer.copyConfigFile(CONF_DIR + "solrconfig-follower1.xml", "solrconfig.xml");
+    JettySolrRunner peerJetty = createAndStartJetty(peer);
+    String peerUrl = buildUrl(peerJetty.getLocalPort()) + "/" + DEFAULT_TEST_CORENAME;
+    try (SolrClient peerClient = createNewSolrClient(peerUrl)) {
+      long[] peerRequestsBeforeFetch = new long[1];
+      doTestIndexFetchWithParams(
+          ReplicationHandler.PEER_URLS
+              + "="
+              + URLEncoder.encode(peerUrl, StandardCharsets.UTF_8)
+              + "&"
+              + ReplicationHandler.FETCH_CONCURRENCY
+              + "=2&",
+          () -> {
+            if (peerInSync) {
+              pullFromTo(leaderJetty, peerJetty);
+              assertVersions(leaderClient, peerClient);
+            } else {
+              for (int i = 0; i < 10; i++) {
+                index(peerClient, "id", 1000 + i, "name", "peer = " + i);
+              }
+              peerClient.commit();
+              assertNotEquals(
+                  getIndexVersion(leaderClient).get("generation"),
+                  getIndexVersion(peerClient).get("generation"));
+            }
+            peerRequestsBeforeFetch[0] = getReplicationRequests(peerJetty);
+          });
+
+      long peerRequests = getReplicationRequests(peerJetty) - peerRequestsBeforeFetch[0];
+      if (peerInSync) {
+        // indexversion and filelist, then the files taken from the peer
+        assertTrue("peer served no files: " + peerRequests, peerRequests > 2);
+      } else {
+        // indexversion and filelist only, no file matches the leader's
+        assertEquals(2, peerRequests);
+      }
+    } finally {
+      peerJetty.stop();
+    }
+  }
+
+  private static long getReplicationRequests(JettySolrRunner jetty) {
+    try (SolrCore core = jetty.getCoreContainer().getCore(DEFAULT_TEST_CORENAME)) {
+      return core.getSolrMetricsContext()
+          .getMetricRegistry()
+          .getCounters()
+          .get("REPLICATION." + ReplicationHandler.PATH + ".requests")
+          .getCount();
+    }
+  }
+
+  @Test
+  public void doTestIndexFetchWithCorruptPackets() throws Exception {
+    // the first corrupt packet fails the check of the whole file, which is then fetched again with
+    // per-packet checksums; the second one only makes that packet be fetched again
+    TestInjection.countCorruptFetchedPackets.set(2);
+    try {
+      doTestIndexFetchWithParams("");
+      assertEquals(0, TestInjection.countCorruptFetchedPackets.get());
+    } finally {
+      TestInjection.reset();
+    }
+  }
+
+  private void doTestIndexFetchWithParams(String fetchParams) throws Exception {
+    doTestIndexFetchWithParams(fetchParams, () -> {});
+  }
+
+  private interface BeforeFetch {
+    void run() throws Exception;
+  }
+
+  private void doTestIndexFetchWithParams(String fetchParams, BeforeFetch beforeFetch)
+      throws Exception {
+    // change solrconfig on follower
+    // this has no entry for pollinginterval
+    follower.setTestPort(leaderJetty.getLocalPort());
+    follower.copyConfigFile(CONF_DIR + "solrconfig-follower1.xml", "solrconfig.xml");
+    followerJetty.stop();
+    followerJetty = createAndStartJetty(follower);
+    followerClient.close();
+    followerClient =
+        ReplicationTestHelper.createNewSolrClient(
+            buildUrl(followerJetty.getLocalPort(), context) + "/" + DEFAULT_TEST_CORENAME);
+
+    leaderClient.deleteByQuery("*:*");
+    followerClient.deleteByQuery("*:*");
+    followerClient.commit();
+
+    // several commits, so that there are several segments to download
+    int numDocs = 0;
+    for (int commit = 0; commit < 4; commit++) {
+      for (int i = 0; i < 10; i++, numDocs++) {
+        index(leaderClient, "id", numDocs, "name", "name = " + numDocs);
+      }
+      leaderClient.commit();
+    }
+
+    NamedList<Object> leaderQueryRsp = rQuery(numDocs, "*:*", leaderClient);
+    SolrDocumentList leaderQueryResult = (SolrDocumentList) leaderQueryRsp.get("response");
+    assertEquals(numDocs, leaderQueryResult.getNumFound());
+
+    beforeFetch.run();
+
+    String urlKey = "leaderUrl";
+    if (useLegacyParams) {
+      urlKey = "masterUrl";
+    }
+
+    // index fetch
+    String leaderUrl =
+        buildUrl(followerJetty.getLocalPort())
+            + "/"
+            + DEFAULT_TEST_CORENAME
+            + ReplicationHandler.PATH
+            + "?command=fetchindex&wait=true&"
+            + fetchParams
+            + urlKey
+            + "=";
+    leaderUrl +=
+        buildUrl(leaderJetty.getLocalPort())
+            + "/"
+            + DEFAULT_TEST_CORENAME
+            + ReplicationHandler.PATH;
+    URL url = new URL(leaderUrl);
+    InputStream stream = url.openStream();
+    stream.close();
+
+    // get docs from follower and check if number is equal to leader
+    NamedList<Object> followerQueryRsp = rQuery(numDocs, "*:*", followerClient);
+    SolrDocumentList followerQueryResult = (SolrDocumentList) followerQueryRsp.get("response");
+    assertEquals(numDocs, followerQueryResult.getNumFound());
+    // compare results
+    String cmp =
+        BaseDistributedSearchTestCase.compare(leaderQueryResult, followerQueryResult, 0, null);
+    assertEquals(null, cmp);
+
+    assertVersions(leaderClient, followerClient);
+    checkForSingleIndex(followerJetty);
+  }
+
   @Test
   public void doTestStressReplication() throws Exception {
     // change solrconfig on follower
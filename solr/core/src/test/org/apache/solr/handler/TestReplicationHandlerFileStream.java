@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.handler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.util.Arrays;
+import java.util.zip.Adler32;
+import org.apache.lucene.index.IndexCommit;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.response.SolrQueryResponse;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the packets {@link ReplicationHandler} sends for index files on the local file system,
+ * which are read through a {@link java.nio.channels.FileChannel}.
+ */
+public class TestReplicationHandlerFileStream extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    useFactory("solr.StandardDirectoryFactory");
+    initCore("solrconfig-leader.xml", "schema.xml");
+  }
+
+  @AfterClass
+  public static void afterClass() throws Exception {
+    resetFactory();
+  }
+
+  @Test
+  public void testFilePackets() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      assertU(adoc("id", String.valueOf(i), "name", "name = " + i));
+    }
+    assertU(commit());
+
+    Directory dir = h.getCore().withSearcher(searcher -> searcher.getIndexReader().directory());
+    assumeTrue(
+        "index files must be on the local file system",
+        FilterDirectory.unwrap(dir) instanceof FSDirectory);
+    IndexCommit commit =
+        h.getCore().withSearcher(searcher -> searcher.getIndexReader().getIndexCommit());
+    for (String file : commit.getFileNames()) {
+      byte[] expected = readFile(dir, file);
+      int len = 1 + random().nextInt(Math.max(1, expected.length / 3));
+      int offset = random().nextInt(expected.length);
+      for (boolean checksum : new boolean[] {true, false}) {
+        String message = file + " checksum=" + checksum + " len=" + len;
+        assertArrayEquals(
+            message, expected, fetchFile(file, commit.getGeneration(), checksum, len, 0));
+        byte[] rest = fetchFile(file, commit.getGeneration(), checksum, len, offset);
+        assertArrayEquals(
+            message + " offset=" + offset,
+            Arrays.copyOfRange(expected, offset, expected.length),
+            rest);
+      }
+    }
+  }
+
+  private static byte[] readFile(Directory dir, String file) throws Exception {
+    try (IndexInput in = dir.openInput(file, IOContext.READONCE)) {
+      byte[] bytes = new byte[(int) in.length()];
+      in.readBytes(bytes, 0, bytes.length);
+      return bytes;
+    }
+  }
+
+  /** Reads the file the same way IndexFetcher does, checking the packets' checksums if any */
+  private static byte[] fetchFile(
+      String file, long generation, boolean checksum, int len, long offset) throws Exception {
+    ModifiableSolrParams params = new ModifiableSolrParams();
+    params.set(ReplicationHandler.COMMAND, ReplicationHandler.CMD_GET_FILE);
+    params.set(ReplicationHandler.FILE, file);
+    params.set(ReplicationHandler.GENERATION, Long.toString(generation));
+    params.set(ReplicationHandler.LEN, len);
+    params.set(ReplicationHandler.CHECKSUM, checksum);
+    if (offset > 0) {
+      params.set(ReplicationHandler.OFFSET, Long.toString(offset));
+    }
+    ReplicationHandler handler =
+        (ReplicationHandler) h.getCore().getRequestHandler(ReplicationHandler.PATH);
+    SolrQueryResponse rsp = new SolrQueryResponse();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (SolrQueryRequest req = req(params)) {
+      handler.handleRequestBody(req, rsp);
+      ((SolrCore.RawWriter) rsp.getValues().get(ReplicationHandler.FILE_STREAM)).write(out);
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+    Adler32 adler32 = new Adler32();
+    int packetSize;
+    while ((packetSize = in.readInt()) > 0) {
+      assertTrue("packet of " + packetSize + " bytes", packetSize <= len);
+      long expectedChecksum = checksum ? in.readLong() : -1;
+      byte[] packet = new byte[packetSize];
+      in.readFully(packet);
+      if (checksum) {
+        adler32.reset();
+        adler32.update(packet, 0, packetSize);
+        assertEquals(expectedChecksum, adler32.getValue());
+      }
+      bytes.write(packet);
+    }
+    return bytes.toByteArray();
+  }
+}
@@ -1073,6 +1073,90 @@ public class QueryElevationComponentTest extends SolrTestCaseJ4 {
     }
   }
 
+  @Test
+  public void testElevatedDocsAcrossSearchers() throws Exception {
+    // the config version is unknown in ZooKeeper, so the elevations are reloaded per searcher
+    try (QueryElevationComponent comp =
+        new QueryElevationComponent() {
+          @Override
+          protected long getConfigVersion(SolrCore core) {
+            return -1;
+          }
+        }) {
+      init("schema12.xml");
+      SolrCore core = h.getCore();
+
+      NamedList<String> args = new NamedList<>();
+      args.add(QueryElevationComponent.FIELD_TYPE, "text");
+      args.add(QueryElevationComponent.CONFIG_FILE, "elevate.xml");
+
+      comp.init(args);
+      comp.inform(core);
+
+      for (String id : new String[] {"10", "11", "12", "13", "14"}) {
+        assertU(adoc("id", id, "title", "AAAA"));
+        assertU(commit()); // a segment per doc
+      }
+
+      SolrQueryRequest req = req();
+      QueryElevationComponent.ElevationProvider elevationProvider =
+          comp.getElevationProvider(req.getSearcher().getIndexReader(), core);
+      // merged from several subset matches
+      QueryElevationComponent.Elevation merged =
+          elevationProvider.getElevationForQuery("aa bb dd cc");
+      assertEquals(toIdSet("10", "11", "12", "14"), merged.elevatedIds);
+      // merged per request, but the queries must stay equal for the queryResultCache
+      assertEquals(
+          merged.includeQuery,
+          elevationProvider.getElevationForQuery("aa bb dd cc").includeQuery);
+      SolrQueryRequest req2 = null;
+      try {
+        QueryElevationComponent.ElevatedDocs elevatedDocs =
+            assertElevatedDocs(comp, merged, req.getSearcher());
+        assertEquals(4, elevatedDocs.size());
+
+        // the docs of the segments of the previous searcher were deleted or updated
+        assertU(delI("11"));
+        assertU(delI("10"));
+        assertU(adoc("id", "12", "title", "BBBB"));
+        assertU(commit());
+
+        req2 = req();
+        assertNotSame(req.getSearcher(), req2.getSearcher());
+        QueryElevationComponent.ElevationProvider reloadedProvider =
+            comp.getElevationProvider(req2.getSearcher().getIndexReader(), core);
+        assertNotSame(elevationProvider, reloadedProvider);
+        QueryElevationComponent.Elevation reloaded =
+            reloadedProvider.getElevationForQuery("aa bb dd cc");
+        assertEquals(2, assertElevatedDocs(comp, reloaded, req2.getSearcher()).size());
+        // the docs of the searcher still open are still cached, also for the reloaded elevation
+        assertSame(elevatedDocs, comp.getElevatedDocs(req.getSearcher(), merged));
+        assertSame(elevatedDocs, comp.getElevatedDocs(req.getSearcher(), reloaded));
+      } finally {
+        req.close();
+        if (req2 != null) {
+          req2.close();
+        }
+      }
+    } finally {
+      delete();
+    }
+  }
+
+  /** Asserts the elevated docs of the searcher are the ones of the uniqueKey lookups. */
+  private static QueryElevationComponent.ElevatedDocs assertElevatedDocs(
+      QueryElevationComponent comp,
+      QueryElevationComponent.Elevation elevation,
+      SolrIndexSearcher searcher)
+      throws Exception {
+    QueryElevationComponent.ElevatedDocs elevatedDocs = comp.getElevatedDocs(searcher, elevation);
+    assertSame(elevatedDocs, comp.getElevatedDocs(searcher, elevation));
+    assertEquals(
+        QueryElevationComponent.getBoostDocs(searcher, elevation.elevatedIds, null),
+        elevatedDocs.boostDocs());
+    return elevatedDocs;
+  }
+
   @Test
   public void testOnlyDocsInSearchResultsWillBeElevated() throws Exception {
     try {
@@ -107,6 +107,45 @@ public class SuggestComponentTest extends SolrTestCaseJ4 {
         "//lst[@name='suggest']/lst[@name='suggest_fuzzy_doc_dict']/lst[@name='Rad']/arr[@name='suggestions']/lst[2]/long[@name='weight'][.='30']");
   }
 
+  @Test
+  public void testBuildInBackground() throws Exception {
+    // the commit of setUp triggers a build in the background, without any explicit build
+    waitForBackgroundBuilds();
+    assertQ(
+        req(
+            "qt",
+            rh,
+            SuggesterParams.SUGGEST_DICT,
+            "suggest_fuzzy_doc_dict_build_in_background",
+            SuggesterParams.SUGGEST_Q,
+            "exampel",
+            SuggesterParams.SUGGEST_COUNT,
+            "5"),
+        "//lst[@name='suggest']/lst[@name='suggest_fuzzy_doc_dict_build_in_background']/lst[@name='exampel']/int[@name='numFound'][.='2']",
+        "//lst[@name='suggest']/lst[@name='suggest_fuzzy_doc_dict_build_in_background']/lst[@name='exampel']/arr[@name='suggestions']/lst[1]/str[@name='term'][.='example inputdata']");
+
+    // the build reads the index of the commit, not the one of the searcher it replaces
+    assertU(adoc("id", "11", "cat", "example newdata", "price", "60", "weight", "40"));
+    assertU(commit());
+    waitForBackgroundBuilds();
+    assertQ(
+        req(
+            "qt",
+            rh,
+            SuggesterParams.SUGGEST_DICT,
+            "suggest_fuzzy_doc_dict_build_in_background",
+            SuggesterParams.SUGGEST_Q,
+            "exampel",
+            SuggesterParams.SUGGEST_COUNT,
+            "5"),
+        "//lst[@name='suggest']/lst[@name='suggest_fuzzy_doc_dict_build_in_background']/lst[@name='exampel']/int[@name='numFound'][.='3']",
+        "//lst[@name='suggest']/lst[@name='suggest_fuzzy_doc_dict_build_in_background']/lst[@name='exampel']/arr[@name='suggestions']/lst[1]/str[@name='term'][.='example newdata']");
+  }
+
+  private static void waitForBackgroundBuilds() throws Exception {
+    ((SuggestComponent) h.getCore().getSearchComponent("suggest")).waitForBackgroundBuilds();
+  }
+
   @Test
   public void testExpressionBased() throws Exception {
     assertQ(
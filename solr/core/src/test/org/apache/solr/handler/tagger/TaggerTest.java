@@ -22,7 +22,9 @@
 
 package org.apache.solr.handler.tagger;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.stream.Collectors;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
@@ -310,6 +312,52 @@ public class TaggerTest extends TaggerTestCase {
     assertTags(reqDoc(doc, p), tt(doc, "Boston", 0, N.Boston));
   }
 
+  public void testThreads() throws Exception {
+    baseParams.set("overlaps", "NO_SUB");
+    indexAndBuild();
+
+    final String sentence = "I went to London Business School. Then to City of London and Boston! ";
+    final int numSentences = 30;
+    final TestTag[] sentenceTags = {
+      tt(sentence, "London Business School", 0, N.London_Business_School),
+      tt(sentence, "City of London", 0, N.City_of_London),
+      tt(sentence, "Boston", 0, N.Boston)
+    };
+    StringBuilder buf = new StringBuilder();
+    List<TestTag> expected = new ArrayList<>();
+    for (int i = 0; i < numSentences; i++) {
+      for (TestTag tag : sentenceTags) {
+        expected.add(
+            new TestTag(
+                buf.length() + tag.startOffset,
+                buf.length() + tag.endOffset,
+                tag.substring,
+                tag.docName));
+      }
+      buf.append(sentence);
+    }
+    final String doc = buf.toString();
+
+    // the chunks end on sentence boundaries
+    List<TaggerRequestHandler.Chunk> chunks = TaggerRequestHandler.splitIntoChunks(doc, 100);
+    assertTrue(chunks.size() > 1);
+    StringBuilder chunksText = new StringBuilder();
+    for (TaggerRequestHandler.Chunk chunk : chunks) {
+      assertEquals(chunksText.length(), chunk.startOffset);
+      assertTrue(
+          chunk.text.length() >= 100 || chunk.startOffset + chunk.text.length() == doc.length());
+      assertTrue(chunk.text, chunk.text.endsWith(". ") || chunk.text.endsWith("! "));
+      chunksText.append(chunk.text);
+    }
+    assertEquals(doc, chunksText.toString());
+
+    final TestTag[] expectedTags = expected.toArray(new TestTag[0]);
+    assertTags(reqDoc(doc), expectedTags);
+    assertTags(reqDoc(doc, "threads", "4", "chunkSize", "100"), expectedTags);
+    // a single chunk is tagged by the request thread
+    assertTags(reqDoc(doc, "threads", "4"), expectedTags);
+  }
+
   private TestTag tt(String doc, String substring, int substringIndex, N name) {
     assert substringIndex == 0;
 
@@ -286,6 +286,34 @@ public class TestUnifiedSolrHighlighter extends SolrTestCaseJ4 {
         "//lst[@name='highlighting']/lst[@name='102']/arr[@name='text3']/str='crappier <em>document</em>'");
   }
 
+  public void testBatchMode() {
+    assertU(adoc("text", "third document", "text2", "third document", "id", "103"));
+    assertU(commit());
+    assertQ(
+        "highlighting text and text2 in batches",
+        req(
+            "q",
+            "text:document text2:document",
+            "sort",
+            "id asc",
+            "hl",
+            "true",
+            "hl.fl",
+            "text,text2",
+            "hl.threads",
+            "2",
+            "debug",
+            "timing"),
+        "count(//lst[@name='highlighting']/*)=3",
+        "//lst[@name='highlighting']/lst[@name='101']/arr[@name='text']/str='<em>document</em> one'",
+        "//lst[@name='highlighting']/lst[@name='101']/arr[@name='text2']/str='<em>document</em> one'",
+        "//lst[@name='highlighting']/lst[@name='102']/arr[@name='text']/str='second <em>document</em>'",
+        "//lst[@name='highlighting']/lst[@name='102']/arr[@name='text2']/str='second <em>document</em>'",
+        "//lst[@name='highlighting']/lst[@name='103']/arr[@name='text']/str='third <em>document</em>'",
+        "//lst[@name='highlighting']/lst[@name='103']/arr[@name='text2']/str='third <em>document</em>'",
+        "//lst[@name='timing']/lst[@name='highlightFields']/double[@name='time']");
+  }
+
   // SOLR-5127
   public void testMultipleFieldsViaWildcard() {
     assertQ(
@@ -26,6 +26,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import org.apache.commons.lang3.ArrayUtils;
 import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrException.ErrorCode;
@@ -4819,6 +4820,68 @@ public class SimpleFacetsTest extends SolrTestCaseJ4 {
         "*[count(//lst[@name='facet_fields']/lst[@name='key2']/int[@name='bar'])=1]");
   }
 
+  public void testFacetFieldsCountedInSinglePass() throws Exception {
+    final String[] facetFields = {
+      "trait_s",
+      "foo_s",
+      "{!key=byIndex facet.sort=index facet.mincount=1}foo_s",
+      "{!key=prefixed facet.prefix=foo}myfield_s",
+      "{!key=missing facet.missing=true facet.limit=2}trait_s",
+      "{!key=zeros facet.mincount=0 facet.offset=1}myfield_s",
+      "{!key=excluded facet.excludeTerms=Tool}trait_s"
+    };
+    String[] params = {"q", "*:*", "facet", "true"};
+    for (String facetField : facetFields) {
+      params = ArrayUtils.addAll(params, "facet.field", facetField);
+    }
+    // the fields are counted in a single pass, with or without facet threads, but each of them
+    // alone is counted on its own
+    for (String threads : new String[] {"0", "1", "-1"}) {
+      final Map<?, ?> together =
+          facetCounts("facet_fields", ArrayUtils.addAll(params, "facet.threads", threads));
+      for (String facetField : facetFields) {
+        final Map<?, ?> alone =
+            facetCounts("facet_fields", "q", "*:*", "facet", "true", "facet.field", facetField);
+        assertEquals(1, alone.size());
+        final Object key = alone.keySet().iterator().next();
+        assertEquals(facetField, alone.get(key), together.get(key));
+      }
+    }
+    assertQ(
+        req(params),
+        "//lst[@name='facet_fields']/lst[@name='trait_s']/int[@name='Tool']",
+        "//lst[@name='facet_fields']/lst[@name='prefixed']/int[@name='foo']",
+        "count(//lst[@name='facet_fields']/lst[@name='missing']/int[@name])=2",
+        "//lst[@name='facet_fields']/lst[@name='missing']/int[not(@name)]",
+        "count(//lst[@name='facet_fields']/lst[@name='excluded']/int[@name='Tool'])=0");
+  }
+
+  public void testPivotTopLevelFieldsCountedInSinglePass() throws Exception {
+    final String[] pivots = {
+      "trait_s,foo_s", "{!key=byFoo}foo_s,myfield_s", "{!key=prefixed facet.prefix=foo}myfield_s"
+    };
+    String[] params = {"q", "*:*", "facet", "true"};
+    for (String pivot : pivots) {
+      params = ArrayUtils.addAll(params, "facet.pivot", pivot);
+    }
+    // the top level fields of the pivots are counted in a single pass, each pivot alone isn't
+    final Map<?, ?> together = facetCounts("facet_pivot", params);
+    assertEquals(pivots.length, together.size());
+    for (String pivot : pivots) {
+      final Map<?, ?> alone =
+          facetCounts("facet_pivot", "q", "*:*", "facet", "true", "facet.pivot", pivot);
+      assertEquals(1, alone.size());
+      final Object key = alone.keySet().iterator().next();
+      assertEquals(pivot, alone.get(key), together.get(key));
+    }
+  }
+
+  private static Map<?, ?> facetCounts(String type, String... params) throws Exception {
+    final Map<?, ?> rsp =
+        (Map<?, ?>) fromJSONString(JQ(req(ArrayUtils.addAll(params, "rows", "0"))));
+    return (Map<?, ?>) ((Map<?, ?>) rsp.get("facet_counts")).get(type);
+  }
+
   private String getRandomQuery() {
     if (rarely()) {
       return "*:*";
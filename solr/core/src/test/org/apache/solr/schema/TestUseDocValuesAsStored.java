@@ -35,8 +35,11 @@ import javax.xml.xpath.XPathFactory;
 import org.apache.commons.io.FileUtils;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.TestUtil;
+import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.util.DOMUtil;
 import org.apache.solr.core.AbstractBadConfigTestBase;
+import org.apache.solr.search.SolrDocumentFetcher;
+import org.apache.solr.search.SolrReturnFields;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -336,6 +339,55 @@ public class TestUseDocValuesAsStored extends AbstractBadConfigTestBase {
             + "]");
   }
 
+  @Test
+  public void testBatchedDocFetching() throws Exception {
+    final int numDocs = atLeast(10);
+    for (int i = 0; i < numDocs; i++) {
+      assertU(
+          adoc(
+              "id",
+              "myid" + i,
+              "test_s_dvo",
+              "hello" + i,
+              "test_is_dvo",
+              Integer.toString(i),
+              "test_is_dvo",
+              Integer.toString(i + 100),
+              "nonstored_dv_str",
+              "dont see me"));
+      if (random().nextInt(4) == 0) {
+        assertU(commit()); // more segments
+      }
+    }
+    assertU(commit());
+
+    h.getCore()
+        .withSearcher(
+            searcher -> {
+              final SolrDocumentFetcher docFetcher = searcher.getDocFetcher();
+              // random docids, in random order and with duplicates
+              final int[] docids = new int[numDocs + 5];
+              for (int i = 0; i < docids.length; i++) {
+                docids[i] = random().nextInt(searcher.maxDoc());
+              }
+              for (String fl :
+                  new String[] {"*", "id", "test_s_dvo,test_is_dvo", "id,nonstored_dv_str"}) {
+                final SolrDocument[] docs =
+                    docFetcher.solrDocs(docids, new SolrReturnFields(req("fl", fl)));
+                final SolrReturnFields returnFields = new SolrReturnFields(req("fl", fl));
+                assertEquals(docids.length, docs.length);
+                for (int i = 0; i < docids.length; i++) {
+                  assertEquals(
+                      docFetcher.solrDoc(docids[i], returnFields).toString(), docs[i].toString());
+                  for (int j = 0; j < i; j++) {
+                    assertNotSame(docs[j], docs[i]);
+                  }
+                }
+              }
+              return null;
+            });
+  }
+
   @Test
   public void testUseDocValuesAsStoredFalse() throws Exception {
     SchemaField sf = h.getCore().getLatestSchema().getField("nonstored_dv_str");
@@ -1502,6 +1502,13 @@ public class QueryEqualityTest extends SolrTestCaseJ4 {
         "{!hash_range l='107347968' u='214695935' f='x_id'}");
   }
 
+  public void testBloomFilterQuery() throws Exception {
+    assertQueryEquals(
+        "bloom_filter",
+        "{!bloom_filter f=x_s_dvo}AAAAAQAAAAAAAAAA",
+        "{!bloom_filter f='x_s_dvo' v='AAAAAQAAAAAAAAAA'}");
+  }
+
   // Override req to add df param
   public static SolrQueryRequest req(String... q) {
     return SolrTestCaseJ4.req(q, "df", "text");
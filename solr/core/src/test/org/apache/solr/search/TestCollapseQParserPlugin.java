@@ -18,6 +18,7 @@ package org.apache.solr.search;
 
 import static org.hamcrest.core.StringContains.containsString;
 
+import com.codahale.metrics.Histogram;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -1296,6 +1297,147 @@ public class TestCollapseQParserPlugin extends SolrTestCaseJ4 {
     }
   }
 
+  public void testParallelCollapse() throws Exception {
+    // three segments, each with a doc of group 1, of group 2 (or 3) and of the null group; the
+    // group heads by rank are 4 (group 1), 2 (group 2), 8 (group 3) and 6 (null group)
+    final List<List<SolrInputDocument>> segments =
+        Arrays.asList(
+            sdocs(
+                rankedDoc("1", "1", 1),
+                rankedDoc("2", "2", 5),
+                rankedDoc("3", null, 2)),
+            sdocs(
+                rankedDoc("4", "1", 7),
+                rankedDoc("5", "2", 3),
+                rankedDoc("6", null, 9)),
+            sdocs(
+                rankedDoc("7", "1", 6),
+                rankedDoc("8", "3", 4),
+                rankedDoc("9", null, 1)));
+    for (List<SolrInputDocument> segment : segments) {
+      for (SolrInputDocument doc : segment) {
+        assertU(adoc(doc));
+      }
+      assertU(commit());
+    }
+
+    // a term query, whose Weight can be shared by the segment threads, scoring higher ranks higher
+    final String q = "rank_ws:x";
+    for (String f : Arrays.asList("group_s", "group_i")) {
+      for (String parallel : Arrays.asList("", " parallel=true")) {
+        assertQ(
+            req("q", q, "fq", "{!collapse field=" + f + " nullPolicy=ignore" + parallel + "}"),
+            "*[count(//doc)=3]",
+            "//result/doc[1]/str[@name='id'][.='4']",
+            "//result/doc[2]/str[@name='id'][.='2']",
+            "//result/doc[3]/str[@name='id'][.='8']");
+        assertQ(
+            req("q", q, "fq", "{!collapse field=" + f + " nullPolicy=collapse" + parallel + "}"),
+            "*[count(//doc)=4]",
+            "//result/doc[1]/str[@name='id'][.='6']",
+            "//result/doc[2]/str[@name='id'][.='4']",
+            "//result/doc[3]/str[@name='id'][.='2']",
+            "//result/doc[4]/str[@name='id'][.='8']");
+        assertQ(
+            req("q", q, "fq", "{!collapse field=" + f + " nullPolicy=expand" + parallel + "}"),
+            "*[count(//doc)=6]",
+            "//result/doc[1]/str[@name='id'][.='6']",
+            "//result/doc[2]/str[@name='id'][.='4']",
+            "//result/doc[3]/str[@name='id'][.='2']",
+            "//result/doc[4]/str[@name='id'][.='8']",
+            "//result/doc[5]/str[@name='id'][.='3']",
+            "//result/doc[6]/str[@name='id'][.='9']");
+      }
+    }
+  }
+
+  /** A doc of the group, if any, with as many of its 9 rank_ws terms being x as its rank. */
+  private static SolrInputDocument rankedDoc(String id, String group, int rank) {
+    final String words = "x ".repeat(rank) + "y ".repeat(9 - rank);
+    final SolrInputDocument doc = sdoc("id", id, "rank_i", rank, "rank_ws", words.trim());
+    if (group != null) {
+      doc.addField("group_s", group);
+      doc.addField("group_i", group);
+    }
+    return doc;
+  }
+
+  public void testParallelCollapseFunctionQuery() throws Exception {
+    // a function query has no thread-safe Weight, so parallel=true collects the segments
+    // sequentially; the scores are the negated ranks, so the group heads are 4 (group 1),
+    // 2 (group 2), 8 (group 3) and 6 (null group)
+    final List<List<SolrInputDocument>> segments =
+        Arrays.asList(
+            sdocs(
+                sdoc("id", "1", "group_s", "1", "rank_i", "3"),
+                sdoc("id", "2", "group_s", "2", "rank_i", "5"),
+                sdoc("id", "3", "rank_i", "8")),
+            sdocs(
+                sdoc("id", "4", "group_s", "1", "rank_i", "1"),
+                sdoc("id", "5", "group_s", "2", "rank_i", "6"),
+                sdoc("id", "6", "rank_i", "2")),
+            sdocs(
+                sdoc("id", "7", "group_s", "1", "rank_i", "7"),
+                sdoc("id", "8", "group_s", "3", "rank_i", "4"),
+                sdoc("id", "9", "rank_i", "9")));
+    for (List<SolrInputDocument> segment : segments) {
+      for (SolrInputDocument doc : segment) {
+        assertU(adoc(doc));
+      }
+      assertU(commit());
+    }
+
+    // not sorted by score, since the top docs collector does not take negative scores
+    final String q = "{!func}sub(0,field(rank_i))";
+    for (String parallel : Arrays.asList("", " parallel=true")) {
+      assertQ(
+          req(
+              "q",
+              q,
+              "fq",
+              "{!collapse field=group_s nullPolicy=ignore" + parallel + "}",
+              "sort",
+              "id asc"),
+          "*[count(//doc)=3]",
+          "//result/doc[1]/str[@name='id'][.='2']",
+          "//result/doc[2]/str[@name='id'][.='4']",
+          "//result/doc[3]/str[@name='id'][.='8']");
+      assertQ(
+          req(
+              "q",
+              q,
+              "fq",
+              "{!collapse field=group_s nullPolicy=collapse" + parallel + "}",
+              "sort",
+              "id asc"),
+          "*[count(//doc)=4]",
+          "//result/doc[1]/str[@name='id'][.='2']",
+          "//result/doc[2]/str[@name='id'][.='4']",
+          "//result/doc[3]/str[@name='id'][.='6']",
+          "//result/doc[4]/str[@name='id'][.='8']");
+    }
+  }
+
+  public void testGroupHeadBytesMetric() throws Exception {
+    assertU(adoc("id", "1", "group_s", "a"));
+    assertU(adoc("id", "2", "group_s", "b"));
+    assertU(commit());
+
+    assertQ(req("q", "*:*", "fq", "{!collapse field=group_s}"), "*[count(//doc)=2]");
+    final Histogram groupHeadBytes =
+        (Histogram)
+            h.getCore()
+                .getCoreMetricManager()
+                .getRegistry()
+                .getMetrics()
+                .get("QUERYPARSER.collapse.groupHeadBytes");
+    final long count = groupHeadBytes.getCount();
+    assertTrue(count > 0);
+    assertQ(req("q", "*:*", "fq", "{!collapse field=group_s sort='id desc'}"), "*[count(//doc)=2]");
+    assertEquals(count + 1, groupHeadBytes.getCount());
+    assertTrue(groupHeadBytes.getSnapshot().getMax() > 0);
+  }
+
   public void testNullGroupNumericVsStringCollapse() throws Exception {
     // NOTE: group_i and group_s will contain identical content so these need to be "numbers"...
     // The specific numbers shouldn't matter (and we explicitly test '0' to confirm legacy
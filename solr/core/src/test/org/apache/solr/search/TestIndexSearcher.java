@@ -29,12 +29,16 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexReaderContext;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.queries.function.FunctionValues;
 import org.apache.lucene.queries.function.ValueSource;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
 import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.core.CoreContainer;
@@ -60,6 +64,8 @@ public class TestIndexSearcher extends SolrTestCaseJ4 {
     // we need a consistent segmentation because reopen test validation
     // dependso n merges not happening when it doesn't expect
     systemSetPropertySolrTestsMergePolicyFactory(LogDocMergePolicyFactory.class.getName());
+    System.setProperty("documentCache.autowarmCount", "100%");
+    System.setProperty("solr.filterCache.perSegmentWarming", "true");
 
     initCore("solrconfig.xml", "schema.xml");
   }
@@ -67,6 +73,8 @@ public class TestIndexSearcher extends SolrTestCaseJ4 {
   @AfterClass
   public static void afterClass() {
     systemClearPropertySolrTestsMergePolicyFactory();
+    System.clearProperty("documentCache.autowarmCount");
+    System.clearProperty("solr.filterCache.perSegmentWarming");
   }
 
   @Override
@@ -185,6 +193,90 @@ public class TestIndexSearcher extends SolrTestCaseJ4 {
     sr6.close();
   }
 
+  public void testDocumentCacheCarriedOver() throws Exception {
+    assertU(adoc("id", "1", "v_t", "Hello Dude"));
+    assertU(commit());
+    assertU(adoc("id", "2", "v_t", "Hello Yonik"));
+    assertU(commit());
+
+    // load both documents entirely, each one is in a segment of its own
+    final Document[] docs =
+        h.getCore().withSearcher(searcher -> new Document[] {searcher.doc(0), searcher.doc(1)});
+
+    assertU(delI("2")); // drops the second segment
+    assertU(adoc("id", "3", "v_t", "Hello Solr"));
+    assertU(commit());
+
+    h.getCore()
+        .withSearcher(
+            searcher -> {
+              // only the document of the first segment is still valid
+              assertEquals(1, searcher.getDocFetcher().getDocumentCache().size());
+              assertSame(docs[0], searcher.doc(0));
+              return null;
+            });
+  }
+
+  public void testDocSetFromPrevious() throws Exception {
+    assertU(adoc("id", "1", "v_t", "Hello Dude"));
+    assertU(adoc("id", "2", "v_t", "Hello Yonik"));
+    assertU(commit());
+    assertU(adoc("id", "3", "v_t", "Hello Solr"));
+    assertU(commit());
+
+    final Query query = new TermQuery(new Term("v_t", "hello"));
+    SolrQueryRequest sr1 = req("q", "foo");
+    final DocSet previousAnswer = sr1.getSearcher().getDocSet(query);
+    assertEquals(3, previousAnswer.size());
+
+    assertU(delI("2"));
+    assertU(adoc("id", "4", "v_t", "Hello Lucene"));
+    assertU(adoc("id", "5", "v_t", "Goodbye"));
+    assertU(commit());
+
+    SolrQueryRequest sr2 = req("q", "foo");
+    final SolrIndexSearcher searcher = sr2.getSearcher();
+    final DocSet expected = searcher.getDocSetNC(query, null);
+    final DocSet answer =
+        searcher.getDocSetFromPrevious(query, previousAnswer, sr1.getSearcher());
+    assertEquals(3, expected.size());
+    assertEquals(expected.size(), answer.size());
+    assertEquals(expected.size(), expected.intersectionSize(answer));
+
+    sr1.close();
+    sr2.close();
+  }
+
+  public void testJoinFilterWarmedAcrossSegments() throws Exception {
+    assertU(adoc("id", "1", "to_s", "b"));
+    assertU(commit());
+
+    final String join = "{!join from=from_s to=to_s}*:*";
+    // cache the filters, matching nothing yet
+    assertQ(req("q", "*:*", "fq", join), "//*[@numFound='0']");
+    assertQ(req("q", "*:*", "fq", "{!bool must=$jq}", "jq", join), "//*[@numFound='0']");
+
+    // a document in a new segment makes the join match the one in the older segment
+    assertU(adoc("id", "2", "from_s", "b"));
+    assertU(commit());
+    assertQ(req("q", "*:*", "fq", join), "//*[@numFound='1']", "//str[@name='id'][.='1']");
+    assertQ(
+        req("q", "*:*", "fq", "{!bool must=$jq}", "jq", join),
+        "//*[@numFound='1']",
+        "//str[@name='id'][.='1']");
+
+    assertFalse(isSegmentLocal(join));
+    assertFalse(isSegmentLocal("id:1 OR _query_:\"" + join + "\""));
+    assertFalse(isSegmentLocal("{!frange l=1}sum(1,1)"));
+    assertTrue(isSegmentLocal("id:1 OR to_s:b*"));
+  }
+
+  private static boolean isSegmentLocal(String q) throws Exception {
+    try (SolrQueryRequest req = req()) {
+      return SolrIndexSearcher.isSegmentLocal(QParser.getParser(q, req).getQuery());
+    }
+  }
+
   // make sure we don't leak searchers (SOLR-3391)
   public void testCloses() {
     assertU(adoc("id", "1"));
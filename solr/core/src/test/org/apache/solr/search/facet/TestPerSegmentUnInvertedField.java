@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.facet;
+
+import org.apache.solr.SolrTestCaseJ4;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Tests <code>facet.method=uif</code> with a per-segment <code>fieldValueCache</code> */
+public class TestPerSegmentUnInvertedField extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    System.setProperty("solr.fieldValueCache.perSegment", "true");
+    initCore("solrconfig.xml", "schema11.xml");
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    System.clearProperty("solr.fieldValueCache.perSegment");
+  }
+
+  @Test
+  public void testFacetCountsAcrossSegments() throws Exception {
+    assertU(adoc("id", "1", "f_ws", "a b"));
+    assertU(adoc("id", "2", "f_ws", "a c"));
+    assertU(commit());
+    assertU(adoc("id", "3", "f_ws", "a b c"));
+    assertU(adoc("id", "4", "f_ws", "d"));
+    assertU(commit());
+
+    h.getCore()
+        .withSearcher(
+            searcher -> {
+              assertTrue(UnInvertedField.isPerSegment(searcher));
+              return null;
+            });
+
+    final String facetFields = "//lst[@name='facet_fields']/lst[@name='f_ws']";
+    assertQ(
+        req("q", "*:*", "facet", "true", "facet.field", "f_ws", "facet.method", "uif"),
+        facetFields + "/int[@name='a'][.='3']",
+        facetFields + "/int[@name='b'][.='2']",
+        facetFields + "/int[@name='c'][.='2']",
+        facetFields + "/int[@name='d'][.='1']");
+    assertJQ(
+        req(
+            "q",
+            "id:(1 OR 3 OR 4)",
+            "json.facet",
+            "{f:{type:terms, field:f_ws, method:uif, sort:'index asc'}}"),
+        "facets=={count:3, f:{buckets:["
+            + "{val:a, count:2}, {val:b, count:2}, {val:c, count:1}, {val:d, count:1}]}}");
+
+    // a new segment only adds to the counts, without building a top-level UnInvertedField
+    assertU(adoc("id", "5", "f_ws", "d e"));
+    assertU(commit());
+    assertQ(
+        req("q", "*:*", "facet", "true", "facet.field", "f_ws", "facet.method", "uif"),
+        facetFields + "/int[@name='a'][.='3']",
+        facetFields + "/int[@name='d'][.='2']",
+        facetFields + "/int[@name='e'][.='1']");
+
+    h.getCore()
+        .withSearcher(
+            searcher -> {
+              assertNull(UnInvertedField.checkUnInvertedField("f_ws", searcher));
+              return null;
+            });
+  }
+}
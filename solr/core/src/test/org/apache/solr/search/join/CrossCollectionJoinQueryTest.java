@@ -23,6 +23,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import org.apache.lucene.util.BytesRef;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.embedded.JettySolrRunner;
 import org.apache.solr.client.solrj.impl.CloudSolrClient;
@@ -30,6 +31,7 @@ import org.apache.solr.client.solrj.request.CollectionAdminRequest;
 import org.apache.solr.client.solrj.request.UpdateRequest;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.cloud.SolrCloudTestCase;
+import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.junit.BeforeClass;
@@ -236,6 +238,41 @@ public class CrossCollectionJoinQueryTest extends SolrCloudTestCase {
     testCcJoinQuery(
         "{!join method=crossCollection fromIndex=products from=product_id_s to=product_id_s routed=false}size_s:M",
         true);
+    // A semi join sends a bloom filter of the local keys along, which only prunes remote keys that
+    // can't match, so the results are the same.
+    testCcJoinQuery(
+        "{!join method=crossCollection fromIndex=products from=product_id_s to=product_id_s routed=false semiJoin=true}size_s:M",
+        true);
+    // The local terms of other field types aren't the remote docValues bytes, so no bloom filter
+    // is sent for them.
+    testCcJoinQuery(
+        "{!join method=crossCollection fromIndex=products from=product_id_i to=product_id_i routed=false semiJoin=true}size_s:M",
+        true);
+    testCcJoinQuery(
+        "{!join method=crossCollection fromIndex=products from=product_id_l to=product_id_l routed=false semiJoin=true}size_s:M",
+        true);
+
+    // Nor can one be applied on the remote side to a non-string field, while an empty one matches
+    // nothing on a string field.
+    String emptyFilter =
+        JoinKeyBloomFilter.create(1, CrossCollectionJoinQuery.BLOOM_FILTER_FPP).encode();
+    SolrException e =
+        expectThrows(
+            SolrException.class,
+            () -> countProducts("{!bloom_filter f=product_id_i}" + emptyFilter));
+    assertEquals(SolrException.ErrorCode.BAD_REQUEST.code, e.code());
+    assertEquals(0, countProducts("{!bloom_filter f=product_id_s}" + emptyFilter));
+
+    // A filter of some keys prunes the products with the other keys.
+    JoinKeyBloomFilter filter =
+        JoinKeyBloomFilter.create(10, CrossCollectionJoinQuery.BLOOM_FILTER_FPP);
+    for (int productId = 0; productId < 10; productId++) {
+      filter.add(new BytesRef(String.valueOf(productId)));
+    }
+    long numProducts = countProducts("*:*");
+    long numFiltered = countProducts("{!bloom_filter f=product_id_s}" + filter.encode());
+    assertTrue(numFiltered >= 10);
+    assertTrue(numFiltered + " of " + numProducts, numFiltered < numProducts / 2);
     // The join_nonrouted query parser doesn't assume that the collection was routed on product_id,
     // so we should get the full set of results.
     testCcJoinQuery(
@@ -307,6 +344,14 @@ public class CrossCollectionJoinQueryTest extends SolrCloudTestCase {
     }
   }
 
+  private static long countProducts(String fq) throws IOException, SolrServerException {
+    return cluster
+        .getSolrClient()
+        .query("products", params("q", "*:*", "fq", fq, "rows", "0"))
+        .getResults()
+        .getNumFound();
+  }
+
   public void testCcJoinQuery(String query, boolean expectFullResults) throws Exception {
     assertResultCount("parts", query, NUM_PRODUCTS / 2, expectFullResults);
   }
@@ -140,6 +140,37 @@ public class GraphQueryTest extends SolrTestCaseJ4 {
     assertJQ(
         req(p, "q", "{!graph from=${node_id} to=${edge_id} returnRoot=false maxDepth=1}id:doc_1"),
         "/response/numFound==1");
+
+    // concurrent traversal of the segments, and automata for any frontier size, give the same
+    // results
+    assertJQ(
+        req(p, "q", "{!graph from=${node_id} to=${edge_id} parallel=true}id:doc_1"),
+        "/response/numFound==7");
+    assertJQ(
+        req(
+            p,
+            "q",
+            "{!graph from=${node_id} to=${edge_id} returnRoot=false parallel=true autnMinTerms=1}id:doc_8"),
+        "/response/numFound==7");
+    assertJQ(
+        req(
+            p,
+            "q",
+            "{!graph from=${node_id} to=${edge_id} parallel=true traversalFilter='text:foo11'}id:doc_8"),
+        "/response/numFound==2");
+
+    // the levels of the traversal are reported when debugging
+    assertQ(
+        req(
+            p,
+            "q",
+            "{!graph from=${node_id} to=${edge_id} maxDepth=1 autnMinTerms=1}id:doc_8",
+            "debugQuery",
+            "true"),
+        "//result[@numFound='3']",
+        "//lst[@name='graph']/arr/lst[1]/int[@name='frontierSize'][.='1']",
+        "//lst[@name='graph']/arr/lst[1]/int[@name='edgeCount'][.='2']",
+        "//lst[@name='graph']/arr/lst[2]/int[@name='frontierSize'][.='2']");
   }
 
   @Test
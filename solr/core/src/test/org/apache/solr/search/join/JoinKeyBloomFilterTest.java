@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.join;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.lucene.util.BytesRef;
+import org.apache.solr.SolrTestCase;
+import org.junit.Test;
+
+public class JoinKeyBloomFilterTest extends SolrTestCase {
+
+  @Test
+  public void testNoFalseNegatives() {
+    int numKeys = atLeast(1000);
+    JoinKeyBloomFilter filter = JoinKeyBloomFilter.create(numKeys, 0.01);
+    Set<String> keys = new HashSet<>();
+    while (keys.size() < numKeys) {
+      keys.add(Integer.toString(random().nextInt()));
+    }
+    for (String key : keys) {
+      filter.add(new BytesRef(key));
+    }
+
+    JoinKeyBloomFilter decoded = JoinKeyBloomFilter.decode(filter.encode());
+    for (String key : keys) {
+      assertTrue(filter.mightContain(new BytesRef(key)));
+      assertTrue(decoded.mightContain(new BytesRef(key)));
+    }
+
+    // the false positive probability is 1%, leave some leeway
+    int falsePositives = 0;
+    for (int i = 0; i < 10000; i++) {
+      BytesRef other = new BytesRef("other" + i);
+      assertEquals(filter.mightContain(other), decoded.mightContain(other));
+      if (filter.mightContain(other)) {
+        falsePositives++;
+      }
+    }
+    assertTrue("false positives: " + falsePositives, falsePositives < 500);
+  }
+
+  @Test
+  public void testTooManyKeys() {
+    assertNull(JoinKeyBloomFilter.create(JoinKeyBloomFilter.MAX_BITS, 0.01));
+  }
+
+  @Test
+  public void testDecodeInvalid() {
+    expectThrows(IllegalArgumentException.class, () -> JoinKeyBloomFilter.decode("AAAAAA"));
+  }
+}
@@ -20,11 +20,15 @@ import static org.apache.solr.search.neural.KnnQParser.DEFAULT_TOP_K;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.util.Utils;
+import org.apache.solr.request.SolrQueryRequest;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -360,4 +364,104 @@ public class KnnQParserTest extends SolrTestCaseJ4 {
         "//result/doc[3]/str[@name='id'][.='3']",
         "//result/doc[4]/str[@name='id'][.='9']");
   }
+
+  @Test
+  public void knnQueryWithPreFilter_shouldSearchOnlyFilteredDocuments() {
+    String vectorToSearch = "[1.0, 2.0, 3.0, 4.0]";
+
+    // the ranked list from the documents matching fq={3,4,9,2}, scored one by one
+    assertQ(
+        req(
+            CommonParams.Q,
+            "{!knn f=vector topK=4 preFilter=true}" + vectorToSearch,
+            "fq",
+            "id:(3 4 9 2)",
+            "fl",
+            "id"),
+        "//result[@numFound='4']",
+        "//result/doc[1]/str[@name='id'][.='4']",
+        "//result/doc[2]/str[@name='id'][.='2']",
+        "//result/doc[3]/str[@name='id'][.='3']",
+        "//result/doc[4]/str[@name='id'][.='9']");
+
+    // the same ranked list from the HNSW graph, only accepting the filtered documents
+    assertQ(
+        req(
+            CommonParams.Q,
+            "{!knn f=vector topK=4 preFilter=true exactSearchThreshold=0}" + vectorToSearch,
+            "fq",
+            "id:(3 4 9 2)",
+            "fl",
+            "id"),
+        "//result[@numFound='4']",
+        "//result/doc[1]/str[@name='id'][.='4']",
+        "//result/doc[2]/str[@name='id'][.='2']",
+        "//result/doc[3]/str[@name='id'][.='3']",
+        "//result/doc[4]/str[@name='id'][.='9']");
+
+    // a post filter only filters the k-nearest results of the other filters
+    assertQ(
+        req(
+            CommonParams.Q,
+            "{!knn f=vector topK=2 preFilter=true}" + vectorToSearch,
+            "fq",
+            "id:(3 4 9 2)",
+            "fq",
+            "{!frange cache=false cost=200 l=0 u=0}termfreq(id,'4')",
+            "fl",
+            "id"),
+        "//result[@numFound='1']",
+        "//result/doc[1]/str[@name='id'][.='2']");
+
+    // a knn filter query is never pre-filtered
+    assertQ(
+        req(
+            CommonParams.Q,
+            "id:(3 4 9 2)",
+            "fq",
+            "{!knn f=vector topK=4 preFilter=true}" + vectorToSearch,
+            "fl",
+            "id"),
+        "//result[@numFound='2']");
+  }
+
+  @Test
+  public void knnQueryWithPreFilter_shouldScoreLikeTheGraphSearch() throws Exception {
+    String vectorToSearch = "[1.0, 2.0, 3.0, 4.0]";
+
+    Map<?, ?> graphScores =
+        getScoresById(
+            req(CommonParams.Q, "{!knn f=vector topK=2}" + vectorToSearch, "fl", "id,score"));
+    Map<?, ?> exactScores =
+        getScoresById(
+            req(
+                CommonParams.Q,
+                "{!knn f=vector topK=2 preFilter=true}" + vectorToSearch,
+                "fq",
+                "id:(1 4)",
+                "fl",
+                "id,score"));
+    assertEquals(graphScores, exactScores);
+  }
+
+  @Test
+  public void parallelKnnQuery_shouldReturnTopKResults() {
+    String vectorToSearch = "[1.0, 2.0, 3.0, 4.0]";
+
+    assertQ(
+        req(CommonParams.Q, "{!knn f=vector topK=3 parallel=true}" + vectorToSearch, "fl", "id"),
+        "//result[@numFound='3']",
+        "//result/doc[1]/str[@name='id'][.='1']",
+        "//result/doc[2]/str[@name='id'][.='4']",
+        "//result/doc[3]/str[@name='id'][.='2']");
+  }
+
+  private Map<?, ?> getScoresById(SolrQueryRequest req) throws Exception {
+    Map<?, ?> response = (Map<?, ?>) Utils.fromJSONString(JQ(req));
+    Map<Object, Object> scores = new HashMap<>();
+    for (Object doc : (List<?>) ((Map<?, ?>) response.get("response")).get("docs")) {
+      scores.put(((Map<?, ?>) doc).get("id"), ((Map<?, ?>) doc).get("score"));
+    }
+    return scores;
+  }
 }
@@ -311,6 +311,43 @@ public class SpellCheckCollatorTest extends SolrTestCaseJ4 {
     }
   }
 
+  @Test
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public void testCollatePruneCandidates() throws Exception {
+    SolrCore core = h.getCore();
+    SolrRequestHandler handler = core.getRequestHandler("/spellCheckCompRH");
+
+    List<String>[] collationsByPruning = new List[2];
+    for (int i = 0; i < collationsByPruning.length; i++) {
+      ModifiableSolrParams params = new ModifiableSolrParams();
+      params.add(SpellCheckComponent.COMPONENT_NAME, "true");
+      params.add(SpellingParams.SPELLCHECK_BUILD, "true");
+      params.add(SpellingParams.SPELLCHECK_COUNT, "10");
+      params.add(SpellingParams.SPELLCHECK_COLLATE, "true");
+      params.add(SpellingParams.SPELLCHECK_MAX_COLLATION_TRIES, "10");
+      params.add(SpellingParams.SPELLCHECK_MAX_COLLATIONS, "10");
+      params.add(SpellingParams.SPELLCHECK_COLLATE_PRUNE_CANDIDATES, Boolean.toString(i == 1));
+      params.add(CommonParams.Q, "lowerfilt:(+fauth +home +loane)");
+
+      SolrQueryResponse rsp = new SolrQueryResponse();
+      rsp.addResponseHeader(new SimpleOrderedMap());
+      SolrQueryRequest req = new LocalSolrQueryRequest(core, params);
+      handler.handleRequest(req, rsp);
+      req.close();
+      NamedList values = rsp.getValues();
+      NamedList spellCheck = (NamedList) values.get("spellcheck");
+      NamedList collationHolder = (NamedList) spellCheck.get("collations");
+      collationsByPruning[i] = collationHolder.getAll("collation");
+    }
+
+    // the skipped candidates could only have returned no hits, and don't use up any tries
+    assertTrue(collationsByPruning[0].size() > 0);
+    assertTrue(collationsByPruning[1].containsAll(collationsByPruning[0]));
+    for (String collation : collationsByPruning[1]) {
+      assertQ(req("q", collation), "//result[@numFound > 0]");
+    }
+  }
+
   @Test
   @SuppressWarnings({"unchecked", "rawtypes"})
   public void testCollateWithMultipleRequestHandlers() throws Exception {
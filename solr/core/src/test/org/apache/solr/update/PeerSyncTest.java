@@ -130,6 +130,7 @@ public class PeerSyncTest extends BaseDistributedSearchTestCase {
     validateDocs(docsAdded, client0, client1);
 
     testOverlap(docsAdded, client0, client1, v);
+    testGrowingWindow(docsAdded, client0, client1);
     // test delete and deleteByQuery
     v = 1000;
     SolrInputDocument doc = sdoc("id", "1000", "_version_", ++v);
@@ -405,6 +406,47 @@ public class PeerSyncTest extends BaseDistributedSearchTestCase {
     validateDocs(docsAdded, client0, client1);
   }
 
+  protected void testGrowingWindow(Set<Integer> docsAdded, SolrClient client0, SolrClient client1)
+      throws IOException, SolrServerException {
+    int toAdd = (int) (numVersions * .95);
+    for (int i = 0; i < toAdd; i++) {
+      add(client0, seenLeader, sdoc("id", Integer.toString(i + 200), "_version_", i + 500));
+      docsAdded.add(i + 200);
+    }
+
+    // not enough overlap in the last numVersions versions
+    assertSync(client1, numVersions, false, shardsArr[0]);
+
+    // but the older versions are still in the update logs
+    QueryRequest qr =
+        new QueryRequest(
+            params(
+                "qt",
+                "/get",
+                "getVersions",
+                Integer.toString(numVersions),
+                "maxVersions",
+                Integer.toString(numVersions * 4),
+                "sync",
+                shardsArr[0]));
+    NamedList<?> rsp = client1.request(qr);
+    assertEquals(true, rsp.get("sync"));
+    validateDocs(docsAdded, client0, client1);
+
+    // no more versions than the update log may read can be asked for
+    QueryRequest tooWide =
+        new QueryRequest(
+            params(
+                "qt",
+                "/get",
+                "getUpdates",
+                "500...600",
+                "versionsWindow",
+                Integer.toString(Integer.MAX_VALUE)));
+    SolrException ex = expectThrows(SolrException.class, () -> client0.request(tooWide));
+    assertEquals(ex.toString(), SolrException.ErrorCode.BAD_REQUEST.code, ex.code());
+  }
+
   protected void validateDocs(Set<Integer> docsAdded, SolrClient client0, SolrClient client1)
       throws SolrServerException, IOException {
     client0.commit();
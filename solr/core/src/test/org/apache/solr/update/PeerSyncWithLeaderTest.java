@@ -48,6 +48,35 @@ public class PeerSyncWithLeaderTest extends PeerSyncTest {
     validateDocs(docsAdded, client0, client1);
   }
 
+  @Override
+  protected void testGrowingWindow(Set<Integer> docsAdded, SolrClient client0, SolrClient client1)
+      throws IOException, SolrServerException {
+    int toAdd = (int) (numVersions * 1.5);
+    for (int i = 0; i < toAdd; i++) {
+      add(client0, seenLeader, sdoc("id", Integer.toString(i + 200), "_version_", i + 500));
+      docsAdded.add(i + 200);
+    }
+
+    // the last numVersions versions of the leader are all newer than ours
+    assertSync(client1, numVersions, false, shardsArr[0]);
+
+    // but the older versions are still in the update logs
+    QueryRequest qr =
+        new QueryRequest(
+            params(
+                "qt",
+                "/get",
+                "getVersions",
+                Integer.toString(numVersions),
+                "maxVersions",
+                Integer.toString(numVersions * 4),
+                "syncWithLeader",
+                shardsArr[0]));
+    NamedList<?> rsp = client1.request(qr);
+    assertEquals(true, rsp.get("syncWithLeader"));
+    validateDocs(docsAdded, client0, client1);
+  }
+
   @Override
   void assertSync(SolrClient client, int numVersions, boolean expectedResult, String... syncWith)
       throws IOException, SolrServerException {
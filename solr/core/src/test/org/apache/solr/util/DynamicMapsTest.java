@@ -86,4 +86,33 @@ public class DynamicMapsTest extends SolrTestCase {
     assertEquals(-1, map.get(101));
     assertEquals(-1, map.get(0));
   }
+
+  public void testPagedIntIntMap() {
+    final int keyMax = DynamicMap.LARGE_KEY_MAX << 2;
+    IntIntDynamicMap map = new IntIntDynamicMap(keyMax, -1);
+    assertEquals(keyMax >>> 3, map.threshold(keyMax));
+    // enough keys, all in the same region of the key space, to switch over to the pages
+    final int numKeys = map.threshold(keyMax) + 10;
+    final int offset = random().nextInt(keyMax - numKeys);
+    for (int i = 0; i < numKeys; i++) {
+      map.put(offset + i, i);
+    }
+
+    for (int i = 0; i < numKeys; i++) {
+      assertEquals(i, map.get(offset + i));
+    }
+    AtomicInteger size = new AtomicInteger(0);
+    map.forEachValue(i -> size.incrementAndGet());
+    assertEquals(numKeys, size.get());
+    assertEquals(-1, map.get(offset + numKeys));
+    assertEquals(-1, map.get(keyMax + 1));
+
+    // only the pages covering the keys are allocated
+    final long pagesBytes = (long) (numKeys / DynamicMap.PAGE_SIZE + 2) * DynamicMap.PAGE_SIZE * 4;
+    assertTrue(map.ramBytesUsed() > (long) numKeys * 4);
+    assertTrue(map.ramBytesUsed() < pagesBytes + keyMax / 100);
+
+    map.remove(offset);
+    assertEquals(-1, map.get(offset));
+  }
 }
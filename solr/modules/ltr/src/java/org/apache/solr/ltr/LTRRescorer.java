@@ -17,9 +17,11 @@
 package org.apache.solr.ltr;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Callable;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.ReaderUtil;
 import org.apache.lucene.search.Explanation;
@@ -31,6 +33,7 @@ import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.search.Weight;
 import org.apache.solr.ltr.interleaving.OriginalRankingLTRScoringQuery;
+import org.apache.solr.ltr.model.LTRScoringModel;
 import org.apache.solr.search.SolrIndexSearcher;
 
 /**
@@ -40,6 +43,9 @@ import org.apache.solr.search.SolrIndexSearcher;
  */
 public class LTRRescorer extends Rescorer {
 
+  /** The number of documents whose features are extracted before the model scores them together */
+  static final int SCORING_BLOCK_SIZE = 64;
+
   private final LTRScoringQuery scoringQuery;
 
   public LTRRescorer() {
@@ -158,6 +164,11 @@ public class LTRRescorer extends Rescorer {
       List<LeafReaderContext> leaves,
       ScoreDoc[] reranked)
       throws IOException {
+    if (scoringQuery.getFeatureLogger() == null) {
+      // nothing to log between two documents, so the model can score them in blocks
+      scoreFeaturesInBlocks(topN, modelWeight, hits, leaves, reranked);
+      return;
+    }
 
     int readerUpto = -1;
     int endDoc = 0;
@@ -187,6 +198,91 @@ public class LTRRescorer extends Rescorer {
     }
   }
 
+  /**
+   * Scores the hits of every segment in blocks (see {@link #scoreSegmentHits}), on the threads of
+   * the {@link LTRThreadModule} if it lets the query use more than one, then keeps the topN.
+   */
+  private void scoreFeaturesInBlocks(
+      int topN,
+      LTRScoringQuery.ModelWeight modelWeight,
+      ScoreDoc[] hits,
+      List<LeafReaderContext> leaves,
+      ScoreDoc[] reranked)
+      throws IOException {
+    final boolean multiThreaded = scoringQuery.isMultiThreaded();
+    final List<Callable<Void>> segmentTasks = new ArrayList<>();
+    // the hits are sorted by docID, so the hits of a segment are next to each other
+    int segmentStart = 0;
+    while (segmentStart < hits.length) {
+      final LeafReaderContext leaf =
+          leaves.get(ReaderUtil.subIndex(hits[segmentStart].doc, leaves));
+      final int endDoc = leaf.docBase + leaf.reader().maxDoc();
+      int segmentEnd = segmentStart + 1;
+      while (segmentEnd < hits.length && hits[segmentEnd].doc < endDoc) {
+        segmentEnd++;
+      }
+      if (multiThreaded) {
+        // a model weight holds the feature values of the document being scored
+        final LTRScoringQuery.ModelWeight segmentWeight =
+            segmentTasks.isEmpty() ? modelWeight : modelWeight.copy();
+        final int from = segmentStart;
+        final int to = segmentEnd;
+        segmentTasks.add(
+            () -> {
+              scoreSegmentHits(segmentWeight, leaf, hits, from, to);
+              return null;
+            });
+      } else {
+        scoreSegmentHits(modelWeight, leaf, hits, segmentStart, segmentEnd);
+      }
+      segmentStart = segmentEnd;
+    }
+
+    if (!segmentTasks.isEmpty()) {
+      scoringQuery.executeInParallel(segmentTasks);
+    }
+
+    for (int hitUpto = 0; hitUpto < hits.length; hitUpto++) {
+      collectHit(topN, hitUpto, hits[hitUpto], reranked);
+    }
+  }
+
+  /**
+   * Scores the hits of a segment from <code>from</code> to <code>to</code>: extracts the features
+   * of up to {@link #SCORING_BLOCK_SIZE} hits into one array, then has the model score them
+   * together with {@link LTRScoringModel#scoreBlock(float[], int, float[])}.
+   */
+  private void scoreSegmentHits(
+      LTRScoringQuery.ModelWeight modelWeight,
+      LeafReaderContext leaf,
+      ScoreDoc[] hits,
+      int from,
+      int to)
+      throws IOException {
+    final LTRScoringModel scoringModel = scoringQuery.getScoringModel();
+    final int featureCount = scoringModel.getFeatures().size();
+    final int blockSize = Math.min(SCORING_BLOCK_SIZE, to - from);
+    final float[] featureVectors = new float[blockSize * featureCount];
+    final float[] scores = new float[blockSize];
+
+    final LTRScoringQuery.ModelWeight.ModelScorer scorer = modelWeight.scorer(leaf);
+    for (int blockStart = from; blockStart < to; blockStart += blockSize) {
+      final int blockEnd = Math.min(blockStart + blockSize, to);
+      for (int hitUpto = blockStart; hitUpto < blockEnd; hitUpto++) {
+        final ScoreDoc hit = hits[hitUpto];
+        scorer.docID();
+        scorer.iterator().advance(hit.doc - leaf.docBase);
+        scorer.getDocInfo().setOriginalDocScore(hit.score);
+        scorer.extractNormalizedFeatures(featureVectors, (hitUpto - blockStart) * featureCount);
+      }
+
+      scoringModel.scoreBlock(featureVectors, blockEnd - blockStart, scores);
+      for (int hitUpto = blockStart; hitUpto < blockEnd; hitUpto++) {
+        hits[hitUpto].score = scores[hitUpto - blockStart];
+      }
+    }
+  }
+
   /**
    * Call this method if the {@link #scoreSingleHit(int, int, int, ScoreDoc, int,
    * org.apache.solr.ltr.LTRScoringQuery.ModelWeight.ModelScorer, ScoreDoc[])} method indicated that
@@ -230,10 +326,16 @@ public class LTRRescorer extends Rescorer {
     scorer.docID();
     scorer.iterator().advance(targetDoc);
 
-    boolean logHit = false;
-
     scorer.getDocInfo().setOriginalDocScore(hit.score);
     hit.score = scorer.score();
+    return collectHit(topN, hitUpto, hit, reranked);
+  }
+
+  /**
+   * Keeps the scored hit if it is among the topN best ones so far and returns true if it was kept.
+   */
+  private static boolean collectHit(int topN, int hitUpto, ScoreDoc hit, ScoreDoc[] reranked) {
+    boolean logHit = false;
     if (hitUpto < topN) {
       reranked[hitUpto] = hit;
       // if the heap is not full, maybe I want to log the features for this
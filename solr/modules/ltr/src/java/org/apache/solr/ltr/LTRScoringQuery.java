@@ -22,12 +22,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.Callable;
-import java.util.concurrent.Future;
-import java.util.concurrent.FutureTask;
-import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.DisiPriorityQueue;
@@ -46,6 +46,7 @@ import org.apache.lucene.util.RamUsageEstimator;
 import org.apache.solr.ltr.feature.Feature;
 import org.apache.solr.ltr.model.LTRScoringModel;
 import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.util.ConcurrentTasks;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -200,9 +201,36 @@ public class LTRScoringQuery extends Query implements Accountable {
     return true;
   }
 
+  /**
+   * Whether this query can score its model from the features extracted for <code>other</code>:
+   * both models come from the same feature store and the features are computed from the same
+   * request, original query and external feature info.
+   */
+  public boolean canShareFeaturesWith(LTRScoringQuery other) {
+    return ltrScoringModel.getFeatureStoreName().equals(other.ltrScoringModel.getFeatureStoreName())
+        && request == other.request
+        && Objects.equals(originalQuery, other.originalQuery)
+        && Objects.equals(efi, other.efi);
+  }
+
+  /** The features whose values the weights of this query extract */
+  public Collection<Feature> getExtractedFeatures() {
+    return extractAllFeatures ? ltrScoringModel.getAllFeatures() : ltrScoringModel.getFeatures();
+  }
+
   @Override
   public ModelWeight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost)
       throws IOException {
+    return createWeight(searcher, scoreMode, Collections.emptyList());
+  }
+
+  /**
+   * Creates a weight that also extracts <code>sharedFeatures</code>, features of the same store
+   * that another query then scores its own model from (see {@link #createSharedWeight}).
+   */
+  public ModelWeight createWeight(
+      IndexSearcher searcher, ScoreMode scoreMode, Collection<Feature> sharedFeatures)
+      throws IOException {
     final Collection<Feature> modelFeatures = ltrScoringModel.getFeatures();
     final Collection<Feature> allFeatures = ltrScoringModel.getAllFeatures();
     int modelFeatSize = modelFeatures.size();
@@ -210,8 +238,18 @@ public class LTRScoringQuery extends Query implements Accountable {
     Collection<Feature> features = null;
     if (this.extractAllFeatures) {
       features = allFeatures;
-    } else {
+    } else if (sharedFeatures.isEmpty()) {
       features = modelFeatures;
+    } else {
+      // the model features first, so that they keep their position in the extracted features
+      final Map<Integer, Feature> featuresByIndex = new LinkedHashMap<>();
+      for (final Feature f : modelFeatures) {
+        featuresByIndex.put(f.getIndex(), f);
+      }
+      for (final Feature f : sharedFeatures) {
+        featuresByIndex.putIfAbsent(f.getIndex(), f);
+      }
+      features = featuresByIndex.values();
     }
     final Feature.FeatureWeight[] extractedFeatureWeights =
         new Feature.FeatureWeight[features.size()];
@@ -236,12 +274,42 @@ public class LTRScoringQuery extends Query implements Accountable {
     } else {
       for (final Feature.FeatureWeight fw : featureWeights) {
         extractedFeatureWeights[i++] = fw;
-        modelFeaturesWeights[j++] = fw;
+        if (j < modelFeatSize) {
+          modelFeaturesWeights[j++] = fw;
+        }
       }
     }
     return new ModelWeight(modelFeaturesWeights, extractedFeatureWeights, allFeatures.size());
   }
 
+  /**
+   * Creates a weight that doesn't extract any feature, but scores this query's model from the
+   * features that <code>featureExtractor</code> extracted for the same document just before. The
+   * extractor must have been created with the extracted features of this query as shared features,
+   * for a query that {@link #canShareFeaturesWith(LTRScoringQuery)} this one.
+   */
+  public ModelWeight createSharedWeight(ModelWeight featureExtractor) {
+    final Feature.FeatureWeight[] extractedByIndex =
+        new Feature.FeatureWeight[featureExtractor.featuresInfo.length];
+    for (final Feature.FeatureWeight fw : featureExtractor.extractedFeatureWeights) {
+      extractedByIndex[fw.getIndex()] = fw;
+    }
+    for (final Feature f : getExtractedFeatures()) {
+      if (f.getIndex() >= extractedByIndex.length || extractedByIndex[f.getIndex()] == null) {
+        throw new IllegalArgumentException(
+            "feature " + f.getName() + " is not extracted by " + featureExtractor);
+      }
+    }
+    final Collection<Feature> modelFeatures = ltrScoringModel.getFeatures();
+    final Feature.FeatureWeight[] modelFeaturesWeights =
+        new Feature.FeatureWeight[modelFeatures.size()];
+    int j = 0;
+    for (final Feature f : modelFeatures) {
+      modelFeaturesWeights[j++] = extractedByIndex[f.getIndex()];
+    }
+    return new ModelWeight(modelFeaturesWeights, featureExtractor);
+  }
+
   private void createWeights(
       IndexSearcher searcher,
       boolean needsScores,
@@ -283,9 +351,6 @@ public class LTRScoringQuery extends Query implements Accountable {
       } catch (final Exception e) {
         throw new RuntimeException(
             "Exception from createWeight for " + f.toString() + " " + e.getMessage(), e);
-      } finally {
-        querySemaphore.release();
-        ltrThreadMgr.releaseLTRSemaphore();
       }
     }
   } // end of call CreateWeightCallable
@@ -298,30 +363,63 @@ public class LTRScoringQuery extends Query implements Accountable {
       throws RuntimeException {
 
     final SolrQueryRequest req = getRequest();
-    List<Future<Feature.FeatureWeight>> futures = new ArrayList<>(features.size());
+    List<Callable<Feature.FeatureWeight>> callables = new ArrayList<>(features.size());
+    for (final Feature f : features) {
+      callables.add(new CreateWeightCallable(f, searcher, needsScores, req));
+    }
     try {
-      for (final Feature f : features) {
-        CreateWeightCallable callable = new CreateWeightCallable(f, searcher, needsScores, req);
-        RunnableFuture<Feature.FeatureWeight> runnableFuture = new FutureTask<>(callable);
-
-        // always acquire before the ltrSemaphore is acquired, to guarantee a that
-        // the current query is within the limit for max. threads
-        querySemaphore.acquire();
-
-        ltrThreadMgr.acquireLTRSemaphore(); // may block and/or interrupt
-        ltrThreadMgr.execute(runnableFuture); // releases semaphore when done
-        futures.add(runnableFuture);
-      }
-      // Loop over futures to get the feature weight objects
-      for (final Future<Feature.FeatureWeight> future : futures) {
-        featureWeights.add(future.get()); // future.get() will block if the job is still running
-      }
-    } catch (Exception e) { // To catch InterruptedException and ExecutionException
+      featureWeights.addAll(executeInParallel(callables));
+    } catch (Exception e) { // To catch the exceptions of the callables
       log.info("Error while creating weights in LTR: InterruptedException", e);
       throw new RuntimeException("Error while creating weights in LTR: " + e.getMessage(), e);
     }
   }
 
+  /** Whether the {@link LTRThreadModule} lets this query use more than one thread */
+  boolean isMultiThreaded() {
+    return querySemaphore != null;
+  }
+
+  /**
+   * Runs the tasks with {@link ConcurrentTasks} and returns their results in order. A task runs on
+   * the executor of the {@link LTRThreadModule} if a permit of both the per request and the total
+   * thread budgets of the module is available, else on the calling thread. Only valid if {@link
+   * #isMultiThreaded()}.
+   */
+  <T> List<T> executeInParallel(List<? extends Callable<T>> tasks) throws IOException {
+    return ConcurrentTasks.run(this::executeWithPermits, tasks);
+  }
+
+  private void executeWithPermits(Runnable task) {
+    // always acquire before the ltrSemaphore is acquired, to guarantee a that
+    // the current query is within the limit for max. threads
+    if (!querySemaphore.tryAcquire()) {
+      throw new RejectedExecutionException("No thread left for this query");
+    }
+    if (!ltrThreadMgr.tryAcquireLTRSemaphore()) {
+      querySemaphore.release();
+      throw new RejectedExecutionException("No thread left in the LTRThreadModule");
+    }
+    try {
+      ltrThreadMgr.execute(
+          () -> {
+            try {
+              task.run();
+            } finally {
+              releasePermits();
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      releasePermits();
+      throw e;
+    }
+  }
+
+  private void releasePermits() {
+    querySemaphore.release();
+    ltrThreadMgr.releaseLTRSemaphore();
+  }
+
   @Override
   public String toString(String field) {
     return field;
@@ -388,6 +486,11 @@ public class LTRScoringQuery extends Query implements Accountable {
      *
      */
     private final FeatureInfo[] featuresInfo;
+    // the featuresInfo of the features this query extracts, without the ones extracted for another
+    // query that shares them
+    private final FeatureInfo[] queryFeaturesInfo;
+    // the weight extracting the features this one scores with, null if it extracts them itself
+    private final ModelWeight featureExtractor;
     /*
      * @param modelFeatureWeights
      *     - should be the same size as the number of features used by the model
@@ -407,7 +510,19 @@ public class LTRScoringQuery extends Query implements Accountable {
       this.modelFeatureWeights = modelFeatureWeights;
       this.modelFeatureValuesNormalized = new float[modelFeatureWeights.length];
       this.featuresInfo = new FeatureInfo[allFeaturesSize];
+      this.featureExtractor = null;
       setFeaturesInfo();
+      this.queryFeaturesInfo = getQueryFeaturesInfo();
+    }
+
+    private ModelWeight(Feature.FeatureWeight[] modelFeatureWeights, ModelWeight featureExtractor) {
+      super(LTRScoringQuery.this);
+      this.extractedFeatureWeights = featureExtractor.extractedFeatureWeights;
+      this.modelFeatureWeights = modelFeatureWeights;
+      this.modelFeatureValuesNormalized = new float[modelFeatureWeights.length];
+      this.featuresInfo = featureExtractor.featuresInfo;
+      this.featureExtractor = featureExtractor;
+      this.queryFeaturesInfo = getQueryFeaturesInfo();
     }
 
     private void setFeaturesInfo() {
@@ -419,8 +534,30 @@ public class LTRScoringQuery extends Query implements Accountable {
       }
     }
 
+    private FeatureInfo[] getQueryFeaturesInfo() {
+      final Collection<Feature> queryFeatures = getExtractedFeatures();
+      if (queryFeatures.size() == extractedFeatureWeights.length) {
+        return featuresInfo;
+      }
+      final FeatureInfo[] queryFeaturesInfo = new FeatureInfo[featuresInfo.length];
+      for (final Feature f : queryFeatures) {
+        queryFeaturesInfo[f.getIndex()] = featuresInfo[f.getIndex()];
+      }
+      return queryFeaturesInfo;
+    }
+
+    /** The info of the features this query extracts, e.g. for them to be logged */
     public FeatureInfo[] getFeaturesInfo() {
-      return featuresInfo;
+      return queryFeaturesInfo;
+    }
+
+    /**
+     * A weight extracting the same features for the same model, but into feature values of its own,
+     * so that both weights can score documents at the same time.
+     */
+    ModelWeight copy() {
+      assert featureExtractor == null;
+      return new ModelWeight(modelFeatureWeights, extractedFeatureWeights, featuresInfo.length);
     }
 
     // for test use
@@ -443,6 +580,11 @@ public class LTRScoringQuery extends Query implements Accountable {
      * features that will be used for scoring. Then calculate and return the model's score.
      */
     private float makeNormalizedFeaturesAndScore() {
+      makeNormalizedFeatures();
+      return ltrScoringModel.score(modelFeatureValuesNormalized);
+    }
+
+    private void makeNormalizedFeatures() {
       int pos = 0;
       for (final Feature.FeatureWeight feature : modelFeatureWeights) {
         final int featureId = feature.getIndex();
@@ -456,7 +598,6 @@ public class LTRScoringQuery extends Query implements Accountable {
         pos++;
       }
       ltrScoringModel.normalizeFeaturesInPlace(modelFeatureValuesNormalized);
-      return ltrScoringModel.score(modelFeatureValuesNormalized);
     }
 
     @Override
@@ -472,6 +613,12 @@ public class LTRScoringQuery extends Query implements Accountable {
         Explanation e = ltrScoringModel.getNormalizerExplanation(explanations[f.getIndex()], idx);
         featureExplanations.add(e);
       }
+      if (featureExtractor != null) {
+        // have the features of the document extracted first
+        final ModelScorer extractor = featureExtractor.scorer(context);
+        extractor.iterator().advance(doc);
+        extractor.score();
+      }
       final ModelScorer bs = scorer(context);
       bs.iterator().advance(doc);
 
@@ -493,11 +640,14 @@ public class LTRScoringQuery extends Query implements Accountable {
 
     @Override
     public ModelScorer scorer(LeafReaderContext context) throws IOException {
+      if (featureExtractor != null) {
+        return new ModelScorer(this);
+      }
 
       final List<Feature.FeatureWeight.FeatureScorer> featureScorers =
           new ArrayList<Feature.FeatureWeight.FeatureScorer>(extractedFeatureWeights.length);
       for (final Feature.FeatureWeight featureWeight : extractedFeatureWeights) {
-        final Feature.FeatureWeight.FeatureScorer scorer = featureWeight.scorer(context);
+        final Feature.FeatureWeight.FeatureScorer scorer = featureWeight.cachedScorer(context);
         if (scorer != null) {
           featureScorers.add(scorer);
         }
@@ -518,7 +668,7 @@ public class LTRScoringQuery extends Query implements Accountable {
 
     public class ModelScorer extends Scorer {
       private final DocInfo docInfo;
-      private final Scorer featureTraversalScorer;
+      private final FeatureTraversalScorer featureTraversalScorer;
 
       public DocInfo getDocInfo() {
         return docInfo;
@@ -538,6 +688,12 @@ public class LTRScoringQuery extends Query implements Accountable {
         }
       }
 
+      private ModelScorer(Weight weight) {
+        super(weight);
+        docInfo = new DocInfo();
+        featureTraversalScorer = new SharedFeaturesModelScorer(weight);
+      }
+
       @Override
       public Collection<ChildScorable> getChildren() throws IOException {
         return featureTraversalScorer.getChildren();
@@ -553,6 +709,23 @@ public class LTRScoringQuery extends Query implements Accountable {
         return featureTraversalScorer.score();
       }
 
+      /**
+       * Extracts the features of the current document like {@link #score()} does, but copies
+       * their normalized values to <code>featureVectors</code> from <code>offset</code> instead of
+       * scoring them, for the model to score a block of documents at once with {@link
+       * LTRScoringModel#scoreBlock(float[], int, float[])}.
+       */
+      public void extractNormalizedFeatures(float[] featureVectors, int offset) throws IOException {
+        featureTraversalScorer.extractFeatures();
+        makeNormalizedFeatures();
+        System.arraycopy(
+            modelFeatureValuesNormalized,
+            0,
+            featureVectors,
+            offset,
+            modelFeatureValuesNormalized.length);
+      }
+
       @Override
       public float getMaxScore(int upTo) throws IOException {
         return Float.POSITIVE_INFINITY;
@@ -563,7 +736,79 @@ public class LTRScoringQuery extends Query implements Accountable {
         return featureTraversalScorer.iterator();
       }
 
-      private class SparseModelScorer extends Scorer {
+      private abstract class FeatureTraversalScorer extends Scorer {
+
+        private FeatureTraversalScorer(Weight weight) {
+          super(weight);
+        }
+
+        /** Sets the feature values of the current document in the features info */
+        protected abstract void extractFeatures() throws IOException;
+
+        @Override
+        public float score() throws IOException {
+          extractFeatures();
+          return makeNormalizedFeaturesAndScore();
+        }
+      }
+
+      /**
+       * Scores the model from the features the feature extractor weight extracted for the same
+       * document, so it doesn't extract anything itself.
+       */
+      private class SharedFeaturesModelScorer extends FeatureTraversalScorer {
+        private int targetDoc = -1;
+
+        private SharedFeaturesModelScorer(Weight weight) {
+          super(weight);
+        }
+
+        @Override
+        protected void extractFeatures() {}
+
+        @Override
+        public int docID() {
+          return targetDoc;
+        }
+
+        @Override
+        public float getMaxScore(int upTo) throws IOException {
+          return Float.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public Collection<ChildScorable> getChildren() {
+          return Collections.emptyList();
+        }
+
+        @Override
+        public DocIdSetIterator iterator() {
+          return new DocIdSetIterator() {
+            @Override
+            public int docID() {
+              return targetDoc;
+            }
+
+            @Override
+            public int nextDoc() {
+              return ++targetDoc;
+            }
+
+            @Override
+            public int advance(int target) {
+              targetDoc = target;
+              return target;
+            }
+
+            @Override
+            public long cost() {
+              return 0;
+            }
+          };
+        }
+      }
+
+      private class SparseModelScorer extends FeatureTraversalScorer {
         private final DisiPriorityQueue subScorers;
         private final ScoringQuerySparseIterator itr;
 
@@ -591,7 +836,7 @@ public class LTRScoringQuery extends Query implements Accountable {
         }
 
         @Override
-        public float score() throws IOException {
+        protected void extractFeatures() throws IOException {
           final DisiWrapper topList = subScorers.topList();
           // If target doc we wanted to advance to matches the actual doc
           // the underlying features advanced to, perform the feature
@@ -608,7 +853,6 @@ public class LTRScoringQuery extends Query implements Accountable {
               featuresInfo[featureId].setUsed(true);
             }
           }
-          return makeNormalizedFeaturesAndScore();
         }
 
         @Override
@@ -662,7 +906,7 @@ public class LTRScoringQuery extends Query implements Accountable {
         }
       }
 
-      private class DenseModelScorer extends Scorer {
+      private class DenseModelScorer extends FeatureTraversalScorer {
         private int activeDoc = -1; // The doc that our scorer's are actually at
         private int targetDoc = -1; // The doc we were most recently told to go to
         private int freq = -1;
@@ -680,7 +924,7 @@ public class LTRScoringQuery extends Query implements Accountable {
         }
 
         @Override
-        public float score() throws IOException {
+        protected void extractFeatures() throws IOException {
           reset();
           freq = 0;
           if (targetDoc == activeDoc) {
@@ -694,7 +938,6 @@ public class LTRScoringQuery extends Query implements Accountable {
               }
             }
           }
-          return makeNormalizedFeaturesAndScore();
         }
 
         @Override
@@ -27,7 +27,9 @@ import org.apache.solr.util.plugin.NamedListInitializedPlugin;
  * The LTRThreadModule is optionally used by the {@link org.apache.solr.ltr.search.LTRQParserPlugin}
  * and {@link org.apache.solr.ltr.response.transform.LTRFeatureLoggerTransformerFactory
  * LTRFeatureLoggerTransformerFactory} classes to parallelize the creation of {@link
- * org.apache.solr.ltr.feature.Feature.FeatureWeight Feature.FeatureWeight} objects.
+ * org.apache.solr.ltr.feature.Feature.FeatureWeight Feature.FeatureWeight} objects. The {@link
+ * LTRRescorer} also uses it to score the documents of different segments of the rerank window in
+ * parallel.
  *
  * <p>Example configuration:
  *
@@ -154,7 +156,11 @@ public final class LTRThreadModule implements NamedListInitializedPlugin {
     ltrSemaphore.acquire();
   }
 
-  public void releaseLTRSemaphore() throws InterruptedException {
+  public boolean tryAcquireLTRSemaphore() {
+    return ltrSemaphore.tryAcquire();
+  }
+
+  public void releaseLTRSemaphore() {
     ltrSemaphore.release();
   }
 
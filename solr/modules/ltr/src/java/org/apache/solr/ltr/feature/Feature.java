@@ -33,6 +33,8 @@ import org.apache.solr.core.SolrResourceLoader;
 import org.apache.solr.ltr.DocInfo;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.request.macro.MacroExpander;
+import org.apache.solr.search.SolrCache;
+import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.util.SolrPluginUtils;
 
 /**
@@ -63,6 +65,12 @@ import org.apache.solr.util.SolrPluginUtils;
 public abstract class Feature extends Query implements Accountable {
   private static final long BASE_RAM_BYTES = RamUsageEstimator.shallowSizeOfInstance(Feature.class);
 
+  /**
+   * The name of the optional user cache holding the {@link FeatureColumn}s of the query independent
+   * features (see {@link FeatureWeight#isQueryIndependent()})
+   */
+  public static final String CACHE_NAME = "ltrFeatureCache";
+
   protected final String name;
   private int index = -1;
   private float defaultValue = 0.0f;
@@ -270,6 +278,36 @@ public abstract class Feature extends Query implements Accountable {
     @Override
     public abstract FeatureScorer scorer(LeafReaderContext context) throws IOException;
 
+    /**
+     * Whether the values of this feature only depend on the document, not on the query, the request
+     * or the external feature info, so that they can be computed once per searcher. False unless
+     * the feature overrides it.
+     */
+    public boolean isQueryIndependent() {
+      return false;
+    }
+
+    /**
+     * The {@link #scorer(LeafReaderContext)} of this feature, or a scorer reading the {@link
+     * FeatureColumn} of the segment from the {@link Feature#CACHE_NAME} cache if the feature is
+     * query independent and the cache is configured. The column is computed on first use.
+     */
+    public FeatureScorer cachedScorer(LeafReaderContext context) throws IOException {
+      final SolrCache<Object, Object> featureCache =
+          isQueryIndependent() && searcher instanceof SolrIndexSearcher
+              ? ((SolrIndexSearcher) searcher).getCache(CACHE_NAME)
+              : null;
+      if (featureCache == null) {
+        return scorer(context);
+      }
+      final FeatureColumn column =
+          (FeatureColumn)
+              featureCache.computeIfAbsent(
+                  FeatureColumn.cacheKey(Feature.this, context.ord),
+                  key -> FeatureColumn.create(scorer(context), context.reader().maxDoc()));
+      return new ColumnFeatureScorer(this, column);
+    }
+
     @Override
     public boolean isCacheable(LeafReaderContext ctx) {
       return false;
@@ -398,5 +436,25 @@ public abstract class Feature extends Query implements Accountable {
         return constScore;
       }
     }
+
+    /** A FeatureScorer that reads the values of the documents from a {@link FeatureColumn} */
+    public class ColumnFeatureScorer extends FeatureScorer {
+      private final FeatureColumn column;
+
+      public ColumnFeatureScorer(FeatureWeight weight, FeatureColumn column) {
+        super(weight, column.iterator());
+        this.column = column;
+      }
+
+      @Override
+      public float score() {
+        return column.getValue(itr.docID());
+      }
+
+      @Override
+      public float getMaxScore(int upTo) throws IOException {
+        return Float.POSITIVE_INFINITY;
+      }
+    }
   }
 }
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.ltr.feature;
+
+import java.io.IOException;
+import java.util.Objects;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BitSetIterator;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * The values of a query independent feature for every document of a segment, laid out in a single
+ * array indexed by document. Columns are kept in the optional {@link Feature#CACHE_NAME} user cache
+ * of the searcher, so that features such as {@link FieldValueFeature} or {@link FieldLengthFeature}
+ * are only read once per segment and searcher instead of once per document and request.
+ *
+ * @lucene.experimental
+ */
+public final class FeatureColumn implements Accountable {
+
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(FeatureColumn.class);
+
+  private final float[] values;
+  // the documents the feature scorer matched, the others get the default value of the feature
+  private final FixedBitSet docs;
+
+  private FeatureColumn(float[] values, FixedBitSet docs) {
+    this.values = values;
+    this.docs = docs;
+  }
+
+  /**
+   * Scores every document of the segment the scorer comes from.
+   *
+   * @param scorer the scorer of the feature, possibly null if no document has a value
+   * @param maxDoc the number of documents in the segment
+   */
+  static FeatureColumn create(Feature.FeatureWeight.FeatureScorer scorer, int maxDoc)
+      throws IOException {
+    final float[] values = new float[maxDoc];
+    final FixedBitSet docs = new FixedBitSet(maxDoc);
+    if (scorer != null) {
+      final DocIdSetIterator iterator = scorer.iterator();
+      // some feature scorers iterate past the last document of the segment
+      for (int doc = iterator.nextDoc(); doc < maxDoc; doc = iterator.nextDoc()) {
+        docs.set(doc);
+        values[doc] = scorer.score();
+      }
+    }
+    return new FeatureColumn(values, docs);
+  }
+
+  static Object cacheKey(Feature feature, int leafOrd) {
+    return new Key(feature, leafOrd);
+  }
+
+  /** Iterates over the documents having a value */
+  public DocIdSetIterator iterator() {
+    return new BitSetIterator(docs, docs.approximateCardinality());
+  }
+
+  /** The value of a document the {@link #iterator()} is positioned on */
+  public float getValue(int doc) {
+    return values[doc];
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOf(values) + docs.ramBytesUsed();
+  }
+
+  private static final class Key {
+    private final Feature feature;
+    private final int leafOrd;
+
+    private Key(Feature feature, int leafOrd) {
+      this.feature = feature;
+      this.leafOrd = leafOrd;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      Key other = (Key) o;
+      return leafOrd == other.leafOrd && feature.equals(other.feature);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(feature, leafOrd);
+    }
+  }
+}
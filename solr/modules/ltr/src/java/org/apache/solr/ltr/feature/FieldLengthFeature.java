@@ -114,6 +114,11 @@ public class FieldLengthFeature extends Feature {
       super(FieldLengthFeature.this, searcher, request, originalQuery, efi);
     }
 
+    @Override
+    public boolean isQueryIndependent() {
+      return true;
+    }
+
     @Override
     public FeatureScorer scorer(LeafReaderContext context) throws IOException {
       NumericDocValues norms = context.reader().getNormValues(field);
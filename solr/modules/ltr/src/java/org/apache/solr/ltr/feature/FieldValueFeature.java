@@ -125,6 +125,15 @@ public class FieldValueFeature extends Feature {
       }
     }
 
+    /**
+     * The values read from docValues are query independent, while the stored fields are only read
+     * for the documents being reranked.
+     */
+    @Override
+    public boolean isQueryIndependent() {
+      return schemaField != null && !schemaField.stored() && schemaField.hasDocValues();
+    }
+
     /**
      * Return a FeatureScorer that uses docValues or storedFields if no docValues are present
      *
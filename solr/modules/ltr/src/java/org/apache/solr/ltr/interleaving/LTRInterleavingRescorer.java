@@ -96,11 +96,21 @@ public class LTRInterleavingRescorer extends LTRRescorer {
     final List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
     LTRScoringQuery.ModelWeight[] modelWeights =
         new LTRScoringQuery.ModelWeight[rerankingQueries.length];
-    for (int i = 0; i < rerankingQueries.length; i++) {
-      if (originalRankingIndex == null || originalRankingIndex != i) {
-        modelWeights[i] =
-            (LTRScoringQuery.ModelWeight)
-                searcher.createWeight(searcher.rewrite(rerankingQueries[i]), ScoreMode.COMPLETE, 1);
+    if (originalRankingIndex == null
+        && rerankingQueries[1].canShareFeaturesWith(rerankingQueries[0])) {
+      // the features are extracted once per document, for both models
+      modelWeights[0] =
+          rerankingQueries[0].createWeight(
+              searcher, ScoreMode.COMPLETE, rerankingQueries[1].getExtractedFeatures());
+      modelWeights[1] = rerankingQueries[1].createSharedWeight(modelWeights[0]);
+    } else {
+      for (int i = 0; i < rerankingQueries.length; i++) {
+        if (originalRankingIndex == null || originalRankingIndex != i) {
+          modelWeights[i] =
+              (LTRScoringQuery.ModelWeight)
+                  searcher.createWeight(
+                      searcher.rewrite(rerankingQueries[i]), ScoreMode.COMPLETE, 1);
+        }
       }
     }
     scoreFeatures(searcher, topN, modelWeights, firstPassResults, leaves, reRankedPerModel);
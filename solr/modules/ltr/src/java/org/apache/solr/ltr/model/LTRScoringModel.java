@@ -293,6 +293,25 @@ public abstract class LTRScoringModel implements Accountable {
    */
   public abstract float score(float[] modelFeatureValuesNormalized);
 
+  /**
+   * Calculates the scores of a block of documents at once. Models can override it to score the
+   * block faster than one {@link #score(float[])} call per document.
+   *
+   * @param modelFeatureValuesNormalized The normalized feature values of the documents, laid out
+   *     one document after the other, each the size of {@link #getFeatures()}
+   * @param numDocs The number of documents in the block
+   * @param scores Receives the score of the i-th document at index i
+   */
+  public void scoreBlock(float[] modelFeatureValuesNormalized, int numDocs, float[] scores) {
+    final int featureCount = getFeatures().size();
+    final float[] docFeatureValues = new float[featureCount];
+    for (int doc = 0; doc < numDocs; doc++) {
+      System.arraycopy(
+          modelFeatureValuesNormalized, doc * featureCount, docFeatureValues, 0, featureCount);
+      scores[doc] = score(docFeatureValues);
+    }
+  }
+
   /**
    * Similar to the score() function, except it returns an explanation of how the features were used
    * to calculate the score.
@@ -17,12 +17,14 @@
 package org.apache.solr.ltr.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.Explanation;
+import org.apache.lucene.util.RamUsageEstimator;
 import org.apache.solr.ltr.feature.Feature;
 import org.apache.solr.ltr.norm.Normalizer;
 import org.apache.solr.util.SolrPluginUtils;
@@ -110,6 +112,20 @@ public class MultipleAdditiveTreesModel extends LTRScoringModel {
    */
   private List<RegressionTree> trees;
 
+  /*
+   * The trees compiled into flat arrays once they are validated, so that scoring walks primitive
+   * arrays instead of node objects. The nodes of every tree are laid out in pre-order: the left
+   * child of a split node is the node right after it and the right child is at nodeRightChildren.
+   * Leaves have a LEAF_NODE feature index and a value already multiplied by the tree weight, nodes
+   * splitting on a feature that isn't part of the model are leaves worth 0.
+   */
+  private static final int LEAF_NODE = -1;
+  private int[] treeRoots;
+  private int[] nodeFeatureIndexes;
+  private float[] nodeThresholds;
+  private int[] nodeRightChildren;
+  private float[] nodeValues;
+
   private RegressionTree createRegressionTree(Map<String, Object> map) {
     final RegressionTree rt = new RegressionTree();
     if (map != null) {
@@ -276,17 +292,110 @@ public class MultipleAdditiveTreesModel extends LTRScoringModel {
     for (RegressionTree tree : trees) {
       tree.validate();
     }
+    compileTrees();
+  }
+
+  private void compileTrees() {
+    int nodeCount = 0;
+    for (RegressionTree tree : trees) {
+      nodeCount += countNodes(tree.root);
+    }
+    treeRoots = new int[trees.size()];
+    nodeFeatureIndexes = new int[nodeCount];
+    nodeThresholds = new float[nodeCount];
+    nodeRightChildren = new int[nodeCount];
+    nodeValues = new float[nodeCount];
+
+    int nextNode = 0;
+    for (int i = 0; i < treeRoots.length; i++) {
+      final RegressionTree tree = trees.get(i);
+      treeRoots[i] = nextNode;
+      nextNode = compileNode(tree.root, tree.weight.floatValue(), nextNode);
+    }
+  }
+
+  private static int countNodes(RegressionTreeNode regressionTreeNode) {
+    if (regressionTreeNode.isLeaf() || regressionTreeNode.featureIndex < 0) {
+      return 1;
+    }
+    return 1 + countNodes(regressionTreeNode.left) + countNodes(regressionTreeNode.right);
+  }
+
+  /** Writes the node and its children from <code>node</code> on and returns the next free node. */
+  private int compileNode(RegressionTreeNode regressionTreeNode, float weight, int node) {
+    if (regressionTreeNode.isLeaf()) {
+      nodeFeatureIndexes[node] = LEAF_NODE;
+      nodeValues[node] = weight * regressionTreeNode.value;
+      return node + 1;
+    }
+    // unsupported feature (tree is looking for a feature that does not exist)
+    if (regressionTreeNode.featureIndex < 0) {
+      nodeFeatureIndexes[node] = LEAF_NODE;
+      nodeValues[node] = 0f;
+      return node + 1;
+    }
+    nodeFeatureIndexes[node] = regressionTreeNode.featureIndex;
+    nodeThresholds[node] = regressionTreeNode.threshold;
+    final int rightNode = compileNode(regressionTreeNode.left, weight, node + 1);
+    nodeRightChildren[node] = rightNode;
+    return compileNode(regressionTreeNode.right, weight, rightNode);
   }
 
   @Override
   public float score(float[] modelFeatureValuesNormalized) {
+    if (modelFeatureValuesNormalized.length < features.size()) {
+      // the compiled trees don't check the feature indexes against the vector length
+      float score = 0;
+      for (final RegressionTree t : trees) {
+        score += t.score(modelFeatureValuesNormalized);
+      }
+      return score;
+    }
     float score = 0;
-    for (final RegressionTree t : trees) {
-      score += t.score(modelFeatureValuesNormalized);
+    for (final int root : treeRoots) {
+      score += scoreCompiledTree(root, modelFeatureValuesNormalized, 0);
     }
     return score;
   }
 
+  /**
+   * Scores the block one tree at a time rather than one document at a time, so that the nodes of a
+   * tree are walked for every document of the block while they are still in the CPU caches.
+   */
+  @Override
+  public void scoreBlock(float[] modelFeatureValuesNormalized, int numDocs, float[] scores) {
+    final int featureCount = features.size();
+    Arrays.fill(scores, 0, numDocs, 0f);
+    for (final int root : treeRoots) {
+      for (int doc = 0, offset = 0; doc < numDocs; doc++, offset += featureCount) {
+        scores[doc] += scoreCompiledTree(root, modelFeatureValuesNormalized, offset);
+      }
+    }
+  }
+
+  /** The weighted value of the tree at <code>node</code> for the feature vector at offset. */
+  private float scoreCompiledTree(int node, float[] featureVectors, int offset) {
+    int featureIndex;
+    while ((featureIndex = nodeFeatureIndexes[node]) != LEAF_NODE) {
+      if (featureVectors[offset + featureIndex] <= nodeThresholds[node]) {
+        node++;
+      } else {
+        node = nodeRightChildren[node];
+      }
+    }
+    return nodeValues[node];
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return super.ramBytesUsed()
+        + RamUsageEstimator.sizeOf(treeRoots)
+        + RamUsageEstimator.sizeOf(nodeFeatureIndexes)
+        + RamUsageEstimator.sizeOf(nodeThresholds)
+        + RamUsageEstimator.sizeOf(nodeRightChildren)
+        + RamUsageEstimator.sizeOf(nodeValues);
+  }
+
   private static float scoreNode(float[] featureVector, RegressionTreeNode regressionTreeNode) {
     while (true) {
       if (regressionTreeNode.isLeaf()) {
@@ -152,6 +152,11 @@ public abstract class WrapperModel extends AdapterModel {
     return model.score(modelFeatureValuesNormalized);
   }
 
+  @Override
+  public void scoreBlock(float[] modelFeatureValuesNormalized, int numDocs, float[] scores) {
+    model.scoreBlock(modelFeatureValuesNormalized, numDocs, scores);
+  }
+
   @Override
   public Explanation explain(
       LeafReaderContext context, int doc, float finalScore, List<Explanation> featureExplanations) {
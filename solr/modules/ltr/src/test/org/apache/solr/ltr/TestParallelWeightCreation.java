@@ -16,7 +16,10 @@
  */
 package org.apache.solr.ltr;
 
+import java.util.List;
+import java.util.Map;
 import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.common.util.Utils;
 import org.junit.Test;
 
 public class TestParallelWeightCreation extends TestRerankBase {
@@ -50,6 +53,75 @@ public class TestParallelWeightCreation extends TestRerankBase {
     aftertest();
   }
 
+  @Test
+  public void testLTRRescorerParallelSegmentScoringResultOrder() throws Exception {
+    setuptest("solrconfig-ltr_Th10_10.xml", "schema.xml");
+
+    // one segment per document, so that the rerank window is scored by several threads
+    assertU(adoc("id", "1", "title", "w1 w3", "description", "w1", "popularity", "1"));
+    assertU(commit());
+    assertU(adoc("id", "2", "title", "w2", "description", "w2", "popularity", "2"));
+    assertU(commit());
+    assertU(adoc("id", "3", "title", "w3", "description", "w3", "popularity", "3"));
+    assertU(commit());
+    assertU(adoc("id", "4", "title", "w3 w3", "description", "w4", "popularity", "4"));
+    assertU(commit());
+    assertU(adoc("id", "5", "title", "w5", "description", "w5", "popularity", "5"));
+    assertU(commit());
+
+    loadFeatures("external_features.json");
+    loadModels("external_model.json");
+
+    final SolrQuery query = new SolrQuery();
+    query.setQuery("*:*");
+    query.add("fl", "*,score");
+    query.add("rows", "4");
+
+    query.add("rq", "{!ltr reRankDocs=10 model=externalmodel efi.user_query=w3}");
+    assertJQ("/query" + query.toQueryString(), "/response/docs/[0]/id=='4'");
+    assertJQ("/query" + query.toQueryString(), "/response/docs/[1]/id=='3'");
+    assertJQ("/query" + query.toQueryString(), "/response/docs/[2]/id=='1'");
+
+    // logging the features scores the rerank window sequentially, one document at a time
+    query.set("rows", "5");
+    query.set("fl", "id,score");
+    final List<?> parallelDocs = getDocs(query);
+    query.set("fl", "id,score,[fv]");
+    final List<?> sequentialDocs = getDocs(query);
+    assertEquals(5, parallelDocs.size());
+    assertEquals(sequentialDocs.size(), parallelDocs.size());
+    for (int i = 0; i < parallelDocs.size(); i++) {
+      final Map<?, ?> parallelDoc = (Map<?, ?>) parallelDocs.get(i);
+      final Map<?, ?> sequentialDoc = (Map<?, ?>) sequentialDocs.get(i);
+      assertEquals(sequentialDoc.get("id"), parallelDoc.get("id"));
+      final float score = ((Number) parallelDoc.get("score")).floatValue();
+      assertEquals(((Number) sequentialDoc.get("score")).floatValue(), score, 0f);
+      // the model's only feature has the same value as when scored sequentially
+      final float titlePhraseMatch =
+          getFeatureValue((String) sequentialDoc.get("[fv]"), "titlePhraseMatch");
+      assertEquals(0.555f * titlePhraseMatch, score, 0.0001f);
+    }
+    aftertest();
+  }
+
+  private static List<?> getDocs(SolrQuery query) throws Exception {
+    final Map<?, ?> rsp =
+        (Map<?, ?>) Utils.fromJSONString(restTestHarness.query("/query" + query.toQueryString()));
+    return (List<?>) ((Map<?, ?>) rsp.get("response")).get("docs");
+  }
+
+  private static float getFeatureValue(String featureVector, String featureName) {
+    final String featureSeparator = String.valueOf(CSVFeatureLogger.DEFAULT_FEATURE_SEPARATOR);
+    final String keyValueSeparator = String.valueOf(CSVFeatureLogger.DEFAULT_KEY_VALUE_SEPARATOR);
+    for (String feature : featureVector.split(featureSeparator)) {
+      final String[] nameAndValue = feature.split(keyValueSeparator);
+      if (nameAndValue[0].equals(featureName)) {
+        return Float.parseFloat(nameAndValue[1]);
+      }
+    }
+    return 0f; // sparse feature vectors leave out the features with no value
+  }
+
   @Test
   public void testLTRQParserThreadInitialization() throws Exception {
     // setting the value of number of threads to -ve should throw an exception
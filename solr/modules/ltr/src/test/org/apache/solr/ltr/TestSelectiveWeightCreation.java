@@ -41,6 +41,7 @@ import org.apache.lucene.store.Directory;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.ltr.feature.Feature;
 import org.apache.solr.ltr.feature.ValueFeature;
+import org.apache.solr.ltr.interleaving.LTRInterleavingScoringQuery;
 import org.apache.solr.ltr.model.LTRScoringModel;
 import org.apache.solr.ltr.model.ModelException;
 import org.apache.solr.ltr.model.TestLinearModel;
@@ -209,6 +210,91 @@ public class TestSelectiveWeightCreation extends TestRerankBase {
     dir.close();
   }
 
+  @Test
+  public void testSharedWeightCreation() throws IOException, ModelException {
+    final Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    Document doc = new Document();
+    doc.add(newStringField("id", "10", Field.Store.YES));
+    w.addDocument(doc);
+    final IndexReader r = w.getReader();
+    w.close();
+    final IndexSearcher searcher = getSearcher(r);
+    final LeafReaderContext context = searcher.getTopReaderContext().leaves().get(0);
+
+    final List<Feature> allFeatures = makeFeatures(new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9});
+    final List<Feature> features0 = makeFeatures(new int[] {0, 1, 2});
+    final List<Feature> features1 = makeFeatures(new int[] {2, 3});
+    final LTRScoringQuery query0 =
+        new LTRInterleavingScoringQuery(createModel("model0", features0, "test", allFeatures));
+    final LTRScoringQuery query1 =
+        new LTRInterleavingScoringQuery(createModel("model1", features1, "test", allFeatures));
+    final LTRScoringQuery otherStoreQuery =
+        new LTRInterleavingScoringQuery(createModel("model2", features1, "other", allFeatures));
+    assertTrue(query1.canShareFeaturesWith(query0));
+    assertFalse(otherStoreQuery.canShareFeaturesWith(query0));
+
+    // the features of both models are extracted once, by the weight of the first one
+    final LTRScoringQuery.ModelWeight weight0 =
+        query0.createWeight(searcher, ScoreMode.COMPLETE, query1.getExtractedFeatures());
+    final LTRScoringQuery.ModelWeight weight1 = query1.createSharedWeight(weight0);
+    assertEquals(4, weight0.getExtractedFeatureWeights().length);
+    final LTRScoringQuery.ModelWeight.ModelScorer scorer0 = weight0.scorer(context);
+    scorer0.iterator().advance(0);
+    final float score0 = scorer0.score();
+    final LTRScoringQuery.ModelWeight.ModelScorer scorer1 = weight1.scorer(context);
+    scorer1.iterator().advance(0);
+    final float score1 = scorer1.score();
+
+    // the models score the same as with features of their own
+    assertEquals(score(searcher, context, query0), score0, 0f);
+    assertEquals(score(searcher, context, query1), score1, 0f);
+
+    // and each of them only logs its own features
+    assertFeaturesInfo(new String[] {"f0", "f1", "f2"}, weight0.getFeaturesInfo());
+    assertFeaturesInfo(new String[] {"f2", "f3"}, weight1.getFeaturesInfo());
+
+    r.close();
+    dir.close();
+  }
+
+  private static LTRScoringModel createModel(
+      String name, List<Feature> features, String featureStoreName, List<Feature> allFeatures)
+      throws ModelException {
+    final List<Normalizer> norms = new ArrayList<>();
+    for (int k = 0; k < features.size(); ++k) {
+      norms.add(IdentityNormalizer.INSTANCE);
+    }
+    return TestLinearModel.createLinearModel(
+        name,
+        features,
+        norms,
+        featureStoreName,
+        allFeatures,
+        TestLinearModel.makeFeatureWeights(features));
+  }
+
+  private static float score(
+      IndexSearcher searcher, LeafReaderContext context, LTRScoringQuery query)
+      throws IOException {
+    final Scorer scorer =
+        searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE, 1).scorer(context);
+    scorer.iterator().advance(0);
+    return scorer.score();
+  }
+
+  private static void assertFeaturesInfo(
+      String[] expectedNames, LTRScoringQuery.FeatureInfo[] featuresInfo) {
+    final List<String> names = new ArrayList<>();
+    for (LTRScoringQuery.FeatureInfo featureInfo : featuresInfo) {
+      if (featureInfo != null) {
+        assertTrue(featureInfo.isUsed());
+        names.add(featureInfo.getName());
+      }
+    }
+    assertEquals(List.of(expectedNames), names);
+  }
+
   @Test
   public void testSelectiveWeightsRequestFeaturesFromDifferentStore() throws Exception {
 
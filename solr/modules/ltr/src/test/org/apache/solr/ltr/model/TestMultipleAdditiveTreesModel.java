@@ -118,6 +118,32 @@ public class TestMultipleAdditiveTreesModel extends TestRerankBase {
     assertThat(qryResult, containsString(" Go Left "));
   }
 
+  @Test
+  public void testScoreBlock() throws Exception {
+    final LTRScoringModel model =
+        createModelFromFiles(
+            "multipleadditivetreesmodel.json", "multipleadditivetreesmodel_features.json");
+
+    // -100 or 50 or 75 from the first tree, 2 * -10 from the second one
+    final float[][] featureVectors = {{0f, 1f}, {1f, 1f}, {1f, 20f}};
+    final float[] expectedScores = {-120f, 30f, 55f};
+    for (int i = 0; i < featureVectors.length; i++) {
+      assertEquals(expectedScores[i], model.score(featureVectors[i]), 0f);
+    }
+
+    final float[] block = new float[featureVectors.length * 2];
+    for (int i = 0; i < featureVectors.length; i++) {
+      System.arraycopy(featureVectors[i], 0, block, i * 2, 2);
+    }
+    final float[] scores = new float[featureVectors.length + 1];
+    scores[featureVectors.length] = 42f;
+    model.scoreBlock(block, featureVectors.length, scores);
+    for (int i = 0; i < featureVectors.length; i++) {
+      assertEquals(expectedScores[i], scores[i], 0f);
+    }
+    assertEquals("only numDocs scores are written", 42f, scores[featureVectors.length], 0f);
+  }
+
   @Test
   public void multipleAdditiveTreesTestNoParams() throws Exception {
     final ModelException expectedException =
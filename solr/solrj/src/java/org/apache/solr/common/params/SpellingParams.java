@@ -156,6 +156,15 @@ public interface SpellingParams {
   public static final String SPELLCHECK_COLLATE_EXTENDED_RESULTS =
       SPELLCHECK_PREFIX + "collateExtendedResults";
 
+  /**
+   * For use with {@link SpellingParams#SPELLCHECK_MAX_COLLATION_TRIES}. If true, collation
+   * candidates whose corrected terms do not all occur together in at least one document of the
+   * index are skipped without being tested, and do not count as tries. Only use this if collations
+   * need all of their terms to match, for instance with "q.op=AND" or "mm=100%". Default=false.
+   */
+  public static final String SPELLCHECK_COLLATE_PRUNE_CANDIDATES =
+      SPELLCHECK_PREFIX + "collatePruneCandidates";
+
   /**
    * For use with {@link SpellingParams#SPELLCHECK_MAX_COLLATION_TRIES}, use this to override any
    * original query parameters when issuing test queries. For instance, if the original query has